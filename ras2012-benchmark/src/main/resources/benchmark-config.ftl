@@ -24,6 +24,9 @@
   <solverBenchmark>
     <name>${item[0]}-${item[1]}-AS${item[2]}-PRB${item[5]}</name>
     <solver>
+      <customSolverPhase>
+        <customSolverPhaseCommandClass>org.drools.planner.examples.ras2012.ConstructionHeuristic</customSolverPhaseCommandClass>
+      </customSolverPhase>
       <localSearch>
         <termination>
           <maximumMinutesSpend>3</maximumMinutesSpend>
@@ -43,10 +46,22 @@
             <fixedProbabilityWeight>${item[5]}</fixedProbabilityWeight>
             <moveIteratorFactoryClass>org.drools.planner.examples.ras2012.move.WaitTimeAssignmentMoveFactory</moveIteratorFactoryClass>
           </moveIteratorFactory>
+          <moveIteratorFactory>
+            <fixedProbabilityWeight>4</fixedProbabilityWeight>
+            <moveIteratorFactoryClass>org.drools.planner.examples.ras2012.move.ConflictDirectedMoveFactory</moveIteratorFactoryClass>
+          </moveIteratorFactory>
+          <moveIteratorFactory>
+            <fixedProbabilityWeight>2</fixedProbabilityWeight>
+            <moveIteratorFactoryClass>org.drools.planner.examples.ras2012.move.WaitTimeShiftMoveFactory</moveIteratorFactoryClass>
+          </moveIteratorFactory>
           <moveIteratorFactory>
             <fixedProbabilityWeight>1</fixedProbabilityWeight>
             <moveIteratorFactoryClass>org.drools.planner.examples.ras2012.move.RouteReassignmentMoveFactory</moveIteratorFactoryClass>
           </moveIteratorFactory>
+          <moveIteratorFactory>
+            <fixedProbabilityWeight>1</fixedProbabilityWeight>
+            <moveIteratorFactoryClass>org.drools.planner.examples.ras2012.move.MeetPassMoveFactory</moveIteratorFactoryClass>
+          </moveIteratorFactory>
         </unionMoveSelector>
       </localSearch>
     </solver>
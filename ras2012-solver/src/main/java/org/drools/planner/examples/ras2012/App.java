@@ -1,28 +1,46 @@
 package org.drools.planner.examples.ras2012;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
-import org.drools.planner.config.EnvironmentMode;
-import org.drools.planner.config.XmlSolverFactory;
+import org.drools.planner.config.localsearch.LocalSearchSolverPhaseConfig;
+import org.drools.planner.config.phase.SolverPhaseConfig;
+import org.drools.planner.config.phase.custom.CustomSolverPhaseConfig;
 import org.drools.planner.config.solver.SolverConfig;
+import org.drools.planner.config.termination.TerminationConfig;
+import org.drools.planner.config.termination.TerminationConfig.TerminationCompositionStyle;
+import org.drools.planner.core.event.BestSolutionChangedEvent;
+import org.drools.planner.core.event.SolverEventListener;
 import org.drools.planner.core.score.buildin.hardandsoft.HardAndSoftScore;
 import org.drools.planner.core.solver.DefaultSolver;
 import org.drools.planner.examples.ras2012.CLI.ApplicationMode;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.util.AnytimeProfile;
+import org.drools.planner.examples.ras2012.util.BestSolutionExporter;
 import org.drools.planner.examples.ras2012.util.Chart;
+import org.drools.planner.examples.ras2012.util.ProblemCache;
+import org.drools.planner.examples.ras2012.util.RandomAccessor;
+import org.drools.planner.examples.ras2012.util.ResultWriter;
 import org.drools.planner.examples.ras2012.util.SolutionIO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,7 +50,8 @@ import org.slf4j.LoggerFactory;
  * 
  * <ul>
  * <li>The solver mode takes a user-provided data set, runs Drools Planner and outputs the result.</li>
- * <li>The lookup mode tries to find best solutions for every known data set.</li>
+ * <li>The lookup mode tries to find best solutions for every known data set. Optionally, it cancels solvers that fall behind
+ * the others, or it has the solvers share their best solutions.</li>
  * <li>The evaluation mode takes a user-provided data set and a solution from that data set and calculates its score.</li>
  * </ul>
  * 
@@ -46,82 +65,373 @@ public class App {
      */
     private static class SolverRunner implements Callable<HardAndSoftScore> {
 
-        private final InputStream   dataset;
-        private final String        name;
-        private final long          seed;
+        private final SolverTemplate       template;
+        private final ResultWriter         writer;
+        private final ProblemSolution      problem;
+        private final ProblemCache         problems;
+        private final String               name;
+        private final long                 seed;
+        private final Portfolio            portfolio;
+        private final BestSolutionExporter exporter;
+        private final AnytimeProfile       profile = new AnytimeProfile();
 
-        private static final Random RANDOM = new Random(System.nanoTime());
+        /**
+         * 
+         * @param template Template to build the solver from.
+         * @param writer Where to write the solution when the solver is finished.
+         * @param problem The problem to execute Drools Planner on. No other solver may work on the same instance.
+         * @param name Name of the data set.
+         * @param seed Random seed for the solver. If < 0, a random seed will be used.
+         */
+        public SolverRunner(final SolverTemplate template, final ResultWriter writer,
+                final ProblemSolution problem, final String name, final long seed) {
+            this(template, writer, problem, name, seed, null, null);
+        }
+
+        /**
+         * 
+         * @param template Template to build the solver from.
+         * @param writer Where to write the solution when the solver is finished.
+         * @param problems Where to take a fresh copy of the data set from, once the solver starts.
+         * @param name Name of the data set.
+         * @param seed Random seed for the solver. If < 0, a random seed will be used.
+         * @param portfolio Portfolio that may cancel the solver when it falls behind, null if none. Cancelled solvers write
+         *            no solution and return null.
+         */
+        public SolverRunner(final SolverTemplate template, final ResultWriter writer,
+                final ProblemCache problems, final String name, final long seed,
+                final Portfolio portfolio) {
+            this(template, writer, null, problems, name, seed, portfolio, null);
+        }
 
         /**
          * 
-         * @param dataset The data set to execute Drools Planner on.
+         * @param template Template to build the solver from.
+         * @param writer Where to write the solution when the solver is finished.
+         * @param problem The problem to execute Drools Planner on. No other solver may work on the same instance.
          * @param name Name of the data set.
-         * @param seed Random seed for the solver. If < 0, Planner will be set to decide automatically.
+         * @param seed Random seed for the solver. If < 0, a random seed will be used.
+         * @param portfolio Portfolio that may cancel the solver when it falls behind, null if none. Cancelled solvers write
+         *            no solution and return null.
+         * @param exporter Where to export every new best solution as soon as it is found, null if nowhere.
          */
-        public SolverRunner(final InputStream dataset, final String name, final long seed) {
-            this.dataset = dataset;
+        public SolverRunner(final SolverTemplate template, final ResultWriter writer,
+                final ProblemSolution problem, final String name, final long seed,
+                final Portfolio portfolio, final BestSolutionExporter exporter) {
+            this(template, writer, problem, null, name, seed, portfolio, exporter);
+        }
+
+        private SolverRunner(final SolverTemplate template, final ResultWriter writer,
+                final ProblemSolution problem, final ProblemCache problems, final String name,
+                final long seed, final Portfolio portfolio, final BestSolutionExporter exporter) {
+            this.template = template;
+            this.writer = writer;
+            this.problem = problem;
+            this.problems = problems;
             this.name = name;
             this.seed = seed;
+            this.portfolio = portfolio;
+            this.exporter = exporter;
         }
 
         @Override
         public HardAndSoftScore call() {
             App.logger.info(this.name + " solver starting...");
-            final SolutionIO io = new SolutionIO();
-            ProblemSolution sol;
+            final DefaultSolver solver = this.template.buildSolver(this.seed);
+            // copies from the cache are only made when they are needed, not all of them up front
+            solver.setPlanningProblem(this.problem == null ? this.problems.getProblem(this.name)
+                    : this.problem);
+            solver.addSolverPhaseLifecycleListener(this.profile);
+            if (this.exporter != null) {
+                solver.addEventListener(this.exporter);
+            }
+            if (this.portfolio == null) {
+                solver.solve();
+            } else {
+                this.portfolio.register(solver);
+                boolean cancelled = false;
+                try {
+                    solver.solve();
+                } finally {
+                    cancelled = this.portfolio.unregister(solver);
+                }
+                if (cancelled) {
+                    App.logger.info(this.name + " solver cancelled by the portfolio.");
+                    return null;
+                }
+            }
+            // output the solution
+            final ProblemSolution sol = (ProblemSolution) solver.getBestSolution();
+            App.logger.info("Solver finished. Score: " + sol.getScore());
+            this.writer.write(sol, this.name, solver.getRandomSeed());
+            return sol.getScore();
+        }
+
+        /**
+         * How the best score evolved while the solver was running.
+         * 
+         * @return The profile. Only complete after the solver has finished.
+         */
+        public AnytimeProfile getProfile() {
+            return this.profile;
+        }
+    }
+
+    /**
+     * Executes Drools Planner on a particular data set repeatedly, until the time runs out. Every run ends as soon as it stops
+     * improving. The next run then starts from a perturbed solution out of the {@link ElitePool} that the runner shares with
+     * other runners on the same data set, instead of starting from scratch.
+     */
+    private static class CooperativeRunner implements Callable<ProblemSolution> {
+
+        /**
+         * How big a part of the trains to move away from the elite solution before a run starts from it.
+         */
+        private static final double  PERTURBED_SHARE = 0.1;
+
+        private final String         name;
+        private final ProblemCache   problems;
+        private final SolverTemplate fromScratch;
+        private final SolverTemplate fromElite;
+        private final ElitePool      pool;
+        private final long           deadline;
+        private final Random         random          = new Random(System.nanoTime());
+
+        /**
+         * 
+         * @param name Name of the data set.
+         * @param problems Where to get the data set from.
+         * @param fromScratch Template for solvers that start from a freshly constructed solution. See
+         *            {@link App#createCooperativeTemplate(boolean)}.
+         * @param fromElite Template for solvers that start from an elite solution.
+         * @param pool Where to publish the best solutions and where to take the restarts from.
+         * @param deadline When to stop, as per {@link System#currentTimeMillis()}.
+         */
+        public CooperativeRunner(final String name, final ProblemCache problems,
+                final SolverTemplate fromScratch, final SolverTemplate fromElite,
+                final ElitePool pool, final long deadline) {
+            this.name = name;
+            this.problems = problems;
+            this.fromScratch = fromScratch;
+            this.fromElite = fromElite;
+            this.pool = pool;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public ProblemSolution call() {
+            App.logger.info(this.name + " cooperative solver starting...");
+            final ProblemSolution problem;
             try {
-                sol = io.read(this.dataset);
+                problem = this.problems.getProblem(this.name);
             } catch (final Exception e) {
                 App.logger.error("Solver " + this.name + " finished unexpectedly. Cause: ", e);
                 return null;
             }
-            // and now start solving
-            final XmlSolverFactory configurer = new XmlSolverFactory();
-            configurer.configure(App.class.getResourceAsStream("/solverConfig.xml"));
-            final SolverConfig solverConfig = configurer.getSolverConfig();
-            App.logger
-                    .info("Overriding Planner enviromnent mode (from {} to {}) to be able to capture the seed.",
-                            new Object[] { solverConfig.getEnvironmentMode(),
-                                    EnvironmentMode.REPRODUCIBLE });
-            solverConfig.setEnvironmentMode(EnvironmentMode.REPRODUCIBLE);
-            if (this.seed >= 0) {
-                solverConfig.setRandomSeed(this.seed);
-            } else {
-                solverConfig.setRandomSeed(Long.valueOf(SolverRunner.RANDOM.nextInt()));
+            final SolverEventListener publisher = new SolverEventListener() {
+
+                @Override
+                public void bestSolutionChanged(final BestSolutionChangedEvent event) {
+                    CooperativeRunner.this.pool.offer((ProblemSolution) event
+                            .getNewBestSolution());
+                }
+
+            };
+            ProblemSolution best = null;
+            int runs = 0;
+            while (true) {
+                final long remaining = this.deadline - System.currentTimeMillis();
+                if (remaining < TimeUnit.SECONDS.toMillis(1)) {
+                    break;
+                }
+                final ProblemSolution start = (ProblemSolution) problem.cloneSolution();
+                final ElitePool.Elite elite = runs == 0 ? null : this.pool.pick(this.random);
+                if (elite != null) {
+                    elite.applyTo(start);
+                    this.perturb(start);
+                }
+                final SolverTemplate template = elite == null ? this.fromScratch : this.fromElite;
+                final DefaultSolver solver = template.buildSolver(-1, remaining,
+                        TimeUnit.MILLISECONDS);
+                solver.addEventListener(publisher);
+                solver.setPlanningProblem(start);
+                solver.solve();
+                runs++;
+                final ProblemSolution result = (ProblemSolution) solver.getBestSolution();
+                App.logger.debug("Run #{} on {} finished with score {}.", new Object[] { runs,
+                        this.name, result.getScore() });
+                if (best == null || result.getScore().compareTo(best.getScore()) > 0) {
+                    best = result;
+                }
             }
-            final DefaultSolver solver = (DefaultSolver) solverConfig.buildSolver();
-            solver.setPlanningProblem(sol);
-            solver.solve();
-            // output the solution
-            if (!App.resultDir.exists()) {
-                App.resultDir.mkdirs();
-            }
-            sol = (ProblemSolution) solver.getBestSolution();
-            final HardAndSoftScore score = sol.getScore();
-            final long actualSeed = solverConfig.getEnvironmentMode() == EnvironmentMode.REPRODUCIBLE ? solver
-                    .getRandomSeed() : 0;
-            if (score.getHardScore() >= 0) { // don't write score that isn't feasible
-                io.writeXML(sol, new File(App.resultDir, this.name + score.getSoftScore() + ".xml"));
-                io.writeTex(sol, actualSeed,
-                        new File(App.resultDir, this.name + score.getSoftScore() + ".tex"));
-                sol.visualize(new File(App.resultDir, this.name + score.getSoftScore() + ".png"));
-                App.logger.info("Solver finished. Score: " + score);
-            } else {
-                App.logger.warn("Not writing results because solution wasn't feasible: " + score);
+            App.logger.info("Cooperative solver on {} finished after {} runs. Score: {}",
+                    new Object[] { this.name, runs, best == null ? null : best.getScore() });
+            return best;
+        }
+
+        /**
+         * Move some of the trains away from where the elite solution had them, so that the run explores a different part of
+         * the search space. Every such train loses its wait times, and half of them also get a different route.
+         * 
+         * @param solution The solution to perturb.
+         */
+        private void perturb(final ProblemSolution solution) {
+            final List<Train> trains = new ArrayList<>(solution.getTrains());
+            Collections.shuffle(trains, this.random);
+            final int count = Math.max(1,
+                    (int) Math.round(trains.size() * CooperativeRunner.PERTURBED_SHARE));
+            for (final Train t : trains.subList(0, Math.min(count, trains.size()))) {
+                final ItineraryAssignment ia = solution.getAssignment(t);
+                if (this.random.nextBoolean()) {
+                    ia.setRoute(new RandomAccessor<>(ia.getRoutes(), this.random).get());
+                }
+                ia.getItinerary().removeWaitTimes();
+            }
+        }
+
+    }
+
+    private static final File   resultDir            = new File("data/solutions");
+
+    private static final String SOLVER_CONFIG        = "/solverConfig.xml";
+
+    /**
+     * How many solutions may be waiting to be written before the solvers have to wait for the output.
+     */
+    private static final int    PENDING_RESULTS      = 4;
+
+    /**
+     * How many times to run the solver on every data set in the lookup mode.
+     */
+    private static final int    ATTEMPTS_PER_DATASET = 50;
+
+    /**
+     * How long every solver runs at most, as configured in the solver configuration.
+     */
+    private static final long   SOLVER_RUN_TIME      = TimeUnit.MINUTES.toMillis(3);
+
+    /**
+     * How long to let every solver run in the portfolio lookup mode before it can be cancelled.
+     */
+    private static final long   PORTFOLIO_WARM_UP    = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * How many of the best solutions to share between runners in the cooperative lookup mode.
+     */
+    private static final int    ELITE_POOL_SIZE      = 8;
+
+    /**
+     * How long every cycle of the rolling-horizon replanning may take at most.
+     */
+    private static final long   REPLAN_TIME          = TimeUnit.SECONDS.toMillis(10);
+
+    private static final Logger logger               = LoggerFactory.getLogger(App.class);
+
+    /**
+     * Prepare a template for solvers in the cooperative lookup mode. Unlike the configured solvers, these stop as soon as the
+     * local search stagnates, so that the next run can start from an elite solution. The time limit is up to the runner.
+     * 
+     * @param isFromScratch Whether the solvers will start from a fresh solution and therefore need the construction heuristic.
+     * @return The template.
+     */
+    private static SolverTemplate createCooperativeTemplate(final boolean isFromScratch) {
+        final SolverConfig solverConfig = SolverTemplate.readConfig(App.SOLVER_CONFIG);
+        final Iterator<SolverPhaseConfig> phases = solverConfig.getSolverPhaseConfigList()
+                .iterator();
+        while (phases.hasNext()) {
+            final SolverPhaseConfig phase = phases.next();
+            if (phase instanceof CustomSolverPhaseConfig) {
+                if (!isFromScratch) {
+                    // elite solutions are already constructed
+                    phases.remove();
+                }
+            } else if (phase instanceof LocalSearchSolverPhaseConfig) {
+                final TerminationConfig termination = phase.getTerminationConfig();
+                termination.setTerminationCompositionStyle(TerminationCompositionStyle.OR);
+                termination.setMaximumMinutesSpend(null);
+            }
+        }
+        return new SolverTemplate(solverConfig);
+    }
+
+    /**
+     * Announce the trains that enter the territory before the given time.
+     * 
+     * @param unannounced Trains not announced yet. Announced trains will be removed.
+     * @param until Time in milliseconds since the start of the world.
+     * @return The announced trains.
+     */
+    private static Collection<Train> announce(final Collection<Train> unannounced,
+            final long until) {
+        final Collection<Train> announced = new ArrayList<>();
+        final Iterator<Train> trains = unannounced.iterator();
+        while (trains.hasNext()) {
+            final Train t = trains.next();
+            if (t.getEntryTime(TimeUnit.MILLISECONDS) < until) {
+                announced.add(t);
+                trains.remove();
             }
-            return score;
         }
+        return announced;
     }
 
-    private static final File            resultDir = new File("data/solutions");
+    private static ResultWriter createResultWriter(final boolean isMinimalOutput) {
+        return new ResultWriter(App.resultDir, App.PENDING_RESULTS, isMinimalOutput);
+    }
+
+    private static Set<String> getDatasetNames() {
+        final Set<String> streams = new HashSet<String>();
+        streams.add("RDS1");
+        streams.add("RDS2");
+        streams.add("RDS3");
+        streams.add("TOY");
+        return streams;
+    }
 
     /**
-     * Only use up to 2 threads, otherwise the increased GC would negatively impact performance.
+     * Total time spent in garbage collection by this JVM so far.
+     * 
+     * @return Time in milliseconds, or -1 when the JVM doesn't provide that information.
      */
-    private static final ExecutorService executor  = Executors.newFixedThreadPool(Math.min(2,
-                                                           Runtime.getRuntime()
-                                                                   .availableProcessors()));
-    private static final Logger          logger    = LoggerFactory.getLogger(App.class);
+    private static long getGarbageCollectionTime() {
+        long result = 0;
+        for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            final long time = gc.getCollectionTime();
+            if (time < 0) {
+                return -1;
+            }
+            result += time;
+        }
+        return result;
+    }
+
+    /**
+     * Report how well the lookup mode performed with the given number of threads, so that the best number of threads can be
+     * determined by running the lookup repeatedly.
+     * 
+     * @param threadCount How many threads the lookup used.
+     * @param finishedRuns How many solver runs finished.
+     * @param wallClockTime How long the runs took, in milliseconds.
+     * @param gcTimeAtStart {@link #getGarbageCollectionTime()} before the runs started.
+     */
+    private static void logThroughput(final int threadCount, final int finishedRuns,
+            final long wallClockTime, final long gcTimeAtStart) {
+        final double runsPerHour = wallClockTime == 0 ? 0 : finishedRuns
+                * (double) TimeUnit.HOURS.toMillis(1) / wallClockTime;
+        App.logger.info("Lookup with {} threads finished {} runs in {} s, {} runs per hour.",
+                new Object[] { threadCount, finishedRuns,
+                        TimeUnit.MILLISECONDS.toSeconds(wallClockTime),
+                        String.format("%.1f", runsPerHour) });
+        final long gcTimeAtEnd = App.getGarbageCollectionTime();
+        if (gcTimeAtStart < 0 || gcTimeAtEnd < 0 || wallClockTime == 0) {
+            App.logger.info("GC overhead with {} threads not available.", threadCount);
+        } else {
+            final long gcTime = gcTimeAtEnd - gcTimeAtStart;
+            App.logger.info("GC overhead with {} threads: {} s, {} % of the time.", new Object[] {
+                    threadCount, TimeUnit.MILLISECONDS.toSeconds(gcTime),
+                    String.format("%.1f", gcTime * 100.0 / wallClockTime) });
+        }
+    }
 
     /**
      * Main method of the whole app. Use for launching the app.
@@ -134,14 +444,32 @@ public class App {
         App.logger.info("Application mode determined.");
         switch (result) {
             case RESOLVER:
-                App.runSolverMode(commandLine.getDatasetLocation(), commandLine.getSeed());
+                if (commandLine.getRollingStep() > 0) {
+                    App.runRollingMode(commandLine.getDatasetLocation(),
+                            commandLine.getRouteBudget(), commandLine.getHorizon(),
+                            commandLine.getRollingStep(), commandLine.isMinimalOutput());
+                } else {
+                    App.runSolverMode(commandLine.getDatasetLocation(), commandLine.getSeed(),
+                            commandLine.getRouteBudget(), commandLine.getHorizon(),
+                            commandLine.isMinimalOutput(), commandLine.getExportedFiles());
+                }
                 break;
             case LOOKUP:
-                App.runLookupMode();
+                if (commandLine.isCooperative()) {
+                    App.runCooperativeMode(commandLine.getRouteBudget(),
+                            commandLine.getThreadCount(), commandLine.isMinimalOutput());
+                } else if (commandLine.getPortfolioMargin() < 0) {
+                    App.runLookupMode(commandLine.getRouteBudget(), commandLine.getThreadCount(),
+                            commandLine.isMinimalOutput());
+                } else {
+                    App.runPortfolioMode(commandLine.getRouteBudget(),
+                            commandLine.getThreadCount(), commandLine.getPortfolioMargin(),
+                            commandLine.isMinimalOutput());
+                }
                 break;
             case EVALUATION:
                 App.runEvaluationMode(commandLine.getDatasetLocation(),
-                        commandLine.getSolutionLocation());
+                        commandLine.getSolutionLocation(), commandLine.getHorizon());
                 break;
             case HELP:
             default:
@@ -152,8 +480,78 @@ public class App {
         }
     }
 
+    private static void plotChart(final Chart c) {
+        c.plot(App.resultDir, "chart");
+        final SolutionIO io = new SolutionIO();
+        io.writeChart(c, new File(App.resultDir, "stats.tex"));
+        if (!c.getProfiles().isEmpty()) {
+            io.writeProfiles(c, new File(App.resultDir, "profile.csv"));
+        }
+    }
+
+    /**
+     * Solve every data set with runners that share their best solutions, see {@link CooperativeRunner}. Every data set gets
+     * as much time as a single solver run would.
+     * 
+     * @param routeBudget How many best routes to consider for each train. 0 means all of them.
+     * @param threadCount How many runners to have on every data set.
+     */
+    private static void runCooperativeMode(final int routeBudget, final int threadCount,
+            final boolean isMinimalOutput) {
+        App.logger.info("Running cooperative lookup with {} threads.", threadCount);
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        final long gcTimeAtStart = App.getGarbageCollectionTime();
+        final long startTime = System.nanoTime();
+        final ProblemCache problems = new ProblemCache(routeBudget);
+        final ResultWriter writer = App.createResultWriter(isMinimalOutput);
+        final SolverTemplate fromScratch = App.createCooperativeTemplate(true);
+        final SolverTemplate fromElite = App.createCooperativeTemplate(false);
+        final Chart c = new Chart();
+        int finishedRuns = 0;
+        for (final String entry : App.getDatasetNames()) {
+            App.logger.info("Starting cooperative lookup for the best solutions on " + entry
+                    + "...");
+            final ElitePool pool = new ElitePool(App.ELITE_POOL_SIZE);
+            final long deadline = System.currentTimeMillis() + App.SOLVER_RUN_TIME;
+            final List<Future<ProblemSolution>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(new CooperativeRunner(entry, problems, fromScratch,
+                        fromElite, pool, deadline)));
+            }
+            final List<Integer> values = new ArrayList<>();
+            ProblemSolution best = null;
+            for (final Future<ProblemSolution> future : futures) {
+                try {
+                    final ProblemSolution result = future.get();
+                    finishedRuns++;
+                    if (result == null) {
+                        continue;
+                    }
+                    if (result.getScore().getHardScore() >= 0) {
+                        values.add(Math.abs(result.getScore().getSoftScore()));
+                    }
+                    if (best == null || result.getScore().compareTo(best.getScore()) > 0) {
+                        best = result;
+                    }
+                } catch (final Exception e) {
+                    App.logger.error("One of the solvers failed.", e);
+                }
+            }
+            if (best != null) {
+                // the best solution comes from many runs with many seeds; no single seed to report
+                writer.write(best, entry, 0);
+            }
+            c.addData(values, entry);
+        }
+        App.logThroughput(threadCount, finishedRuns,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), gcTimeAtStart);
+        App.plotChart(c);
+        App.shutdownExecutor(executor);
+        writer.close();
+    }
+
     private static void runEvaluationMode(final String datasetLocation,
-            final String solutionLocation) {
+            final String solutionLocation, final int horizon) {
         // validate data
         final File dataset = new File(datasetLocation);
         if (!dataset.exists() || !dataset.canRead()) {
@@ -164,76 +562,227 @@ public class App {
             throw new IllegalArgumentException("Cannot read data set: " + solution);
         }
         // load solution
-        final SolutionIO io = new SolutionIO();
+        final SolutionIO io = new SolutionIO(0, horizon, TimeUnit.MINUTES);
         final ProblemSolution result = io.read(dataset, solution);
         App.logger.info("Solution " + result.getName() + " has a score of "
                 + ScoreCalculator.oneTimeCalculation(result) + ".");
     }
 
-    private static void runLookupMode() {
-        final Set<String> streams = new HashSet<String>();
-        streams.add("RDS1");
-        streams.add("RDS2");
-        streams.add("RDS3");
-        streams.add("TOY");
+    private static void runLookupMode(final int routeBudget, final int threadCount,
+            final boolean isMinimalOutput) {
+        App.logger.info("Running lookup with {} threads.", threadCount);
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        final long gcTimeAtStart = App.getGarbageCollectionTime();
+        final long startTime = System.nanoTime();
+        final ProblemCache problems = new ProblemCache(routeBudget);
+        final ResultWriter writer = App.createResultWriter(isMinimalOutput);
+        final SolverTemplate template = SolverTemplate.fromResource(App.SOLVER_CONFIG);
         // prepare futures
         final Map<String, List<Future<HardAndSoftScore>>> scores = new HashMap<>();
-        for (final String entry : streams) {
+        final Map<String, List<SolverRunner>> runners = new HashMap<>();
+        for (final String entry : App.getDatasetNames()) {
             App.logger.info("Starting lookup for the best solutions on " + entry + "...");
             scores.put(entry, new ArrayList<Future<HardAndSoftScore>>());
-            for (int i = 0; i < 50; i++) {
+            runners.put(entry, new ArrayList<SolverRunner>());
+            for (int i = 0; i < App.ATTEMPTS_PER_DATASET; i++) {
                 App.logger.info("Scheduled attempt #" + i + ".");
-                scores.get(entry).add(
-                        App.executor.submit(new SolverRunner(App.class.getResourceAsStream(entry
-                                + ".txt"), entry, -1)));
+                final SolverRunner runner = new SolverRunner(template, writer, problems, entry,
+                        -1, null);
+                runners.get(entry).add(runner);
+                scores.get(entry).add(executor.submit(runner));
             }
         }
         // prepare chart
         final Chart c = new Chart();
         // process futures
+        int finishedRuns = 0;
         for (final Map.Entry<String, List<Future<HardAndSoftScore>>> entry : scores.entrySet()) {
             final String datasetName = entry.getKey();
             final List<Integer> values = new ArrayList<>();
+            final Iterator<SolverRunner> datasetRunners = runners.get(datasetName).iterator();
             for (final Future<HardAndSoftScore> future : entry.getValue()) {
+                final SolverRunner runner = datasetRunners.next();
                 try {
                     final HardAndSoftScore result = future.get();
+                    finishedRuns++;
                     if (result != null && result.getHardScore() >= 0) {
                         values.add(Math.abs(result.getSoftScore()));
                     }
+                    c.addProfile(runner.getProfile(), datasetName);
                 } catch (final Exception e) {
                     App.logger.error("One of the solvers failed.", e);
                 }
             }
             c.addData(values, datasetName);
         }
-        // plot chart
-        c.plot(App.resultDir, "chart");
-        new SolutionIO().writeChart(c.getDataset(), new File(App.resultDir, "stats.tex"));
-        App.shutdownExecutor();
+        App.logThroughput(threadCount, finishedRuns,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), gcTimeAtStart);
+        App.plotChart(c);
+        App.shutdownExecutor(executor);
+        writer.close();
+    }
+
+    /**
+     * Like the lookup mode, but solvers that fall behind the best one are cancelled after the warm-up period and their
+     * threads are given to solvers with fresh seeds. Every data set gets as much time as the lookup mode would give it.
+     * 
+     * @param routeBudget How many best routes to consider for each train. 0 means all of them.
+     * @param threadCount How many solvers to run in parallel.
+     * @param margin By how many soft score points may a solver lag the best one before it is cancelled.
+     */
+    private static void runPortfolioMode(final int routeBudget, final int threadCount,
+            final int margin, final boolean isMinimalOutput) {
+        App.logger.info("Running portfolio lookup with {} threads and a margin of {}.",
+                threadCount, margin);
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        final long gcTimeAtStart = App.getGarbageCollectionTime();
+        final long startTime = System.nanoTime();
+        final int rounds = (App.ATTEMPTS_PER_DATASET + threadCount - 1) / threadCount;
+        final long timePerDataset = TimeUnit.MILLISECONDS.toNanos(rounds * App.SOLVER_RUN_TIME);
+        final ProblemCache problems = new ProblemCache(routeBudget);
+        final ResultWriter writer = App.createResultWriter(isMinimalOutput);
+        final SolverTemplate template = SolverTemplate.fromResource(App.SOLVER_CONFIG);
+        final Chart c = new Chart();
+        int finishedRuns = 0;
+        int cancelledRuns = 0;
+        for (final String entry : App.getDatasetNames()) {
+            App.logger.info("Starting portfolio lookup for the best solutions on " + entry + "...");
+            final Portfolio portfolio = new Portfolio(App.PORTFOLIO_WARM_UP,
+                    TimeUnit.MILLISECONDS, margin);
+            final CompletionService<HardAndSoftScore> runs = new ExecutorCompletionService<>(
+                    executor);
+            final List<Integer> values = new ArrayList<>();
+            final long deadline = System.nanoTime() + timePerDataset;
+            int runningSolvers = 0;
+            while (true) {
+                // keep every thread busy until the time runs out
+                while (runningSolvers < threadCount && System.nanoTime() < deadline) {
+                    runs.submit(new SolverRunner(template, writer, problems, entry, -1,
+                            portfolio));
+                    runningSolvers++;
+                }
+                if (runningSolvers == 0) {
+                    break;
+                }
+                try {
+                    final Future<HardAndSoftScore> future = runs.poll(1, TimeUnit.SECONDS);
+                    if (future == null) {
+                        portfolio.cancelDominated();
+                        continue;
+                    }
+                    runningSolvers--;
+                    final HardAndSoftScore result = future.get();
+                    if (result == null) {
+                        // the run was cut short, its score says nothing about the solver
+                        cancelledRuns++;
+                        continue;
+                    }
+                    finishedRuns++;
+                    if (result.getHardScore() >= 0) {
+                        values.add(Math.abs(result.getSoftScore()));
+                    }
+                } catch (final InterruptedException e) {
+                    // nothing we could do here
+                } catch (final ExecutionException e) {
+                    App.logger.error("One of the solvers failed.", e);
+                }
+            }
+            App.logger.info("Portfolio lookup on {} finished, best score {}.", entry,
+                    portfolio.getLeader());
+            c.addData(values, entry);
+        }
+        App.logger.info("Portfolio cancelled {} runs, {} more ran to completion.", cancelledRuns,
+                finishedRuns);
+        App.logThroughput(threadCount, finishedRuns + cancelledRuns,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), gcTimeAtStart);
+        App.plotChart(c);
+        App.shutdownExecutor(executor);
+        writer.close();
+    }
+
+    /**
+     * Replay the data set as if it was being planned in real time, see {@link RollingHorizon}. The present time moves forward
+     * by the given step every cycle, and every train is announced one step before it enters the territory. The plan of every
+     * cycle is written into the result directory.
+     * 
+     * @param datasetLocation Location of the data set.
+     * @param routeBudget How many best routes to consider for each train. 0 means all of them.
+     * @param horizonOverride Planning horizon in minutes. 0 means the one from the data set.
+     * @param step How many minutes to move the present time forward by in every cycle.
+     * @param isMinimalOutput Whether to only write the XML of every plan.
+     */
+    private static void runRollingMode(final String datasetLocation, final int routeBudget,
+            final int horizonOverride, final int step, final boolean isMinimalOutput) {
+        final File f = new File(datasetLocation);
+        if (!f.exists() || !f.canRead()) {
+            throw new IllegalArgumentException("Cannot read data set: " + f);
+        }
+        final ProblemSolution problem = new SolutionIO(routeBudget, horizonOverride,
+                TimeUnit.MINUTES).read(f);
+        final long stepMillis = TimeUnit.MINUTES.toMillis(step);
+        final long horizon = problem.getPlanningHorizon(TimeUnit.MILLISECONDS);
+        final Collection<Train> unannounced = new ArrayList<>(problem.getTrains());
+        // start with nothing planned, so that every cycle works the same way
+        final ProblemSolution empty = new ProblemSolution(problem.getName(),
+                Collections.<Train> emptyList(), problem.getTerritory(),
+                problem.getMaintenances(), horizon, TimeUnit.MILLISECONDS);
+        final RollingHorizon rolling = new RollingHorizon(App.createCooperativeTemplate(false),
+                empty, App.REPLAN_TIME, TimeUnit.MILLISECONDS);
+        final ResultWriter writer = App.createResultWriter(isMinimalOutput);
+        App.logger.info("Replanning {} every {} minutes.", problem.getName(), step);
+        try {
+            for (long now = 0; now < horizon; now += stepMillis) {
+                final ProblemSolution plan = rolling.advance(now, TimeUnit.MILLISECONDS,
+                        App.announce(unannounced, now + stepMillis));
+                // the next cycle works on a copy, so the plan will not change any more
+                writer.write(plan, f.getName() + "-" + TimeUnit.MILLISECONDS.toMinutes(now)
+                        + "min", rolling.getSeed());
+            }
+        } finally {
+            writer.close();
+        }
     }
 
-    private static void runSolverMode(final String datasetLocation, final long seed) {
+    private static void runSolverMode(final String datasetLocation, final long seed,
+            final int routeBudget, final int horizon, final boolean isMinimalOutput,
+            final int exportedFiles) {
         final File f = new File(datasetLocation);
         if (!f.exists() || !f.canRead()) {
             throw new IllegalArgumentException("Cannot read data set: " + f);
         }
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final ResultWriter writer = App.createResultWriter(isMinimalOutput);
+        final BestSolutionExporter exporter = exportedFiles > 0 ? new BestSolutionExporter(
+                App.resultDir, f.getName(), exportedFiles) : null;
         Future<HardAndSoftScore> future;
+        boolean failed = false;
         try {
-            future = App.executor
-                    .submit(new SolverRunner(new FileInputStream(f), f.getName(), seed));
-            App.executor.shutdown();
+            final SolverTemplate template = SolverTemplate.fromResource(App.SOLVER_CONFIG);
+            future = executor.submit(new SolverRunner(template, writer, new SolutionIO(
+                    routeBudget, horizon, TimeUnit.MINUTES).read(f), f.getName(), seed, null,
+                    exporter));
+            executor.shutdown();
             future.get();
         } catch (final Exception e) {
             App.logger.error("Solver not started.", e);
+            failed = true;
+        } finally {
+            if (exporter != null) {
+                exporter.close();
+            }
+            writer.close();
+        }
+        if (failed) {
+            // only exit once everything queued so far has been written
             System.exit(1);
         }
     }
 
-    private static void shutdownExecutor() {
-        App.executor.shutdown();
-        while (!App.executor.isTerminated()) {
+    private static void shutdownExecutor(final ExecutorService executor) {
+        executor.shutdown();
+        while (!executor.isTerminated()) {
             try {
-                App.executor.awaitTermination(1, TimeUnit.SECONDS);
+                executor.awaitTermination(1, TimeUnit.SECONDS);
             } catch (final InterruptedException e) {
                 // nothing we could do here
             }
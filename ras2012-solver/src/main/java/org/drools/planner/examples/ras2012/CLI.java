@@ -30,9 +30,15 @@ public class CLI {
 
     }
 
-    private static final CLI    INSTANCE = new CLI();
+    private static final CLI    INSTANCE        = new CLI();
 
-    private static final Logger logger   = LoggerFactory.getLogger(CLI.class);
+    private static final Logger logger          = LoggerFactory.getLogger(CLI.class);
+
+    /**
+     * How many solvers to run in parallel in the lookup mode, unless told otherwise.
+     */
+    public static final int     DEFAULT_THREADS = Math.min(2, Runtime.getRuntime()
+                                                        .availableProcessors());
 
     /**
      * Return the single instance of this class.
@@ -57,6 +63,24 @@ public class CLI {
                                                  "Location of the resolved solution for evaluation mode. Ignored in other modes.");
     private final Option  seed           = new Option("x", "seed", true,
                                                  "Random seed for the solver mode. Will be ignored in every other mode.");
+    private final Option  routes         = new Option("k", "routes", true,
+                                                 "How many best routes to consider for every train. 0 (the default) means all of them. Ignored in evaluation mode.");
+    private final Option  threads        = new Option("t", "threads", true,
+                                                 "How many solvers to run in parallel in lookup mode. Defaults to "
+                                                         + CLI.DEFAULT_THREADS
+                                                         + ". Ignored in every other mode.");
+    private final Option  portfolio      = new Option("p", "portfolio", true,
+                                                 "Cancel lookup mode solvers whose soft score lags the best one by more than this margin, and start fresh ones instead. Ignored in every other mode.");
+    private final Option  cooperative    = new Option("c", "cooperative", false,
+                                                 "Have the lookup mode solvers share their best solutions and restart from them. Ignored in every other mode.");
+    private final Option  minimal        = new Option("m", "minimal", false,
+                                                 "Only write solutions as XML, skip TeX and PNG output. Ignored in evaluation mode.");
+    private final Option  export         = new Option("b", "best", true,
+                                                 "Export every new best solution as XML as soon as it is found, rotating between this many files. Ignored in every mode other than resolving.");
+    private final Option  rolling        = new Option("n", "rolling", true,
+                                                 "Replan the data set in cycles, moving the present time forward by this many minutes every cycle. Only used in resolving mode.");
+    private final Option  horizon        = new Option("z", "horizon", true,
+                                                 "Planning horizon in minutes, overriding the one in the data set. Only used in resolving and evaluation modes.");
     private final Option  help           = new Option("h", "help", false,
                                                  "Display this help and exit.");
 
@@ -65,6 +89,14 @@ public class CLI {
 
     public String         datasetLocation = null, solutionLocation = null;
     public long           solverSeed      = -1;
+    public int            routeBudget     = 0;
+    public int            threadCount     = CLI.DEFAULT_THREADS;
+    public int            portfolioMargin = -1;
+    public boolean        isCooperative   = false;
+    public boolean        isMinimalOutput = false;
+    public int            exportedFiles   = 0;
+    public int            rollingStep     = 0;
+    public int            horizonMinutes  = 0;
 
     /**
      * The constructor is hidden, as should be with the singleton pattern.
@@ -82,6 +114,14 @@ public class CLI {
         this.options.addOption(this.dataset);
         this.options.addOption(this.solution);
         this.options.addOption(this.seed);
+        this.options.addOption(this.routes);
+        this.options.addOption(this.threads);
+        this.options.addOption(this.portfolio);
+        this.options.addOption(this.cooperative);
+        this.options.addOption(this.minimal);
+        this.options.addOption(this.export);
+        this.options.addOption(this.rolling);
+        this.options.addOption(this.horizon);
     }
 
     /**
@@ -93,10 +133,64 @@ public class CLI {
         return this.datasetLocation;
     }
 
+    /**
+     * Get the number of files to rotate when exporting every new best solution.
+     * 
+     * @return Number of files, 0 if the best solutions should not be exported.
+     */
+    public int getExportedFiles() {
+        return this.exportedFiles;
+    }
+
+    /**
+     * Get the planning horizon that should override the one in the data set.
+     * 
+     * @return Horizon in minutes, 0 if the one in the data set should be used.
+     */
+    public int getHorizon() {
+        return this.horizonMinutes;
+    }
+
+    /**
+     * Get the margin for cancelling solvers in the portfolio lookup mode.
+     * 
+     * @return Margin in soft score points, -1 if the portfolio should not be used.
+     */
+    public int getPortfolioMargin() {
+        return this.portfolioMargin;
+    }
+
+    /**
+     * Get the maximum number of routes per train that the solver should consider.
+     * 
+     * @return Number of routes, 0 if the number should not be limited.
+     */
+    public int getRouteBudget() {
+        return this.routeBudget;
+    }
+
+    /**
+     * Get the number of minutes to move the present time forward by in every cycle of rolling-horizon replanning.
+     * 
+     * @return Number of minutes, 0 if the data set should be solved only once.
+     */
+    public int getRollingStep() {
+        return this.rollingStep;
+    }
+
     public long getSeed() {
         return this.solverSeed;
     }
 
+    /**
+     * Get the number of solvers to run in parallel.
+     * 
+     * @return Number of threads, always greater than 0.
+     */
+    public int getThreadCount() {
+        return this.threadCount;
+    }
+
     /**
      * Get a location of the solution.
      * 
@@ -106,6 +200,24 @@ public class CLI {
         return this.solutionLocation;
     }
 
+    /**
+     * Whether the lookup mode solvers should share their best solutions, see {@link ElitePool}.
+     * 
+     * @return True if they should.
+     */
+    public boolean isCooperative() {
+        return this.isCooperative;
+    }
+
+    /**
+     * Whether the solutions should only be written as XML, for when the throughput is more important than the output.
+     * 
+     * @return True if TeX and PNG output should be skipped.
+     */
+    public boolean isMinimalOutput() {
+        return this.isMinimalOutput;
+    }
+
     /**
      * Prints a help message, describing the usage of the app from the command-line.
      */
@@ -126,12 +238,108 @@ public class CLI {
      *         used to retrieve the important arguments from the command line.
      */
     public ApplicationMode process(final String[] args) {
+        this.isError = false;
+        this.errorMessage = null;
         this.datasetLocation = null;
         this.solutionLocation = null;
+        this.routeBudget = 0;
+        this.threadCount = CLI.DEFAULT_THREADS;
+        this.portfolioMargin = -1;
+        this.isCooperative = false;
+        this.isMinimalOutput = false;
+        this.exportedFiles = 0;
+        this.rollingStep = 0;
+        this.horizonMinutes = 0;
         final CommandLineParser parser = new GnuParser();
         try {
             final CommandLine cli = parser.parse(this.options, args);
             final List<Option> presentOptions = Arrays.asList(cli.getOptions());
+            if (presentOptions.contains(this.routes)) {
+                final String routes = cli.getOptionValue(this.routes.getOpt());
+                try {
+                    final int actualRoutes = Integer.valueOf(routes);
+                    if (actualRoutes < 0) {
+                        this.setError("Route budget, when provided, must be a non-negative integer.");
+                    } else {
+                        this.setRouteBudget(actualRoutes);
+                    }
+                } catch (final NumberFormatException ex) {
+                    this.setError("Route budget, when provided, must be a non-negative integer.");
+                }
+            }
+            if (presentOptions.contains(this.threads)) {
+                final String threads = cli.getOptionValue(this.threads.getOpt());
+                try {
+                    final int actualThreads = Integer.valueOf(threads);
+                    if (actualThreads < 1) {
+                        this.setError("Number of threads, when provided, must be a positive integer.");
+                    } else {
+                        this.setThreadCount(actualThreads);
+                    }
+                } catch (final NumberFormatException ex) {
+                    this.setError("Number of threads, when provided, must be a positive integer.");
+                }
+            }
+            if (presentOptions.contains(this.portfolio)) {
+                final String margin = cli.getOptionValue(this.portfolio.getOpt());
+                try {
+                    final int actualMargin = Integer.valueOf(margin);
+                    if (actualMargin < 0) {
+                        this.setError("Portfolio margin, when provided, must be a non-negative integer.");
+                    } else {
+                        this.setPortfolioMargin(actualMargin);
+                    }
+                } catch (final NumberFormatException ex) {
+                    this.setError("Portfolio margin, when provided, must be a non-negative integer.");
+                }
+            }
+            if (presentOptions.contains(this.cooperative)) {
+                if (presentOptions.contains(this.portfolio)) {
+                    this.setError("Portfolio and cooperative lookup can not be combined.");
+                } else {
+                    this.setCooperative(true);
+                }
+            }
+            if (presentOptions.contains(this.export)) {
+                final String files = cli.getOptionValue(this.export.getOpt());
+                try {
+                    final int actualFiles = Integer.valueOf(files);
+                    if (actualFiles < 1) {
+                        this.setError("Number of exported files, when provided, must be a positive integer.");
+                    } else {
+                        this.setExportedFiles(actualFiles);
+                    }
+                } catch (final NumberFormatException ex) {
+                    this.setError("Number of exported files, when provided, must be a positive integer.");
+                }
+            }
+            if (presentOptions.contains(this.rolling)) {
+                final String step = cli.getOptionValue(this.rolling.getOpt());
+                try {
+                    final int actualStep = Integer.valueOf(step);
+                    if (actualStep < 1) {
+                        this.setError("Replanning step, when provided, must be a positive integer.");
+                    } else {
+                        this.setRollingStep(actualStep);
+                    }
+                } catch (final NumberFormatException ex) {
+                    this.setError("Replanning step, when provided, must be a positive integer.");
+                }
+            }
+            if (presentOptions.contains(this.horizon)) {
+                final String minutes = cli.getOptionValue(this.horizon.getOpt());
+                try {
+                    final int actualMinutes = Integer.valueOf(minutes);
+                    if (actualMinutes < 1) {
+                        this.setError("Planning horizon, when provided, must be a positive integer.");
+                    } else {
+                        this.setHorizon(actualMinutes);
+                    }
+                } catch (final NumberFormatException ex) {
+                    this.setError("Planning horizon, when provided, must be a positive integer.");
+                }
+            }
+            this.setMinimalOutput(presentOptions.contains(this.minimal));
             if (this.isError) {
                 return ApplicationMode.ERROR;
             } else if (presentOptions.contains(this.solverMode)) {
@@ -176,6 +384,10 @@ public class CLI {
         }
     }
 
+    private void setCooperative(final boolean isCooperative) {
+        this.isCooperative = isCooperative;
+    }
+
     private void setDatasetLocation(final String datasetLocation) {
         this.datasetLocation = datasetLocation;
     }
@@ -189,6 +401,30 @@ public class CLI {
         return false;
     }
 
+    private void setPortfolioMargin(final int portfolioMargin) {
+        this.portfolioMargin = portfolioMargin;
+    }
+
+    private void setExportedFiles(final int exportedFiles) {
+        this.exportedFiles = exportedFiles;
+    }
+
+    private void setHorizon(final int horizonMinutes) {
+        this.horizonMinutes = horizonMinutes;
+    }
+
+    private void setMinimalOutput(final boolean isMinimalOutput) {
+        this.isMinimalOutput = isMinimalOutput;
+    }
+
+    private void setRollingStep(final int rollingStep) {
+        this.rollingStep = rollingStep;
+    }
+
+    private void setRouteBudget(final int routeBudget) {
+        this.routeBudget = routeBudget;
+    }
+
     private void setSeed(final long seed) {
         this.solverSeed = seed;
     }
@@ -197,4 +433,8 @@ public class CLI {
         this.solutionLocation = solutionLocation;
     }
 
+    private void setThreadCount(final int threadCount) {
+        this.threadCount = threadCount;
+    }
+
 }
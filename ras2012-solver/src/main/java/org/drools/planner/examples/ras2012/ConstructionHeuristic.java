@@ -0,0 +1,219 @@
+package org.drools.planner.examples.ras2012;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.core.phase.custom.CustomSolverPhaseCommand;
+import org.drools.planner.core.score.director.ScoreDirector;
+import org.drools.planner.examples.ras2012.model.Arc;
+import org.drools.planner.examples.ras2012.model.Itinerary;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+import org.drools.planner.examples.ras2012.util.EntryRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Greedy construction heuristic, to be run as a custom solver phase before the local search. Instead of starting with every
+ * train on its best route and without any wait times, it inserts trains into the schedule one by one, so that the local
+ * search starts as close to a feasible solution as possible.
+ * </p>
+ * 
+ * <p>
+ * Trains are inserted in the order of decreasing {@link Train.Type#getDelayPenalty()} and then increasing entry time. For
+ * every train, a few of its best routes are tried. On every route, the train is made to wait at the closest wait point before
+ * each arc where it would break the headway with one of the trains inserted before it, see {@link EntryRegistry}. The route
+ * with the fewest hard penalties, and then the fewest soft penalties, wins.
+ * </p>
+ */
+public class ConstructionHeuristic implements CustomSolverPhaseCommand {
+
+    private static final class TrainInsertionComparator implements Comparator<Train> {
+
+        @Override
+        public int compare(final Train o1, final Train o2) {
+            final int byPenalty = Integer.compare(o2.getType().getDelayPenalty(), o1.getType()
+                    .getDelayPenalty());
+            if (byPenalty != 0) {
+                return byPenalty;
+            }
+            final int byEntry = Long.compare(o1.getEntryTime(TimeUnit.MILLISECONDS),
+                    o2.getEntryTime(TimeUnit.MILLISECONDS));
+            if (byEntry != 0) {
+                return byEntry;
+            }
+            return o1.compareTo(o2);
+        }
+
+    }
+
+    /**
+     * How many of the train's candidate routes to try, apart from the one it already has.
+     */
+    private static final int    ROUTES_TO_TRY = 5;
+
+    private static final Logger logger        = LoggerFactory
+                                                      .getLogger(ConstructionHeuristic.class);
+
+    private static boolean isInPlanningHorizon(final long time, final long horizon) {
+        return time >= 0 && time <= horizon;
+    }
+
+    /**
+     * Add wait times to the itinerary until its train no longer conflicts with any of the already inserted trains, or until
+     * that is no longer possible.
+     * 
+     * @param i The itinerary to modify.
+     * @param entries Arc entries of the already inserted trains.
+     * @param horizon Planning horizon in milliseconds, arcs entered later are ignored.
+     * @return The number of arcs where conflicts remain.
+     */
+    static int resolveConflicts(final Itinerary i, final EntryRegistry entries,
+            final long horizon) {
+        final Train t = i.getTrain();
+        final Collection<Node> waitPoints = i.getRoute().getProgression().getWaitPoints();
+        int unresolved = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            unresolved = 0;
+            Node lastWaitPoint = null;
+            Node previousNode = null;
+            long previousTime = 0;
+            final SortedMap<Long, Node> schedule = i.getSchedule();
+            for (final Map.Entry<Long, Node> entry : schedule.entrySet()) {
+                if (previousNode != null && waitPoints.contains(previousNode)) {
+                    // the train can be held at the origin of the arc it is about to enter
+                    lastWaitPoint = previousNode;
+                }
+                if (previousNode != null
+                        && ConstructionHeuristic.isInPlanningHorizon(previousTime, horizon)) {
+                    final Arc a = i.getRoute().getProgression().getWithOriginNode(previousNode);
+                    final long conflictFreeTime = entries.getEarliestConflictFreeEntry(a, t,
+                            previousTime, entry.getKey());
+                    if (conflictFreeTime > previousTime) {
+                        if (lastWaitPoint == null) {
+                            // no place to wait before this arc
+                            unresolved++;
+                        } else {
+                            // wait long enough at the closest wait point before the arc
+                            final long delay = conflictFreeTime - previousTime;
+                            final WaitTime existing = i.getWaitTime(lastWaitPoint);
+                            final long total = delay
+                                    + (existing == null ? 0 : existing
+                                            .getWaitFor(TimeUnit.MILLISECONDS));
+                            i.setWaitTime(lastWaitPoint, WaitTime.getWaitTime(
+                                    (total + TimeUnit.MINUTES.toMillis(1) - 1)
+                                            / TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES));
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+                previousNode = entry.getValue();
+                previousTime = entry.getKey();
+            }
+        }
+        return unresolved;
+    }
+
+    private ProblemSolution     solution;
+    private ScoreCalculator     calculator;
+    private EntryRegistry       entries;
+    private long                horizon;
+
+    @Override
+    public void changeWorkingSolution(final ScoreDirector scoreDirector) {
+        this.solution = (ProblemSolution) scoreDirector.getWorkingSolution();
+        this.horizon = this.solution.getPlanningHorizon(TimeUnit.MILLISECONDS);
+        // only used to evaluate penalties of individual itineraries
+        this.calculator = new ScoreCalculator();
+        this.calculator.resetWorkingSolution(this.solution);
+        this.entries = new EntryRegistry(this.solution.getTerritory().getNodes().count());
+        final List<Train> trains = new ArrayList<>(this.solution.getTrains());
+        Collections.sort(trains, new TrainInsertionComparator());
+        for (final Train t : trains) {
+            final ItineraryAssignment ia = this.solution.getAssignment(t);
+            final Itinerary best = this.findBestItinerary(ia);
+            ia.setRoute(best.getRoute());
+            ia.getItinerary().removeWaitTimes();
+            for (final Map.Entry<Node, WaitTime> entry : best.getWaitTimes().entrySet()) {
+                ia.getItinerary().setWaitTime(entry.getKey(), entry.getValue());
+            }
+            this.registerEntries(ia.getItinerary());
+            scoreDirector.afterVariableChanged(ia, "route");
+            ConstructionHeuristic.logger.debug("Inserted {} with wait times {}.", ia,
+                    best.getWaitTimes());
+        }
+        ConstructionHeuristic.logger.info("Construction heuristic finished with score {}.",
+                scoreDirector.calculateScore());
+    }
+
+    /**
+     * Try the train's current route and a few of its best routes, pick the one where the train performs best.
+     * 
+     * @param ia The assignment for the train to insert.
+     * @return Itinerary with wait times that avoid conflicts with already inserted trains, as far as possible.
+     */
+    private Itinerary findBestItinerary(final ItineraryAssignment ia) {
+        final Train t = ia.getTrain();
+        final Collection<Route> routes = new LinkedHashSet<>();
+        routes.add(ia.getRoute());
+        final Iterator<Route> candidates = this.solution.getTerritory().getCandidateRoutes(t)
+                .iterator();
+        for (int i = 0; i < ConstructionHeuristic.ROUTES_TO_TRY && candidates.hasNext(); i++) {
+            routes.add(candidates.next());
+        }
+        Itinerary bestItinerary = null;
+        int bestHardPenalty = Integer.MAX_VALUE;
+        int bestSoftPenalty = Integer.MAX_VALUE;
+        for (final Route r : routes) {
+            // templates are shared, so the baseline schedule of every route is only calculated once
+            final Itinerary i = new Itinerary(this.solution.getItineraryTemplate(t, r));
+            final int conflicts = ConstructionHeuristic.resolveConflicts(i, this.entries,
+                    this.horizon);
+            final int hardPenalty = conflicts
+                    + this.calculator.getPenaltyForNoMeetPassOnSidings(i);
+            final int softPenalty = this.calculator.getDelayPenalty(i)
+                    + this.calculator.getWantTimePenalty(i)
+                    + this.calculator.getScheduleAdherencePenalty(i)
+                    + this.calculator.getUnpreferredTracksPenalty(i);
+            if (hardPenalty < bestHardPenalty
+                    || (hardPenalty == bestHardPenalty && softPenalty < bestSoftPenalty)) {
+                bestItinerary = i;
+                bestHardPenalty = hardPenalty;
+                bestSoftPenalty = softPenalty;
+            }
+        }
+        return bestItinerary;
+    }
+
+    private void registerEntries(final Itinerary i) {
+        final Train t = i.getTrain();
+        this.entries.resetTimes(t);
+        Node previousNode = null;
+        long previousTime = 0;
+        for (final Map.Entry<Long, Node> entry : i.getSchedule().entrySet()) {
+            if (previousNode != null
+                    && ConstructionHeuristic.isInPlanningHorizon(previousTime, this.horizon)) {
+                final Arc a = i.getRoute().getProgression().getWithOriginNode(previousNode);
+                this.entries.setTimes(a, t, previousTime, entry.getKey());
+            }
+            previousNode = entry.getValue();
+            previousTime = entry.getKey();
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+package org.drools.planner.examples.ras2012;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.drools.planner.core.score.buildin.hardandsoft.HardAndSoftScore;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+
+/**
+ * <p>
+ * The best solutions found by solvers that run on the same data set at the same time. Solvers publish their best solutions
+ * here and, once they stop improving, restart from one of the solutions here instead of from scratch.
+ * </p>
+ * 
+ * <p>
+ * Every solver works with its own copy of the problem, and the problem isn't safe to be shared between threads. Therefore,
+ * the pool doesn't hold the solutions themselves. Instead, it holds {@link Elite}s; immutable records of which route and
+ * which wait times every train had, identified by train names, route IDs and node IDs. These are the same for every copy of
+ * the same data set. The pool is lock-free; the list of elites is replaced as a whole whenever it changes.
+ * </p>
+ */
+public class ElitePool {
+
+    /**
+     * Immutable record of a solution, that can be applied to any other copy of the same problem.
+     */
+    public static final class Elite {
+
+        private static Route findRoute(final ProblemSolution solution, final Train t,
+                final int routeId) {
+            for (final Route r : solution.getTerritory().getRoutes(t)) {
+                if (r.getId() == routeId) {
+                    return r;
+                }
+            }
+            throw new IllegalArgumentException("Train " + t.getName() + " has no route "
+                    + routeId + ".");
+        }
+
+        private final HardAndSoftScore                score;
+        private final Map<String, Integer>            routes    = new HashMap<>();
+        private final Map<String, Map<Integer, Long>> waitTimes = new HashMap<>();
+
+        private Elite(final ProblemSolution solution) {
+            this.score = solution.getScore();
+            for (final ItineraryAssignment ia : solution.getAssignments()) {
+                final String trainName = ia.getTrain().getName();
+                this.routes.put(trainName, ia.getRoute().getId());
+                final Map<Integer, Long> trainWaitTimes = new HashMap<>();
+                for (final Map.Entry<Node, WaitTime> entry : ia.getItinerary().getWaitTimes()
+                        .entrySet()) {
+                    trainWaitTimes.put(entry.getKey().getId(),
+                            entry.getValue().getWaitFor(TimeUnit.MILLISECONDS));
+                }
+                this.waitTimes.put(trainName, trainWaitTimes);
+            }
+        }
+
+        /**
+         * Make the solution have the same routes and the same wait times that the solution of this elite had.
+         * 
+         * @param solution Solution of the same data set, with no solver working on it.
+         * @throws IllegalArgumentException When the solution comes from a different data set.
+         */
+        public void applyTo(final ProblemSolution solution) {
+            for (final Train t : solution.getTrains()) {
+                final Integer routeId = this.routes.get(t.getName());
+                if (routeId == null) {
+                    throw new IllegalArgumentException("Unknown train: " + t.getName());
+                }
+                final ItineraryAssignment ia = solution.getAssignment(t);
+                ia.setRoute(Elite.findRoute(solution, t, routeId));
+                ia.getItinerary().removeWaitTimes();
+                for (final Map.Entry<Integer, Long> entry : this.waitTimes.get(t.getName())
+                        .entrySet()) {
+                    ia.getItinerary().setWaitTime(
+                            solution.getTerritory().getNode(entry.getKey()),
+                            WaitTime.getWaitTime(entry.getValue(), TimeUnit.MILLISECONDS));
+                }
+            }
+            solution.setScore(null);
+        }
+
+        public HardAndSoftScore getScore() {
+            return this.score;
+        }
+
+    }
+
+    private final int                          capacity;
+    private final AtomicReference<List<Elite>> elites = new AtomicReference<>(
+                                                          Collections.<Elite> emptyList());
+
+    /**
+     * 
+     * @param capacity How many of the best solutions to keep.
+     */
+    public ElitePool(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Elite pool must have room for at least 1 solution.");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Get the best solution in the pool.
+     * 
+     * @return The best elite, or null if the pool is empty.
+     */
+    public Elite getBest() {
+        final List<Elite> current = this.elites.get();
+        return current.isEmpty() ? null : current.get(0);
+    }
+
+    private boolean isAccepted(final List<Elite> current, final HardAndSoftScore score) {
+        for (final Elite e : current) {
+            if (e.getScore().equals(score)) {
+                // most probably the same solution; keep the pool diverse
+                return false;
+            }
+        }
+        if (current.size() < this.capacity) {
+            return true;
+        }
+        return current.get(current.size() - 1).getScore().compareTo(score) < 0;
+    }
+
+    /**
+     * Publish a solution to the pool. It will only be kept when it is better than the worst solution in a full pool.
+     * 
+     * @param solution The solution to publish. Must have a score.
+     * @return True if the solution made it into the pool.
+     */
+    public boolean offer(final ProblemSolution solution) {
+        final HardAndSoftScore score = solution.getScore();
+        if (score == null) {
+            throw new IllegalArgumentException("Cannot publish a solution without a score.");
+        }
+        if (!this.isAccepted(this.elites.get(), score)) {
+            return false;
+        }
+        final Elite elite = new Elite(solution);
+        while (true) {
+            final List<Elite> current = this.elites.get();
+            if (!this.isAccepted(current, score)) {
+                return false;
+            }
+            final List<Elite> updated = new ArrayList<>(current.size() + 1);
+            boolean inserted = false;
+            for (final Elite e : current) {
+                if (!inserted && e.getScore().compareTo(score) < 0) {
+                    updated.add(elite);
+                    inserted = true;
+                }
+                updated.add(e);
+            }
+            if (!inserted) {
+                updated.add(elite);
+            }
+            if (updated.size() > this.capacity) {
+                updated.remove(updated.size() - 1);
+            }
+            if (this.elites.compareAndSet(current, Collections.unmodifiableList(updated))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Pick one of the solutions in the pool at random.
+     * 
+     * @param random Source of randomness.
+     * @return One of the elites, or null if the pool is empty.
+     */
+    public Elite pick(final Random random) {
+        final List<Elite> current = this.elites.get();
+        if (current.isEmpty()) {
+            return null;
+        }
+        return current.get(random.nextInt(current.size()));
+    }
+
+    public int size() {
+        return this.elites.get().size();
+    }
+
+}
@@ -0,0 +1,220 @@
+package org.drools.planner.examples.ras2012;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.drools.planner.core.Solver;
+import org.drools.planner.core.event.BestSolutionChangedEvent;
+import org.drools.planner.core.event.SolverEventListener;
+import org.drools.planner.core.score.buildin.hardandsoft.HardAndSoftScore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Solvers running on the same data set at the same time, competing with one another. Every registered solver publishes its
+ * best score as it goes, and the best of those scores becomes the leader. When {@link #cancelDominated()} is called, solvers
+ * that have been running for longer than the warm-up period and that lag the leader by more than the margin are terminated
+ * early, so that their threads can be given to fresh solvers.
+ * 
+ * Instances are thread-safe.
+ */
+public class Portfolio {
+
+    /**
+     * Tracks the best score of a single solver.
+     */
+    private final class Run implements SolverEventListener {
+
+        private final Solver              solver;
+        private final long                startTime = System.nanoTime();
+        private volatile HardAndSoftScore bestScore = null;
+        private volatile boolean          cancelled = false;
+
+        public Run(final Solver solver) {
+            this.solver = solver;
+        }
+
+        @Override
+        public void bestSolutionChanged(final BestSolutionChangedEvent event) {
+            final HardAndSoftScore score = ((ProblemSolution) event.getNewBestSolution())
+                    .getScore();
+            if (score == null) {
+                return;
+            }
+            this.bestScore = score;
+            Portfolio.this.offer(score);
+        }
+
+        public HardAndSoftScore getBestScore() {
+            return this.bestScore;
+        }
+
+        public long getRunningTime(final TimeUnit unit) {
+            return unit.convert(System.nanoTime() - this.startTime, TimeUnit.NANOSECONDS);
+        }
+
+        public Solver getSolver() {
+            return this.solver;
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        public void setCancelled() {
+            this.cancelled = true;
+        }
+
+    }
+
+    private static final Logger                     logger    = LoggerFactory
+                                                                      .getLogger(Portfolio.class);
+
+    private final long                              warmUp;
+    private final int                               margin;
+    private final AtomicReference<HardAndSoftScore> leader    = new AtomicReference<>();
+    private final Map<Solver, Run>                  runs      = new ConcurrentHashMap<>();
+    private final AtomicInteger                     cancelled = new AtomicInteger(0);
+
+    /**
+     * 
+     * @param warmUp How long to let every solver run before it can be cancelled.
+     * @param unit Unit of the warm-up period.
+     * @param margin By how many soft score points must a solver lag the leader in order to be cancelled. Solvers with worse
+     *            hard score than the leader are cancelled regardless of the margin.
+     */
+    public Portfolio(final long warmUp, final TimeUnit unit, final int margin) {
+        if (warmUp < 0) {
+            throw new IllegalArgumentException("Warm-up period must not be negative.");
+        }
+        if (margin < 0) {
+            throw new IllegalArgumentException("Margin must not be negative.");
+        }
+        this.warmUp = TimeUnit.MILLISECONDS.convert(warmUp, unit);
+        this.margin = margin;
+    }
+
+    /**
+     * Terminate every solver that is dominated by the leader. See {@link #isDominated(HardAndSoftScore)}.
+     * 
+     * @return How many solvers were cancelled by this call.
+     */
+    public int cancelDominated() {
+        int result = 0;
+        for (final Run r : this.runs.values()) {
+            if (r.isCancelled()) {
+                continue;
+            }
+            if (!this.isCancellable(r.getBestScore(), r.getRunningTime(TimeUnit.MILLISECONDS))) {
+                continue;
+            }
+            if (r.getSolver().terminateEarly()) {
+                Portfolio.logger.info("Cancelling solver with score {}, the leader has {}.",
+                        r.getBestScore(), this.getLeader());
+                r.setCancelled();
+                result++;
+            }
+        }
+        this.cancelled.addAndGet(result);
+        return result;
+    }
+
+    /**
+     * Get the number of solvers cancelled so far.
+     * 
+     * @return Number of cancelled solvers.
+     */
+    public int getCancelledCount() {
+        return this.cancelled.get();
+    }
+
+    /**
+     * Get the best score that any of the solvers has achieved so far.
+     * 
+     * @return The best score, or null if no solver has published a score yet.
+     */
+    public HardAndSoftScore getLeader() {
+        return this.leader.get();
+    }
+
+    /**
+     * Whether or not a solver should be cancelled.
+     * 
+     * @param score Best score of the solver, null if it has none yet.
+     * @param runningTime How long the solver has been running, in milliseconds.
+     * @return True if the solver is past the warm-up period and {@link #isDominated(HardAndSoftScore)}.
+     */
+    boolean isCancellable(final HardAndSoftScore score, final long runningTime) {
+        if (runningTime < this.warmUp) {
+            return false;
+        }
+        return this.isDominated(score);
+    }
+
+    /**
+     * Whether or not a solver with the given best score should be cancelled.
+     * 
+     * @param score Best score of the solver, null if it has none yet.
+     * @return True if the score is worse than the leader's by more than the margin, or if its hard score is worse.
+     */
+    public boolean isDominated(final HardAndSoftScore score) {
+        final HardAndSoftScore leader = this.getLeader();
+        if (leader == null) {
+            return false;
+        }
+        if (score == null) {
+            return true;
+        }
+        if (score.getHardScore() != leader.getHardScore()) {
+            return score.getHardScore() < leader.getHardScore();
+        }
+        return leader.getSoftScore() - score.getSoftScore() > this.margin;
+    }
+
+    /**
+     * Make the score the leader, unless there already is a better one.
+     * 
+     * @param score Score to offer.
+     */
+    void offer(final HardAndSoftScore score) {
+        while (true) {
+            final HardAndSoftScore current = this.leader.get();
+            if (current != null && current.compareTo(score) >= 0) {
+                return;
+            }
+            if (this.leader.compareAndSet(current, score)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Start tracking the solver. Must be called before the solver starts solving.
+     * 
+     * @param solver The solver in question.
+     */
+    public void register(final Solver solver) {
+        final Run r = new Run(solver);
+        this.runs.put(solver, r);
+        solver.addEventListener(r);
+    }
+
+    /**
+     * Stop tracking the solver. Should be called after the solver has finished solving.
+     * 
+     * @param solver The solver in question.
+     * @return True if the solver was cancelled by {@link #cancelDominated()}, false if it finished on its own.
+     */
+    public boolean unregister(final Solver solver) {
+        final Run r = this.runs.remove(solver);
+        if (r == null) {
+            return false;
+        }
+        solver.removeEventListener(r);
+        return r.isCancelled();
+    }
+
+}
@@ -16,6 +16,7 @@ import org.drools.planner.core.solution.Solution;
 import org.drools.planner.examples.ras2012.model.Arc;
 import org.drools.planner.examples.ras2012.model.Itinerary;
 import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.ItineraryTemplate;
 import org.drools.planner.examples.ras2012.model.MaintenanceWindow;
 import org.drools.planner.examples.ras2012.model.Route;
 import org.drools.planner.examples.ras2012.model.Train;
@@ -35,19 +36,45 @@ import org.slf4j.LoggerFactory;
  */
 public class ProblemSolution extends Visualizable implements Solution<HardAndSoftScore> {
 
-    private static final Logger                   logger      = LoggerFactory
-                                                                      .getLogger(ProblemSolution.class);
+    /**
+     * Planning horizon of the data sets that don't specify their own, in milliseconds. Defined by the RAS 2012 problem
+     * description.
+     */
+    public static final long                      DEFAULT_PLANNING_HORIZON = TimeUnit.HOURS
+                                                                                   .toMillis(12);
+
+    private static final Logger                   logger                   = LoggerFactory
+                                                                                   .getLogger(ProblemSolution.class);
+
+    private static long validateHorizon(final long horizon) {
+        if (horizon <= 0) {
+            throw new IllegalArgumentException("Planning horizon must be greater than 0.");
+        }
+        if (horizon > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Your planning horizon doesn't fit into int!");
+        }
+        return horizon;
+    }
 
     private final String                          name;
 
     private final Territory                       territory;
     private final Collection<MaintenanceWindow>   maintenances;
-    private final Map<Train, ItineraryAssignment> assignments = new LinkedHashMap<>();
+    private final Map<Train, ItineraryAssignment> assignments              = new LinkedHashMap<>();
     private final SortedSet<Train>                trains;
 
     private HardAndSoftScore                      score;
 
-    private long                                  horizon     = 0;
+    private final long                            horizon;
+
+    private final long                            freezeTime;
+
+    /**
+     * Templates for every train and route that has been scheduled so far. Shared by all the clones of the solution, as well as
+     * by the solutions of the following cycles of rolling-horizon replanning, since none of them change the territory or
+     * the maintenance windows.
+     */
+    private final ItineraryTemplate.Pool          templates;
 
     /**
      * Create a clone of an existing solution. This clone will be exactly the same as the original solution, except for the
@@ -60,17 +87,58 @@ public class ProblemSolution extends Visualizable implements Solution<HardAndSof
         this.territory = problem.territory;
         this.maintenances = problem.maintenances;
         this.trains = problem.trains;
+        this.templates = problem.templates;
         // clone assignments
         for (final ItineraryAssignment a : problem.getAssignments()) {
             this.assignments.put(a.getTrain(), a.clone());
         }
         this.horizon = problem.horizon;
+        this.freezeTime = problem.freezeTime;
         this.score = problem.getScore();
     }
 
     /**
-     * Initialize a fresh problem. Each train will get a route assigned that is considered best for it. See
-     * {@link Territory#getBestRoute(Train)}.
+     * Create the problem for the next cycle of rolling-horizon replanning. See
+     * {@link #roll(long, TimeUnit, Collection)}.
+     * 
+     * @param previous The solution of the previous cycle.
+     * @param freezeTime The new present time, in milliseconds since the start of the world.
+     * @param announced Trains to admit into the problem.
+     */
+    private ProblemSolution(final ProblemSolution previous, final long freezeTime,
+            final Collection<Train> announced) {
+        this.name = previous.name;
+        this.territory = previous.territory;
+        this.maintenances = previous.maintenances;
+        this.templates = previous.templates;
+        this.freezeTime = freezeTime;
+        this.horizon = ProblemSolution.validateHorizon(freezeTime + previous.horizon
+                - previous.freezeTime);
+        this.trains = new TreeSet<Train>();
+        for (final ItineraryAssignment ia : previous.getAssignments()) {
+            if (ia.getItinerary().getArrivalTime() < freezeTime) {
+                // the train has left the territory already
+                continue;
+            }
+            this.trains.add(ia.getTrain());
+            this.assignments.put(ia.getTrain(), ia.clone(this));
+        }
+        final SolutionInitializer initializer = new SolutionInitializer(this.territory);
+        for (final Train t : announced) {
+            if (previous.getAssignment(t) != null) {
+                throw new IllegalArgumentException("Train " + t.getName()
+                        + " has already been announced.");
+            }
+            this.trains.add(t);
+            final ItineraryAssignment ia = new ItineraryAssignment(t, this);
+            ia.setRoute(initializer.getInitialRoute(t));
+            this.assignments.put(t, ia);
+        }
+    }
+
+    /**
+     * Initialize a fresh problem with the {@link #DEFAULT_PLANNING_HORIZON}. Each train will get a route assigned that is
+     * considered best for it. See {@link SolutionInitializer#getInitialRoute(Train)}.
      * 
      * @param name Name for the problem.
      * @param trains Trains to travel on the territory.
@@ -79,18 +147,40 @@ public class ProblemSolution extends Visualizable implements Solution<HardAndSof
      */
     public ProblemSolution(final String name, final Collection<Train> trains,
             final Territory territory, final Collection<MaintenanceWindow> maintenances) {
+        this(name, trains, territory, maintenances, ProblemSolution.DEFAULT_PLANNING_HORIZON,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Initialize a fresh problem. Each train will get a route assigned that is considered best for it. See
+     * {@link SolutionInitializer#getInitialRoute(Train)}.
+     * 
+     * @param name Name for the problem.
+     * @param trains Trains to travel on the territory.
+     * @param territory Problem's territory, containing routes for trains.
+     * @param maintenances Maintenance windows existing on the territory.
+     * @param horizon The planning horizon, see {@link #getPlanningHorizon(TimeUnit)}.
+     * @param unit Unit of the planning horizon.
+     * @throws IllegalArgumentException When the planning horizon isn't positive or doesn't fit into int milliseconds.
+     */
+    public ProblemSolution(final String name, final Collection<Train> trains,
+            final Territory territory, final Collection<MaintenanceWindow> maintenances,
+            final long horizon, final TimeUnit unit) {
         this.name = name;
         this.territory = territory;
         this.maintenances = maintenances;
         this.trains = new TreeSet<Train>(trains);
+        this.horizon = ProblemSolution.validateHorizon(unit.toMillis(horizon));
+        this.templates = new ItineraryTemplate.Pool(maintenances);
+        this.freezeTime = 0;
         /*
          * generate assignments; always pick the best route for the particular train, nevermind if it's used by another train
          * already.
          */
-        // TODO separate into a solution initializer, for the sake of clarity
+        final SolutionInitializer initializer = new SolutionInitializer(territory);
         for (final Train t : this.getTrains()) {
             final ItineraryAssignment ia = new ItineraryAssignment(t, this);
-            ia.setRoute(this.getTerritory().getBestRoute(t));
+            ia.setRoute(initializer.getInitialRoute(t));
             this.assignments.put(t, ia);
         }
     }
@@ -111,6 +201,19 @@ public class ProblemSolution extends Visualizable implements Solution<HardAndSof
         return this.assignments.get(t);
     }
 
+    /**
+     * Get the template for the itineraries of a particular train on a particular route. The template is only created once,
+     * on first request, and shared from then on.
+     * 
+     * @param t Train in question.
+     * @param r Route in question.
+     * @return The template.
+     * @throws IllegalArgumentException When the route is impossible for the train.
+     */
+    public ItineraryTemplate getItineraryTemplate(final Train t, final Route r) {
+        return this.templates.get(t, r);
+    }
+
     /**
      * Retrieve assignments for all the train.
      * 
@@ -130,6 +233,18 @@ public class ProblemSolution extends Visualizable implements Solution<HardAndSof
         return this.maintenances;
     }
 
+    /**
+     * The present time. Everything that happens before it has already happened and can not be planned any more; trains that
+     * have entered the territory before it stay on their routes and no wait times may be changed where the train would
+     * arrive before it. Zero unless the solution comes from {@link #roll(long, TimeUnit, Collection)}.
+     * 
+     * @param unit Unit of time that the present time will be returned in.
+     * @return The present time since the start of the world, in the chosen unit of time.
+     */
+    public long getFreezeTime(final TimeUnit unit) {
+        return unit.convert(this.freezeTime, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Name for the problem, usually coming from a data set.
      * 
@@ -141,23 +256,12 @@ public class ProblemSolution extends Visualizable implements Solution<HardAndSof
 
     /**
      * The time window in which to operate. No events outside the <0, $horizon> range will count towards the score. Zero is the
-     * present time.
+     * start of the world; see {@link #getFreezeTime(TimeUnit)} for the present time.
      * 
      * @param unit Unit of time that the horizon will be returned in.
      * @return The value of the planning horizon, in the chosen unit of time.
      */
     public long getPlanningHorizon(final TimeUnit unit) {
-        if (this.horizon == 0) {
-            if (this.getName().endsWith("TOY")) {
-                // FIXME ugly hack
-                this.horizon = TimeUnit.MILLISECONDS.convert(150, TimeUnit.MINUTES);
-            } else {
-                this.horizon = TimeUnit.MILLISECONDS.convert(12, TimeUnit.HOURS);
-            }
-            if (this.horizon > Integer.MAX_VALUE) {
-                throw new IllegalStateException("Your planning horizon doesn't fit into int!");
-            }
-        }
         return unit.convert(this.horizon, TimeUnit.MILLISECONDS);
     }
 
@@ -189,10 +293,41 @@ public class ProblemSolution extends Visualizable implements Solution<HardAndSof
         return Collections.unmodifiableSortedSet(this.trains);
     }
 
+    /**
+     * <p>
+     * Create the problem for the next cycle of rolling-horizon replanning, starting from this solution. Trains keep their
+     * routes and wait times, so that the solver can continue from where the previous cycle ended instead of from scratch.
+     * </p>
+     * 
+     * <p>
+     * The present time moves to the given time, freezing every train movement before it. Trains that have reached their
+     * destinations before it are dropped, newly announced trains are admitted on their initial routes. The planning horizon
+     * moves forward along with the present time, keeping its length.
+     * </p>
+     * 
+     * @param now The new present time, since the start of the world.
+     * @param unit Unit of the present time.
+     * @param announced Trains that have been announced since the previous cycle. They must come from the same territory.
+     * @return The new problem. This solution is not modified.
+     * @throws IllegalArgumentException When the present time would move backwards or when one of the announced trains has
+     *             already been announced.
+     */
+    public ProblemSolution roll(final long now, final TimeUnit unit,
+            final Collection<Train> announced) {
+        final long freeze = unit.toMillis(now);
+        if (freeze < this.freezeTime) {
+            throw new IllegalArgumentException("Present time must not move backwards.");
+        }
+        return new ProblemSolution(this, freeze, announced);
+    }
+
     @Override
     public void setScore(final HardAndSoftScore score) {
-        ProblemSolution.logger.debug("Setting score {} to solution {} (previous score {}).",
-                new Object[] { score, this, this.score });
+        if (ProblemSolution.logger.isDebugEnabled()) {
+            // this is called for every move, don't allocate the arguments needlessly
+            ProblemSolution.logger.debug("Setting score {} to solution {} (previous score {}).",
+                    new Object[] { score, this, this.score });
+        }
         this.score = score;
     }
 
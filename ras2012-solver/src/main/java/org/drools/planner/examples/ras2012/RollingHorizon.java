@@ -0,0 +1,109 @@
+package org.drools.planner.examples.ras2012;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.core.solver.DefaultSolver;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Replans the problem continuously, as time goes by, instead of solving it once. Every cycle moves the present time forward,
+ * freezes every train movement before it, drops the trains that have left the territory and admits the trains that have been
+ * announced in the meantime. See {@link ProblemSolution#roll(long, TimeUnit, Collection)}.
+ * </p>
+ * 
+ * <p>
+ * The solver then starts from the plan of the previous cycle, which is usually close to a good plan already. Therefore, the
+ * template should only contain a local search, without any construction heuristic, and every cycle only gets a few seconds.
+ * </p>
+ * 
+ * Instances are thread-safe, but only one cycle runs at a time.
+ */
+public class RollingHorizon {
+
+    private static final Logger  logger = LoggerFactory.getLogger(RollingHorizon.class);
+
+    private final SolverTemplate template;
+    private final long           cycleTime;
+    private final TimeUnit       cycleTimeUnit;
+    private ProblemSolution      plan;
+    private long                 seed   = -1;
+
+    /**
+     * 
+     * @param template Template to build the solvers from, one for every cycle.
+     * @param plan The plan to start from, usually the result of solving the problem once from scratch.
+     * @param cycleTime How long every cycle may take at most.
+     * @param unit Unit of the cycle time.
+     */
+    public RollingHorizon(final SolverTemplate template, final ProblemSolution plan,
+            final long cycleTime, final TimeUnit unit) {
+        if (template == null || plan == null) {
+            throw new IllegalArgumentException("Neither template nor plan may be null.");
+        }
+        if (cycleTime <= 0) {
+            throw new IllegalArgumentException("Cycle time must be greater than 0.");
+        }
+        this.template = template;
+        this.plan = plan;
+        this.cycleTime = cycleTime;
+        this.cycleTimeUnit = unit;
+    }
+
+    /**
+     * Move the present time forward and replan.
+     * 
+     * @param now The new present time, since the start of the world.
+     * @param unit Unit of the present time.
+     * @param announced Trains that have been announced since the previous cycle.
+     * @return The new plan.
+     * @throws IllegalArgumentException When the present time would move backwards or when one of the trains has already
+     *             been announced.
+     */
+    public synchronized ProblemSolution advance(final long now, final TimeUnit unit,
+            final Collection<Train> announced) {
+        final long startTime = System.nanoTime();
+        final ProblemSolution problem = this.plan.roll(now, unit, announced);
+        if (problem.getTrains().isEmpty()) {
+            // no train to plan for, the solver would have no moves to make
+            problem.setScore(ScoreCalculator.oneTimeCalculation(problem));
+            this.plan = problem;
+            this.seed = -1;
+        } else {
+            final DefaultSolver solver = this.template.buildSolver(-1, this.cycleTime,
+                    this.cycleTimeUnit);
+            solver.setPlanningProblem(problem);
+            solver.solve();
+            this.plan = (ProblemSolution) solver.getBestSolution();
+            this.seed = solver.getRandomSeed();
+        }
+        RollingHorizon.logger.info(
+                "Replanned {} trains at {} minutes in {} ms, {} newly announced. Score: {}.",
+                new Object[] { this.plan.getTrains().size(), unit.toMinutes(now),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime),
+                        announced.size(), this.plan.getScore() });
+        return this.plan;
+    }
+
+    /**
+     * The plan of the latest cycle.
+     * 
+     * @return The plan.
+     */
+    public synchronized ProblemSolution getPlan() {
+        return this.plan;
+    }
+
+    /**
+     * Random seed of the solver in the latest cycle.
+     * 
+     * @return The seed, or -1 if no solver was needed in the latest cycle.
+     */
+    public synchronized long getSeed() {
+        return this.seed;
+    }
+
+}
@@ -1,8 +1,14 @@
 package org.drools.planner.examples.ras2012;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.NotImplementedException;
@@ -17,6 +23,7 @@ import org.drools.planner.examples.ras2012.model.Track;
 import org.drools.planner.examples.ras2012.model.Train;
 import org.drools.planner.examples.ras2012.util.Converter;
 import org.drools.planner.examples.ras2012.util.EntryRegistry;
+import org.drools.planner.examples.ras2012.util.FenwickTree;
 
 /**
  * <p>
@@ -56,10 +63,25 @@ import org.drools.planner.examples.ras2012.util.EntryRegistry;
  * <li>and time spent on unpreferred tracks (see {@link #getUnpreferredTracksPenalty(Itinerary)}).</li>
  * </ul>
  * 
+ * <p>
+ * Finally, the calculator knows which trains contribute the most to the score, so that moves can focus on them. See
+ * {@link #pickHotspot(Random)}.
+ * </p>
+ * 
  */
 public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemSolution> {
 
-    private static final BigDecimal MILLIS_TO_HOURS = BigDecimal.valueOf(3600000);
+    private static final BigDecimal MILLIS_TO_HOURS      = BigDecimal.valueOf(3600000);
+
+    /**
+     * How much every broken hard constraint adds to the hotspot weight of a train.
+     */
+    private static final long       HOTSPOT_HARD_WEIGHT  = 100;
+
+    /**
+     * How many dollars of soft penalty add 1 to the hotspot weight of a train.
+     */
+    private static final long       HOTSPOT_SOFT_DIVISOR = 100;
 
     /**
      * Perform a one-time calculation on a given solution. This eliminates the possible side-effects of incremental score
@@ -87,18 +109,27 @@ public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemS
         return sum;
     }
 
-    private ProblemSolution           solution                   = null;
+    private ProblemSolution              solution                   = null;
 
-    private final Map<Train, Integer> wantTimePenalties          = new HashMap<>();
+    private long                         horizon                    = 0;
 
-    private final Map<Train, Integer> delayPenalties             = new HashMap<>();
+    private final Map<Train, Integer>    wantTimePenalties          = new HashMap<>();
 
-    private final Map<Train, Integer> scheduleAdherencePenalties = new HashMap<>();
+    private final Map<Train, Integer>    delayPenalties             = new HashMap<>();
 
-    private final Map<Train, Integer> unpreferredTracksPenalties = new HashMap<>();
-    private final Map<Train, Integer> uselessSidingsPenalties    = new HashMap<>();
+    private final Map<Train, Integer>    scheduleAdherencePenalties = new HashMap<>();
 
-    private EntryRegistry             entries;
+    private final Map<Train, Integer>    unpreferredTracksPenalties = new HashMap<>();
+    private final Map<Train, Integer>    uselessSidingsPenalties    = new HashMap<>();
+
+    private EntryRegistry                entries;
+
+    private final List<Train>            hotspotTrains              = new ArrayList<>();
+    private final Map<Train, Integer>    hotspotIndexes             = new HashMap<>();
+    private final Map<Train, Set<Train>> hotspotPartners            = new HashMap<>();
+    private final Set<Train>             changedTrains              = new HashSet<>();
+    private final List<Train>            trainsInConflict           = new ArrayList<>();
+    private FenwickTree                  hotspots                   = new FenwickTree(0);
 
     @Override
     public void afterAllVariablesChanged(final Object entity) {
@@ -166,6 +197,43 @@ public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemS
         return DefaultHardAndSoftScore.valueOf(-hardPenalty, -softPenalty);
     }
 
+    /**
+     * The trains that a train is in conflict with on any arc, as of the latest {@link #refreshHotspots()}.
+     * 
+     * @param t The train in question.
+     * @return Trains in their natural order, empty if there are no conflicts.
+     */
+    public Set<Train> getConflictingTrains(final Train t) {
+        final Set<Train> partners = this.hotspotPartners.get(t);
+        if (partners == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(partners);
+    }
+
+    /**
+     * The trains that a train is in conflict with on an arc, in the current state of the solution. See
+     * {@link EntryRegistry#getConflictingTrains(Arc, Train)}.
+     * 
+     * @param t The train in question.
+     * @param a The arc in question.
+     * @return Trains, empty if there are no conflicts.
+     */
+    public List<Train> getConflictingTrains(final Train t, final Arc a) {
+        return this.entries.getConflictingTrains(a, t);
+    }
+
+    /**
+     * The conflicts that a train is involved in, in the current state of the solution. See
+     * {@link EntryRegistry#countConflicts(Train)}.
+     * 
+     * @param t The train in question.
+     * @return Number of conflicts, by the arc where they happen.
+     */
+    public Map<Arc, Integer> getConflicts(final Train t) {
+        return this.entries.countConflicts(t);
+    }
+
     /**
      * Calculate delay penalty for a given schedule. The rules for that are defined by the RAS 2012 problem statement.
      * 
@@ -173,7 +241,7 @@ public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemS
      * @return The penalty in dollars.
      */
     public int getDelayPenalty(final Itinerary i) {
-        final long delay = i.getDelay(this.solution.getPlanningHorizon(TimeUnit.MILLISECONDS));
+        final long delay = i.getDelay(this.horizon);
         if (delay <= 0) {
             return 0;
         }
@@ -256,6 +324,15 @@ public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemS
         return 0;
     }
 
+    /**
+     * The trains that are in conflict with at least one other train, as of the latest {@link #refreshHotspots()}.
+     * 
+     * @return Trains in the order of the solution's assignments, empty if there are no conflicts.
+     */
+    public List<Train> getTrainsInConflict() {
+        return Collections.unmodifiableList(this.trainsInConflict);
+    }
+
     /**
      * Calculate a penalty for using unpreferred tracks in a given schedule. The rules for that are defined by the RAS 2012
      * problem statement.
@@ -265,8 +342,7 @@ public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemS
      */
     public int getUnpreferredTracksPenalty(final Itinerary i) {
         final BigDecimal hours = ScoreCalculator.roundMillisecondsToHours(i
-                .getTimeSpentOnUnpreferredTracks(this.solution
-                        .getPlanningHorizon(TimeUnit.MILLISECONDS)));
+                .getTimeSpentOnUnpreferredTracks(this.horizon));
         return hours.multiply(BigDecimal.valueOf(50)).intValue();
     }
 
@@ -299,6 +375,32 @@ public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemS
         return 0;
     }
 
+    /**
+     * The weight of a train in {@link #pickHotspot(Random)}, as of the latest {@link #refreshHotspots()}.
+     * 
+     * @param t The train in question.
+     * @return The weight.
+     */
+    long getHotspotWeight(final Train t) {
+        return this.hotspots.getWeight(this.hotspotIndexes.get(t));
+    }
+
+    /**
+     * The weight of a train in {@link #pickHotspot(Random)}. Every train has the weight of at least 1, so that even trains
+     * that are fine now may still be picked.
+     * 
+     * @param t The train in question.
+     * @param conflicts Number of entry conflicts that the train is involved in.
+     * @return The weight.
+     */
+    private long getHotspotWeight(final Train t, final int conflicts) {
+        final long hardPenalty = conflicts + this.uselessSidingsPenalties.get(t);
+        final long softPenalty = this.wantTimePenalties.get(t) + this.delayPenalties.get(t)
+                + this.scheduleAdherencePenalties.get(t) + this.unpreferredTracksPenalties.get(t);
+        return 1 + hardPenalty * ScoreCalculator.HOTSPOT_HARD_WEIGHT + softPenalty
+                / ScoreCalculator.HOTSPOT_SOFT_DIVISOR;
+    }
+
     /**
      * Whether or not a given time falls into the planning horizon.
      * 
@@ -309,7 +411,7 @@ public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemS
         if (time < 0) {
             return false;
         }
-        return time <= this.solution.getPlanningHorizon(TimeUnit.MILLISECONDS);
+        return time <= this.horizon;
     }
 
     /**
@@ -326,6 +428,48 @@ public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemS
         this.delayPenalties.put(t, this.getDelayPenalty(i));
         this.uselessSidingsPenalties.put(t, this.getPenaltyForNoMeetPassOnSidings(i));
         this.recalculateEntries(ia);
+        this.changedTrains.add(t);
+    }
+
+    /**
+     * Pick one of the trains in conflict at random, with the same weights as {@link #pickHotspot(Random)} has. Trains that
+     * are not in conflict with any other train are never picked.
+     * 
+     * @param random The source of randomness.
+     * @return The train, or null if there are no conflicts.
+     */
+    public Train pickConflictingHotspot(final Random random) {
+        long total = 0;
+        for (final Train t : this.trainsInConflict) {
+            total += this.getHotspotWeight(t);
+        }
+        if (total == 0) {
+            return null;
+        }
+        long remaining = Math.min((long) (random.nextDouble() * total), total - 1);
+        for (final Train t : this.trainsInConflict) {
+            remaining -= this.getHotspotWeight(t);
+            if (remaining < 0) {
+                return t;
+            }
+        }
+        throw new IllegalStateException("Picked beyond the total weight.");
+    }
+
+    /**
+     * Pick a train at random, with the probability proportional to how much the train contributes to the current score.
+     * Conflicts and useless sidings weigh the most, soft penalties only a little. The weights are as of the latest
+     * {@link #refreshHotspots()}.
+     * 
+     * @param random The source of randomness.
+     * @return The train, or null if there are no trains.
+     */
+    public Train pickHotspot(final Random random) {
+        final int index = this.hotspots.pick(random);
+        if (index < 0) {
+            return null;
+        }
+        return this.hotspotTrains.get(index);
     }
 
     /**
@@ -357,6 +501,49 @@ public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemS
         }
     }
 
+    /**
+     * Bring the weights used by {@link #pickHotspot(Random)} up to date with the solution. Only the trains that have changed
+     * since the previous refresh are weighed again, along with the trains that they were or are in conflict with, since every
+     * conflict counts for both of the trains.
+     * 
+     * Move selection is expected to call this once before every step. Moves that are done and undone within a step leave the
+     * solution the way it was, so there is no need to refresh after every one of them.
+     */
+    public void refreshHotspots() {
+        if (this.changedTrains.isEmpty()) {
+            return;
+        }
+        final Set<Train> affected = new HashSet<>(this.changedTrains);
+        for (final Train t : this.changedTrains) {
+            final Set<Train> previousPartners = this.hotspotPartners.get(t);
+            if (previousPartners != null) {
+                affected.addAll(previousPartners);
+            }
+            affected.addAll(this.entries.getConflictingTrains(t));
+        }
+        for (final Train t : affected) {
+            int conflicts = 0;
+            for (final int arcConflicts : this.getConflicts(t).values()) {
+                conflicts += arcConflicts;
+            }
+            this.hotspots.setWeight(this.hotspotIndexes.get(t),
+                    this.getHotspotWeight(t, conflicts));
+            final Set<Train> partners = this.entries.getConflictingTrains(t);
+            if (partners.isEmpty()) {
+                this.hotspotPartners.remove(t);
+            } else {
+                this.hotspotPartners.put(t, partners);
+            }
+        }
+        this.changedTrains.clear();
+        this.trainsInConflict.clear();
+        for (final Train t : this.hotspotTrains) {
+            if (this.hotspotPartners.containsKey(t)) {
+                this.trainsInConflict.add(t);
+            }
+        }
+    }
+
     /**
      * Prepare the calculator for working on a completely different solution. Resets all the caches.
      * 
@@ -365,15 +552,24 @@ public class ScoreCalculator extends AbstractIncrementalScoreCalculator<ProblemS
     @Override
     public void resetWorkingSolution(final ProblemSolution workingSolution) {
         this.solution = workingSolution;
+        this.horizon = workingSolution.getPlanningHorizon(TimeUnit.MILLISECONDS);
         this.wantTimePenalties.clear();
         this.unpreferredTracksPenalties.clear();
         this.scheduleAdherencePenalties.clear();
         this.uselessSidingsPenalties.clear();
         this.delayPenalties.clear();
-        this.entries = new EntryRegistry(Node.count());
+        this.entries = new EntryRegistry(this.solution.getTerritory().getNodes().count());
+        this.hotspotTrains.clear();
+        this.hotspotIndexes.clear();
+        this.hotspotPartners.clear();
+        this.changedTrains.clear();
+        this.trainsInConflict.clear();
         for (final ItineraryAssignment ia : this.solution.getAssignments()) {
+            this.hotspotIndexes.put(ia.getTrain(), this.hotspotTrains.size());
+            this.hotspotTrains.add(ia.getTrain());
             this.modify(ia);
         }
+        this.hotspots = new FenwickTree(this.hotspotTrains.size());
     }
 
 }
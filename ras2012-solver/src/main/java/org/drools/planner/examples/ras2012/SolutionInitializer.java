@@ -0,0 +1,42 @@
+package org.drools.planner.examples.ras2012;
+
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.util.model.ShortestPathFinder;
+import org.drools.planner.examples.ras2012.util.model.Territory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides on the initial state of a freshly created {@link ProblemSolution}. Each train gets the route that is the cheapest
+ * for it to travel, as determined by {@link ShortestPathFinder}. Should that route not be available to the solver, the
+ * train gets {@link Territory#getBestRoute(Train)} instead.
+ */
+public class SolutionInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SolutionInitializer.class);
+
+    private final Territory     territory;
+
+    public SolutionInitializer(final Territory territory) {
+        this.territory = territory;
+    }
+
+    /**
+     * Decide which route the train should start on.
+     * 
+     * @param t The train in question.
+     * @return The route.
+     */
+    public Route getInitialRoute(final Train t) {
+        final Route r = this.territory.getShortestRoute(t);
+        if (r != null && this.territory.isCandidateRoute(t, r)) {
+            return r;
+        }
+        SolutionInitializer.logger.debug(
+                "Shortest path for train {} not among its routes, falling back to the best route.",
+                t.getName());
+        return this.territory.getBestRoute(t);
+    }
+
+}
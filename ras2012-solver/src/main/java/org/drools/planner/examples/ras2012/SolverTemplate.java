@@ -0,0 +1,128 @@
+package org.drools.planner.examples.ras2012;
+
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.config.EnvironmentMode;
+import org.drools.planner.config.XmlSolverFactory;
+import org.drools.planner.config.solver.SolverConfig;
+import org.drools.planner.config.termination.TerminationConfig;
+import org.drools.planner.core.solver.DefaultSolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Builds solvers from a solver configuration that is only parsed once. Parsing the XML configuration is expensive compared
+ * to building a solver from it, and applications that start many solvers, such as the lookup mode or an application that
+ * solves a problem per request, shouldn't pay for it every time.
+ * </p>
+ * 
+ * <p>
+ * Every solver gets its own {@link SolverConfig}, inheriting from the parsed one. Solvers are always built in
+ * {@link EnvironmentMode#REPRODUCIBLE}, so that their random seed can be captured and the results reproduced.
+ * </p>
+ * 
+ * Instances are thread-safe.
+ */
+public class SolverTemplate {
+
+    private static final Logger logger = LoggerFactory.getLogger(SolverTemplate.class);
+
+    private static final Random RANDOM = new Random(System.nanoTime());
+
+    /**
+     * Parse the solver configuration.
+     * 
+     * @param resource Location of the configuration on the class path.
+     * @return Template building solvers with the configuration.
+     * @throws IllegalArgumentException When there is no such resource.
+     */
+    public static SolverTemplate fromResource(final String resource) {
+        return new SolverTemplate(SolverTemplate.readConfig(resource));
+    }
+
+    /**
+     * Parse the solver configuration, so that it can be adjusted before a template is created from it.
+     * 
+     * @param resource Location of the configuration on the class path.
+     * @return The configuration.
+     * @throws IllegalArgumentException When there is no such resource.
+     */
+    public static SolverConfig readConfig(final String resource) {
+        final InputStream is = SolverTemplate.class.getResourceAsStream(resource);
+        if (is == null) {
+            throw new IllegalArgumentException("No such solver configuration: " + resource);
+        }
+        final XmlSolverFactory configurer = new XmlSolverFactory();
+        configurer.configure(is);
+        return configurer.getSolverConfig();
+    }
+
+    private final SolverConfig config;
+
+    /**
+     * 
+     * @param config The configuration to build solvers from. Must not be modified after it has been passed here.
+     */
+    public SolverTemplate(final SolverConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("Solver configuration must not be null.");
+        }
+        if (config.getEnvironmentMode() != EnvironmentMode.REPRODUCIBLE) {
+            SolverTemplate.logger.info(
+                    "Overriding Planner enviromnent mode (from {} to {}) to be able to capture the seed.",
+                    new Object[] { config.getEnvironmentMode(), EnvironmentMode.REPRODUCIBLE });
+        }
+        this.config = config;
+    }
+
+    /**
+     * Build a solver with a random seed.
+     * 
+     * @return The solver. Use {@link DefaultSolver#getRandomSeed()} to retrieve the seed.
+     */
+    public DefaultSolver buildSolver() {
+        return this.buildSolver(-1);
+    }
+
+    /**
+     * Build a solver with the given seed.
+     * 
+     * @param seed Random seed for the solver. If < 0, a random seed will be used instead.
+     * @return The solver.
+     */
+    public DefaultSolver buildSolver(final long seed) {
+        return this.buildSolver(seed, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Build a solver with the given seed, that terminates when the time limit runs out, regardless of the termination in the
+     * configuration.
+     * 
+     * @param seed Random seed for the solver. If < 0, a random seed will be used instead.
+     * @param timeLimit How long the solver may run at most. If <= 0, only the configuration decides about the termination.
+     *            Will be rounded up to whole seconds.
+     * @param unit Unit of the time limit.
+     * @return The solver.
+     */
+    public DefaultSolver buildSolver(final long seed, final long timeLimit, final TimeUnit unit) {
+        final SolverConfig solverConfig = new SolverConfig();
+        solverConfig.setEnvironmentMode(EnvironmentMode.REPRODUCIBLE);
+        solverConfig.setRandomSeed(seed < 0 ? SolverTemplate.RANDOM.nextInt() : seed);
+        if (timeLimit > 0) {
+            final TerminationConfig termination = new TerminationConfig();
+            termination.setMaximumSecondsSpend(Math.max(1,
+                    (unit.toMillis(timeLimit) + TimeUnit.SECONDS.toMillis(1) - 1)
+                            / TimeUnit.SECONDS.toMillis(1)));
+            solverConfig.setTerminationConfig(termination);
+        }
+        synchronized (this.config) {
+            // the rest of the configuration is shared with the template, not copied
+            solverConfig.inherit(this.config);
+            return (DefaultSolver) solverConfig.buildSolver();
+        }
+    }
+
+}
@@ -5,7 +5,6 @@ import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -16,7 +15,6 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.drools.planner.examples.ras2012.Visualizable;
 import org.drools.planner.examples.ras2012.util.Converter;
-import org.drools.planner.examples.ras2012.util.model.ArcProgression;
 import org.drools.planner.examples.ras2012.util.model.Territory;
 import org.drools.planner.examples.ras2012.util.visualizer.ItineraryVisualizer;
 import org.slf4j.Logger;
@@ -30,30 +28,48 @@ import org.slf4j.LoggerFactory;
  * 
  * This class has no concept of planning horizon. It always calculates the whole schedule, from the train entry to train
  * reaching destination.
+ * 
+ * Everything that only depends on the train and the route is kept in an {@link ItineraryTemplate}, shared by all the
+ * itineraries of the same train on the same route. Itineraries themselves only keep their wait times and the schedule that
+ * follows from them. Copies made by {@link #Itinerary(Itinerary)} share the schedule computed so far, since it is never
+ * modified once created, so only the wait times need to be copied.
  */
 public final class Itinerary extends Visualizable {
 
-    private static final TimeUnit              DEFAULT_TIME_UNIT     = TimeUnit.MILLISECONDS;
-
-    private final Route                        route;
+    static final TimeUnit                      DEFAULT_TIME_UNIT     = TimeUnit.MILLISECONDS;
 
-    private final Train                        train;
+    private final ItineraryTemplate            template;
 
     private final AtomicBoolean                scheduleCacheValid    = new AtomicBoolean(false);
-    private final Collection<Node>             hasNodes              = new LinkedHashSet<>();
     private SortedMap<Long, Node>              scheduleCache         = new TreeMap<>();
     private SortedMap<Long, Arc>               scheduleCacheWithArcs = new TreeMap<>();
     private final long                         trainEntryTime;
     private final Map<Node, WaitTime>          nodeWaitTimes         = new HashMap<>();
 
-    // FIXME only one window per node; multiple different windows with same node will get lost
-    private final Map<Node, MaintenanceWindow> maintenances          = new HashMap<>();
-
     private static final Logger                logger                = LoggerFactory
                                                                              .getLogger(Itinerary.class);
 
     private Node                               scheduleCacheIsInvalidFrom;
 
+    private int                                revision              = 0;
+
+    /**
+     * Create a copy of the schedule. The copy starts with the same wait times as the original, but they can be changed
+     * independently of each other afterwards.
+     * 
+     * @param original Schedule to copy.
+     */
+    Itinerary(final Itinerary original) {
+        this.template = original.template;
+        this.trainEntryTime = original.trainEntryTime;
+        this.nodeWaitTimes.putAll(original.nodeWaitTimes);
+        // the schedule maps are unmodifiable and get replaced on recalculation, so they can be shared
+        this.scheduleCache = original.scheduleCache;
+        this.scheduleCacheWithArcs = original.scheduleCacheWithArcs;
+        this.scheduleCacheIsInvalidFrom = original.scheduleCacheIsInvalidFrom;
+        this.scheduleCacheValid.set(original.scheduleCacheValid.get());
+    }
+
     /**
      * Create schedule for a given {@link Train}, travelling a given {@link Route}, experiencing no {@link MaintenanceWindow} s.
      * 
@@ -74,36 +90,24 @@ public final class Itinerary extends Visualizable {
      */
     public Itinerary(final Route r, final Train t,
             final Collection<MaintenanceWindow> maintenanceWindows) {
-        if (r == null || t == null) {
-            throw new IllegalArgumentException("Neither route nor train may be null.");
-        }
-        if (!r.isPossibleForTrain(t)) {
-            throw new IllegalArgumentException("Route " + r.getId() + " impossible for train "
-                    + t.getName() + ".");
-        }
-        this.route = r;
-        this.train = t;
-        this.trainEntryTime = t.getEntryTime(Itinerary.DEFAULT_TIME_UNIT);
-
-        final ArcProgression progression = this.getRoute().getProgression();
-        Node currentNode = this.getTrain().getOrigin();
-        this.scheduleCacheIsInvalidFrom = currentNode;
-        do {
-            this.hasNodes.add(currentNode);
-        } while ((currentNode = progression.getNextNode(currentNode)) != this.getTrain()
-                .getDestination());
-        this.hasNodes.add(currentNode);
-
-        // initialize the maintenance windows
-        if (maintenanceWindows != null) {
-            for (final MaintenanceWindow mow : maintenanceWindows) {
-                final Node origin = mow.getOrigin(t);
-                final Node destination = mow.getDestination(t);
-                if (this.hasNode(origin) && this.hasNode(destination)) {
-                    this.maintenances.put(origin, mow);
-                }
-            }
+        this(new ItineraryTemplate(r, t, maintenanceWindows));
+    }
+
+    /**
+     * Create schedule from a template, with no {@link WaitTime}s. The schedule starts out as the baseline schedule of the
+     * template, so there is nothing to calculate until a wait time is set.
+     * 
+     * @param template Template for the train and the route.
+     */
+    public Itinerary(final ItineraryTemplate template) {
+        if (template == null) {
+            throw new IllegalArgumentException("Template may not be null.");
         }
+        this.template = template;
+        this.trainEntryTime = template.getTrain().getEntryTime(Itinerary.DEFAULT_TIME_UNIT);
+        this.scheduleCache = template.getBaselineSchedule();
+        this.scheduleCacheWithArcs = template.getBaselineScheduleWithArcs();
+        this.scheduleCacheValid.set(true);
     }
 
     private void cacheSchedule() {
@@ -116,7 +120,7 @@ public final class Itinerary extends Visualizable {
         Node firstUncachedNode = null;
         for (final SortedMap.Entry<Long, Arc> entry : this.scheduleCacheWithArcs.entrySet()) {
             final Arc a = entry.getValue();
-            final Node n = a.getOrigin(this.train);
+            final Node n = a.getOrigin(this.getTrain());
             if (n == this.scheduleCacheIsInvalidFrom) {
                 // this is the node from which the cache needs to be recreated
                 break;
@@ -124,14 +128,14 @@ public final class Itinerary extends Visualizable {
             final Long time = entry.getKey();
             tempScheduleCache.put(time, n);
             tempScheduleCacheWithArcs.put(time, a);
-            firstUncachedNode = a.getDestination(this.train);
+            firstUncachedNode = a.getDestination(this.getTrain());
         }
         // and now recalculate the bits of cache that aren't valid
         int entryId = 0;
         long previousTime = 0;
         Arc previousArc = null;
         boolean scheduleIsValid = !(firstUncachedNode == null);
-        for (final Node currentNode : this.hasNodes) {
+        for (final Node currentNode : this.template.getNodes()) {
             if (currentNode == firstUncachedNode) {
                 // from this point onward, we will re-calculate the schedule
                 scheduleIsValid = false;
@@ -163,9 +167,9 @@ public final class Itinerary extends Visualizable {
                 time += wt.getWaitFor(Itinerary.DEFAULT_TIME_UNIT);
             }
             // check for maintenance windows
-            if (this.maintenances.containsKey(currentNode)) {
+            final MaintenanceWindow w = this.getMaintenances().get(currentNode);
+            if (w != null) {
                 // there is a maintenance registered for the next node
-                final MaintenanceWindow w = this.maintenances.get(currentNode);
                 if (w.isInside(time, Itinerary.DEFAULT_TIME_UNIT)) { // the maintenance is ongoing, we have to wait
                     // and adjust total node entry time
                     time = w.getEnd(Itinerary.DEFAULT_TIME_UNIT);
@@ -320,7 +324,7 @@ public final class Itinerary extends Visualizable {
      *         arc's destination node. -1 when there's no destination node.
      */
     public long getLeaveTime(final Arc a) {
-        final Arc nextArc = this.route.getProgression().getNextArc(a);
+        final Arc nextArc = this.getRoute().getProgression().getNextArc(a);
         if (nextArc == null) {
             return -1;
         }
@@ -335,7 +339,7 @@ public final class Itinerary extends Visualizable {
      *         nodes's next node. -1 when there's no next node.
      */
     public long getLeaveTime(final Node n) {
-        final Node nextNode = this.route.getProgression().getNextNode(n);
+        final Node nextNode = this.getRoute().getProgression().getNextNode(n);
         if (nextNode == null) {
             return -1;
         }
@@ -343,11 +347,21 @@ public final class Itinerary extends Visualizable {
     }
 
     protected Map<Node, MaintenanceWindow> getMaintenances() {
-        return this.maintenances;
+        return this.template.getMaintenances();
+    }
+
+    /**
+     * Tells whether the schedule has changed. Whatever is calculated from the schedule can be kept for as long as the
+     * revision stays the same.
+     * 
+     * @return A number that changes with every change of the wait times.
+     */
+    public int getRevision() {
+        return this.revision;
     }
 
     public Route getRoute() {
-        return this.route;
+        return this.template.getRoute();
     }
 
     /**
@@ -403,8 +417,17 @@ public final class Itinerary extends Visualizable {
         return spentTime;
     }
 
+    /**
+     * The template that this schedule shares with the other schedules of the same train on the same route.
+     * 
+     * @return The template.
+     */
+    public ItineraryTemplate getTemplate() {
+        return this.template;
+    }
+
     public Train getTrain() {
-        return this.train;
+        return this.template.getTrain();
     }
 
     /**
@@ -437,7 +460,7 @@ public final class Itinerary extends Visualizable {
      * @return True if the {@link Node} is in the itinerary.
      */
     public boolean hasNode(final Node n) {
-        return this.hasNodes.contains(n);
+        return this.template.getNodes().contains(n);
     }
 
     private void invalidateCaches() {
@@ -448,8 +471,14 @@ public final class Itinerary extends Visualizable {
         if (!this.hasNode(n)) {
             throw new IllegalStateException("Itinerary has no node " + n + ".");
         }
-        this.scheduleCacheIsInvalidFrom = n;
+        // the schedule must be recalculated from the earliest of the changed nodes
+        if (this.scheduleCacheValid.get() || this.scheduleCacheIsInvalidFrom == null
+                || this.template.getPosition(n) < this.template
+                        .getPosition(this.scheduleCacheIsInvalidFrom)) {
+            this.scheduleCacheIsInvalidFrom = n;
+        }
         this.scheduleCacheValid.set(false);
+        this.revision++;
     }
 
     /**
@@ -460,7 +489,7 @@ public final class Itinerary extends Visualizable {
      */
     public WaitTime removeWaitTime(final Node n) {
         if (this.nodeWaitTimes.containsKey(n)) {
-            Itinerary.logger.debug("Removing wait time for {} from {}.", new Object[] { n, this });
+            Itinerary.logger.debug("Removing wait time for {} from {}.", n, this);
             this.invalidateCaches(n);
             return this.nodeWaitTimes.remove(n);
         } else {
@@ -474,7 +503,7 @@ public final class Itinerary extends Visualizable {
      */
     public void removeWaitTimes() {
         if (this.nodeWaitTimes.size() > 0) {
-            Itinerary.logger.debug("Removing all wait times from {}.", new Object[] { this });
+            Itinerary.logger.debug("Removing all wait times from {}.", this);
             this.nodeWaitTimes.clear();
             this.invalidateCaches();
         }
@@ -493,16 +522,19 @@ public final class Itinerary extends Visualizable {
         }
         final WaitTime previous = this.nodeWaitTimes.put(n, w);
         this.invalidateCaches(n);
-        Itinerary.logger.debug("Set {} on {} in {}, replacing {}.", new Object[] { w, n, this,
-                previous });
+        if (Itinerary.logger.isDebugEnabled()) {
+            // this is called for every move, don't allocate the arguments needlessly
+            Itinerary.logger.debug("Set {} on {} in {}, replacing {}.", new Object[] { w, n, this,
+                    previous });
+        }
         return previous;
     }
 
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
-        builder.append("Itinerary [route=").append(this.route.getId()).append(", train=")
-                .append(this.train.getName()).append("]");
+        builder.append("Itinerary [route=").append(this.getRoute().getId()).append(", train=")
+                .append(this.getTrain().getName()).append("]");
         return builder.toString();
     }
 
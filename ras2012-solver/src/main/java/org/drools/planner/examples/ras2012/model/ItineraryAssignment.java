@@ -1,12 +1,12 @@
 package org.drools.planner.examples.ras2012.model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import org.drools.planner.api.domain.entity.PlanningEntity;
@@ -14,7 +14,6 @@ import org.drools.planner.api.domain.variable.PlanningVariable;
 import org.drools.planner.api.domain.variable.ValueRange;
 import org.drools.planner.api.domain.variable.ValueRangeType;
 import org.drools.planner.examples.ras2012.ProblemSolution;
-import org.drools.planner.examples.ras2012.util.model.Territory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,26 +24,70 @@ import org.slf4j.LoggerFactory;
 @PlanningEntity
 public final class ItineraryAssignment implements Cloneable {
 
-    private static final Logger                    logger          = LoggerFactory
-                                                                           .getLogger(ItineraryAssignment.class);
+    /**
+     * The wait times allowed at a wait point: the longest one, then the shorter ones from the grid and finally null, which
+     * means no wait time at all. Backed by the grid, so that it takes no time to create.
+     */
+    private static final class WaitTimeRange extends AbstractList<WaitTime> {
+
+        private final WaitTime       longest;
+        private final List<WaitTime> shorter;
+
+        public WaitTimeRange(final WaitTime longest, final List<WaitTime> shorter) {
+            this.longest = longest;
+            this.shorter = shorter;
+        }
+
+        @Override
+        public WaitTime get(final int index) {
+            if (index < 0 || index >= this.size()) {
+                throw new IndexOutOfBoundsException("No wait time at " + index + ".");
+            } else if (index == 0) {
+                return this.longest;
+            } else if (index <= this.shorter.size()) {
+                return this.shorter.get(index - 1);
+            } else {
+                return null;
+            }
+        }
+
+        @Override
+        public int size() {
+            return this.shorter.size() + 2;
+        }
+
+    }
+
+    private static final Logger                              logger          = LoggerFactory
+                                                                                     .getLogger(ItineraryAssignment.class);
 
     /**
      * Numbers from 0 to this will all become wait times. This is done so that the algorithm has enough space for fine-tuning
      * the results.
      */
-    private static final int                       ALL_FIRST_X     = 5;
+    private static final int                                 ALL_FIRST_X     = 5;
 
     /**
      * Specifies what change there will be between two consecutive wait times. Please keep it between 0 and 1, both exclusive.
      * 
      * The current value has been carefully benchmarked against many other values and found to bring the best results.
      */
-    private static final float                     DECREASE_TO     = 7.0f / 8.0f;
+    private static final float                               DECREASE_TO     = 7.0f / 8.0f;
+
+    /**
+     * How far past the planning horizon, in minutes, may a wait time delay the train.
+     */
+    private static final long                                OVERREACH       = 60;
 
-    private static final Map<Long, List<WaitTime>> WAIT_TIME_CACHE = new HashMap<>();
+    /**
+     * Maximum number of horizons to keep the allowed wait times for.
+     */
+    private static final int                                 MAX_CACHED      = 64;
+
+    private static final ConcurrentMap<Long, List<WaitTime>> WAIT_TIME_CACHE = new ConcurrentHashMap<>();
 
     private static List<WaitTime> calculateAllowedWaitTimes(final long horizon) {
-        final List<WaitTime> waitTimes = new LinkedList<>();
+        final List<WaitTime> waitTimes = new ArrayList<>();
         int waitTime = (int) horizon;
         while (waitTime > ItineraryAssignment.ALL_FIRST_X) {
             waitTimes.add(WaitTime.getWaitTime(waitTime));
@@ -64,25 +107,63 @@ public final class ItineraryAssignment implements Cloneable {
 
     private static List<WaitTime> getAllowedWaitTimes(final long horizon) {
         final Long properHorizon = Long.valueOf(horizon);
-        if (!ItineraryAssignment.WAIT_TIME_CACHE.containsKey(properHorizon)) {
-            ItineraryAssignment.WAIT_TIME_CACHE.put(properHorizon,
-                    ItineraryAssignment.calculateAllowedWaitTimes(horizon));
+        final List<WaitTime> cached = ItineraryAssignment.WAIT_TIME_CACHE.get(properHorizon);
+        if (cached != null) {
+            return cached;
+        }
+        final List<WaitTime> waitTimes = Collections.unmodifiableList(ItineraryAssignment
+                .calculateAllowedWaitTimes(horizon));
+        if (ItineraryAssignment.WAIT_TIME_CACHE.size() >= ItineraryAssignment.MAX_CACHED) {
+            return waitTimes;
         }
-        return ItineraryAssignment.WAIT_TIME_CACHE.get(properHorizon);
+        final List<WaitTime> previous = ItineraryAssignment.WAIT_TIME_CACHE.putIfAbsent(
+                properHorizon, waitTimes);
+        return previous == null ? waitTimes : previous;
     }
 
-    private final Train                         train;
+    /**
+     * Pick the wait times from the grid that are shorter than the limit, starting with the limit itself. This way, the wait
+     * times only need to be calculated once for the whole planning horizon, see {@link #getAllowedWaitTimes(long)}.
+     * 
+     * @param grid Wait times for the whole planning horizon, longest first.
+     * @param limit The longest allowed wait time, in minutes.
+     * @return The wait times, longest first, followed by null.
+     */
+    private static List<WaitTime> getAllowedWaitTimes(final List<WaitTime> grid,
+            final long limit) {
+        if (limit < 1) {
+            return Collections.singletonList(null);
+        }
+        // the grid is sorted, longest first; find the first wait time shorter than the limit
+        int low = 0;
+        int high = grid.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (grid.get(middle).getWaitFor(TimeUnit.MINUTES) < limit) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return new WaitTimeRange(WaitTime.getWaitTime(limit, TimeUnit.MINUTES), grid.subList(low,
+                grid.size()));
+    }
+
+    private final Train           train;
+
+    private Route                 route;
+    private Itinerary             itinerary;
+    private final ProblemSolution solution;
 
-    private Route                               route;
-    private Itinerary                           itinerary;
-    private final Collection<MaintenanceWindow> maintenances;
-    private final ProblemSolution               solution;
+    private Itinerary             countedItinerary;
+    private int                   countedRevision;
+    private int                   waitTimeAssignmentCount;
 
     /**
      * Create a new instance. Won't assign any {@link Route} to the {@link Train}.
      * 
      * @param t The train this instance should hold.
-     * @param maintenances The maintenance windows from the {@link Territory}.
+     * @param solution The solution this instance belongs to.
      */
     public ItineraryAssignment(final Train t, final ProblemSolution solution) {
         if (t == null) {
@@ -90,24 +171,66 @@ public final class ItineraryAssignment implements Cloneable {
         }
         this.solution = solution;
         this.train = t;
-        this.maintenances = solution.getMaintenances();
     }
 
     /**
-     * Deep-clone the object, creating a new schedule in the process. That's actually very important, otherwise score corruption
+     * Deep-clone the object, copying the schedule in the process. That's actually very important, otherwise score corruption
      * will occur.
      */
     @Override
     public ItineraryAssignment clone() {
-        final ItineraryAssignment clone = new ItineraryAssignment(this.train, this.solution);
+        return this.clone(this.solution);
+    }
+
+    /**
+     * Deep-clone the object into a different solution of the same problem, such as the next cycle of rolling-horizon
+     * replanning.
+     * 
+     * @param solution The solution that the clone will belong to.
+     * @return The clone.
+     */
+    public ItineraryAssignment clone(final ProblemSolution solution) {
+        final ItineraryAssignment clone = new ItineraryAssignment(this.train, solution);
         clone.route = this.route;
-        clone.itinerary = new Itinerary(this.route, this.train, this.maintenances);
-        for (final Map.Entry<Node, WaitTime> entry : this.getItinerary().getWaitTimes().entrySet()) {
-            clone.itinerary.setWaitTime(entry.getKey(), entry.getValue());
-        }
+        // the copy shares whatever the route determines, only wait times and the schedule are copied
+        clone.itinerary = new Itinerary(this.getItinerary());
         return clone;
     }
 
+    /**
+     * Calculates the possible wait times at a wait point. The longer the train still has to go until the end of the planning
+     * horizon, the longer the wait times.
+     * 
+     * @param waitPoint One of {@link #getWaitPoints()}.
+     * @return The wait times, longest first, followed by null for no wait time. Empty if the wait time can't change any more,
+     *         see {@link ProblemSolution#getFreezeTime(TimeUnit)}. The existing wait time is included.
+     */
+    public List<WaitTime> getAllowedWaitTimes(final Node waitPoint) {
+        // when train entered X minutes after start of world, don't generate wait times to cover those X minutes.
+        final long horizon = this.solution.getPlanningHorizon(TimeUnit.MILLISECONDS);
+        final WaitTime existingWaitTime = this.getItinerary().getWaitTime(waitPoint);
+        final long existing = existingWaitTime == null ? 0 : existingWaitTime
+                .getWaitFor(TimeUnit.MILLISECONDS);
+        final long currentArrival = this.getItinerary().getArrivalTime(waitPoint);
+        if (currentArrival - existing < this.solution.getFreezeTime(TimeUnit.MILLISECONDS)) {
+            // changing the wait time could move the arrival into the past
+            return Collections.emptyList();
+        }
+        long actualHorizon = 0;
+        if (currentArrival > horizon) {
+            actualHorizon = existing;
+        } else {
+            // otherwise only accept wait times that won't cause the train going over the horizon much
+            actualHorizon = horizon - currentArrival + existing
+                    + TimeUnit.MINUTES.toMillis(ItineraryAssignment.OVERREACH);
+        }
+        actualHorizon = Math.max(actualHorizon - 1, 0);
+        actualHorizon = TimeUnit.MILLISECONDS.toMinutes(actualHorizon);
+        final List<WaitTime> grid = ItineraryAssignment.getAllowedWaitTimes(TimeUnit.MILLISECONDS
+                .toMinutes(horizon) + ItineraryAssignment.OVERREACH);
+        return ItineraryAssignment.getAllowedWaitTimes(grid, actualHorizon);
+    }
+
     /**
      * Retrieves the schedule for a given train and route.
      * 
@@ -128,7 +251,10 @@ public final class ItineraryAssignment implements Cloneable {
     }
 
     public Collection<Route> getRoutes() {
-        return this.solution.getTerritory().getRoutes(this.getTrain());
+        if (this.isRouteFrozen()) {
+            return Collections.singletonList(this.route);
+        }
+        return this.solution.getTerritory().getCandidateRoutes(this.getTrain());
     }
 
     public Train getTrain() {
@@ -136,49 +262,78 @@ public final class ItineraryAssignment implements Cloneable {
     }
 
     /**
-     * Calculates the possible wait times for every wait point on the route. Will be used by {@link WaitTimeAssignmentFactory}
-     * to assemble all the valid moves. See {@link #getWaitTimeAssignments()} for the rules by which a wait time is generated.
+     * The wait points on the route that the train passes through.
      * 
-     * @return A collection of all the valid wait points and wait times.
+     * @return Unmodifiable list in the order of travel, empty if there is no route yet.
      */
-    public Collection<WaitTimeAssignment> getWaitTimeAssignments() {
+    public List<Node> getWaitPoints() {
         if (this.route == null) {
             return Collections.emptyList();
         }
-        // when train entered X minutes after start of world, don't generate wait times to cover those X minutes.
-        final long horizon = this.solution.getPlanningHorizon(TimeUnit.MILLISECONDS);
-        final Collection<WaitTimeAssignment> moves = new ArrayList<>();
-        for (final Node waitPoint : this.getRoute().getProgression().getWaitPoints()) {
-            if (!this.getItinerary().hasNode(waitPoint)) {
-                continue;
-            }
+        return this.getItinerary().getTemplate().getWaitPoints();
+    }
+
+    /**
+     * Counts the valid wait points and wait times, without assembling them. See {@link #getWaitTimeAssignments()}. The count
+     * is cached until the itinerary changes, so that only the trains that have actually moved need to be counted again.
+     * 
+     * @return The number of items {@link #getWaitTimeAssignments()} would return.
+     */
+    public int getWaitTimeAssignmentCount() {
+        if (this.itinerary == null) {
+            return 0;
+        }
+        if (this.countedItinerary == this.itinerary
+                && this.countedRevision == this.itinerary.getRevision()) {
+            return this.waitTimeAssignmentCount;
+        }
+        int count = 0;
+        for (final Node waitPoint : this.getWaitPoints()) {
+            final List<WaitTime> waitTimes = this.getAllowedWaitTimes(waitPoint);
+            count += waitTimes.size();
             final WaitTime existingWaitTime = this.getItinerary().getWaitTime(waitPoint);
-            final long currentArrival = this.getItinerary().getArrivalTime(waitPoint);
-            long actualHorizon = 0;
-            if (currentArrival > horizon) {
-                actualHorizon = existingWaitTime == null ? 0 : existingWaitTime
-                        .getWaitFor(TimeUnit.MILLISECONDS);
-            } else {
-                // otherwise only accept wait times that won't cause the train going over the horizon much
-                actualHorizon = horizon
-                        - currentArrival
-                        + (existingWaitTime == null ? 0 : existingWaitTime
-                                .getWaitFor(TimeUnit.MILLISECONDS)) + TimeUnit.MINUTES.toMillis(60);
+            if (existingWaitTime != null && waitTimes.contains(existingWaitTime)) {
+                count--;
             }
-            actualHorizon = Math.max(actualHorizon - 1, 0);
-            actualHorizon = TimeUnit.MILLISECONDS.toMinutes(actualHorizon);
-            for (final WaitTime wt : ItineraryAssignment.getAllowedWaitTimes(actualHorizon)) {
-                if (existingWaitTime == wt) {
+        }
+        this.countedItinerary = this.itinerary;
+        this.countedRevision = this.itinerary.getRevision();
+        this.waitTimeAssignmentCount = count;
+        return count;
+    }
+
+    /**
+     * Calculates the possible wait times for every wait point on the route. Will be used by {@link WaitTimeAssignmentFactory}
+     * to assemble all the valid moves. See {@link #getAllowedWaitTimes(Node)} for the rules by which a wait time is generated.
+     * 
+     * @return A collection of all the valid wait points and wait times.
+     */
+    public Collection<WaitTimeAssignment> getWaitTimeAssignments() {
+        final Collection<WaitTimeAssignment> moves = new ArrayList<>();
+        for (final Node waitPoint : this.getWaitPoints()) {
+            final WaitTime existingWaitTime = this.getItinerary().getWaitTime(waitPoint);
+            for (final WaitTime wt : this.getAllowedWaitTimes(waitPoint)) {
+                if (wt != null && wt.equals(existingWaitTime)) {
                     // there already is such wait time; no need to create the move
                     continue;
                 }
                 moves.add(new WaitTimeAssignment(waitPoint, wt));
             }
-            moves.add(new WaitTimeAssignment(waitPoint, null));
         }
         return moves;
     }
 
+    /**
+     * Whether the train has entered the territory before the present time of the solution, see
+     * {@link ProblemSolution#getFreezeTime(TimeUnit)}. Such trains can not change their routes any more.
+     * 
+     * @return True if the route must not change.
+     */
+    public boolean isRouteFrozen() {
+        return this.train.getEntryTime(TimeUnit.MILLISECONDS) < this.solution
+                .getFreezeTime(TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Set a route for the train. This will in turn create a new schedule (see {@link Itinerary}).
      * 
@@ -191,9 +346,9 @@ public final class ItineraryAssignment implements Cloneable {
         }
         if (this.route != route) {
             this.route = route;
-            ItineraryAssignment.logger.debug("Creating new itinerary for {}.",
-                    new Object[] { this });
-            this.itinerary = new Itinerary(this.route, this.train, this.maintenances);
+            ItineraryAssignment.logger.debug("Creating new itinerary for {}.", this);
+            this.itinerary = new Itinerary(this.solution.getItineraryTemplate(this.train,
+                    this.route));
         }
     }
 
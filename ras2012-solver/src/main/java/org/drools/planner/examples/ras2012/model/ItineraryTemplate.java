@@ -0,0 +1,285 @@
+package org.drools.planner.examples.ras2012.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.drools.planner.examples.ras2012.util.model.ArcProgression;
+
+/**
+ * Everything about an {@link Itinerary} that only depends on the {@link Train} and the {@link Route}: the nodes that the train
+ * passes through, the {@link MaintenanceWindow}s it may run into and the schedule it would have if it never waited anywhere.
+ * 
+ * Templates are immutable, so that all the itineraries of the same train on the same route can share a single one. Every
+ * itinerary then only needs to keep its own {@link WaitTime}s. See
+ * {@link org.drools.planner.examples.ras2012.ProblemSolution#getItineraryTemplate(Train, Route)}.
+ */
+public final class ItineraryTemplate {
+
+    /**
+     * Creates every template only once and then keeps handing out the same instance. Templates of different problems must
+     * never be mixed, since trains and routes only compare by their names and IDs.
+     * 
+     * The pool is bounded. Once it is full, templates are still created on request, but no longer kept.
+     * 
+     * Instances are thread-safe.
+     */
+    public static final class Pool {
+
+        /**
+         * Maximum number of templates to keep. Every template holds a schedule, so the limit is a few dozen megabytes.
+         */
+        public static final int                                                     MAX_CACHED = 10000;
+
+        private final Collection<MaintenanceWindow>                                maintenances;
+        private final ConcurrentMap<Train, ConcurrentMap<Route, ItineraryTemplate>> templates  = new ConcurrentHashMap<>();
+        private final AtomicInteger                                                 size       = new AtomicInteger(0);
+
+        /**
+         * 
+         * @param maintenances Maintenance windows of the problem, to be accounted for in every template.
+         */
+        public Pool(final Collection<MaintenanceWindow> maintenances) {
+            this.maintenances = maintenances;
+        }
+
+        /**
+         * Get the template for a particular train on a particular route, creating it on first request.
+         * 
+         * @param t Train in question.
+         * @param r Route in question.
+         * @return The template.
+         * @throws IllegalArgumentException When the route is impossible for the train.
+         */
+        public ItineraryTemplate get(final Train t, final Route r) {
+            ConcurrentMap<Route, ItineraryTemplate> routes = this.templates.get(t);
+            if (routes == null) {
+                routes = new ConcurrentHashMap<>();
+                final ConcurrentMap<Route, ItineraryTemplate> previous = this.templates
+                        .putIfAbsent(t, routes);
+                if (previous != null) {
+                    routes = previous;
+                }
+            }
+            final ItineraryTemplate cached = routes.get(r);
+            if (cached != null) {
+                return cached;
+            }
+            final ItineraryTemplate template = new ItineraryTemplate(r, t, this.maintenances);
+            // reserve the slot first, so that concurrent callers can't push the pool over the limit
+            if (this.size.incrementAndGet() > Pool.MAX_CACHED) {
+                this.size.decrementAndGet();
+                return template;
+            }
+            final ItineraryTemplate previous = routes.putIfAbsent(r, template);
+            if (previous == null) {
+                return template;
+            }
+            // another thread was faster, its template takes the slot
+            this.size.decrementAndGet();
+            return previous;
+        }
+
+        /**
+         * The number of templates kept.
+         * 
+         * @return Number of templates, never more than {@link #MAX_CACHED}.
+         */
+        public int size() {
+            return this.size.get();
+        }
+
+    }
+
+    /**
+     * Calculate the schedule of a train that doesn't wait anywhere, except for {@link MaintenanceWindow}s. This is what
+     * {@link Itinerary} would calculate with no {@link WaitTime}s, but it needs no template to do so.
+     * 
+     * @param t Train to schedule.
+     * @param nodes Nodes that the train passes through, in the order of travel.
+     * @param progression Arcs of the route.
+     * @param maintenances Maintenance windows of the train, keyed by the node where they start.
+     * @return Unmodifiable map, see {@link Itinerary#getSchedule()}.
+     */
+    private static SortedMap<Long, Node> calculateBaselineSchedule(final Train t,
+            final Collection<Node> nodes, final ArcProgression progression,
+            final Map<Node, MaintenanceWindow> maintenances) {
+        final SortedMap<Long, Node> schedule = new TreeMap<>();
+        long time = t.getEntryTime(Itinerary.DEFAULT_TIME_UNIT);
+        Arc previousArc = null;
+        for (final Node n : nodes) {
+            if (previousArc != null) {
+                time += t.getArcTravellingTime(previousArc, Itinerary.DEFAULT_TIME_UNIT);
+            }
+            final MaintenanceWindow w = maintenances.get(n);
+            if (w != null && w.isInside(time, Itinerary.DEFAULT_TIME_UNIT)) {
+                // the maintenance is ongoing, we have to wait
+                time = w.getEnd(Itinerary.DEFAULT_TIME_UNIT);
+            }
+            schedule.put(time, n);
+            previousArc = progression.getWithOriginNode(n);
+        }
+        return Collections.unmodifiableSortedMap(schedule);
+    }
+
+    private final Route                        route;
+    private final Train                        train;
+    private final Collection<Node>             nodes;
+    private final Map<Node, Integer>           positions;
+    private final List<Node>                   waitPoints;
+    // FIXME only one window per node; multiple different windows with same node will get lost
+    private final Map<Node, MaintenanceWindow> maintenances;
+    private final SortedMap<Long, Node>        baselineSchedule;
+    private final SortedMap<Long, Arc>         baselineScheduleWithArcs;
+
+    /**
+     * Create the template for a given {@link Train}, travelling a given {@link Route}, possibly experiencing some
+     * {@link MaintenanceWindow}s.
+     * 
+     * @param r Route to schedule.
+     * @param t Train to schedule.
+     * @param maintenanceWindows Maintenance windows to account for. Null if none.
+     */
+    public ItineraryTemplate(final Route r, final Train t,
+            final Collection<MaintenanceWindow> maintenanceWindows) {
+        if (r == null || t == null) {
+            throw new IllegalArgumentException("Neither route nor train may be null.");
+        }
+        if (!r.isPossibleForTrain(t)) {
+            throw new IllegalArgumentException("Route " + r.getId() + " impossible for train "
+                    + t.getName() + ".");
+        }
+        this.route = r;
+        this.train = t;
+
+        final ArcProgression progression = r.getProgression();
+        final Collection<Node> hasNodes = new LinkedHashSet<>();
+        Node currentNode = t.getOrigin();
+        do {
+            hasNodes.add(currentNode);
+        } while ((currentNode = progression.getNextNode(currentNode)) != t.getDestination());
+        hasNodes.add(currentNode);
+        this.nodes = Collections.unmodifiableCollection(hasNodes);
+        final Map<Node, Integer> nodePositions = new HashMap<>();
+        for (final Node n : hasNodes) {
+            nodePositions.put(n, nodePositions.size());
+        }
+        this.positions = Collections.unmodifiableMap(nodePositions);
+        final List<Node> trainWaitPoints = new ArrayList<>();
+        final Collection<Node> routeWaitPoints = progression.getWaitPoints();
+        for (final Node n : hasNodes) {
+            if (routeWaitPoints.contains(n)) {
+                trainWaitPoints.add(n);
+            }
+        }
+        this.waitPoints = Collections.unmodifiableList(trainWaitPoints);
+
+        // initialize the maintenance windows
+        final Map<Node, MaintenanceWindow> mows = new HashMap<>();
+        if (maintenanceWindows != null) {
+            for (final MaintenanceWindow mow : maintenanceWindows) {
+                final Node origin = mow.getOrigin(t);
+                final Node destination = mow.getDestination(t);
+                if (hasNodes.contains(origin) && hasNodes.contains(destination)) {
+                    mows.put(origin, mow);
+                }
+            }
+        }
+        this.maintenances = Collections.unmodifiableMap(mows);
+
+        // calculate the baseline schedule without handing out an incomplete template
+        this.baselineSchedule = ItineraryTemplate.calculateBaselineSchedule(t, hasNodes,
+                progression, this.maintenances);
+        final SortedMap<Long, Arc> scheduleWithArcs = new TreeMap<>();
+        for (final SortedMap.Entry<Long, Node> entry : this.baselineSchedule.entrySet()) {
+            scheduleWithArcs.put(entry.getKey(), progression.getWithOriginNode(entry.getValue()));
+        }
+        this.baselineScheduleWithArcs = Collections.unmodifiableSortedMap(scheduleWithArcs);
+    }
+
+    /**
+     * The schedule of the train when it doesn't wait anywhere, except for {@link MaintenanceWindow}s.
+     * 
+     * @return Unmodifiable map, see {@link Itinerary#getSchedule()}.
+     */
+    SortedMap<Long, Node> getBaselineSchedule() {
+        return this.baselineSchedule;
+    }
+
+    /**
+     * The schedule of the train when it doesn't wait anywhere, except for {@link MaintenanceWindow}s.
+     * 
+     * @return Unmodifiable map, see {@link Itinerary#getScheduleWithArcs()}.
+     */
+    SortedMap<Long, Arc> getBaselineScheduleWithArcs() {
+        return this.baselineScheduleWithArcs;
+    }
+
+    /**
+     * The maintenance windows that the train may run into on the route.
+     * 
+     * @return Unmodifiable map, where keys are the nodes where the windows start for the train.
+     */
+    public Map<Node, MaintenanceWindow> getMaintenances() {
+        return this.maintenances;
+    }
+
+    /**
+     * The nodes that the train passes through, from its origin to its destination.
+     * 
+     * @return Unmodifiable collection, in the order of travel.
+     */
+    public Collection<Node> getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * The position of a node in the order of travel.
+     * 
+     * @param n The node in question.
+     * @return 0 for the origin of the train, one more for every next node.
+     * @throws IllegalArgumentException When the train doesn't pass through the node.
+     */
+    public int getPosition(final Node n) {
+        final Integer position = this.positions.get(n);
+        if (position == null) {
+            throw new IllegalArgumentException("Template has no node " + n + ".");
+        }
+        return position;
+    }
+
+    public Route getRoute() {
+        return this.route;
+    }
+
+    public Train getTrain() {
+        return this.train;
+    }
+
+    /**
+     * The wait points on the route that the train passes through.
+     * 
+     * @return Unmodifiable list, in the order of travel.
+     */
+    public List<Node> getWaitPoints() {
+        return this.waitPoints;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("ItineraryTemplate [route=").append(this.route.getId()).append(", train=")
+                .append(this.train.getName()).append("]");
+        return builder.toString();
+    }
+
+}
@@ -1,51 +1,26 @@
 package org.drools.planner.examples.ras2012.model;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.apache.commons.lang3.builder.CompareToBuilder;
 
 /**
- * A node is a place on the {@link Route} where two {@link Arc}s join or where the {@link Route} ends.
+ * A node is a place on the {@link Route} where two {@link Arc}s join or where the {@link Route} ends. Nodes are obtained
+ * through a {@link NodeTable}, which is specific to every problem.
  */
 public class Node implements Comparable<Node> {
 
-    private final int                       id;
-
-    private static final Map<Integer, Node> nodes = new HashMap<>();
-
-    /**
-     * Get the number of registered nodes.
-     * 
-     * @return Number of nodes.
-     */
-    public static int count() {
-        return Node.nodes.size();
-    }
+    private final int id;
 
-    /**
-     * A node is uniquely identified by its numeric ID.
-     * 
-     * @param id The unique ID of the node.
-     * @return The node in question.
-     */
-    public static Node getNode(final int id) {
-        if (id < 0) {
-            throw new IllegalArgumentException("Node ID cannot be less than zero!");
-        }
-        if (!Node.nodes.containsKey(id)) {
-            Node.nodes.put(id, new Node(id));
-        }
-        return Node.nodes.get(id);
-    }
+    private final int index;
 
     /**
-     * Creating nodes from the application code isn't allowed. See {@link #getNode(int)}.
+     * Creating nodes from the application code isn't allowed. See {@link NodeTable#getNode(int)}.
      * 
      * @param id The ID of the node.
+     * @param index The position of the node in its {@link NodeTable}.
      */
-    private Node(final int id) {
+    Node(final int id, final int index) {
         this.id = id;
+        this.index = index;
     }
 
     /**
@@ -60,6 +35,15 @@ public class Node implements Comparable<Node> {
         return this.id;
     }
 
+    /**
+     * Dense index of the node, unique within its {@link NodeTable}.
+     * 
+     * @return Number between 0 (inclusive) and {@link NodeTable#count()} (exclusive).
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
     @Override
     public String toString() {
         return "Node #" + this.getId();
@@ -0,0 +1,80 @@
+package org.drools.planner.examples.ras2012.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds every {@link Node} of a single problem. Each problem has its own table, so that nodes from different problems never
+ * mix, even when they share IDs. Nodes in the table are densely indexed in the order in which they were created, see
+ * {@link Node#getIndex()}, so that data related to nodes can be kept in arrays of {@link #count()} items.
+ */
+public class NodeTable {
+
+    private final Map<Integer, Node> nodesById = new HashMap<>();
+    private final List<Node>         nodes     = new ArrayList<>();
+
+    /**
+     * Get the number of nodes in this table.
+     * 
+     * @return Number of nodes.
+     */
+    public synchronized int count() {
+        return this.nodes.size();
+    }
+
+    /**
+     * A node is uniquely identified by its numeric ID. When no node with such ID exists in this table yet, it is created.
+     * 
+     * @param id The unique ID of the node.
+     * @return The node in question.
+     */
+    public synchronized Node getNode(final int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Node ID cannot be less than zero!");
+        }
+        Node n = this.nodesById.get(id);
+        if (n == null) {
+            n = new Node(id, this.nodes.size());
+            this.nodesById.put(id, n);
+            this.nodes.add(n);
+        }
+        return n;
+    }
+
+    /**
+     * Retrieve the node by its position in the table.
+     * 
+     * @param index Index of the node, see {@link Node#getIndex()}.
+     * @return The node in question.
+     */
+    public synchronized Node getNodeByIndex(final int index) {
+        if (index < 0 || index >= this.nodes.size()) {
+            throw new IllegalArgumentException("No node with index: " + index);
+        }
+        return this.nodes.get(index);
+    }
+
+    /**
+     * Retrieve all the nodes, ordered by their index.
+     * 
+     * @return Unmodifiable collection of the nodes.
+     */
+    public synchronized Collection<Node> getNodes() {
+        return Collections.unmodifiableList(new ArrayList<>(this.nodes));
+    }
+
+    /**
+     * Whether or not the table contains a node with the given ID.
+     * 
+     * @param id The ID in question.
+     * @return True if {@link #getNode(int)} would not need to create the node.
+     */
+    public synchronized boolean hasNode(final int id) {
+        return this.nodesById.containsKey(id);
+    }
+
+}
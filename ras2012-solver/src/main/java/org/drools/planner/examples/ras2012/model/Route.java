@@ -4,9 +4,9 @@ import java.io.File;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -35,10 +35,13 @@ public class Route extends Visualizable implements Comparable<Route>, Directed {
         private final AtomicInteger   idGenerator;
 
         private final boolean         isEastbound;
+        private final SpeedProfile    speeds;
         private final Collection<Arc> arcs = new ArrayList<>();
 
-        private Builder(final AtomicInteger id, final boolean isEastbound, final Arc... arcs) {
+        private Builder(final AtomicInteger id, final SpeedProfile speeds,
+                final boolean isEastbound, final Arc... arcs) {
             this.idGenerator = id;
+            this.speeds = speeds;
             this.isEastbound = isEastbound;
             for (final Arc a : arcs) {
                 this.arcs.add(a);
@@ -46,15 +49,28 @@ public class Route extends Visualizable implements Comparable<Route>, Directed {
 
         }
 
+        /**
+         * Instantiate new builder to create a new series of related routes, without any information on track speeds. Routes
+         * created this way can not be compared, see {@link Route#compareTo(Route)}.
+         * 
+         * @param isEastbound Whether or not the route goes east.
+         * @param arcs Arcs to be placed on the route, in the intended order.
+         */
+        public Builder(final boolean isEastbound, final Arc... arcs) {
+            this(null, isEastbound, arcs);
+        }
+
         /**
          * Instantiate new builder to create a new series of related routes. Routes from different {@link Territory}s should use
          * different Builders.
          * 
+         * @param speeds Track speeds in the territory.
          * @param isEastbound Whether or not the route goes east.
          * @param arcs Arcs to be placed on the route, in the intended order.
          */
-        public Builder(final boolean isEastbound, final Arc... arcs) {
-            this(isEastbound ? new AtomicInteger(0) : new AtomicInteger(1), isEastbound, arcs);
+        public Builder(final SpeedProfile speeds, final boolean isEastbound, final Arc... arcs) {
+            this(isEastbound ? new AtomicInteger(0) : new AtomicInteger(1), speeds, isEastbound,
+                    arcs);
         }
 
         /**
@@ -72,7 +88,7 @@ public class Route extends Visualizable implements Comparable<Route>, Directed {
             }
             final List<Arc> arcs = new ArrayList<>(this.arcs);
             arcs.add(arc);
-            return new Builder(this.idGenerator, this.isEastbound,
+            return new Builder(this.idGenerator, this.speeds, this.isEastbound,
                     arcs.toArray(new Arc[arcs.size()]));
         }
 
@@ -82,8 +98,8 @@ public class Route extends Visualizable implements Comparable<Route>, Directed {
          * @return The route. Odd ID when westbound, even when eastbound.
          */
         public Route build() {
-            return new Route(this.idGenerator.getAndAdd(2), this.arcs.toArray(new Arc[this.arcs
-                    .size()]));
+            return new Route(this.idGenerator.getAndAdd(2), this.speeds,
+                    this.arcs.toArray(new Arc[this.arcs.size()]));
         }
 
         /**
@@ -144,16 +160,24 @@ public class Route extends Visualizable implements Comparable<Route>, Directed {
 
     private final int                 id;
 
-    private int                       numberOfPreferredTracks      = -1;
+    private final SpeedProfile        speeds;
+
+    /*
+     * routes are shared by all the solvers working on the same problem; the caches below need to be safe for concurrent use
+     */
+    private volatile int              numberOfPreferredTracks      = -1;
 
-    private long                      travellingTimeInMilliseconds = -1;
+    private volatile int              numberOfSidings              = -1;
 
-    private final Map<Train, Boolean> routePossibilitiesCache      = new HashMap<>();
+    private volatile long             travellingTimeInMilliseconds = -1;
+
+    private final Map<Train, Boolean> routePossibilitiesCache      = new ConcurrentHashMap<>();
 
     private final RouteVisualizer     visualizer;
 
-    private Route(final int id, final Arc... e) {
+    private Route(final int id, final SpeedProfile speeds, final Arc... e) {
         this.id = id;
+        this.speeds = speeds;
         this.progression = new ArcProgression(this, e);
         this.visualizer = new RouteVisualizer(this);
     }
@@ -190,7 +214,12 @@ public class Route extends Visualizable implements Comparable<Route>, Directed {
         return this.id;
     }
 
-    private int getNumberOfPreferredTracks() {
+    /**
+     * Retrieve the number of {@link Arc}s on this route that are preferred for the direction of travel.
+     * 
+     * @return Number of preferred arcs. The result is cached.
+     */
+    public int getNumberOfPreferredTracks() {
         if (this.numberOfPreferredTracks == -1) {
             int i = 0;
             for (final Arc a : this.progression.getArcs()) {
@@ -203,17 +232,37 @@ public class Route extends Visualizable implements Comparable<Route>, Directed {
         return this.numberOfPreferredTracks;
     }
 
+    /**
+     * Retrieve the number of {@link Track#SIDING} arcs on this route.
+     * 
+     * @return Number of sidings. The result is cached.
+     */
+    public int getNumberOfSidings() {
+        if (this.numberOfSidings == -1) {
+            int i = 0;
+            for (final Arc a : this.progression.getArcs()) {
+                if (a.getTrack() == Track.SIDING) {
+                    i++;
+                }
+            }
+            this.numberOfSidings = i;
+        }
+        return this.numberOfSidings;
+    }
+
     public ArcProgression getProgression() {
         return this.progression;
     }
 
     private long getTravellingTimeInMillis() {
         if (this.travellingTimeInMilliseconds == -1) {
+            if (this.speeds == null) {
+                throw new IllegalStateException("Route was built without track speeds.");
+            }
             long result = 0;
             for (final Arc a : this.progression.getArcs()) {
                 final BigDecimal length = a.getLength();
-                final int speed = this.isEastbound() ? a.getTrack().getSpeedEastbound() : a
-                        .getTrack().getSpeedWestbound();
+                final int speed = this.speeds.getSpeed(a.getTrack(), this.isEastbound());
                 result += Converter.getTimeFromSpeedAndDistance(BigDecimal.valueOf(speed), length);
             }
             this.travellingTimeInMilliseconds = result;
@@ -254,10 +303,13 @@ public class Route extends Visualizable implements Comparable<Route>, Directed {
      * @return True if this route is possible for the {@link Train}. The results are cached.
      */
     public boolean isPossibleForTrain(final Train t) {
-        if (!this.routePossibilitiesCache.containsKey(t)) {
-            this.routePossibilitiesCache.put(t, this.isPossibleForTrainUncached(t));
+        final Boolean cached = this.routePossibilitiesCache.get(t);
+        if (cached != null) {
+            return cached;
         }
-        return this.routePossibilitiesCache.get(t);
+        final boolean isPossible = this.isPossibleForTrainUncached(t);
+        this.routePossibilitiesCache.put(t, isPossible);
+        return isPossible;
     }
 
     private boolean isPossibleForTrainUncached(final Train t) {
@@ -0,0 +1,147 @@
+package org.drools.planner.examples.ras2012.model;
+
+import java.util.Arrays;
+
+/**
+ * Maximum speeds on every {@link Track} of a single problem. Each problem has its own profile, so that problems with
+ * different speeds can be solved side by side. Instances are immutable; use {@link Builder} to assign speeds to individual
+ * tracks.
+ */
+public class SpeedProfile {
+
+    /**
+     * Used to assign speeds to tracks one by one. Every track needs to be assigned its speed before the profile can be built.
+     */
+    public static class Builder {
+
+        private static final int UNASSIGNED      = -1;
+
+        private final int[]      speedsEastbound = new int[Track.values().length];
+        private final int[]      speedsWestbound = new int[Track.values().length];
+
+        public Builder() {
+            Arrays.fill(this.speedsEastbound, Builder.UNASSIGNED);
+            Arrays.fill(this.speedsWestbound, Builder.UNASSIGNED);
+        }
+
+        /**
+         * Create the profile.
+         * 
+         * @return The profile.
+         * @throws IllegalStateException When some of the tracks have no speed assigned.
+         */
+        public SpeedProfile build() {
+            for (final Track t : Track.values()) {
+                if (this.speedsEastbound[t.ordinal()] == Builder.UNASSIGNED) {
+                    throw new IllegalStateException("No speed assigned to track: " + t);
+                }
+            }
+            return new SpeedProfile(this.speedsEastbound, this.speedsWestbound);
+        }
+
+        /**
+         * Set the maximum speed on a particular track, both directions. Speed can only be set once.
+         * 
+         * @param t The track in question.
+         * @param speed The speed.
+         * @return For call chaining.
+         */
+        public Builder setSpeed(final Track t, final int speed) {
+            return this.setSpeed(t, speed, speed);
+        }
+
+        /**
+         * Set the maximum speed on a particular track, each direction separately. Speed can only be set once.
+         * 
+         * @param t The track in question.
+         * @param speedEastbound Speed when travelling to the east.
+         * @param speedWestbound Speed when travelling to the west.
+         * @return For call chaining.
+         */
+        public Builder setSpeed(final Track t, final int speedEastbound, final int speedWestbound) {
+            if (!t.isMainTrack() && speedEastbound != speedWestbound) {
+                throw new IllegalArgumentException(
+                        "Speeds only differ based on direction when we're on a main track!");
+            }
+            if (speedEastbound <= 0 || speedWestbound <= 0) {
+                throw new IllegalArgumentException("Speeds must be greater than 0.");
+            }
+            Builder.setSpeed(this.speedsEastbound, t, speedEastbound, "eastbound");
+            Builder.setSpeed(this.speedsWestbound, t, speedWestbound, "westbound");
+            return this;
+        }
+
+        private static void setSpeed(final int[] speeds, final Track t, final int speed,
+                final String direction) {
+            final int previous = speeds[t.ordinal()];
+            if (previous != Builder.UNASSIGNED && previous != speed) {
+                throw new IllegalStateException("Cannot re-assign an already assigned " + direction
+                        + " track speed.");
+            }
+            speeds[t.ordinal()] = speed;
+        }
+
+    }
+
+    private final int[] speedsEastbound;
+    private final int[] speedsWestbound;
+
+    /**
+     * Create a profile the way that the RAS problem description defines it; the same speed on all the main tracks, and the
+     * same speed on switches and crossovers.
+     * 
+     * @param mainEastbound Speed on main tracks when travelling to the east.
+     * @param mainWestbound Speed on main tracks when travelling to the west.
+     * @param sidings Speed on sidings.
+     * @param crossovers Speed on crossovers and switches.
+     */
+    public SpeedProfile(final int mainEastbound, final int mainWestbound, final int sidings,
+            final int crossovers) {
+        final Builder b = new Builder();
+        for (final Track t : Track.values()) {
+            if (t.isMainTrack()) {
+                b.setSpeed(t, mainEastbound, mainWestbound);
+            } else if (t == Track.SIDING) {
+                b.setSpeed(t, sidings);
+            } else {
+                b.setSpeed(t, crossovers);
+            }
+        }
+        this.speedsEastbound = b.speedsEastbound.clone();
+        this.speedsWestbound = b.speedsWestbound.clone();
+    }
+
+    private SpeedProfile(final int[] speedsEastbound, final int[] speedsWestbound) {
+        this.speedsEastbound = speedsEastbound.clone();
+        this.speedsWestbound = speedsWestbound.clone();
+    }
+
+    /**
+     * Get the maximum speed on a track in the given direction.
+     * 
+     * @param t The track in question.
+     * @param isEastbound Whether the speed is for travelling to the east.
+     * @return Speed in MPH.
+     */
+    public int getSpeed(final Track t, final boolean isEastbound) {
+        return isEastbound ? this.getSpeedEastbound(t) : this.getSpeedWestbound(t);
+    }
+
+    public int getSpeedEastbound(final Track t) {
+        return this.speedsEastbound[t.ordinal()];
+    }
+
+    public int getSpeedWestbound(final Track t) {
+        return this.speedsWestbound[t.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("SpeedProfile [speedsEastbound=")
+                .append(Arrays.toString(this.speedsEastbound)).append(", speedsWestbound=")
+                .append(Arrays.toString(this.speedsWestbound)).append("]");
+        return builder.toString();
+    }
+
+}
@@ -1,6 +1,7 @@
 package org.drools.planner.examples.ras2012.model;
 
 import java.math.BigDecimal;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -105,7 +106,9 @@ public class Train implements Comparable<Train>, Directed {
 
     private final boolean                                 isWestbound;
 
-    private final Map<Track, BigDecimal>                  maximumSpeeds                 = new HashMap<>();
+    private final SpeedProfile                            speeds;
+
+    private final Map<Track, BigDecimal>                  maximumSpeeds                 = new EnumMap<>(Track.class);
 
     /**
      * Create new instance.
@@ -123,12 +126,13 @@ public class Train implements Comparable<Train>, Directed {
      * @param sars Schedule adherence requirements.
      * @param hazmat Does the train carry hazardous materials?
      * @param isWestbound Is the train going west?
+     * @param speeds Maximum speeds on the tracks of the {@link Territory}.
      */
     public Train(final String name, final BigDecimal length, final BigDecimal speedMultiplier,
             final int tob, final Node origin, final Node destination, final int entryTime,
             final int wantTime, final int originalScheduleAdherence,
             final List<ScheduleAdherenceRequirement> sars, final boolean hazmat,
-            final boolean isWestbound) {
+            final boolean isWestbound, final SpeedProfile speeds) {
         if (name == null) {
             throw new IllegalArgumentException("Train name must be a non-empty String.");
         }
@@ -180,10 +184,18 @@ public class Train implements Comparable<Train>, Directed {
                 this.scheduleAdherenceRequirements.put(sa.getDestination(), sa);
             }
         }
+        if (speeds == null) {
+            throw new IllegalArgumentException("Train must have a speed profile.");
+        }
+        this.speeds = speeds;
+        // calculate all the speeds up front, so that the train need not be modified later
+        for (final Track t : Track.values()) {
+            this.maximumSpeeds.put(t, this.calculateMaximumSpeed(t));
+        }
     }
 
     private BigDecimal calculateMaximumSpeed(final Track t) {
-        final int coreSpeed = this.isWestbound() ? t.getSpeedWestbound() : t.getSpeedEastbound();
+        final int coreSpeed = this.speeds.getSpeed(t, this.isEastbound());
         if (t.isMainTrack()) {
             return this.speedMultiplier.multiply(BigDecimal.valueOf(coreSpeed)).setScale(1,
                     BigDecimal.ROUND_HALF_EVEN);
@@ -267,9 +279,6 @@ public class Train implements Comparable<Train>, Directed {
      * @return Speed in MPH.
      */
     public BigDecimal getMaximumSpeed(final Track t) {
-        if (!this.maximumSpeeds.containsKey(t)) {
-            this.maximumSpeeds.put(t, this.calculateMaximumSpeed(t));
-        }
         return this.maximumSpeeds.get(t);
     }
 
@@ -295,6 +304,10 @@ public class Train implements Comparable<Train>, Directed {
         return this.scheduleAdherenceRequirements;
     }
 
+    public SpeedProfile getSpeedProfile() {
+        return this.speeds;
+    }
+
     protected BigDecimal getSpeedMultiplier() {
         return this.speedMultiplier;
     }
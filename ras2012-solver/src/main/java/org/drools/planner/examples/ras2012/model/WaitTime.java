@@ -1,7 +1,7 @@
 package org.drools.planner.examples.ras2012.model;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import org.drools.planner.examples.ras2012.util.model.ArcProgression;
@@ -9,12 +9,37 @@ import org.drools.planner.examples.ras2012.util.model.ArcProgression;
 /**
  * At specific parts of the route, called "wait points", the train can be stopped. (See {@link ArcProgression#getWaitPoints()}
  * and {@link Itinerary#setWaitTime(Node, WaitTime)}.) Instances of this class represent the length of these stops.
+ * 
+ * Instances are shared and safe to use from multiple threads. Wait times on the whole minutes, up to
+ * {@link #PREALLOCATED_MINUTES}, are created up front. Other wait times are cached until the cache reaches
+ * {@link #MAX_CACHED}, after which new instances are created as needed. Therefore, wait times must always be compared using
+ * {@link #equals(Object)}.
  */
 public class WaitTime {
 
-    private static final Map<Long, WaitTime> waitTimes         = new HashMap<>();
+    private static final TimeUnit                      DEFAULT_TIME_UNIT    = TimeUnit.MILLISECONDS;
 
-    private static final TimeUnit            DEFAULT_TIME_UNIT = TimeUnit.MILLISECONDS;
+    /**
+     * Wait times of up to this many minutes are created up front. One day is well beyond any planning horizon.
+     */
+    public static final int                            PREALLOCATED_MINUTES = 24 * 60;
+
+    /**
+     * Maximum number of wait times outside of the minute grid to be kept in the cache.
+     */
+    public static final int                            MAX_CACHED           = 10000;
+
+    private static final WaitTime[]                    wholeMinutes         = new WaitTime[WaitTime.PREALLOCATED_MINUTES
+                                                                                    + 1];
+
+    private static final ConcurrentMap<Long, WaitTime> waitTimes            = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 1; i < WaitTime.wholeMinutes.length; i++) {
+            WaitTime.wholeMinutes[i] = new WaitTime(WaitTime.DEFAULT_TIME_UNIT.convert(i,
+                    TimeUnit.MINUTES));
+        }
+    }
 
     /**
      * Get WaitTime instance with specified wait time.
@@ -36,12 +61,23 @@ public class WaitTime {
             throw new IllegalArgumentException("Wait time must be bigger than zero: " + i);
         }
         final long actualTime = WaitTime.DEFAULT_TIME_UNIT.convert(i, unit);
-        if (!WaitTime.waitTimes.containsKey(actualTime)) {
-            final WaitTime w = new WaitTime(actualTime);
-            WaitTime.waitTimes.put(actualTime, w);
+        final long minuteInMillis = WaitTime.DEFAULT_TIME_UNIT.convert(1, TimeUnit.MINUTES);
+        if (actualTime % minuteInMillis == 0) {
+            final long minutes = actualTime / minuteInMillis;
+            if (minutes < WaitTime.wholeMinutes.length) {
+                return WaitTime.wholeMinutes[(int) minutes];
+            }
+        }
+        final WaitTime existing = WaitTime.waitTimes.get(actualTime);
+        if (existing != null) {
+            return existing;
+        }
+        final WaitTime w = new WaitTime(actualTime);
+        if (WaitTime.waitTimes.size() >= WaitTime.MAX_CACHED) {
             return w;
         }
-        return WaitTime.waitTimes.get(actualTime);
+        final WaitTime previous = WaitTime.waitTimes.putIfAbsent(actualTime, w);
+        return previous == null ? w : previous;
     }
 
     private final long timeToWaitFor;
@@ -51,10 +87,29 @@ public class WaitTime {
                 .convert(milliseconds, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Wait times are equal when they make the train wait for the same amount of time.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof WaitTime)) {
+            return false;
+        }
+        return this.timeToWaitFor == ((WaitTime) obj).timeToWaitFor;
+    }
+
     public long getWaitFor(final TimeUnit unit) {
         return unit.convert(this.timeToWaitFor, WaitTime.DEFAULT_TIME_UNIT);
     }
 
+    @Override
+    public int hashCode() {
+        return (int) (this.timeToWaitFor ^ this.timeToWaitFor >>> 32);
+    }
+
     @Override
     public String toString() {
         return "WaitTime [" + this.getWaitFor(TimeUnit.MINUTES) + " min.]";
@@ -0,0 +1,186 @@
+package org.drools.planner.examples.ras2012.move;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.drools.planner.core.heuristic.selector.move.factory.MoveIteratorFactory;
+import org.drools.planner.core.move.Move;
+import org.drools.planner.core.score.director.ScoreDirector;
+import org.drools.planner.core.score.director.incremental.IncrementalScoreDirector;
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.ScoreCalculator;
+import org.drools.planner.examples.ras2012.model.Arc;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.ItineraryTemplate;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+
+/**
+ * Creates the same moves as {@link WaitTimeAssignmentMoveFactory}, but doesn't pick them uniformly. Trains are picked by how
+ * much they contribute to the current score, see {@link ScoreCalculator#pickHotspot(Random)}, so that trains with conflicts
+ * get most of the attention. Wait points of the train are then picked by how many of the train's conflicts happen after them,
+ * and wait times uniformly.
+ * 
+ * The weights are only available with the incremental {@link ScoreCalculator}. With any other score director, the moves are
+ * picked uniformly.
+ */
+public class ConflictDirectedMoveFactory implements MoveIteratorFactory {
+
+    private static final class ConflictDirectedMoveIterator implements Iterator<Move> {
+
+        /**
+         * How many times to try picking a wait point whose wait time may still change, before giving up for the current move.
+         */
+        private static final int   MAX_ATTEMPTS     = 100;
+
+        /**
+         * How much every conflict adds to the weight of the wait point before it. Every wait point has the weight of 1 to start
+         * with.
+         */
+        private static final long  CONFLICT_WEIGHT  = 10;
+
+        private final ProblemSolution    solution;
+        private final ScoreCalculator    calculator;
+        private final Map<Train, long[]> waitPointWeights = new HashMap<>();
+        private final Random             random;
+
+        public ConflictDirectedMoveIterator(final ProblemSolution solution,
+                final ScoreCalculator calculator, final Random random) {
+            this.solution = solution;
+            this.calculator = calculator;
+            this.random = random;
+            // a new iterator is created every step, so the weights are refreshed once per step
+            this.calculator.refreshHotspots();
+        }
+
+        /**
+         * The weights of the wait points of a train. Every conflict of the train is attributed to the last wait point before
+         * the arc where it happens, since waiting there is what shifts the train's entry to the arc. Conflicts before the
+         * first wait point can't be helped by waiting and are left out.
+         * 
+         * @param ia The train's assignment.
+         * @return Weights, in the order of {@link ItineraryAssignment#getWaitPoints()}.
+         */
+        private long[] getWaitPointWeights(final ItineraryAssignment ia) {
+            final Train t = ia.getTrain();
+            long[] weights = this.waitPointWeights.get(t);
+            if (weights != null) {
+                return weights;
+            }
+            final List<Node> waitPoints = ia.getWaitPoints();
+            final ItineraryTemplate template = ia.getItinerary().getTemplate();
+            final int[] positions = new int[waitPoints.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = template.getPosition(waitPoints.get(i));
+            }
+            weights = new long[waitPoints.size()];
+            Arrays.fill(weights, 1);
+            for (final Map.Entry<Arc, Integer> conflict : this.calculator.getConflicts(t)
+                    .entrySet()) {
+                final int position = template.getPosition(conflict.getKey().getOrigin(t));
+                int responsible = -1;
+                for (int i = 0; i < positions.length; i++) {
+                    if (positions[i] > position) {
+                        continue;
+                    }
+                    if (responsible < 0 || positions[i] > positions[responsible]) {
+                        responsible = i;
+                    }
+                }
+                if (responsible >= 0) {
+                    weights[responsible] += conflict.getValue()
+                            * ConflictDirectedMoveIterator.CONFLICT_WEIGHT;
+                }
+            }
+            this.waitPointWeights.put(t, weights);
+            return weights;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.solution.getTrains().isEmpty();
+        }
+
+        @Override
+        public Move next() {
+            ItineraryAssignment ia = null;
+            Node waitPoint = null;
+            final int maxAttempts = ConflictDirectedMoveIterator.MAX_ATTEMPTS;
+            for (int attempt = 0; attempt < maxAttempts; attempt++) {
+                ia = this.solution.getAssignment(this.calculator.pickHotspot(this.random));
+                final List<Node> waitPoints = ia.getWaitPoints();
+                if (waitPoints.isEmpty()) {
+                    continue;
+                }
+                waitPoint = waitPoints.get(this.pickWaitPoint(ia));
+                final List<WaitTime> candidates = ia.getAllowedWaitTimes(waitPoint);
+                if (candidates.isEmpty()) {
+                    // the train has passed the wait point already
+                    continue;
+                }
+                return new WaitTimeAssignmentMove(ia.getTrain(), ia.getRoute(), waitPoint,
+                        candidates.get(this.random.nextInt(candidates.size())));
+            }
+            // nothing to change was found; keep the wait time, so that the move isn't doable
+            final Node n = waitPoint == null ? ia.getTrain().getOrigin() : waitPoint;
+            return new WaitTimeAssignmentMove(ia.getTrain(), ia.getRoute(), n, ia.getItinerary()
+                    .getWaitTime(n));
+        }
+
+        private int pickWaitPoint(final ItineraryAssignment ia) {
+            final long[] weights = this.getWaitPointWeights(ia);
+            long total = 0;
+            for (final long weight : weights) {
+                total += weight;
+            }
+            long remaining = (long) (this.random.nextDouble() * total);
+            for (int i = 0; i < weights.length; i++) {
+                remaining -= weights[i];
+                if (remaining < 0) {
+                    return i;
+                }
+            }
+            return weights.length - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    private final WaitTimeAssignmentMoveFactory uniform = new WaitTimeAssignmentMoveFactory();
+
+    @Override
+    public Iterator<Move> createOriginalMoveIterator(final ScoreDirector arg0) {
+        return this.uniform.createOriginalMoveIterator(arg0);
+    }
+
+    @Override
+    public Iterator<Move> createRandomMoveIterator(final ScoreDirector arg0, final Random arg1) {
+        if (arg0 instanceof IncrementalScoreDirector) {
+            final Object calculator = ((IncrementalScoreDirector) arg0)
+                    .getIncrementalScoreCalculator();
+            if (calculator instanceof ScoreCalculator) {
+                return new ConflictDirectedMoveIterator(
+                        (ProblemSolution) arg0.getWorkingSolution(), (ScoreCalculator) calculator,
+                        arg1);
+            }
+        }
+        return this.uniform.createRandomMoveIterator(arg0, arg1);
+    }
+
+    /**
+     * The move space is the same as that of {@link WaitTimeAssignmentMoveFactory}, only the probabilities differ.
+     */
+    @Override
+    public long getSize(final ScoreDirector arg0) {
+        return this.uniform.getSize(arg0);
+    }
+}
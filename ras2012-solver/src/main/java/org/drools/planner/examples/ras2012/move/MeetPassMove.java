@@ -0,0 +1,236 @@
+package org.drools.planner.examples.ras2012.move;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.drools.planner.core.move.Move;
+import org.drools.planner.core.score.director.ScoreDirector;
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.model.Arc;
+import org.drools.planner.examples.ras2012.model.Itinerary;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This move resolves a conflict of two trains on an arc by letting one of them pass the other. The waiting train is put on a
+ * route with a siding before the arc and held at the siding's exit until the other train has cleared both the arc and the
+ * exit. Wait times elsewhere on the route are kept, if possible, just like in {@link RouteReassignmentMove}.
+ * 
+ * Both the route and the wait time change at once, so that the solver doesn't need to go through a worse solution in
+ * between. The length of the wait time is only known once the route is in place, therefore it is calculated when the move is
+ * done.
+ */
+public class MeetPassMove implements Move {
+
+    private static final Logger logger  = LoggerFactory.getLogger(MeetPassMove.class);
+
+    /**
+     * How long after the other train the waiting train may follow, in milliseconds. See
+     * {@link org.drools.planner.examples.ras2012.util.EntryRegistry}.
+     */
+    private static final long   HEADWAY = TimeUnit.MINUTES.toMillis(5);
+
+    private static ProblemSolution getSolution(final ScoreDirector scoreDirector) {
+        return (ProblemSolution) scoreDirector.getWorkingSolution();
+    }
+
+    private ItineraryAssignment assignment;
+    private final Train         train;
+    private final Route         route;
+    private final Node          exit;
+    private final Train         otherTrain;
+    private final Arc           arc;
+    private Route               previousRoute;
+    private Map<Node, WaitTime> previousWaitTimes;
+
+    /**
+     * 
+     * @param t The train that will wait.
+     * @param r The route for the waiting train, which has a siding that ends in the exit.
+     * @param exit Where the waiting train will wait.
+     * @param other The train that will pass.
+     * @param a The arc where the two trains are in conflict.
+     */
+    public MeetPassMove(final Train t, final Route r, final Node exit, final Train other,
+            final Arc a) {
+        this.train = t;
+        this.route = r;
+        this.exit = exit;
+        this.otherTrain = other;
+        this.arc = a;
+    }
+
+    /**
+     * Calculate how long the waiting train needs to wait at the exit, so that the other train can pass.
+     * 
+     * @param i Itinerary of the waiting train, already on the new route.
+     * @param other Itinerary of the other train.
+     * @param maxWait The longest wait time allowed, in milliseconds.
+     * @return The wait time, null if there is no need to wait.
+     */
+    private WaitTime calculateWaitTime(final Itinerary i, final Itinerary other,
+            final long maxWait) {
+        long clearance = -1;
+        if (other.hasNode(this.arc.getOrigin(this.otherTrain))) {
+            final long leaveTime = other.getLeaveTime(this.arc);
+            clearance = leaveTime == -1 ? other.getArrivalTime(this.arc
+                    .getDestination(this.otherTrain)) : leaveTime;
+        }
+        if (other.hasNode(this.exit)) {
+            // the other train's route may go on past its destination, but the train doesn't
+            final long leaveTime = this.exit == this.otherTrain.getDestination() ? other
+                    .getArrivalTime(this.exit) : other.getLeaveTime(this.exit);
+            clearance = Math.max(clearance, leaveTime);
+        }
+        if (clearance == -1) {
+            return null;
+        }
+        // arrival time includes the wait at the exit, if there already is one
+        long arrival = i.getArrivalTime(this.exit);
+        final WaitTime existing = i.getWaitTime(this.exit);
+        if (existing != null) {
+            arrival -= existing.getWaitFor(TimeUnit.MILLISECONDS);
+        }
+        final long wait = Math.min(clearance + MeetPassMove.HEADWAY - arrival, maxWait);
+        if (wait <= 0) {
+            return null;
+        }
+        // round up, so that the other train really is gone
+        return WaitTime.getWaitTime((int) TimeUnit.MILLISECONDS.toMinutes(wait
+                + TimeUnit.MINUTES.toMillis(1) - 1));
+    }
+
+    @Override
+    public Move createUndoMove(final ScoreDirector scoreDirector) {
+        this.initializeMove(scoreDirector);
+        final Move undo = new RouteReassignmentUndoMove(this.train, this.route, this.previousRoute,
+                this.previousWaitTimes);
+        MeetPassMove.logger.debug("Undo move for {} is {}.", this, undo);
+        return undo;
+    }
+
+    @Override
+    public void doMove(final ScoreDirector scoreDirector) {
+        final ProblemSolution solution = MeetPassMove.getSolution(scoreDirector);
+        this.assignment = this.initializeMove(scoreDirector);
+        this.assignment.setRoute(this.route);
+        final Itinerary i = this.assignment.getItinerary();
+        if (this.route != this.previousRoute) {
+            for (final Map.Entry<Node, WaitTime> entry : this.previousWaitTimes.entrySet()) {
+                final Node n = entry.getKey();
+                if (i.hasNode(n) && this.route.getProgression().getWaitPoints().contains(n)) {
+                    i.setWaitTime(n, entry.getValue());
+                }
+            }
+        }
+        final WaitTime waitTime = this.calculateWaitTime(i,
+                solution.getAssignment(this.otherTrain).getItinerary(),
+                solution.getPlanningHorizon(TimeUnit.MILLISECONDS));
+        if (waitTime != null) {
+            i.setWaitTime(this.exit, waitTime);
+        } else if (i.getWaitTime(this.exit) != null) {
+            i.removeWaitTime(this.exit);
+        }
+        scoreDirector.afterEntityAdded(this.assignment);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof MeetPassMove)) {
+            return false;
+        }
+        final MeetPassMove other = (MeetPassMove) obj;
+        return new EqualsBuilder().append(this.train, other.train).append(this.route, other.route)
+                .append(this.exit, other.exit).append(this.otherTrain, other.otherTrain)
+                .append(this.arc, other.arc).isEquals();
+    }
+
+    @Override
+    public Collection<? extends Object> getPlanningEntities() {
+        if (this.assignment == null) {
+            throw new IllegalStateException("Move not yet initialized!");
+        }
+        return Collections.singletonList(this.assignment);
+    }
+
+    @Override
+    public Collection<? extends Object> getPlanningValues() {
+        return Arrays.asList(this.route, this.exit);
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(this.train).append(this.route).append(this.exit)
+                .append(this.otherTrain).append(this.arc).toHashCode();
+    }
+
+    private ItineraryAssignment initializeMove(final ScoreDirector scoreDirector) {
+        this.assignment = MeetPassMove.getSolution(scoreDirector).getAssignment(this.train);
+        this.previousRoute = this.assignment.getRoute();
+        // the itinerary is kept when the route doesn't change, so the wait times must be copied
+        this.previousWaitTimes = new HashMap<>(this.assignment.getItinerary().getWaitTimes());
+        return this.assignment;
+    }
+
+    /**
+     * The move is doable when the waiting train may still change its route, or when it already is on the route and the wait
+     * time at the exit may still change to something else.
+     */
+    @Override
+    public boolean isMoveDoable(final ScoreDirector scoreDirector) {
+        final ProblemSolution solution = MeetPassMove.getSolution(scoreDirector);
+        if (solution.getAssignment(this.train) == null
+                || solution.getAssignment(this.otherTrain) == null) {
+            return false;
+        }
+        this.initializeMove(scoreDirector);
+        if (this.route != this.previousRoute) {
+            return !this.assignment.isRouteFrozen();
+        }
+        if (this.assignment.getAllowedWaitTimes(this.exit).isEmpty()) {
+            // the train has passed the exit already
+            return false;
+        }
+        final Itinerary i = this.assignment.getItinerary();
+        final WaitTime waitTime = this.calculateWaitTime(i,
+                solution.getAssignment(this.otherTrain).getItinerary(),
+                solution.getPlanningHorizon(TimeUnit.MILLISECONDS));
+        return ObjectUtils.notEqual(waitTime, i.getWaitTime(this.exit));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("MeetPassMove [");
+        builder.append(this.train.getName());
+        builder.append("@");
+        builder.append(this.route.getId());
+        builder.append("-");
+        builder.append(this.exit.getId());
+        builder.append(" lets ");
+        builder.append(this.otherTrain.getName());
+        builder.append(" pass on ");
+        builder.append(this.arc);
+        builder.append("]");
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,325 @@
+package org.drools.planner.examples.ras2012.move;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.drools.planner.core.heuristic.selector.move.factory.MoveIteratorFactory;
+import org.drools.planner.core.move.Move;
+import org.drools.planner.core.score.director.ScoreDirector;
+import org.drools.planner.core.score.director.incremental.IncrementalScoreDirector;
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.ScoreCalculator;
+import org.drools.planner.examples.ras2012.model.Arc;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Track;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.util.model.ArcProgression;
+
+/**
+ * Creates {@link MeetPassMove}s for the conflicts that the solution currently has. A train in conflict is picked by
+ * {@link ScoreCalculator#pickConflictingHotspot(Random)}, then one of the trains it is in conflict with and one of the arcs
+ * where the conflict happens. Either of the two trains may then wait for the other one, at the last siding before the arc.
+ * The original move iterator goes through all of these moves in turn.
+ * 
+ * The conflicts are only known to the incremental {@link ScoreCalculator}. With any other score director, or when there are
+ * no conflicts, the random moves are not doable and there are no original moves.
+ */
+public class MeetPassMoveFactory implements MoveIteratorFactory {
+
+    private static final class MeetPassMoveIterator implements Iterator<Move> {
+
+        /**
+         * How many times to try picking a conflict that can be resolved, before giving up for the current move.
+         */
+        private static final int          MAX_ATTEMPTS = 100;
+
+        private final MeetPassMoveFactory factory;
+        private final ProblemSolution     solution;
+        private final ScoreCalculator     calculator;
+        private final Random              random;
+
+        public MeetPassMoveIterator(final MeetPassMoveFactory factory,
+                final ProblemSolution solution, final ScoreCalculator calculator,
+                final Random random) {
+            this.factory = factory;
+            this.solution = solution;
+            this.calculator = calculator;
+            this.random = random;
+            if (this.calculator != null) {
+                // a new iterator is created every step, so the weights are refreshed once per step
+                this.calculator.refreshHotspots();
+            }
+        }
+
+        /**
+         * Create the move where a train waits for another, at the last siding before the arc.
+         * 
+         * @param waiting The train to wait.
+         * @param passing The train to pass.
+         * @param a The arc where the trains are in conflict.
+         * @return The move, or null if the waiting train has no siding to wait at.
+         */
+        private Move createMove(final Train waiting, final Train passing, final Arc a) {
+            final ItineraryAssignment ia = this.solution.getAssignment(waiting);
+            final Siding siding = this.factory.findSiding(ia, a);
+            if (siding == null) {
+                return null;
+            }
+            final Route r = siding.routes.contains(ia.getRoute()) ? ia.getRoute() : siding.routes
+                    .get(this.random.nextInt(siding.routes.size()));
+            return new MeetPassMove(waiting, r, siding.exit, passing, a);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.solution.getTrains().isEmpty();
+        }
+
+        @Override
+        public Move next() {
+            final int maxAttempts = this.calculator == null ? 0 : MeetPassMoveIterator.MAX_ATTEMPTS;
+            for (int attempt = 0; attempt < maxAttempts; attempt++) {
+                final Train t = this.calculator.pickConflictingHotspot(this.random);
+                if (t == null) {
+                    // no conflicts at all, so there is nothing to try again
+                    break;
+                }
+                final List<Train> others = new ArrayList<>(this.calculator.getConflictingTrains(t));
+                final Train other = others.get(this.random.nextInt(others.size()));
+                final List<Arc> arcs = MeetPassMoveFactory.findConflictArcs(this.solution,
+                        this.calculator, t, other);
+                if (arcs.isEmpty()) {
+                    continue;
+                }
+                final Arc a = arcs.get(this.random.nextInt(arcs.size()));
+                // either of the trains may wait; try the other one if this one can't
+                final boolean otherWaits = this.random.nextBoolean();
+                final Move move = this.createMove(otherWaits ? other : t, otherWaits ? t : other,
+                        a);
+                if (move != null) {
+                    return move;
+                }
+                final Move reverseMove = this.createMove(otherWaits ? t : other, otherWaits ? other
+                        : t, a);
+                if (reverseMove != null) {
+                    return reverseMove;
+                }
+            }
+            // no conflict to resolve; keep the wait time, so that the move isn't doable
+            final ItineraryAssignment ia = this.solution.getAssignments().iterator().next();
+            final Node n = ia.getTrain().getOrigin();
+            return new WaitTimeAssignmentMove(ia.getTrain(), ia.getRoute(), n, ia.getItinerary()
+                    .getWaitTime(n));
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    /**
+     * A siding that a train can wait at, together with all the train's routes that go through it.
+     */
+    private static final class Siding implements Comparable<Siding> {
+
+        private final Node        exit;
+        private final BigDecimal  distance;
+        private final List<Route> routes = new ArrayList<>();
+
+        public Siding(final Node exit, final BigDecimal distance) {
+            this.exit = exit;
+            this.distance = distance;
+        }
+
+        /**
+         * Sidings are ordered by how far they end from the start of the route.
+         */
+        @Override
+        public int compareTo(final Siding o) {
+            return this.distance.compareTo(o.distance);
+        }
+
+    }
+
+    /**
+     * Find the arcs where two trains are in conflict.
+     * 
+     * @param solution The solution in question.
+     * @param calculator Calculator that knows the conflicts of the solution.
+     * @param t One of the trains.
+     * @param other The other train.
+     * @return Arcs, in the order of the first train's route.
+     */
+    private static List<Arc> findConflictArcs(final ProblemSolution solution,
+            final ScoreCalculator calculator, final Train t, final Train other) {
+        final List<Arc> arcs = new ArrayList<>();
+        for (final Arc a : solution.getAssignment(t).getRoute().getProgression().getArcs()) {
+            if (calculator.getConflictingTrains(t, a).contains(other)) {
+                arcs.add(a);
+            }
+        }
+        return arcs;
+    }
+
+    /**
+     * Find the sidings on the routes of a train, between its origin and its destination.
+     * 
+     * @param ia Assignment of the train.
+     * @return Sidings, ordered by how far they end from the start of the route.
+     */
+    private static List<Siding> findSidings(final ItineraryAssignment ia) {
+        final Train t = ia.getTrain();
+        final Map<Node, Siding> sidings = new LinkedHashMap<>();
+        for (final Route r : ia.getRoutes()) {
+            final ArcProgression progression = r.getProgression();
+            final BigDecimal start = progression.getDistance(t.getOrigin());
+            final BigDecimal end = progression.getDistance(t.getDestination());
+            for (final Arc a : progression.getArcs()) {
+                if (a.getTrack() != Track.SIDING) {
+                    continue;
+                }
+                final Node exit = a.getDestination(t);
+                final BigDecimal distance = progression.getDistance(exit);
+                if (progression.getDistance(a.getOrigin(t)).compareTo(start) < 0
+                        || distance.compareTo(end) > 0) {
+                    continue;
+                }
+                if (!sidings.containsKey(exit)) {
+                    sidings.put(exit, new Siding(exit, distance));
+                }
+                sidings.get(exit).routes.add(r);
+            }
+        }
+        final List<Siding> result = new ArrayList<>(sidings.values());
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Retrieve the calculator that knows the conflicts of the working solution.
+     * 
+     * @param scoreDirector The score director in question.
+     * @return The calculator, or null if the score director doesn't use one.
+     */
+    private static ScoreCalculator getCalculator(final ScoreDirector scoreDirector) {
+        if (scoreDirector instanceof IncrementalScoreDirector) {
+            final Object incremental = ((IncrementalScoreDirector) scoreDirector)
+                    .getIncrementalScoreCalculator();
+            if (incremental instanceof ScoreCalculator) {
+                return (ScoreCalculator) incremental;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Routes of a train don't change while the solver runs, so the sidings are only found once for every train.
+     */
+    private final Map<Train, List<Siding>> sidings = new HashMap<>();
+
+    /**
+     * Add the moves where a train waits for another, at the last siding before the arc. When the train's current route
+     * doesn't go through the siding, there is a move for every route that does.
+     * 
+     * @param moves Where to add the moves.
+     * @param solution The solution in question.
+     * @param waiting The train to wait.
+     * @param passing The train to pass.
+     * @param a The arc where the trains are in conflict.
+     */
+    private void addMoves(final List<Move> moves, final ProblemSolution solution,
+            final Train waiting, final Train passing, final Arc a) {
+        final ItineraryAssignment ia = solution.getAssignment(waiting);
+        final Siding siding = this.findSiding(ia, a);
+        if (siding == null) {
+            return;
+        }
+        if (siding.routes.contains(ia.getRoute())) {
+            moves.add(new MeetPassMove(waiting, ia.getRoute(), siding.exit, passing, a));
+            return;
+        }
+        for (final Route r : siding.routes) {
+            moves.add(new MeetPassMove(waiting, r, siding.exit, passing, a));
+        }
+    }
+
+    @Override
+    public Iterator<Move> createOriginalMoveIterator(final ScoreDirector arg0) {
+        final ScoreCalculator calculator = MeetPassMoveFactory.getCalculator(arg0);
+        if (calculator == null) {
+            return Collections.<Move> emptyIterator();
+        }
+        calculator.refreshHotspots();
+        final ProblemSolution solution = (ProblemSolution) arg0.getWorkingSolution();
+        final List<Move> moves = new ArrayList<>();
+        for (final Train t : calculator.getTrainsInConflict()) {
+            for (final Train other : calculator.getConflictingTrains(t)) {
+                if (t.compareTo(other) > 0) {
+                    // every pair of trains only once
+                    continue;
+                }
+                for (final Arc a : MeetPassMoveFactory.findConflictArcs(solution, calculator, t,
+                        other)) {
+                    this.addMoves(moves, solution, t, other, a);
+                    this.addMoves(moves, solution, other, t, a);
+                }
+            }
+        }
+        return moves.iterator();
+    }
+
+    @Override
+    public Iterator<Move> createRandomMoveIterator(final ScoreDirector arg0, final Random arg1) {
+        return new MeetPassMoveIterator(this, (ProblemSolution) arg0.getWorkingSolution(),
+                MeetPassMoveFactory.getCalculator(arg0), arg1);
+    }
+
+    /**
+     * Find the last siding that ends before an arc on the train's route.
+     * 
+     * @param ia Assignment of the train.
+     * @param a The arc in question.
+     * @return The siding, or null if there is none or the route doesn't go through the arc.
+     */
+    private Siding findSiding(final ItineraryAssignment ia, final Arc a) {
+        final ArcProgression progression = ia.getRoute().getProgression();
+        if (!progression.contains(a)) {
+            return null;
+        }
+        // a siding that runs alongside the arc ends roughly where the arc does
+        final BigDecimal limit = progression.getDistance(a.getOrigin(ia.getTrain())).add(
+                a.getLength());
+        List<Siding> trainSidings = this.sidings.get(ia.getTrain());
+        if (trainSidings == null) {
+            trainSidings = MeetPassMoveFactory.findSidings(ia);
+            this.sidings.put(ia.getTrain(), trainSidings);
+        }
+        for (int i = trainSidings.size() - 1; i >= 0; i--) {
+            final Siding siding = trainSidings.get(i);
+            if (siding.distance.compareTo(limit) <= 0) {
+                return siding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Moves depend on the current conflicts, so the size can only be estimated. Every train may wait for every other train.
+     */
+    @Override
+    public long getSize(final ScoreDirector arg0) {
+        final long trains = ((ProblemSolution) arg0.getWorkingSolution()).getTrains().size();
+        return trains * (trains - 1);
+    }
+}
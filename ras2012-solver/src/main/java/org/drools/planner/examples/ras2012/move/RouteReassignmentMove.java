@@ -42,7 +42,7 @@ public class RouteReassignmentMove implements Move {
         this.initializeMove(scoreDirector);
         final Move undo = new RouteReassignmentUndoMove(this.train, this.route, this.previousRoute,
                 this.previousWaitTimes);
-        RouteReassignmentMove.logger.debug("Undo move for {} is {}.", new Object[] { this, undo });
+        RouteReassignmentMove.logger.debug("Undo move for {} is {}.", this, undo);
         return undo;
     }
 
@@ -13,6 +13,7 @@ import org.drools.planner.core.heuristic.selector.move.factory.MoveIteratorFacto
 import org.drools.planner.core.move.Move;
 import org.drools.planner.core.score.director.ScoreDirector;
 import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
 import org.drools.planner.examples.ras2012.model.Route;
 import org.drools.planner.examples.ras2012.model.Train;
 import org.drools.planner.examples.ras2012.util.RandomAccessor;
@@ -26,10 +27,15 @@ public class RouteReassignmentMoveFactory implements MoveIteratorFactory {
 
         public RandomRouteReassignmentMoveIterator(final ProblemSolution solution,
                 final Random random) {
-            this.trains = new RandomAccessor<Train>(solution.getTrains(), random);
-            for (final Train t : solution.getTrains()) {
-                this.routes.put(t, new RandomAccessor<Route>(solution.getTerritory().getRoutes(t),
-                        random));
+            final List<Train> trains = RouteReassignmentMoveFactory.getReroutableTrains(solution);
+            if (trains.isEmpty()) {
+                // every move will be undoable, but the iterator must never run out of them
+                trains.addAll(solution.getTrains());
+            }
+            this.trains = new RandomAccessor<Train>(trains, random);
+            for (final Train t : trains) {
+                this.routes.put(t, new RandomAccessor<Route>(solution.getAssignment(t)
+                        .getRoutes(), random));
             }
         }
 
@@ -58,8 +64,8 @@ public class RouteReassignmentMoveFactory implements MoveIteratorFactory {
         private int                            currentIndex = 0;
 
         public RouteReassignmentMoveIterator(final ProblemSolution solution) {
-            for (final Train t : solution.getTrains()) {
-                for (final Route r : solution.getTerritory().getRoutes(t)) {
+            for (final Train t : RouteReassignmentMoveFactory.getReroutableTrains(solution)) {
+                for (final Route r : solution.getTerritory().getCandidateRoutes(t)) {
                     this.pairs.add(Pair.of(t, r));
                 }
             }
@@ -86,6 +92,26 @@ public class RouteReassignmentMoveFactory implements MoveIteratorFactory {
 
     }
 
+    /**
+     * Trains whose routes may still change, see {@link ItineraryAssignment#isRouteFrozen()}.
+     * 
+     * @param solution The solution in question.
+     * @return The trains, in their natural order.
+     */
+    private static List<Train> getReroutableTrains(final ProblemSolution solution) {
+        final List<Train> trains = new ArrayList<>();
+        for (final Train t : solution.getTrains()) {
+            if (!solution.getAssignment(t).isRouteFrozen()) {
+                trains.add(t);
+            }
+        }
+        return trains;
+    }
+
+    private ProblemSolution sizedSolution = null;
+
+    private long            size          = 0;
+
     @Override
     public Iterator<Move> createOriginalMoveIterator(final ScoreDirector arg0) {
         return new RouteReassignmentMoveIterator((ProblemSolution) arg0.getWorkingSolution());
@@ -97,14 +123,22 @@ public class RouteReassignmentMoveFactory implements MoveIteratorFactory {
                 arg1);
     }
 
+    /**
+     * The size only depends on the trains and on the present time, neither of which ever change during solving. Therefore, it
+     * is only calculated once for every working solution.
+     */
     @Override
     public long getSize(final ScoreDirector arg0) {
         final ProblemSolution sol = (ProblemSolution) arg0.getWorkingSolution();
-        long size = 0;
-        for (final Train t : sol.getTrains()) {
-            size += sol.getTerritory().getRoutes(t).size();
+        if (sol != this.sizedSolution) {
+            long size = 0;
+            for (final Train t : RouteReassignmentMoveFactory.getReroutableTrains(sol)) {
+                size += sol.getTerritory().getCandidateRoutes(t).size();
+            }
+            this.size = size;
+            this.sizedSolution = sol;
         }
-        return size;
+        return this.size;
     }
 
 }
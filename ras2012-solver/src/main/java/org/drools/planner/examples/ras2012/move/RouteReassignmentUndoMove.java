@@ -42,6 +42,8 @@ public class RouteReassignmentUndoMove implements Move {
         this.initializeMove(scoreDirector);
         this.assignment.setRoute(this.originalRoute);
         final Itinerary i = this.assignment.getItinerary();
+        // an unchanged route keeps its itinerary, which may have gained wait times since
+        i.removeWaitTimes();
         for (final Map.Entry<Node, WaitTime> entry : this.originalWaitTimes.entrySet()) {
             i.setWaitTime(entry.getKey(), entry.getValue());
         }
@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.drools.planner.core.move.Move;
@@ -28,13 +29,14 @@ public class WaitTimeAssignmentMove implements Move {
         return (ProblemSolution) scoreDirector.getWorkingSolution();
     }
 
-    private ItineraryAssignment assignment;
-    private final Train         train;
-    private final Route         route;
-    private final Node          node;
-    private final WaitTime      waitTime;
+    private ItineraryAssignment    assignment;
+    private final Train            train;
+    private final Route            route;
+    private final Node             node;
+    private final WaitTime         waitTime;
 
-    private WaitTime            previousWaitTime;
+    private WaitTime               previousWaitTime;
+    private WaitTimeAssignmentMove undo;
 
     public WaitTimeAssignmentMove(final Train t, final Route r, final Node n, final WaitTime wt) {
         this.train = t;
@@ -43,26 +45,40 @@ public class WaitTimeAssignmentMove implements Move {
         this.waitTime = wt;
     }
 
-    private WaitTimeAssignmentMove(final Train t, final Route r, final Node n, final WaitTime wt,
-            final WaitTime previousWaitTime) {
-        this.train = t;
-        this.route = r;
-        this.node = n;
-        this.waitTime = wt;
-        this.previousWaitTime = previousWaitTime;
+    /**
+     * Create a move whose undo move is already known.
+     * 
+     * @param t Train to move.
+     * @param r Route of the train.
+     * @param n Wait point to change the wait time at.
+     * @param wt The new wait time.
+     * @param undo Move back to the wait time currently at the wait point, null if not known. It will only be used as long
+     *            as the wait time there stays the same.
+     */
+    WaitTimeAssignmentMove(final Train t, final Route r, final Node n, final WaitTime wt,
+            final WaitTimeAssignmentMove undo) {
+        this(t, r, n, wt);
+        this.undo = undo;
     }
 
     private boolean assignmentExists(final ScoreDirector scoreDirector) {
         return this.getAssignment(scoreDirector) != null;
     }
 
+    /**
+     * The undo move is only created once and then reused, unless the wait time to return to has changed in the meantime.
+     * Planner does the undo move right after this move, so there's never more than one use of it at a time. The undo of
+     * the undo move is this move.
+     */
     @Override
     public Move createUndoMove(final ScoreDirector scoreDirector) {
         this.initializeMove(scoreDirector);
-        final Move undo = new WaitTimeAssignmentMove(this.train, this.route, this.node,
-                this.previousWaitTime, this.waitTime);
-        WaitTimeAssignmentMove.logger.debug("Undo move for {} is {}.", new Object[] { this, undo });
-        return undo;
+        if (this.undo == null || ObjectUtils.notEqual(this.undo.waitTime, this.previousWaitTime)) {
+            this.undo = new WaitTimeAssignmentMove(this.train, this.route, this.node,
+                    this.previousWaitTime, this);
+        }
+        WaitTimeAssignmentMove.logger.debug("Undo move for {} is {}.", this, this.undo);
+        return this.undo;
     }
 
     @Override
@@ -114,9 +130,8 @@ public class WaitTimeAssignmentMove implements Move {
 
     private ItineraryAssignment initializeMove(final ScoreDirector scoreDirector) {
         this.assignment = this.getAssignment(scoreDirector);
-        if (this.previousWaitTime == null) { // if we don't know the previous wait time
-            this.previousWaitTime = this.assignment.getItinerary().getWaitTime(this.node);
-        }
+        // moves are reused from step to step, so the wait time must be read every time
+        this.previousWaitTime = this.assignment.getItinerary().getWaitTime(this.node);
         return this.assignment;
     }
 
@@ -130,7 +145,7 @@ public class WaitTimeAssignmentMove implements Move {
             return false;
         }
         if (this.assignment.getItinerary().hasNode(this.node)) {
-            return this.waitTime != this.previousWaitTime;
+            return ObjectUtils.notEqual(this.waitTime, this.previousWaitTime);
         } else {
             return false;
         }
@@ -1,6 +1,7 @@
 package org.drools.planner.examples.ras2012.move;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -8,44 +9,63 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Random;
 
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.drools.planner.core.heuristic.selector.move.factory.MoveIteratorFactory;
 import org.drools.planner.core.move.Move;
 import org.drools.planner.core.score.director.ScoreDirector;
 import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.model.Itinerary;
 import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
 import org.drools.planner.examples.ras2012.model.WaitTimeAssignment;
-import org.drools.planner.examples.ras2012.util.RandomAccessor;
 
 public class WaitTimeAssignmentMoveFactory implements MoveIteratorFactory {
 
+    /**
+     * Picks a random train first, then a random wait point on its route and finally a random wait time for it. Nothing is
+     * enumerated up front; the moves are looked up in the {@link TrainMoves} of the train, which creates them on first use.
+     */
     private static final class RandomWaitTimeAssignmentMoveIterator implements Iterator<Move> {
 
-        private final Map<ItineraryAssignment, RandomAccessor<WaitTimeAssignment>> waitTimes = new HashMap<>();
-        private final RandomAccessor<ItineraryAssignment>                          itineraries;
+        /**
+         * How many times to try picking a wait point whose wait time may still change, before giving up for the current move.
+         */
+        private static final int       MAX_ATTEMPTS = 100;
 
-        public RandomWaitTimeAssignmentMoveIterator(final ProblemSolution solution,
+        private final List<TrainMoves> trains;
+        private final Random           random;
+
+        public RandomWaitTimeAssignmentMoveIterator(final List<TrainMoves> trains,
                 final Random random) {
-            this.itineraries = new RandomAccessor<ItineraryAssignment>(solution.getAssignments(),
-                    random);
-            for (final ItineraryAssignment ia : solution.getAssignments()) {
-                this.waitTimes
-                        .put(ia, new RandomAccessor<WaitTimeAssignment>(
-                                ia.getWaitTimeAssignments(), random));
-            }
+            this.trains = trains;
+            this.random = random;
         }
 
         @Override
         public boolean hasNext() {
-            return true;
+            return !this.trains.isEmpty();
         }
 
         @Override
         public Move next() {
-            final ItineraryAssignment ia = this.itineraries.get();
-            final WaitTimeAssignment wta = this.waitTimes.get(ia).get();
-            return new WaitTimeAssignmentMove(ia.getTrain(), ia.getRoute(), wta.getNode(),
-                    wta.getWaitTime());
+            TrainMoves train = null;
+            int waitPointIndex = -1;
+            final int maxAttempts = RandomWaitTimeAssignmentMoveIterator.MAX_ATTEMPTS;
+            for (int attempt = 0; attempt < maxAttempts; attempt++) {
+                train = this.trains.get(this.random.nextInt(this.trains.size()));
+                waitPointIndex = this.random.nextInt(train.getWaitPointCount());
+                final int waitTimeCount = train.getWaitTimeCount(waitPointIndex);
+                if (waitTimeCount == 0) {
+                    // the train has passed the wait point already
+                    continue;
+                }
+                return train.getMove(waitPointIndex, this.random.nextInt(waitTimeCount));
+            }
+            // every wait point picked was frozen; keep its wait time, so that the move isn't doable
+            return train.getFrozenMove(waitPointIndex);
         }
 
         @Override
@@ -55,6 +75,170 @@ public class WaitTimeAssignmentMoveFactory implements MoveIteratorFactory {
 
     }
 
+    /**
+     * The moves of a single train, addressed by two indexes: of the wait point on the train's route and of the wait time
+     * there. Both the wait times for a wait point and the moves are only created when they are first picked, and they are
+     * kept from step to step for as long as the wait times of the train stay the same. A step only changes one train, so the
+     * moves of all the others are reused.
+     * 
+     * Undo moves are not created either. Undoing a move means setting the wait point's current wait time again, and that is
+     * just another move of the same wait point.
+     */
+    private static final class TrainMoves {
+
+        private final ItineraryAssignment  assignment;
+        private Itinerary                  itinerary;
+        private List<Node>                 waitPoints;
+        /**
+         * The wait time at every wait point, as of when the moves were created.
+         */
+        private WaitTime[]                 knownWaitTimes;
+        private int                        knownWaitTimeCount;
+        private int                        knownRevision;
+        private List<WaitTime>[]           waitTimes;
+        /**
+         * Index of the current wait time in {@link #waitTimes}, -1 when it isn't one of them.
+         */
+        private int[]                      currentIndexes;
+        private WaitTimeAssignmentMove[][] moves;
+
+        public TrainMoves(final ItineraryAssignment assignment) {
+            this.assignment = assignment;
+        }
+
+        /**
+         * Create a move that isn't doable, since it keeps the wait time that is there already.
+         * 
+         * @param waitPointIndex Index of the wait point.
+         * @return The move.
+         */
+        public Move getFrozenMove(final int waitPointIndex) {
+            final Node waitPoint = this.waitPoints.get(waitPointIndex);
+            return new WaitTimeAssignmentMove(this.assignment.getTrain(),
+                    this.assignment.getRoute(), waitPoint, this.itinerary.getWaitTime(waitPoint));
+        }
+
+        /**
+         * Retrieve the move that sets the given wait time at the given wait point, creating it if necessary.
+         * 
+         * @param waitPointIndex Index of the wait point.
+         * @param waitTimeIndex Index of the wait time, see {@link #getWaitTimeCount(int)}.
+         * @return The move.
+         */
+        public Move getMove(final int waitPointIndex, final int waitTimeIndex) {
+            WaitTimeAssignmentMove[] waitPointMoves = this.moves[waitPointIndex];
+            if (waitPointMoves == null) {
+                waitPointMoves = new WaitTimeAssignmentMove[this.waitTimes[waitPointIndex].size()];
+                this.moves[waitPointIndex] = waitPointMoves;
+            }
+            if (waitPointMoves[waitTimeIndex] == null) {
+                final int currentIndex = this.currentIndexes[waitPointIndex];
+                WaitTimeAssignmentMove undo = null;
+                if (currentIndex >= 0 && currentIndex != waitTimeIndex) {
+                    undo = (WaitTimeAssignmentMove) this.getMove(waitPointIndex, currentIndex);
+                }
+                waitPointMoves[waitTimeIndex] = new WaitTimeAssignmentMove(
+                        this.assignment.getTrain(), this.assignment.getRoute(),
+                        this.waitPoints.get(waitPointIndex), this.waitTimes[waitPointIndex]
+                                .get(waitTimeIndex), undo);
+            }
+            return waitPointMoves[waitTimeIndex];
+        }
+
+        public int getWaitPointCount() {
+            return this.waitPoints.size();
+        }
+
+        /**
+         * How many wait times there are to pick from at a wait point.
+         * 
+         * @param waitPointIndex Index of the wait point.
+         * @return The number of wait times, 0 if the wait time can't change any more.
+         */
+        public int getWaitTimeCount(final int waitPointIndex) {
+            if (this.waitTimes[waitPointIndex] == null) {
+                final List<WaitTime> allowed = this.assignment.getAllowedWaitTimes(this.waitPoints
+                        .get(waitPointIndex));
+                this.waitTimes[waitPointIndex] = allowed;
+                this.currentIndexes[waitPointIndex] = allowed
+                        .indexOf(this.knownWaitTimes[waitPointIndex]);
+            }
+            return this.waitTimes[waitPointIndex].size();
+        }
+
+        /**
+         * Whether the wait times are still the ones the moves were created for. The revision of the itinerary can't tell on
+         * its own, since every move evaluated and undone during a step changes it, too.
+         */
+        private boolean hasKnownWaitTimes() {
+            if (this.itinerary.getRevision() == this.knownRevision) {
+                return true;
+            }
+            int count = 0;
+            for (int i = 0; i < this.knownWaitTimes.length; i++) {
+                final WaitTime wt = this.itinerary.getWaitTime(this.waitPoints.get(i));
+                if (ObjectUtils.notEqual(wt, this.knownWaitTimes[i])) {
+                    return false;
+                }
+                if (wt != null) {
+                    count++;
+                }
+            }
+            // wait times elsewhere on the route change the arrivals too
+            if (count != this.knownWaitTimeCount || count != this.itinerary.getWaitTimes().size()) {
+                return false;
+            }
+            this.knownRevision = this.itinerary.getRevision();
+            return true;
+        }
+
+        /**
+         * Bring the moves up to date with the train's itinerary, forgetting them if the itinerary has changed.
+         * 
+         * @return False if the train has passed all of its wait points already and there is nothing to move.
+         */
+        @SuppressWarnings("unchecked")
+        public boolean refresh() {
+            final List<Node> currentWaitPoints = this.assignment.getWaitPoints();
+            if (currentWaitPoints.isEmpty()) {
+                return false;
+            }
+            final Itinerary current = this.assignment.getItinerary();
+            if (current != this.itinerary) {
+                // a different route, with different wait points
+                final int size = currentWaitPoints.size();
+                this.itinerary = current;
+                this.waitPoints = currentWaitPoints;
+                this.knownWaitTimes = new WaitTime[size];
+                this.waitTimes = new List[size];
+                this.currentIndexes = new int[size];
+                this.moves = new WaitTimeAssignmentMove[size][];
+                this.rememberWaitTimes();
+            } else if (!this.hasKnownWaitTimes()) {
+                Arrays.fill(this.waitTimes, null);
+                Arrays.fill(this.moves, null);
+                this.rememberWaitTimes();
+            }
+            /*
+             * wait points are in the order of travel, so when the last one is frozen, all of them are; the train has passed
+             * all of its wait points already
+             */
+            return this.getWaitTimeCount(this.waitPoints.size() - 1) > 0;
+        }
+
+        private void rememberWaitTimes() {
+            this.knownRevision = this.itinerary.getRevision();
+            this.knownWaitTimeCount = 0;
+            for (int i = 0; i < this.knownWaitTimes.length; i++) {
+                this.knownWaitTimes[i] = this.itinerary.getWaitTime(this.waitPoints.get(i));
+                if (this.knownWaitTimes[i] != null) {
+                    this.knownWaitTimeCount++;
+                }
+            }
+        }
+
+    }
+
     private static final class WaitTimeAssignmentMoveIterator implements Iterator<Move> {
 
         private final List<Pair<ItineraryAssignment, WaitTimeAssignment>> pairs        = new ArrayList<>();
@@ -93,6 +277,10 @@ public class WaitTimeAssignmentMoveFactory implements MoveIteratorFactory {
 
     }
 
+    private ProblemSolution              cachedSolution;
+    private final Map<Train, TrainMoves> cachedMoves   = new HashMap<>();
+    private final List<TrainMoves>       movableTrains = new ArrayList<>();
+
     @Override
     public Iterator<Move> createOriginalMoveIterator(final ScoreDirector arg0) {
         return new WaitTimeAssignmentMoveIterator((ProblemSolution) arg0.getWorkingSolution());
@@ -100,16 +288,36 @@ public class WaitTimeAssignmentMoveFactory implements MoveIteratorFactory {
 
     @Override
     public Iterator<Move> createRandomMoveIterator(final ScoreDirector arg0, final Random arg1) {
-        return new RandomWaitTimeAssignmentMoveIterator(
-                (ProblemSolution) arg0.getWorkingSolution(), arg1);
+        final ProblemSolution solution = (ProblemSolution) arg0.getWorkingSolution();
+        if (solution != this.cachedSolution) {
+            this.cachedSolution = solution;
+            this.cachedMoves.clear();
+        }
+        // a new iterator is created every step, and the previous one is not used any more
+        this.movableTrains.clear();
+        for (final ItineraryAssignment ia : solution.getAssignments()) {
+            TrainMoves trainMoves = this.cachedMoves.get(ia.getTrain());
+            if (trainMoves == null || trainMoves.assignment != ia) {
+                trainMoves = new TrainMoves(ia);
+                this.cachedMoves.put(ia.getTrain(), trainMoves);
+            }
+            if (trainMoves.refresh()) {
+                this.movableTrains.add(trainMoves);
+            }
+        }
+        return new RandomWaitTimeAssignmentMoveIterator(this.movableTrains, arg1);
     }
 
+    /**
+     * Every assignment caches its own count, see {@link ItineraryAssignment#getWaitTimeAssignmentCount()}. Since a move only
+     * changes a single train, only that train is counted again and the rest is a sum of the cached counts.
+     */
     @Override
     public long getSize(final ScoreDirector arg0) {
         final ProblemSolution sol = (ProblemSolution) arg0.getWorkingSolution();
         long size = 0;
         for (final ItineraryAssignment ia : sol.getAssignments()) {
-            size += ia.getWaitTimeAssignments().size();
+            size += ia.getWaitTimeAssignmentCount();
         }
         return size;
     }
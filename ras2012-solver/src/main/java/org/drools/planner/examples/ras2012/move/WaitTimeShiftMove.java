@@ -0,0 +1,206 @@
+package org.drools.planner.examples.ras2012.move;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.drools.planner.core.move.Move;
+import org.drools.planner.core.score.director.ScoreDirector;
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.model.Itinerary;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This move makes a train wait shorter at one wait point and longer at another, by the same amount of time. The total time
+ * the train waits stays the same, so its arrival at the destination stays roughly the same too. Only the part of the
+ * schedule between the two wait points moves, which is what resolves conflicts there, without affecting the penalties for
+ * being late.
+ * 
+ * The arrival may still change a little, when the train runs into a maintenance window at a different time.
+ */
+public class WaitTimeShiftMove implements Move {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitTimeShiftMove.class);
+
+    /**
+     * How many minutes of waiting a wait point can take on top of what it already has, so that the wait time stays within
+     * {@link ItineraryAssignment#getAllowedWaitTimes(Node)}.
+     * 
+     * @param ia Assignment of the train.
+     * @param to The wait point to wait longer at.
+     * @return Minutes, 0 if the wait time can't grow.
+     */
+    static long getShiftLimit(final ItineraryAssignment ia, final Node to) {
+        final List<WaitTime> allowed = ia.getAllowedWaitTimes(to);
+        if (allowed.isEmpty() || allowed.get(0) == null) {
+            return 0;
+        }
+        final long current = TimeUnit.MILLISECONDS.toMinutes(WaitTimeShiftMove.getWaitFor(
+                ia.getItinerary(), to));
+        return Math.max(allowed.get(0).getWaitFor(TimeUnit.MINUTES) - current, 0);
+    }
+
+    private static ProblemSolution getSolution(final ScoreDirector scoreDirector) {
+        return (ProblemSolution) scoreDirector.getWorkingSolution();
+    }
+
+    private static long getWaitFor(final Itinerary i, final Node n) {
+        final WaitTime wt = i.getWaitTime(n);
+        return wt == null ? 0 : wt.getWaitFor(TimeUnit.MILLISECONDS);
+    }
+
+    private static void setWaitFor(final Itinerary i, final Node n, final long millis) {
+        if (millis > 0) {
+            i.setWaitTime(n, WaitTime.getWaitTime(millis, TimeUnit.MILLISECONDS));
+        } else if (i.getWaitTime(n) != null) {
+            i.removeWaitTime(n);
+        }
+    }
+
+    private ItineraryAssignment assignment;
+    private final Train         train;
+    private final Route         route;
+    private final Node          from;
+    private final Node          to;
+    private final long          minutes;
+
+    /**
+     * 
+     * @param t The train to shift the wait time of.
+     * @param r The route that the train is on.
+     * @param from The wait point to wait shorter at.
+     * @param to The wait point to wait longer at.
+     * @param minutes How many minutes of waiting to move.
+     */
+    public WaitTimeShiftMove(final Train t, final Route r, final Node from, final Node to,
+            final long minutes) {
+        if (minutes < 1) {
+            throw new IllegalArgumentException("Must shift at least 1 minute, not " + minutes
+                    + ".");
+        }
+        this.train = t;
+        this.route = r;
+        this.from = from;
+        this.to = to;
+        this.minutes = minutes;
+    }
+
+    /**
+     * Shifting the same time back is an exact undo, since the time was there to shift in the first place.
+     */
+    @Override
+    public Move createUndoMove(final ScoreDirector scoreDirector) {
+        this.initializeMove(scoreDirector);
+        final Move undo = new WaitTimeShiftMove(this.train, this.route, this.to, this.from,
+                this.minutes);
+        WaitTimeShiftMove.logger.debug("Undo move for {} is {}.", this, undo);
+        return undo;
+    }
+
+    @Override
+    public void doMove(final ScoreDirector scoreDirector) {
+        this.initializeMove(scoreDirector);
+        final Itinerary i = this.assignment.getItinerary();
+        final long shift = TimeUnit.MINUTES.toMillis(this.minutes);
+        final long fromWait = WaitTimeShiftMove.getWaitFor(i, this.from);
+        final long toWait = WaitTimeShiftMove.getWaitFor(i, this.to);
+        WaitTimeShiftMove.setWaitFor(i, this.from, fromWait - shift);
+        WaitTimeShiftMove.setWaitFor(i, this.to, toWait + shift);
+        scoreDirector.afterVariableChanged(this.assignment, "waitTime");
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof WaitTimeShiftMove)) {
+            return false;
+        }
+        final WaitTimeShiftMove rhs = (WaitTimeShiftMove) obj;
+        return new EqualsBuilder().append(this.route, rhs.route).append(this.train, rhs.train)
+                .append(this.from, rhs.from).append(this.to, rhs.to)
+                .append(this.minutes, rhs.minutes).isEquals();
+    }
+
+    @Override
+    public Collection<? extends Object> getPlanningEntities() {
+        if (this.assignment == null) {
+            throw new IllegalStateException("Move not yet initialized!");
+        }
+        return Collections.singletonList(this.assignment);
+    }
+
+    @Override
+    public Collection<? extends Object> getPlanningValues() {
+        return Arrays.asList(this.from, this.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(this.route).append(this.train).append(this.from)
+                .append(this.to).append(this.minutes).toHashCode();
+    }
+
+    private ItineraryAssignment initializeMove(final ScoreDirector scoreDirector) {
+        this.assignment = WaitTimeShiftMove.getSolution(scoreDirector).getAssignment(this.train);
+        return this.assignment;
+    }
+
+    /**
+     * The move is doable when the train is still on the route, there is enough wait time to shift, neither of the wait
+     * points has been passed yet and the longer wait time is still allowed.
+     */
+    @Override
+    public boolean isMoveDoable(final ScoreDirector scoreDirector) {
+        if (WaitTimeShiftMove.getSolution(scoreDirector).getAssignment(this.train) == null) {
+            return false;
+        }
+        this.initializeMove(scoreDirector);
+        if (this.assignment.getRoute() != this.route || this.from == this.to) {
+            return false;
+        }
+        final Itinerary i = this.assignment.getItinerary();
+        if (!i.hasNode(this.from) || !i.hasNode(this.to)) {
+            return false;
+        }
+        if (WaitTimeShiftMove.getWaitFor(i, this.from) < TimeUnit.MINUTES.toMillis(this.minutes)) {
+            return false;
+        }
+        if (this.assignment.getAllowedWaitTimes(this.from).isEmpty()) {
+            return false;
+        }
+        return this.minutes <= WaitTimeShiftMove.getShiftLimit(this.assignment, this.to);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("WaitTimeShiftMove [");
+        builder.append(this.train.getName());
+        builder.append("@");
+        builder.append(this.route.getId());
+        builder.append(", ");
+        builder.append(this.minutes);
+        builder.append(" from ");
+        builder.append(this.from.getId());
+        builder.append(" to ");
+        builder.append(this.to.getId());
+        builder.append("]");
+        return builder.toString();
+    }
+
+}
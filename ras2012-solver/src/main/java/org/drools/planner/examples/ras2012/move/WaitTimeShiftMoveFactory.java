@@ -0,0 +1,188 @@
+package org.drools.planner.examples.ras2012.move;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.core.heuristic.selector.move.factory.MoveIteratorFactory;
+import org.drools.planner.core.move.Move;
+import org.drools.planner.core.score.director.ScoreDirector;
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.model.Itinerary;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+
+/**
+ * Creates {@link WaitTimeShiftMove}s between consecutive wait points of a train. Only the trains that actually wait somewhere
+ * are considered, since there is nothing to shift otherwise.
+ */
+public class WaitTimeShiftMoveFactory implements MoveIteratorFactory {
+
+    /**
+     * Picks a random train that waits, then a random wait point where it waits and the previous or the next wait point, and
+     * finally a random number of minutes, up to the whole wait time or as much as the other wait point allows.
+     */
+    private static final class RandomWaitTimeShiftMoveIterator implements Iterator<Move> {
+
+        /**
+         * How many times to try picking a wait time that may still change, before giving up for the current move.
+         */
+        private static final int                MAX_ATTEMPTS = 100;
+
+        private final List<ItineraryAssignment> itineraries  = new ArrayList<>();
+        private final Random                    random;
+
+        public RandomWaitTimeShiftMoveIterator(final ProblemSolution solution,
+                final Random random) {
+            for (final ItineraryAssignment ia : solution.getAssignments()) {
+                if (ia.getWaitPoints().size() > 1
+                        && !ia.getItinerary().getWaitTimes().isEmpty()) {
+                    this.itineraries.add(ia);
+                }
+            }
+            this.random = random;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.itineraries.isEmpty();
+        }
+
+        @Override
+        public Move next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ItineraryAssignment ia = null;
+            final int maxAttempts = RandomWaitTimeShiftMoveIterator.MAX_ATTEMPTS;
+            for (int attempt = 0; attempt < maxAttempts; attempt++) {
+                ia = this.itineraries.get(this.random.nextInt(this.itineraries.size()));
+                final Itinerary i = ia.getItinerary();
+                final List<Node> waiting = new ArrayList<>(i.getWaitTimes().keySet());
+                final Node from = waiting.get(this.random.nextInt(waiting.size()));
+                final List<Node> waitPoints = ia.getWaitPoints();
+                final int index = waitPoints.indexOf(from);
+                if (index < 0) {
+                    continue;
+                }
+                // shift to the previous or to the next wait point, whichever there is
+                final boolean forward = index == 0 || index < waitPoints.size() - 1
+                        && this.random.nextBoolean();
+                final Node to = waitPoints.get(forward ? index + 1 : index - 1);
+                if (ia.getAllowedWaitTimes(from).isEmpty()) {
+                    // the train has passed the wait point already
+                    continue;
+                }
+                final long available = Math.min(i.getWaitTime(from).getWaitFor(TimeUnit.MINUTES),
+                        WaitTimeShiftMove.getShiftLimit(ia, to));
+                if (available < 1) {
+                    // nothing to shift, or the other wait point is passed or at its longest already
+                    continue;
+                }
+                final long minutes = 1 + (long) (this.random.nextDouble() * available);
+                return new WaitTimeShiftMove(ia.getTrain(), ia.getRoute(), from, to, minutes);
+            }
+            // every wait time picked was frozen; keep it, so that the move isn't doable
+            final Node n = ia.getTrain().getOrigin();
+            return new WaitTimeAssignmentMove(ia.getTrain(), ia.getRoute(), n, ia.getItinerary()
+                    .getWaitTime(n));
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    /**
+     * Shifts every whole wait time of every train to the previous and to the next wait point, or as much of it as the other
+     * wait point allows.
+     */
+    private static final class WaitTimeShiftMoveIterator implements Iterator<Move> {
+
+        private final List<Move> moves        = new ArrayList<>();
+        private int              currentIndex = 0;
+
+        public WaitTimeShiftMoveIterator(final ProblemSolution solution) {
+            for (final ItineraryAssignment ia : solution.getAssignments()) {
+                final List<Node> waitPoints = ia.getWaitPoints();
+                for (int index = 0; index < waitPoints.size(); index++) {
+                    final Node from = waitPoints.get(index);
+                    final WaitTime wt = ia.getItinerary().getWaitTime(from);
+                    if (wt == null || wt.getWaitFor(TimeUnit.MINUTES) < 1) {
+                        continue;
+                    }
+                    if (index > 0) {
+                        this.addMove(ia, from, waitPoints.get(index - 1), wt);
+                    }
+                    if (index < waitPoints.size() - 1) {
+                        this.addMove(ia, from, waitPoints.get(index + 1), wt);
+                    }
+                }
+            }
+        }
+
+        private void addMove(final ItineraryAssignment ia, final Node from, final Node to,
+                final WaitTime wt) {
+            final long minutes = Math.min(wt.getWaitFor(TimeUnit.MINUTES),
+                    WaitTimeShiftMove.getShiftLimit(ia, to));
+            if (minutes < 1) {
+                return;
+            }
+            this.moves.add(new WaitTimeShiftMove(ia.getTrain(), ia.getRoute(), from, to, minutes));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.currentIndex < this.moves.size();
+        }
+
+        @Override
+        public Move next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.moves.get(this.currentIndex++);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    @Override
+    public Iterator<Move> createOriginalMoveIterator(final ScoreDirector arg0) {
+        return new WaitTimeShiftMoveIterator((ProblemSolution) arg0.getWorkingSolution());
+    }
+
+    @Override
+    public Iterator<Move> createRandomMoveIterator(final ScoreDirector arg0, final Random arg1) {
+        return new RandomWaitTimeShiftMoveIterator((ProblemSolution) arg0.getWorkingSolution(),
+                arg1);
+    }
+
+    /**
+     * Every minute of every wait time may move in up to two directions.
+     */
+    @Override
+    public long getSize(final ScoreDirector arg0) {
+        long size = 0;
+        for (final ItineraryAssignment ia : ((ProblemSolution) arg0.getWorkingSolution())
+                .getAssignments()) {
+            if (ia.getWaitPoints().size() < 2) {
+                continue;
+            }
+            for (final WaitTime wt : ia.getItinerary().getWaitTimes().values()) {
+                size += 2 * wt.getWaitFor(TimeUnit.MINUTES);
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,158 @@
+package org.drools.planner.examples.ras2012.util;
+
+import java.util.Arrays;
+
+import org.drools.planner.core.phase.event.SolverPhaseLifecycleListenerAdapter;
+import org.drools.planner.core.phase.step.AbstractStepScope;
+import org.drools.planner.core.score.buildin.hardandsoft.DefaultHardAndSoftScore;
+import org.drools.planner.core.score.buildin.hardandsoft.HardAndSoftScore;
+import org.drools.planner.core.solver.scope.DefaultSolverScope;
+
+/**
+ * <p>
+ * Records how the best score of a solver evolves in time, so that it is known not only how good the final solution is, but
+ * also how soon the solver got there. Register with the solver as a phase lifecycle listener before it starts.
+ * </p>
+ * 
+ * <p>
+ * A sample is only taken when the best score changes, and once more when the solver finishes. Every sample holds the time
+ * spent solving, the number of steps taken, the best score and the number of moves evaluated so far. Samples are kept in
+ * primitive arrays, so that even a long run only takes up a few kilobytes.
+ * </p>
+ * 
+ * Instances are not thread-safe. Only read the profile after the solver has finished.
+ */
+public class AnytimeProfile extends SolverPhaseLifecycleListenerAdapter {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[]           elapsed          = new long[AnytimeProfile.INITIAL_CAPACITY];
+    private long[]           steps            = new long[AnytimeProfile.INITIAL_CAPACITY];
+    private int[]            hardScores       = new int[AnytimeProfile.INITIAL_CAPACITY];
+    private int[]            softScores       = new int[AnytimeProfile.INITIAL_CAPACITY];
+    private long[]           moves            = new long[AnytimeProfile.INITIAL_CAPACITY];
+    private int              size             = 0;
+    private long             stepCount        = 0;
+    private HardAndSoftScore lastBestScore    = null;
+
+    /**
+     * Get the best score that the solver had at a given time.
+     * 
+     * @param elapsedMillis Time since the solver started.
+     * @return The best score, or null if the solver had no best score at that time.
+     */
+    public HardAndSoftScore getBestScoreAt(final long elapsedMillis) {
+        int found = -1;
+        for (int i = 0; i < this.size && this.elapsed[i] <= elapsedMillis; i++) {
+            found = i;
+        }
+        if (found < 0) {
+            return null;
+        }
+        return DefaultHardAndSoftScore.valueOf(this.hardScores[found], this.softScores[found]);
+    }
+
+    public long getElapsedMillis(final int sample) {
+        this.validateSample(sample);
+        return this.elapsed[sample];
+    }
+
+    public long getEvaluatedMoves(final int sample) {
+        this.validateSample(sample);
+        return this.moves[sample];
+    }
+
+    public int getHardScore(final int sample) {
+        this.validateSample(sample);
+        return this.hardScores[sample];
+    }
+
+    public int getSoftScore(final int sample) {
+        this.validateSample(sample);
+        return this.softScores[sample];
+    }
+
+    public long getStepCount(final int sample) {
+        this.validateSample(sample);
+        return this.steps[sample];
+    }
+
+    /**
+     * Get the time it took the solver to find the first feasible solution.
+     * 
+     * @return Time since the solver started, in milliseconds. -1 if the solver never found a feasible solution.
+     */
+    public long getTimeToFeasibility() {
+        for (int i = 0; i < this.size; i++) {
+            if (this.hardScores[i] >= 0) {
+                return this.elapsed[i];
+            }
+        }
+        return -1;
+    }
+
+    private void record(final DefaultSolverScope solverScope, final boolean force) {
+        this.record(solverScope.calculateTimeMillisSpend(), solverScope.getCalculateCount(),
+                (HardAndSoftScore) solverScope.getBestScore(), force);
+    }
+
+    /**
+     * Take a sample, unless the best score is the same as in the last one.
+     * 
+     * @param elapsedMillis Time since the solver started.
+     * @param evaluatedMoves Number of moves evaluated so far.
+     * @param best The best score so far, null if there is none yet.
+     * @param force Take the sample even if the best score hasn't changed.
+     */
+    void record(final long elapsedMillis, final long evaluatedMoves,
+            final HardAndSoftScore best, final boolean force) {
+        if (best == null) {
+            return;
+        }
+        if (!force && best.equals(this.lastBestScore)) {
+            return;
+        }
+        if (this.size == this.elapsed.length) {
+            final int capacity = this.size * 2;
+            this.elapsed = Arrays.copyOf(this.elapsed, capacity);
+            this.steps = Arrays.copyOf(this.steps, capacity);
+            this.hardScores = Arrays.copyOf(this.hardScores, capacity);
+            this.softScores = Arrays.copyOf(this.softScores, capacity);
+            this.moves = Arrays.copyOf(this.moves, capacity);
+        }
+        this.elapsed[this.size] = elapsedMillis;
+        this.steps[this.size] = this.stepCount;
+        this.hardScores[this.size] = best.getHardScore();
+        this.softScores[this.size] = best.getSoftScore();
+        this.moves[this.size] = evaluatedMoves;
+        this.size++;
+        this.lastBestScore = best;
+    }
+
+    /**
+     * Number of samples taken.
+     * 
+     * @return Number of samples.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void solvingEnded(final DefaultSolverScope solverScope) {
+        this.record(solverScope, true);
+    }
+
+    @Override
+    public void stepEnded(final AbstractStepScope stepScope) {
+        this.stepCount++;
+        this.record(stepScope.getSolverPhaseScope().getSolverScope(), false);
+    }
+
+    private void validateSample(final int sample) {
+        if (sample < 0 || sample >= this.size) {
+            throw new IllegalArgumentException("No such sample: " + sample);
+        }
+    }
+
+}
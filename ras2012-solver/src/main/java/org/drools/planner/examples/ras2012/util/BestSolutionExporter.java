@@ -0,0 +1,153 @@
+package org.drools.planner.examples.ras2012.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.drools.planner.core.event.BestSolutionChangedEvent;
+import org.drools.planner.core.event.SolverEventListener;
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Writes every new best solution of a solver as XML, as soon as the solver finds it, so that the current best schedule is
+ * available at any moment and not only after the solver terminates. Solutions are either written to a stream, one after
+ * another, or into a rotating set of files in a directory. Every file is written under a temporary name first and then
+ * renamed, so that readers never see a half-written schedule.
+ * </p>
+ * 
+ * <p>
+ * Writing happens on a thread of its own, so that the solver never waits for it. When the solver finds better solutions
+ * faster than they can be written, only the latest one is written and the ones in between are skipped.
+ * </p>
+ */
+public class BestSolutionExporter implements SolverEventListener {
+
+    private static final Logger                    logger  = LoggerFactory
+                                                                   .getLogger(BestSolutionExporter.class);
+
+    private final SolutionIO                       io      = new SolutionIO();
+    private final ExecutorService                  executor;
+    private final AtomicReference<ProblemSolution> pending = new AtomicReference<>();
+    private final OutputStream                     stream;
+    private final File                             directory;
+    private final String                           name;
+    private final int                              rotation;
+    private int                                    written = 0;
+
+    /**
+     * Write the solutions into a rotating set of files, named "name-best-N.xml", where N goes from 0 to rotation - 1 and
+     * then starts over.
+     * 
+     * @param directory Where to write the files.
+     * @param name Name of the data set.
+     * @param rotation How many files to keep.
+     */
+    public BestSolutionExporter(final File directory, final String name, final int rotation) {
+        if (rotation < 1) {
+            throw new IllegalArgumentException("There must be at least 1 file to rotate.");
+        }
+        this.stream = null;
+        this.directory = directory;
+        this.name = name;
+        this.rotation = rotation;
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    /**
+     * Write the solutions into a stream, one after another.
+     * 
+     * @param stream The stream to write into. Will not be closed.
+     */
+    public BestSolutionExporter(final OutputStream stream) {
+        if (stream == null) {
+            throw new IllegalArgumentException("Stream must not be null.");
+        }
+        this.stream = stream;
+        this.directory = null;
+        this.name = null;
+        this.rotation = 0;
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    @Override
+    public void bestSolutionChanged(final BestSolutionChangedEvent event) {
+        // Planner never changes a best solution after the event, so it can be written later
+        this.export((ProblemSolution) event.getNewBestSolution());
+    }
+
+    /**
+     * Write the pending solution, if any, and stop the writing thread.
+     */
+    public void close() {
+        this.executor.shutdown();
+        while (!this.executor.isTerminated()) {
+            try {
+                this.executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                // nothing we could do here
+            }
+        }
+    }
+
+    /**
+     * Schedule the solution to be written. If a solution is pending already, it is replaced and the scheduled write picks up
+     * this one instead.
+     * 
+     * @param solution Solution to write. Must not change afterwards.
+     */
+    void export(final ProblemSolution solution) {
+        final ProblemSolution previous = this.pending.getAndSet(solution);
+        if (previous == null) {
+            this.executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    BestSolutionExporter.this.writePending();
+                }
+
+            });
+        }
+    }
+
+    private File getNextFile() {
+        final File f = new File(this.directory, this.name + "-best-" + this.written
+                % this.rotation + ".xml");
+        this.written++;
+        return f;
+    }
+
+    private void writePending() {
+        final ProblemSolution solution = this.pending.getAndSet(null);
+        if (solution == null) {
+            return;
+        }
+        if (this.stream != null) {
+            this.io.writeXML(solution, this.stream);
+            return;
+        }
+        if (!this.directory.exists()) {
+            this.directory.mkdirs();
+        }
+        final File target = this.getNextFile();
+        final File temp = new File(this.directory, target.getName() + ".tmp");
+        this.io.writeXML(solution, temp);
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            BestSolutionExporter.logger.debug("Exported best solution with score {} to {}.",
+                    solution.getScore(), target);
+        } catch (final IOException e) {
+            BestSolutionExporter.logger.error("Failed exporting best solution to " + target, e);
+        }
+    }
+
+}
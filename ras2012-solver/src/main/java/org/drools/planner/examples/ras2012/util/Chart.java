@@ -3,34 +3,131 @@ package org.drools.planner.examples.ras2012.util;
 import java.awt.Color;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.drools.planner.core.score.buildin.hardandsoft.HardAndSoftScore;
+import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartUtilities;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.CategoryAxis;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.renderer.category.BoxAndWhiskerRenderer;
 import org.jfree.data.statistics.BoxAndWhiskerCategoryDataset;
 import org.jfree.data.statistics.DefaultBoxAndWhiskerCategoryDataset;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class Chart {
 
-    private static final Logger                       logger  = LoggerFactory
-                                                                      .getLogger(Chart.class);
+    private static final Logger                       logger         = LoggerFactory
+                                                                             .getLogger(Chart.class);
 
-    private final DefaultBoxAndWhiskerCategoryDataset dataset = new DefaultBoxAndWhiskerCategoryDataset();
+    /**
+     * How many points in time to put on every performance profile curve.
+     */
+    private static final int                          PROFILE_POINTS = 100;
+
+    /**
+     * Get the median of the best costs that the runs had at a given time. Runs without a feasible solution at that time
+     * count as infinitely costly, so that they are not left out of the median.
+     * 
+     * @param profiles Profiles of the runs.
+     * @param elapsedMillis Time since the runs started.
+     * @return The median cost, or -1 if the median run had no feasible solution at that time.
+     */
+    public static int getMedianCost(final List<AnytimeProfile> profiles, final long elapsedMillis) {
+        final List<Integer> costs = new ArrayList<>();
+        for (final AnytimeProfile profile : profiles) {
+            final HardAndSoftScore score = profile.getBestScoreAt(elapsedMillis);
+            if (score != null && score.getHardScore() >= 0) {
+                costs.add(Math.abs(score.getSoftScore()));
+            } else {
+                costs.add(Integer.MAX_VALUE);
+            }
+        }
+        if (costs.isEmpty()) {
+            return -1;
+        }
+        Collections.sort(costs);
+        final int median = costs.get(costs.size() / 2);
+        return median == Integer.MAX_VALUE ? -1 : median;
+    }
+
+    /**
+     * Get the median time that the runs took to find their first feasible solution. Runs that never found one count as
+     * infinitely slow, so that they are not left out of the median.
+     * 
+     * @param profiles Profiles of the runs.
+     * @return Time in milliseconds, or -1 if the median run never found a feasible solution.
+     */
+    public static long getMedianTimeToFeasibility(final List<AnytimeProfile> profiles) {
+        final List<Long> times = new ArrayList<>();
+        for (final AnytimeProfile profile : profiles) {
+            final long time = profile.getTimeToFeasibility();
+            times.add(time < 0 ? Long.MAX_VALUE : time);
+        }
+        if (times.isEmpty()) {
+            return -1;
+        }
+        Collections.sort(times);
+        final long median = times.get(times.size() / 2);
+        return median == Long.MAX_VALUE ? -1 : median;
+    }
+
+    private final DefaultBoxAndWhiskerCategoryDataset dataset        = new DefaultBoxAndWhiskerCategoryDataset();
+
+    private final Map<String, List<AnytimeProfile>>   profiles       = new LinkedHashMap<>();
 
     public void addData(final List<Integer> data, final String datasetName) {
         this.dataset.add(data, "", datasetName);
     }
 
+    /**
+     * Add the profile of a single run on the data set, so that the performance profile of the data set can be plotted.
+     * 
+     * @param profile Profile of a finished run.
+     * @param datasetName Name of the data set.
+     */
+    public void addProfile(final AnytimeProfile profile, final String datasetName) {
+        if (!this.profiles.containsKey(datasetName)) {
+            this.profiles.put(datasetName, new ArrayList<AnytimeProfile>());
+        }
+        this.profiles.get(datasetName).add(profile);
+    }
+
     public BoxAndWhiskerCategoryDataset getDataset() {
         return this.dataset;
     }
 
+    /**
+     * Profiles of all the runs, by the name of the data set.
+     * 
+     * @return Unmodifiable map.
+     */
+    public Map<String, List<AnytimeProfile>> getProfiles() {
+        return Collections.unmodifiableMap(this.profiles);
+    }
+
+    private long getProfileLength() {
+        long length = 0;
+        for (final List<AnytimeProfile> datasetProfiles : this.profiles.values()) {
+            for (final AnytimeProfile profile : datasetProfiles) {
+                if (profile.size() > 0) {
+                    length = Math.max(length, profile.getElapsedMillis(profile.size() - 1));
+                }
+            }
+        }
+        return length;
+    }
+
     public boolean plot(final File folder, final String filename) {
         final CategoryAxis xAxis = new CategoryAxis("Data Set");
         final NumberAxis yAxis = new NumberAxis("Cost");
@@ -42,12 +139,46 @@ public class Chart {
         final JFreeChart chart = new JFreeChart(plot);
         chart.setBackgroundPaint(Color.WHITE);
         chart.removeLegend();
+        if (!this.save(chart, new File(folder, filename + ".png"))) {
+            return false;
+        }
+        if (this.profiles.isEmpty()) {
+            return true;
+        }
+        return this.save(this.plotProfiles(), new File(folder, filename + "-profile.png"));
+    }
+
+    /**
+     * Plot the median cost of the runs on every data set in time.
+     */
+    private JFreeChart plotProfiles() {
+        final long length = this.getProfileLength();
+        final XYSeriesCollection curves = new XYSeriesCollection();
+        for (final Map.Entry<String, List<AnytimeProfile>> entry : this.profiles.entrySet()) {
+            final XYSeries curve = new XYSeries(entry.getKey());
+            for (int i = 0; i <= Chart.PROFILE_POINTS; i++) {
+                final long time = length * i / Chart.PROFILE_POINTS;
+                final int cost = Chart.getMedianCost(entry.getValue(), time);
+                if (cost >= 0) {
+                    curve.add(time / 1000.0, cost);
+                }
+            }
+            curves.addSeries(curve);
+        }
+        final JFreeChart chart = ChartFactory.createXYLineChart(null, "Time [s]", "Median Cost",
+                curves, PlotOrientation.VERTICAL, true, false, false);
+        chart.setBackgroundPaint(Color.WHITE);
+        ((NumberAxis) chart.getXYPlot().getRangeAxis()).setAutoRangeIncludesZero(false);
+        return chart;
+    }
+
+    private boolean save(final JFreeChart chart, final File file) {
         try {
-            ChartUtilities.saveChartAsPNG(new File(folder, filename + ".png"), chart, 1024, 768);
+            ChartUtilities.saveChartAsPNG(file, chart, 1024, 768);
             return true;
         } catch (final IOException e) {
             Chart.logger.warn("Charting failed.", e);
             return false;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,13 @@
 package org.drools.planner.examples.ras2012.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.Range;
@@ -16,38 +19,123 @@ public class EntryRegistry {
 
     private static class RegistryItem {
 
+        /**
+         * How many times the other train enters or leaves the arc while the first train is on it or within the headway.
+         * 
+         * @param entries When the first train enters and leaves the arc.
+         * @param otherEntries When the other train enters and leaves the arc.
+         * @return 0, 1 or 2.
+         */
+        private static int countConflicts(final Pair<Long, Long> entries,
+                final Pair<Long, Long> otherEntries) {
+            final long forbiddenEntryWindowStart = entries.getLeft();
+            final long forbiddenEntryWindowEnd = entries.getRight() + TimeUnit.MINUTES.toMillis(5)
+                    - 1;
+            int conflicts = 0;
+            final long trainEntry = otherEntries.getLeft();
+            if (trainEntry >= forbiddenEntryWindowStart && trainEntry <= forbiddenEntryWindowEnd) {
+                conflicts++;
+            }
+            final long trainLeave = otherEntries.getRight();
+            if (trainLeave >= forbiddenEntryWindowStart && trainLeave <= forbiddenEntryWindowEnd) {
+                conflicts++;
+            }
+            return conflicts;
+        }
+
         private final Map<Train, Pair<Long, Long>> timesByTrain = new LinkedHashMap<>();
 
+        /**
+         * The trains that a particular train is in conflict with.
+         * 
+         * @param t The train in question.
+         * @return Trains in the order in which they were first registered.
+         */
+        public List<Train> getConflictingTrains(final Train t) {
+            final Pair<Long, Long> entries = this.timesByTrain.get(t);
+            if (entries == null) {
+                return Collections.emptyList();
+            }
+            final List<Train> trains = new ArrayList<>();
+            for (final Map.Entry<Train, Pair<Long, Long>> entry : this.timesByTrain.entrySet()) {
+                if (entry.getKey() == t) {
+                    continue;
+                }
+                if (RegistryItem.countConflicts(entries, entry.getValue()) > 0
+                        || RegistryItem.countConflicts(entry.getValue(), entries) > 0) {
+                    trains.add(entry.getKey());
+                }
+            }
+            return trains;
+        }
+
         public int getConflicts() {
             int conflicts = 0;
             final List<Pair<Long, Long>> times = new ArrayList<>(this.timesByTrain.values());
             final int size = times.size();
-            final long millisToAdd = TimeUnit.MINUTES.toMillis(5) - 1;
             for (int train = 0; train < size; train++) {
                 final Pair<Long, Long> entries = times.get(train);
-                final Long forbiddenEntryWindowStart = entries.getLeft();
-                final Long forbiddenEntryWindowEnd = entries.getRight() + millisToAdd;
-                final Range<Long> r = Range.between(forbiddenEntryWindowStart,
-                        forbiddenEntryWindowEnd);
                 for (int otherTrain = 0; otherTrain < size; otherTrain++) {
                     if (train == otherTrain) {
                         // don't look for conflicts with itself
                         continue;
                     }
-                    final Pair<Long, Long> otherEntries = times.get(otherTrain);
-                    final Long trainEntry = otherEntries.getLeft();
-                    if (r.contains(trainEntry)) {
-                        conflicts++;
-                    }
-                    final Long trainLeave = otherEntries.getRight();
-                    if (r.contains(trainLeave)) {
-                        conflicts++;
-                    }
+                    conflicts += RegistryItem.countConflicts(entries, times.get(otherTrain));
                 }
             }
             return conflicts;
         }
 
+        /**
+         * The conflicts that involve a particular train, no matter which of the two trains broke the headway.
+         * 
+         * @param t The train in question.
+         * @return Number of conflicts.
+         */
+        public int getConflicts(final Train t) {
+            final Pair<Long, Long> entries = this.timesByTrain.get(t);
+            if (entries == null) {
+                return 0;
+            }
+            int conflicts = 0;
+            for (final Map.Entry<Train, Pair<Long, Long>> entry : this.timesByTrain.entrySet()) {
+                if (entry.getKey() == t) {
+                    continue;
+                }
+                conflicts += RegistryItem.countConflicts(entries, entry.getValue());
+                conflicts += RegistryItem.countConflicts(entry.getValue(), entries);
+            }
+            return conflicts;
+        }
+
+        /**
+         * Find the earliest entry time at which the train would not be in conflict with any other train on the arc. Only ever
+         * delays the train, never advances it.
+         * 
+         * @param t The train in question. Its own times in the registry are ignored.
+         * @param entryTime When the train enters the arc.
+         * @param leaveTime When the train leaves the arc.
+         * @return The entry time, if there is no conflict. Otherwise the time when the last conflicting train's headway ends.
+         */
+        public long getEarliestConflictFreeEntry(final Train t, final long entryTime,
+                final long leaveTime) {
+            final long headway = TimeUnit.MINUTES.toMillis(5);
+            final Range<Long> r = Range.between(entryTime, leaveTime + headway - 1);
+            long result = entryTime;
+            for (final Map.Entry<Train, Pair<Long, Long>> entry : this.timesByTrain.entrySet()) {
+                if (entry.getKey() == t) {
+                    continue;
+                }
+                final Pair<Long, Long> otherEntries = entry.getValue();
+                final Range<Long> otherRange = Range.between(otherEntries.getLeft(),
+                        otherEntries.getRight() + headway - 1);
+                if (r.isOverlappedBy(otherRange)) {
+                    result = Math.max(result, otherEntries.getRight() + headway);
+                }
+            }
+            return result;
+        }
+
         public boolean resetTimes(final Train t) {
             final Pair<Long, Long> toRemove = this.timesByTrain.remove(t);
             if (toRemove != null) {
@@ -88,6 +176,70 @@ public class EntryRegistry {
         return conflicts;
     }
 
+    /**
+     * Count the conflicts that a particular train is involved in, on every arc where there are some.
+     * 
+     * @param t The train in question.
+     * @return Number of conflicts, by the arc where they happen.
+     */
+    public Map<Arc, Integer> countConflicts(final Train t) {
+        final Map<Arc, Integer> conflicts = new HashMap<>();
+        for (final Map.Entry<Arc, RegistryItem> entry : this.items.entrySet()) {
+            final int count = entry.getValue().getConflicts(t);
+            if (count > 0) {
+                conflicts.put(entry.getKey(), count);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * The trains that a particular train is in conflict with on a particular arc.
+     * 
+     * @param arc The arc in question.
+     * @param t The train in question.
+     * @return Trains, empty if there are no conflicts.
+     */
+    public List<Train> getConflictingTrains(final Arc arc, final Train t) {
+        final RegistryItem item = this.items.get(arc);
+        if (item == null) {
+            return Collections.emptyList();
+        }
+        return item.getConflictingTrains(t);
+    }
+
+    /**
+     * The trains that a particular train is in conflict with on any arc.
+     * 
+     * @param t The train in question.
+     * @return Trains in their natural order, empty if there are no conflicts.
+     */
+    public Set<Train> getConflictingTrains(final Train t) {
+        final Set<Train> trains = new TreeSet<>();
+        for (final RegistryItem item : this.items.values()) {
+            trains.addAll(item.getConflictingTrains(t));
+        }
+        return trains;
+    }
+
+    /**
+     * Find the earliest time at which the train could enter the arc and not be in conflict with other trains there.
+     * 
+     * @param arc The arc in question.
+     * @param t The train in question. Its own times in the registry are ignored.
+     * @param entryTime When the train enters the arc.
+     * @param leaveTime When the train leaves the arc.
+     * @return Entry time when there are no conflicts, a later time otherwise.
+     */
+    public long getEarliestConflictFreeEntry(final Arc arc, final Train t, final long entryTime,
+            final long leaveTime) {
+        final RegistryItem item = this.items.get(arc);
+        if (item == null) {
+            return entryTime;
+        }
+        return item.getEarliestConflictFreeEntry(t, entryTime, leaveTime);
+    }
+
     public void resetTimes(final Train t) {
         for (final RegistryItem item : this.items.values()) {
             item.resetTimes(t);
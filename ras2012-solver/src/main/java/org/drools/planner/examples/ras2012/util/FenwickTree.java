@@ -0,0 +1,102 @@
+package org.drools.planner.examples.ras2012.util;
+
+import java.util.Random;
+
+/**
+ * Holds non-negative weights of a fixed number of items and picks items at random, proportionally to their weights. Both
+ * changing a weight and picking an item take logarithmic time, so the weights can be kept up to date as they change instead of
+ * being recalculated every time.
+ * 
+ * Instances are not thread-safe.
+ */
+public class FenwickTree {
+
+    private final long[] tree;
+    private final long[] weights;
+    private long         total = 0;
+
+    /**
+     * Create a tree where every item has the weight of 0.
+     * 
+     * @param size Number of items.
+     */
+    public FenwickTree(final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative.");
+        }
+        this.tree = new long[size + 1];
+        this.weights = new long[size];
+    }
+
+    /**
+     * Find the item in whose range the given cumulative weight falls.
+     * 
+     * @param cumulativeWeight Between 0 (inclusive) and {@link #getTotal()} (exclusive).
+     * @return The smallest index whose weight, together with the weights of all the items before it, exceeds the cumulative
+     *         weight.
+     */
+    public int find(final long cumulativeWeight) {
+        if (cumulativeWeight < 0 || cumulativeWeight >= this.total) {
+            throw new IllegalArgumentException("Cumulative weight out of range: "
+                    + cumulativeWeight);
+        }
+        int position = 0;
+        long remaining = cumulativeWeight;
+        for (int step = Integer.highestOneBit(this.weights.length); step > 0; step >>= 1) {
+            final int next = position + step;
+            if (next < this.tree.length && this.tree[next] <= remaining) {
+                position = next;
+                remaining -= this.tree[next];
+            }
+        }
+        return position;
+    }
+
+    public long getTotal() {
+        return this.total;
+    }
+
+    public long getWeight(final int index) {
+        return this.weights[index];
+    }
+
+    /**
+     * Pick an item at random, with the probability proportional to its weight.
+     * 
+     * @param random The source of randomness.
+     * @return Index of the item, or -1 if all the weights are 0.
+     */
+    public int pick(final Random random) {
+        if (this.total == 0) {
+            return -1;
+        }
+        // rounding could otherwise reach the total with very large weights
+        return this.find(Math.min((long) (random.nextDouble() * this.total), this.total - 1));
+    }
+
+    /**
+     * Change the weight of an item.
+     * 
+     * @param index Index of the item.
+     * @param weight The new weight, must not be negative.
+     */
+    public void setWeight(final int index, final long weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative.");
+        }
+        final long delta = weight - this.weights[index];
+        if (delta == 0) {
+            return;
+        }
+        this.weights[index] = weight;
+        this.total += delta;
+        for (int i = index + 1; i < this.tree.length; i += i & -i) {
+            this.tree[i] += delta;
+        }
+    }
+
+    public int size() {
+        return this.weights.length;
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.drools.planner.examples.ras2012.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.parser.ParseException;
+import org.drools.planner.examples.ras2012.util.model.Territory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses every data set only once and hands out working copies of it. The copies share the {@link Territory}, the trains and
+ * all the other problem facts with the parsed problem; only their {@link ItineraryAssignment}s are their own. That way, many
+ * solvers can start on the same data set without having to parse it and to enumerate its routes over and over again.
+ * 
+ * Instances are thread-safe.
+ */
+public class ProblemCache {
+
+    private static final Logger                logger   = LoggerFactory
+                                                                .getLogger(ProblemCache.class);
+
+    private final int                          routeBudget;
+    private final Map<String, ProblemSolution> problems = new HashMap<>();
+
+    /**
+     * 
+     * @param routeBudget How many best routes should the solver consider for each train, 0 means all of them.
+     */
+    public ProblemCache(final int routeBudget) {
+        this.routeBudget = routeBudget;
+    }
+
+    /**
+     * Get a fresh copy of one of the data sets that come with the application.
+     * 
+     * @param name Name of the data set, such as "RDS1".
+     * @return Solution that no solver has worked on yet. Every call returns a new instance.
+     * @throws IllegalArgumentException When there is no such data set or when it can not be parsed.
+     */
+    public ProblemSolution getProblem(final String name) {
+        return (ProblemSolution) this.getTemplate(name).cloneSolution();
+    }
+
+    private synchronized ProblemSolution getTemplate(final String name) {
+        final ProblemSolution cached = this.problems.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        final InputStream is = ProblemSolution.class.getResourceAsStream(name + ".txt");
+        if (is == null) {
+            throw new IllegalArgumentException("No such data set: " + name);
+        }
+        ProblemCache.logger.info("Parsing data set {}.", name);
+        try {
+            // the parser keeps state between reads, so every data set gets its own
+            final ProblemSolution problem = new SolutionIO(this.routeBudget).read(is);
+            this.problems.put(name, problem);
+            return problem;
+        } catch (final ParseException e) {
+            throw new IllegalArgumentException("Problem parsing data set: " + name, e);
+        } finally {
+            try {
+                is.close();
+            } catch (final IOException e) {
+                // nothing to do here
+            }
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.drools.planner.examples.ras2012.util;
+
+import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.core.score.buildin.hardandsoft.HardAndSoftScore;
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Writes solutions into the result directory on a thread of its own, so that solver threads can return to solving as soon as
+ * they're done. XML is always written; TeX and the PNG visualization, which take much longer, are optional.
+ * </p>
+ * 
+ * <p>
+ * Only a limited number of solutions may be waiting to be written. When there are more, the thread that asks for another
+ * one to be written has to write it itself. That way, solvers slow down when the output can't keep up with them, instead of
+ * filling the memory with solutions.
+ * </p>
+ * 
+ * Instances are thread-safe.
+ */
+public class ResultWriter {
+
+    private static final Logger      logger = LoggerFactory.getLogger(ResultWriter.class);
+
+    private final File               directory;
+    private final boolean            isMinimal;
+    private final SolutionIO         io     = new SolutionIO();
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 
+     * @param directory Where to write the solutions.
+     * @param capacity How many solutions may be waiting to be written.
+     * @param isMinimal True if only the XML should be written, false if TeX and PNG should be written too.
+     */
+    public ResultWriter(final File directory, final int capacity, final boolean isMinimal) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1.");
+        }
+        this.directory = directory;
+        this.isMinimal = isMinimal;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(capacity),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Wait for all the pending solutions to be written and stop the writing thread.
+     */
+    public void close() {
+        this.executor.shutdown();
+        while (!this.executor.isTerminated()) {
+            try {
+                this.executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                // nothing we could do here
+            }
+        }
+    }
+
+    /**
+     * Schedule the solution to be written. Solutions that aren't feasible won't be written.
+     * 
+     * @param solution The solution to write. Must not be modified afterwards.
+     * @param name Name of the data set, used to name the files.
+     * @param seed Random seed that led to the solution.
+     */
+    public void write(final ProblemSolution solution, final String name, final long seed) {
+        final HardAndSoftScore score = solution.getScore();
+        if (score.getHardScore() < 0) { // don't write score that isn't feasible
+            ResultWriter.logger.warn("Not writing results because solution wasn't feasible: "
+                    + score);
+            return;
+        }
+        this.executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                ResultWriter.this.writeNow(solution, name + score.getSoftScore(), seed);
+            }
+
+        });
+    }
+
+    /*
+     * synchronized, because when the queue is full, solver threads write at the same time as the writing thread
+     */
+    private synchronized void writeNow(final ProblemSolution solution, final String filename,
+            final long seed) {
+        if (!this.directory.exists()) {
+            this.directory.mkdirs();
+        }
+        try {
+            this.io.writeXML(solution, new File(this.directory, filename + ".xml"));
+            if (!this.isMinimal) {
+                this.io.writeTex(solution, seed, new File(this.directory, filename + ".tex"));
+                solution.visualize(new File(this.directory, filename + ".png"));
+            }
+            ResultWriter.logger.info("Written solution {}.", filename);
+        } catch (final Exception e) {
+            ResultWriter.logger.error("Failed writing solution " + filename + ".", e);
+        }
+    }
+
+}
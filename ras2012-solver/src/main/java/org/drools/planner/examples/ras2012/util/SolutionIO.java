@@ -14,7 +14,6 @@ import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,7 +24,6 @@ import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -42,8 +40,10 @@ import org.drools.planner.examples.ras2012.model.Itinerary;
 import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
 import org.drools.planner.examples.ras2012.model.MaintenanceWindow;
 import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.NodeTable;
 import org.drools.planner.examples.ras2012.model.Route;
 import org.drools.planner.examples.ras2012.model.ScheduleAdherenceRequirement;
+import org.drools.planner.examples.ras2012.model.SpeedProfile;
 import org.drools.planner.examples.ras2012.model.Track;
 import org.drools.planner.examples.ras2012.model.Train;
 import org.drools.planner.examples.ras2012.model.WaitTime;
@@ -149,7 +149,10 @@ public class SolutionIO {
 
     private final Configuration freemarker;
 
-    private Map<Integer, Node>  nodes;
+    private final int           routeBudget;
+    private final long          horizon;
+
+    private NodeTable           nodes;
 
     private static final Logger logger = LoggerFactory.getLogger(SolutionIO.class);
 
@@ -445,6 +448,35 @@ public class SolutionIO {
     }
 
     public SolutionIO() {
+        this(0);
+    }
+
+    /**
+     * 
+     * @param routeBudget How many best routes should the solver consider for each train, 0 means all of them. See
+     *            {@link Territory#getCandidateRoutes(Train)}.
+     */
+    public SolutionIO(final int routeBudget) {
+        this(routeBudget, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 
+     * @param routeBudget How many best routes should the solver consider for each train, 0 means all of them. See
+     *            {@link Territory#getCandidateRoutes(Train)}.
+     * @param horizon Planning horizon for the data sets that will be read, overriding the one they specify. 0 means the data
+     *            sets decide, see {@link ProblemSolution#getPlanningHorizon(TimeUnit)}.
+     * @param unit Unit of the planning horizon.
+     */
+    public SolutionIO(final int routeBudget, final long horizon, final TimeUnit unit) {
+        if (routeBudget < 0) {
+            throw new IllegalArgumentException("Route budget must not be negative.");
+        }
+        if (horizon < 0) {
+            throw new IllegalArgumentException("Planning horizon must not be negative.");
+        }
+        this.routeBudget = routeBudget;
+        this.horizon = unit.toMillis(horizon);
         this.freemarker = new Configuration();
         this.freemarker.setClassForTemplateLoading(SolutionIO.class, "");
         this.freemarker.setObjectWrapper(new DefaultObjectWrapper());
@@ -458,21 +490,26 @@ public class SolutionIO {
         final int westboundSpeed = SolutionIO.tokenToInteger(p.getSpeedWestbound());
         final int sidingsSpeed = SolutionIO.tokenToInteger(p.getSpeedSidings());
         final int crossoverSpeed = SolutionIO.tokenToInteger(p.getSpeedCrossovers());
-        // set speeds for different track types
-        for (final Track t : Track.values()) {
-            if (t.isMainTrack()) {
-                Track.setSpeed(t, eastboundSpeed, westboundSpeed);
-            } else if (t == Track.SIDING) {
-                Track.setSpeed(t, sidingsSpeed);
-            } else {
-                Track.setSpeed(t, crossoverSpeed);
-            }
-        }
+        final SpeedProfile speeds = new SpeedProfile(eastboundSpeed, westboundSpeed,
+                sidingsSpeed, crossoverSpeed);
         final String name = SolutionIO.tokenToString(p.getName());
         final Collection<Arc> arcs = this.initArcs(p);
         final Collection<MaintenanceWindow> mows = this.initMOW(p);
-        final Collection<Train> trains = this.initTrains(name, p);
-        return new ProblemSolution(name, trains, new Territory(this.nodes.values(), arcs), mows);
+        final Collection<Train> trains = this.initTrains(name, p, speeds);
+        long horizon = this.horizon;
+        if (horizon == 0) {
+            horizon = p.getHorizon() == null ? ProblemSolution.DEFAULT_PLANNING_HORIZON
+                    : TimeUnit.MINUTES.toMillis(SolutionIO.tokenToInteger(p.getHorizon()));
+        }
+        return new ProblemSolution(name, trains, new Territory(this.nodes, arcs, speeds,
+                this.routeBudget), mows, horizon, TimeUnit.MILLISECONDS);
+    }
+
+    private Node getNode(final int id) {
+        if (!this.nodes.hasNode(id)) {
+            throw new IllegalArgumentException("Node not found: " + id);
+        }
+        return this.nodes.getNode(id);
     }
 
     private Collection<Arc> initArcs(final DataSetParser p) {
@@ -489,33 +526,28 @@ public class SolutionIO {
         }
         // now start processing
         final List<Arc> newArcs = new ArrayList<>();
-        final Map<Integer, Node> newNodes = new TreeMap<>();
+        final NodeTable newNodes = new NodeTable();
         for (int i = 0; i < numberOfItems; i++) {
             final Track t = SolutionIO.getArcType(trackTypes.get(i));
             final BigDecimal length = SolutionIO.tokenToBigDecimal(trackLengths.get(i));
             // now convert node numbers to Node instances
             final int startNodeId = SolutionIO.tokenToInteger(arcs.get(i).get(0));
             final int endNodeId = SolutionIO.tokenToInteger(arcs.get(i).get(1));
-            if (!newNodes.containsKey(startNodeId)) {
-                newNodes.put(startNodeId, Node.getNode(startNodeId));
-            }
-            if (!newNodes.containsKey(endNodeId)) {
-                newNodes.put(endNodeId, Node.getNode(endNodeId));
-            }
             // and finally create the arc
-            final Arc arc = new Arc(t, length, newNodes.get(startNodeId), newNodes.get(endNodeId));
+            final Arc arc = new Arc(t, length, newNodes.getNode(startNodeId),
+                    newNodes.getNode(endNodeId));
             newArcs.add(arc);
         }
         // store the nodes for future reference
-        this.nodes = Collections.unmodifiableMap(newNodes);
+        this.nodes = newNodes;
         return newArcs;
     }
 
     private Collection<MaintenanceWindow> initMOW(final DataSetParser p) {
         final List<MaintenanceWindow> mows = new ArrayList<>();
         for (final List<Token> mow : p.getMows()) {
-            final MaintenanceWindow newMow = new MaintenanceWindow(this.nodes.get(SolutionIO
-                    .tokenToInteger(mow.get(0))), this.nodes.get(SolutionIO.tokenToInteger(mow
+            final MaintenanceWindow newMow = new MaintenanceWindow(this.getNode(SolutionIO
+                    .tokenToInteger(mow.get(0))), this.getNode(SolutionIO.tokenToInteger(mow
                     .get(1))), SolutionIO.tokenToInteger(mow.get(2)), SolutionIO.tokenToInteger(mow
                     .get(3)));
             mows.add(newMow);
@@ -523,7 +555,8 @@ public class SolutionIO {
         return mows;
     }
 
-    private Train initTrain(final String solutionName, final ParsedTrain t) {
+    private Train initTrain(final String solutionName, final ParsedTrain t,
+            final SpeedProfile speeds) {
         final boolean hazmat = SolutionIO.tokenToBoolean(t.getHazmat());
         final boolean isWestbound = SolutionIO.tokenToString(t.getDirection()).equals("WESTBOUND");
         final int originalScheduleAdherence = SolutionIO.tokenToInteger(t.getSaStatus());
@@ -533,8 +566,8 @@ public class SolutionIO {
         final String name = SolutionIO.tokenToString(t.getHeader());
         final BigDecimal length = SolutionIO.tokenToBigDecimal(t.getLength());
         final BigDecimal speedMultiplier = SolutionIO.tokenToBigDecimal(t.getSpeedMultiplier());
-        final Node origin = this.nodes.get(SolutionIO.tokenToInteger(t.getNodeOrigin()));
-        final Node destination = this.nodes.get(SolutionIO.tokenToInteger(t.getNodeDestination()));
+        final Node origin = this.getNode(SolutionIO.tokenToInteger(t.getNodeOrigin()));
+        final Node destination = this.getNode(SolutionIO.tokenToInteger(t.getNodeDestination()));
         // just checking; make sure that the direction and target depot match
         final String wantDepot = SolutionIO.tokenToString(t.getWantTime().get(0));
         if (wantDepot.equals("WEST") && !isWestbound || wantDepot.equals("EAST") && isWestbound) {
@@ -546,16 +579,17 @@ public class SolutionIO {
         final List<ScheduleAdherenceRequirement> sars = new ArrayList<>();
         for (int i = 0; i < t.getSchedule().size(); i++) {
             final List<Token> data = t.getSchedule().get(i);
-            final Node n = this.nodes.get(SolutionIO.tokenToInteger(data.get(0)));
+            final Node n = this.getNode(SolutionIO.tokenToInteger(data.get(0)));
             final int time = SolutionIO.tokenToInteger(data.get(1));
             final ScheduleAdherenceRequirement sar = new ScheduleAdherenceRequirement(n, time);
             sars.add(sar);
         }
         return new Train(name, length, speedMultiplier, tob, origin, destination, entryTime,
-                wantTime, originalScheduleAdherence, sars, hazmat, isWestbound);
+                wantTime, originalScheduleAdherence, sars, hazmat, isWestbound, speeds);
     }
 
-    private Collection<Train> initTrains(final String solutionName, final DataSetParser p) {
+    private Collection<Train> initTrains(final String solutionName, final DataSetParser p,
+            final SpeedProfile speeds) {
         // first make sure there's as much trains as stated
         final List<ParsedTrain> origTrains = p.getTrains();
         if (!SolutionIO.tokenToInteger(p.getNumTrains()).equals(origTrains.size())) {
@@ -565,7 +599,7 @@ public class SolutionIO {
         // now parse each train individually
         final List<Train> trains = new ArrayList<>();
         for (final ParsedTrain t : origTrains) {
-            trains.add(this.initTrain(solutionName, t));
+            trains.add(this.initTrain(solutionName, t, speeds));
         }
         return trains;
     }
@@ -618,10 +652,21 @@ public class SolutionIO {
         }
     }
 
-    public void writeChart(final BoxAndWhiskerCategoryDataset dataset, final File outputSolutionFile) {
+    /**
+     * Write the statistics of all the runs in the chart as a TeX table. When the chart has profiles of the runs, the table
+     * also shows how long the runs took to find a feasible solution.
+     * 
+     * @param chart The chart to take the statistics from.
+     * @param outputSolutionFile Where to write the table.
+     */
+    public void writeChart(final Chart chart, final File outputSolutionFile) {
+        final BoxAndWhiskerCategoryDataset dataset = chart.getDataset();
+        final Map<String, List<AnytimeProfile>> profiles = chart.getProfiles();
         final String rowId = "";
-        final Map<String, List<Object>> results = new HashMap<>();
-        results.put("solutions", new ArrayList<>());
+        final Map<String, Object> results = new HashMap<>();
+        final List<Object> solutions = new ArrayList<>();
+        results.put("solutions", solutions);
+        results.put("profiled", !profiles.isEmpty());
         for (final Object key : dataset.getColumnKeys()) {
             final String columnId = (String) key;
             final Map<String, Object> values = new HashMap<>();
@@ -631,7 +676,13 @@ public class SolutionIO {
             values.put("q1", dataset.getQ1Value(rowId, columnId));
             values.put("q2", dataset.getMedianValue(rowId, columnId));
             values.put("q3", dataset.getQ3Value(rowId, columnId));
-            results.get("solutions").add(values);
+            final List<AnytimeProfile> datasetProfiles = profiles.get(columnId);
+            final long feasible = datasetProfiles == null ? -1 : Chart
+                    .getMedianTimeToFeasibility(datasetProfiles);
+            if (feasible >= 0) {
+                values.put("feasible", SolutionIO.convertMillisToSeconds(feasible));
+            }
+            solutions.add(values);
         }
         try {
             this.freemarker.getTemplate("stats.tex.ftl").process(results,
@@ -644,6 +695,44 @@ public class SolutionIO {
         }
     }
 
+    /**
+     * Write every sample of every profile in the chart as comma-separated values, one sample per line, so that the
+     * performance profiles can be analyzed in other tools.
+     * 
+     * @param chart The chart to take the profiles from.
+     * @param outputFile Where to write the values.
+     */
+    public void writeProfiles(final Chart chart, final File outputFile) {
+        Writer writer = null;
+        try {
+            writer = new FileWriter(outputFile);
+            writer.write("dataset,run,millis,steps,hard,soft,moves\n");
+            for (final Map.Entry<String, List<AnytimeProfile>> entry : chart.getProfiles()
+                    .entrySet()) {
+                int run = 0;
+                for (final AnytimeProfile profile : entry.getValue()) {
+                    for (int i = 0; i < profile.size(); i++) {
+                        writer.write(entry.getKey() + "," + run + ","
+                                + profile.getElapsedMillis(i) + "," + profile.getStepCount(i)
+                                + "," + profile.getHardScore(i) + "," + profile.getSoftScore(i)
+                                + "," + profile.getEvaluatedMoves(i) + "\n");
+                    }
+                    run++;
+                }
+            }
+        } catch (final IOException e) {
+            SolutionIO.logger.error("Failed writing performance profiles into " + outputFile, e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (final IOException e) {
+                    // nothing to do here
+                }
+            }
+        }
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public void writeTex(final ProblemSolution solution, final long seed,
             final File outputSolutionFile) {
@@ -661,22 +750,39 @@ public class SolutionIO {
     }
 
     public void writeXML(final ProblemSolution solution, final File outputSolutionFile) {
+        OutputStream os = null;
         try {
-            this.writeXML(solution, new FileOutputStream(outputSolutionFile));
+            os = new FileOutputStream(outputSolutionFile);
+            this.writeXML(solution, os);
         } catch (final FileNotFoundException e) {
             SolutionIO.logger.error("Failed writing " + solution.getName() + " into "
                     + outputSolutionFile, e);
+        } finally {
+            if (os != null) {
+                try {
+                    os.close();
+                } catch (final IOException e) {
+                    // nothing to do here
+                }
+            }
         }
     }
 
+    /**
+     * Write the solution as XML. The stream will be flushed, but not closed.
+     * 
+     * @param solution The solution to write.
+     * @param outputSolution Where to write the solution.
+     */
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public void writeXML(final ProblemSolution solution, final OutputStream outputSolution) {
         try {
             final Map map = new HashMap();
             map.put("trains", SolutionIO.prepareXmlData(solution));
             map.put("name", solution.getName());
-            this.freemarker.getTemplate("schedule.xml.ftl").process(map,
-                    new OutputStreamWriter(outputSolution));
+            final Writer writer = new OutputStreamWriter(outputSolution);
+            this.freemarker.getTemplate("schedule.xml.ftl").process(map, writer);
+            writer.flush();
         } catch (final TemplateException e) {
             SolutionIO.logger.error("Failed processing XML schedule template.", e);
         } catch (final IOException e) {
@@ -5,7 +5,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -14,6 +13,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.drools.planner.examples.ras2012.Directed;
 import org.drools.planner.examples.ras2012.model.Arc;
@@ -44,7 +44,7 @@ public class ArcProgression implements Directed {
     private final Map<Arc, Arc>              previousArcs       = new LinkedHashMap<>();
     private final Map<Node, Node>            nextNodes          = new LinkedHashMap<>();
     private final Map<Node, Node>            previousNodes      = new LinkedHashMap<>();
-    private final Map<Arc, Boolean>          isArcPreferred     = new LinkedHashMap<>();
+    private final Map<Arc, Boolean>          isArcPreferred     = new ConcurrentHashMap<>();
     private final List<Node>                 nodes;
     private final Collection<Node>           waitPoints;
     private final boolean                    isEastbound;
@@ -52,7 +52,7 @@ public class ArcProgression implements Directed {
 
     private final BigDecimal                 length;
 
-    private final Map<Node, BigDecimal>      distanceCache      = new HashMap<Node, BigDecimal>();
+    private final Map<Node, BigDecimal>      distanceCache      = new ConcurrentHashMap<>();
 
     public ArcProgression(final Directed directed, final Arc... arcs) {
         this(directed, Arrays.asList(arcs));
@@ -165,9 +165,10 @@ public class ArcProgression implements Directed {
             if (a == null) {
                 throw new IllegalArgumentException(end + " not in progression.");
             }
-            this.distanceCache.put(end,
-                    this.getDistance(this.getPreviousNode(end)).add(a.getLength()));
-            return this.distanceCache.get(end);
+            final BigDecimal distance = this.getDistance(this.getPreviousNode(end)).add(
+                    a.getLength());
+            this.distanceCache.put(end, distance);
+            return distance;
         }
     }
 
@@ -256,10 +257,13 @@ public class ArcProgression implements Directed {
     }
 
     public boolean isPreferred(final Arc a) {
-        if (!this.isArcPreferred.containsKey(a)) {
-            this.isArcPreferred.put(a, this.isPreferredUncached(a));
+        final Boolean cached = this.isArcPreferred.get(a);
+        if (cached != null) {
+            return cached;
         }
-        return this.isArcPreferred.get(a);
+        final boolean isPreferred = this.isPreferredUncached(a);
+        this.isArcPreferred.put(a, isPreferred);
+        return isPreferred;
     }
 
     private boolean isPreferredUncached(final Arc a) {
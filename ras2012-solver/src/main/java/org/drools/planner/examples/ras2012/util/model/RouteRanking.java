@@ -0,0 +1,124 @@
+package org.drools.planner.examples.ras2012.util.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.examples.ras2012.model.Arc;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Track;
+import org.drools.planner.examples.ras2012.model.Train;
+
+/**
+ * Ranks {@link Route}s by their quality for a particular {@link Train}. Better routes come first. Routes are ranked by:
+ * 
+ * <ol>
+ * <li>Time that the train would need to travel the route when unobstructed; the less, the better.</li>
+ * <li>Share of preferred tracks on the route; the more, the better.</li>
+ * <li>Number of sidings on the route; the less, the better.</li>
+ * <li>Route ID, so that the ordering is consistent with equals.</li>
+ * </ol>
+ * 
+ * Only the part of the route between the train's origin and its destination counts, since the train never travels the rest.
+ * Unlike {@link Route#compareTo(Route)}, this ordering only uses integer arithmetic.
+ */
+public class RouteRanking implements Comparator<Route> {
+
+    /**
+     * The part of a route that the train travels.
+     */
+    private static final class Segment {
+
+        private final List<Arc> arcs;
+        private final long      freeRunTime;
+        private final int       numberOfPreferredTracks;
+        private final int       numberOfSidings;
+
+        public Segment(final Route r, final Train t) {
+            final List<Arc> segmentArcs = new ArrayList<>();
+            long time = 0;
+            int preferred = 0;
+            int sidings = 0;
+            Node n = t.getOrigin();
+            while (n != t.getDestination()) {
+                final Arc a = r.getProgression().getWithOriginNode(n);
+                if (a == null) {
+                    throw new IllegalArgumentException("Route " + r.getId()
+                            + " doesn't lead train " + t.getName() + " to its destination.");
+                }
+                segmentArcs.add(a);
+                time += t.getArcTravellingTime(a, TimeUnit.MILLISECONDS);
+                if (r.getProgression().isPreferred(a)) {
+                    preferred++;
+                }
+                if (a.getTrack() == Track.SIDING) {
+                    sidings++;
+                }
+                n = a.getDestination(t);
+            }
+            this.arcs = Collections.unmodifiableList(segmentArcs);
+            this.freeRunTime = time;
+            this.numberOfPreferredTracks = preferred;
+            this.numberOfSidings = sidings;
+        }
+
+    }
+
+    private final Train               train;
+    private final Map<Route, Segment> segments = new HashMap<>();
+
+    public RouteRanking(final Train t) {
+        if (t == null) {
+            throw new IllegalArgumentException("Train cannot be null.");
+        }
+        this.train = t;
+    }
+
+    @Override
+    public int compare(final Route o1, final Route o2) {
+        final Segment s1 = this.getSegment(o1);
+        final Segment s2 = this.getSegment(o2);
+        final int byTime = Long.compare(s1.freeRunTime, s2.freeRunTime);
+        if (byTime != 0) {
+            return byTime;
+        }
+        // compare shares of preferred tracks without resorting to division
+        final long o1Share = (long) s1.numberOfPreferredTracks * s2.arcs.size();
+        final long o2Share = (long) s2.numberOfPreferredTracks * s1.arcs.size();
+        final int byPreference = Long.compare(o2Share, o1Share);
+        if (byPreference != 0) {
+            return byPreference;
+        }
+        final int bySidings = Integer.compare(s1.numberOfSidings, s2.numberOfSidings);
+        if (bySidings != 0) {
+            return bySidings;
+        }
+        return Integer.compare(o1.getId(), o2.getId());
+    }
+
+    /**
+     * The arcs of the route that the train travels, from its origin to its destination. Routes with the same arcs here are
+     * the same route to the train.
+     * 
+     * @param r The route in question.
+     * @return Unmodifiable list of arcs, in the order of travel.
+     */
+    public List<Arc> getArcs(final Route r) {
+        return this.getSegment(r).arcs;
+    }
+
+    private Segment getSegment(final Route r) {
+        Segment segment = this.segments.get(r);
+        if (segment == null) {
+            segment = new Segment(r, this.train);
+            this.segments.put(r, segment);
+        }
+        return segment;
+    }
+
+}
@@ -0,0 +1,222 @@
+package org.drools.planner.examples.ras2012.util.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.examples.ras2012.Directed;
+import org.drools.planner.examples.ras2012.model.Arc;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.ScheduleAdherenceRequirement;
+import org.drools.planner.examples.ras2012.model.Track;
+import org.drools.planner.examples.ras2012.model.Train;
+
+/**
+ * Finds the cheapest path for a {@link Train} through one direction of the {@link Territory}, using Dijkstra's algorithm.
+ * The cost of an {@link Arc} is the time that the train needs to travel it; unpreferred tracks cost
+ * {@link #UNPREFERRED_TRACK_PENALTY} times more. Arcs that the train is not allowed to take are skipped, and the path is
+ * required to lead through the train's origin, destination and every node with a schedule adherence requirement.
+ */
+public class ShortestPathFinder implements Directed {
+
+    /**
+     * State of the search; a node together with a bit mask of the required nodes that have already been visited.
+     */
+    private static final class State {
+
+        private final Node node;
+        private final int  visited;
+
+        public State(final Node node, final int visited) {
+            this.node = node;
+            this.visited = visited;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof State)) {
+                return false;
+            }
+            final State other = (State) obj;
+            return this.visited == other.visited && this.node == other.node;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.node.hashCode() + this.visited;
+        }
+
+    }
+
+    private static final class StateCost implements Comparable<StateCost> {
+
+        private final State state;
+        private final long  cost;
+
+        public StateCost(final State state, final long cost) {
+            this.state = state;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(final StateCost o) {
+            return Long.compare(this.cost, o.cost);
+        }
+
+    }
+
+    public static final int                             UNPREFERRED_TRACK_PENALTY = 2;
+
+    private final SortedMap<Node, SortedMap<Node, Arc>> connections;
+    private final boolean                               isEastbound;
+
+    /**
+     * 
+     * @param connections For every node, the nodes that can be reached from it in the direction of travel and the arcs
+     *            leading there.
+     * @param isEastbound Direction of travel.
+     */
+    public ShortestPathFinder(final SortedMap<Node, SortedMap<Node, Arc>> connections,
+            final boolean isEastbound) {
+        this.connections = connections;
+        this.isEastbound = isEastbound;
+    }
+
+    /**
+     * Find the cheapest path for the train.
+     * 
+     * @param t The train in question. Must go in the same direction as this finder.
+     * @param start Node where the path should start, typically a depot.
+     * @param end Node where the path should end, typically a depot.
+     * @return Arcs of the path, in the order of travel. Null if there is no such path.
+     */
+    public List<Arc> findPath(final Train t, final Node start, final Node end) {
+        if (t.isEastbound() != this.isEastbound()) {
+            throw new IllegalArgumentException("Train must go in the same direction as the finder.");
+        }
+        // assign a bit to every node that must be visited
+        final Map<Node, Integer> required = new HashMap<>();
+        required.put(t.getOrigin(), required.size());
+        if (!required.containsKey(t.getDestination())) {
+            required.put(t.getDestination(), required.size());
+        }
+        for (final ScheduleAdherenceRequirement sar : t.getScheduleAdherenceRequirements()
+                .values()) {
+            if (!required.containsKey(sar.getDestination())) {
+                required.put(sar.getDestination(), required.size());
+            }
+        }
+        if (required.size() >= Integer.SIZE - 1) {
+            throw new IllegalStateException("Too many required nodes for train: " + t.getName());
+        }
+        final int allVisited = (1 << required.size()) - 1;
+        // and run Dijkstra over the nodes extended with the information on visited required nodes
+        final Map<State, Long> costs = new HashMap<>();
+        final Map<State, State> previousStates = new HashMap<>();
+        final Map<State, Arc> previousArcs = new HashMap<>();
+        final PriorityQueue<StateCost> queue = new PriorityQueue<>();
+        final State first = new State(start, ShortestPathFinder.visit(required, start, 0));
+        costs.put(first, 0L);
+        queue.add(new StateCost(first, 0));
+        State last = null;
+        while (!queue.isEmpty()) {
+            final StateCost current = queue.poll();
+            final State state = current.state;
+            if (current.cost > costs.get(state)) {
+                continue; // stale entry
+            }
+            if (state.node == end && state.visited == allVisited) {
+                last = state;
+                break;
+            }
+            final SortedMap<Node, Arc> next = this.connections.get(state.node);
+            if (next == null) {
+                continue;
+            }
+            for (final Map.Entry<Node, Arc> entry : next.entrySet()) {
+                final Arc a = entry.getValue();
+                if (!ShortestPathFinder.isAllowed(t, a)) {
+                    continue;
+                }
+                final State nextState = new State(entry.getKey(), ShortestPathFinder.visit(
+                        required, entry.getKey(), state.visited));
+                final long cost = current.cost + this.getCost(t, a);
+                final Long previousCost = costs.get(nextState);
+                if (previousCost == null || cost < previousCost) {
+                    costs.put(nextState, cost);
+                    previousStates.put(nextState, state);
+                    previousArcs.put(nextState, a);
+                    queue.add(new StateCost(nextState, cost));
+                }
+            }
+        }
+        if (last == null) {
+            return null;
+        }
+        final LinkedList<Arc> path = new LinkedList<>();
+        for (State s = last; previousArcs.containsKey(s); s = previousStates.get(s)) {
+            path.addFirst(previousArcs.get(s));
+        }
+        return Collections.unmodifiableList(new ArrayList<>(path));
+    }
+
+    private static int visit(final Map<Node, Integer> required, final Node n, final int visited) {
+        final Integer bit = required.get(n);
+        return bit == null ? visited : visited | 1 << bit;
+    }
+
+    /**
+     * Mirrors the restrictions of {@link org.drools.planner.examples.ras2012.model.Route#isPossibleForTrain(Train)}.
+     */
+    private static boolean isAllowed(final Train t, final Arc a) {
+        final boolean isSiding = a.getTrack() == Track.SIDING;
+        final boolean isSwitch = a.getTrack() == Track.SWITCH;
+        if (!isSwitch && !isSiding) {
+            return true;
+        }
+        if (t.isHeavy() || t.carriesHazardousMaterials()) {
+            return false;
+        }
+        return isSwitch || a.getLength().compareTo(t.getLength()) >= 0;
+    }
+
+    private long getCost(final Train t, final Arc a) {
+        final long time = t.getArcTravellingTime(a, TimeUnit.MILLISECONDS);
+        return this.isPreferred(a) ? time : time * ShortestPathFinder.UNPREFERRED_TRACK_PENALTY;
+    }
+
+    private boolean isPreferred(final Arc a) {
+        switch (a.getTrack()) {
+            case MAIN_0:
+            case SWITCH:
+            case CROSSOVER:
+                return true;
+            case MAIN_2:
+                return this.isEastbound();
+            case MAIN_1:
+                return this.isWestbound();
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean isEastbound() {
+        return this.isEastbound;
+    }
+
+    @Override
+    public boolean isWestbound() {
+        return !this.isEastbound();
+    }
+
+}
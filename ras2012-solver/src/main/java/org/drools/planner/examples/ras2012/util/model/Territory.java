@@ -5,29 +5,69 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.drools.planner.examples.ras2012.Visualizable;
 import org.drools.planner.examples.ras2012.model.Arc;
 import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.NodeTable;
 import org.drools.planner.examples.ras2012.model.Route;
 import org.drools.planner.examples.ras2012.model.Route.Builder;
+import org.drools.planner.examples.ras2012.model.SpeedProfile;
 import org.drools.planner.examples.ras2012.model.Train;
 import org.drools.planner.examples.ras2012.util.visualizer.GraphVisualizer;
 
 public class Territory extends Visualizable {
 
-    private final GraphVisualizer   visualizer;
-    private final Collection<Route> westboundRoutes;
-    private final Collection<Route> eastboundRoutes;
-    private final Map<Train, Route> bestRoutes = new HashMap<>();
+    private final GraphVisualizer               visualizer;
+    private final NodeTable                     nodes;
+    private final SpeedProfile                  speeds;
+    private final Collection<Route>             westboundRoutes;
+    private final Collection<Route>             eastboundRoutes;
+    private final int                           routeBudget;
+    private final Map<Train, Route>             bestRoutes      = new ConcurrentHashMap<>();
+    private final Map<Train, Collection<Route>> possibleRoutes  = new ConcurrentHashMap<>();
+    private final Map<Train, Collection<Route>> candidateRoutes = new ConcurrentHashMap<>();
+    private final Map<List<Arc>, Route>         routesByArcs    = new HashMap<>();
+    private final ShortestPathFinder            eastboundFinder;
+    private final ShortestPathFinder            westboundFinder;
+    private final Node                          eastDepo;
+    private final Node                          westDepo;
 
-    public Territory(final Collection<Node> nodes, final Collection<Arc> edges) {
+    public Territory(final NodeTable nodes, final Collection<Arc> edges,
+            final SpeedProfile speeds) {
+        this(nodes, edges, speeds, 0);
+    }
+
+    /**
+     * Create the territory and enumerate all its routes.
+     * 
+     * @param nodes Table with all the nodes in the territory.
+     * @param edges Arcs connecting the nodes.
+     * @param speeds Maximum speeds on the tracks of the territory.
+     * @param routeBudget How many of the best routes to consider for every train, see {@link #getCandidateRoutes(Train)}. 0
+     *            means no limit.
+     */
+    public Territory(final NodeTable nodes, final Collection<Arc> edges,
+            final SpeedProfile speeds, final int routeBudget) {
+        if (routeBudget < 0) {
+            throw new IllegalArgumentException("Route budget must not be negative.");
+        }
+        if (speeds == null) {
+            throw new IllegalArgumentException("Territory must have a speed profile.");
+        }
+        this.nodes = nodes;
+        this.speeds = speeds;
+        this.routeBudget = routeBudget;
         this.visualizer = new GraphVisualizer(edges);
         // now map every connection node
         final SortedMap<Node, SortedMap<Node, Arc>> eastboundConnections = new TreeMap<>();
@@ -46,14 +86,14 @@ public class Territory extends Visualizable {
             westboundConnections.get(east).put(west, a);
         }
         Node eastDepo = null;
-        for (final Node n : nodes) {
+        for (final Node n : nodes.getNodes()) {
             if (!eastboundConnections.containsKey(n)) {
                 eastDepo = n;
                 break;
             }
         }
         Node westDepo = null;
-        for (final Node n : nodes) {
+        for (final Node n : nodes.getNodes()) {
             if (!westboundConnections.containsKey(n)) {
                 westDepo = n;
                 break;
@@ -62,9 +102,17 @@ public class Territory extends Visualizable {
         if (eastDepo == null || westDepo == null) {
             throw new IllegalStateException("Cannot find depot in one of the directions.");
         }
-        this.eastboundRoutes = this.getAllRoutes(new Builder(true), eastboundConnections, westDepo);
-        this.westboundRoutes = this
-                .getAllRoutes(new Builder(false), westboundConnections, eastDepo);
+        this.eastDepo = eastDepo;
+        this.westDepo = westDepo;
+        this.eastboundRoutes = this.getAllRoutes(new Builder(speeds, true), eastboundConnections,
+                westDepo);
+        this.westboundRoutes = this.getAllRoutes(new Builder(speeds, false),
+                westboundConnections, eastDepo);
+        for (final Route r : this.getAllRoutes()) {
+            this.routesByArcs.put(r.getProgression().getArcs(), r);
+        }
+        this.eastboundFinder = new ShortestPathFinder(eastboundConnections, true);
+        this.westboundFinder = new ShortestPathFinder(westboundConnections, false);
     }
 
     public Collection<Route> getAllRoutes() {
@@ -109,28 +157,133 @@ public class Territory extends Visualizable {
         return routes;
     }
 
+    /**
+     * Retrieve the best route for the train, as determined by {@link RouteRanking}.
+     * 
+     * @param t The train in question.
+     * @return The best of the train's possible routes. The result is cached.
+     */
     public Route getBestRoute(final Train t) {
         if (!this.bestRoutes.containsKey(t)) {
-            final SortedSet<Route> routes = new TreeSet<>(this.getRoutes(t));
-            this.bestRoutes.put(t, routes.last());
+            this.bestRoutes.put(t, this.getCandidateRoutes(t).iterator().next());
         }
         return this.bestRoutes.get(t);
     }
 
-    public Collection<Route> getRoutes(final Train t) {
-        final Collection<Route> routes = t.isEastbound() ? this.eastboundRoutes
-                : this.westboundRoutes;
-        final Collection<Route> properRoutes = new LinkedHashSet<>(routes);
-        for (final Route r : routes) {
-            if (!r.isPossibleForTrain(t)) {
-                properRoutes.remove(r);
+    /**
+     * Retrieve the routes that the solver should consider for the train. When the route budget is 0, these are all the
+     * {@link #getRoutes(Train)}. Otherwise, only that many best routes are returned, ordered by {@link RouteRanking}.
+     * Routes that are the same between the train's origin and its destination only take one place in the budget.
+     * 
+     * @param t The train in question.
+     * @return Unmodifiable collection of routes. The result is cached.
+     */
+    public Collection<Route> getCandidateRoutes(final Train t) {
+        if (!this.candidateRoutes.containsKey(t)) {
+            final RouteRanking ranking = new RouteRanking(t);
+            final List<Route> ranked = new ArrayList<>(this.getRoutes(t));
+            Collections.sort(ranked, ranking);
+            Collection<Route> candidates = ranked;
+            if (this.routeBudget > 0) {
+                candidates = new ArrayList<>();
+                final Set<List<Arc>> segments = new HashSet<>();
+                for (final Route r : ranked) {
+                    if (candidates.size() == this.routeBudget) {
+                        break;
+                    }
+                    // routes that only differ where the train doesn't go would waste the budget
+                    if (segments.add(ranking.getArcs(r))) {
+                        candidates.add(r);
+                    }
+                }
             }
+            this.candidateRoutes.put(t,
+                    Collections.unmodifiableCollection(new ArrayList<>(candidates)));
+        }
+        return this.candidateRoutes.get(t);
+    }
+
+    /**
+     * Find the route that is the cheapest for the train to travel, using {@link ShortestPathFinder}. Unlike
+     * {@link #getBestRoute(Train)}, this doesn't need to evaluate every route in the territory.
+     * 
+     * @param t The train in question.
+     * @return The route, or null if there is no such route.
+     */
+    public Route getShortestRoute(final Train t) {
+        final List<Arc> path = t.isEastbound() ? this.eastboundFinder.findPath(t, this.westDepo,
+                this.eastDepo) : this.westboundFinder.findPath(t, this.eastDepo, this.westDepo);
+        if (path == null) {
+            return null;
         }
-        if (properRoutes.size() == 0) {
-            // this is most probably a bug in the algorithm
-            throw new IllegalStateException("No routes for train: " + t.getName());
+        return this.routesByArcs.get(path);
+    }
+
+    /**
+     * Whether or not the route is among {@link #getCandidateRoutes(Train)}. When there is no route budget, this doesn't
+     * require the routes to be ranked.
+     * 
+     * @param t The train in question.
+     * @param r The route in question.
+     * @return True if the solver would consider the route for the train.
+     */
+    public boolean isCandidateRoute(final Train t, final Route r) {
+        if (this.routeBudget == 0) {
+            return this.getRoutes(t).contains(r);
+        } else {
+            return this.getCandidateRoutes(t).contains(r);
+        }
+    }
+
+    /**
+     * Retrieve a node of this territory.
+     * 
+     * @param id ID of the node.
+     * @return The node in question.
+     * @throws IllegalArgumentException When there is no such node in the territory.
+     */
+    public Node getNode(final int id) {
+        if (!this.nodes.hasNode(id)) {
+            throw new IllegalArgumentException("No node with ID " + id + " in the territory.");
+        }
+        return this.nodes.getNode(id);
+    }
+
+    public NodeTable getNodes() {
+        return this.nodes;
+    }
+
+    public SpeedProfile getSpeedProfile() {
+        return this.speeds;
+    }
+
+    public int getRouteBudget() {
+        return this.routeBudget;
+    }
+
+    /**
+     * Retrieve every route that the train is allowed to take, regardless of the route budget.
+     * 
+     * @param t The train in question.
+     * @return Unmodifiable collection of routes. The result is cached.
+     */
+    public Collection<Route> getRoutes(final Train t) {
+        if (!this.possibleRoutes.containsKey(t)) {
+            final Collection<Route> routes = t.isEastbound() ? this.eastboundRoutes
+                    : this.westboundRoutes;
+            final Collection<Route> properRoutes = new LinkedHashSet<>(routes);
+            for (final Route r : routes) {
+                if (!r.isPossibleForTrain(t)) {
+                    properRoutes.remove(r);
+                }
+            }
+            if (properRoutes.size() == 0) {
+                // this is most probably a bug in the algorithm
+                throw new IllegalStateException("No routes for train: " + t.getName());
+            }
+            this.possibleRoutes.put(t, Collections.unmodifiableCollection(properRoutes));
         }
-        return Collections.unmodifiableCollection(properRoutes);
+        return this.possibleRoutes.get(t);
     }
 
     @Override
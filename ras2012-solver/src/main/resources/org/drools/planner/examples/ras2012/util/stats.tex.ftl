@@ -2,12 +2,16 @@
 \footnotesize
 \caption{Submission performance per data set.}
 \centering
+<#if profiled>
+\begin{tabular}{c||c|c|c|c|c||c}
+<#else>
 \begin{tabular}{c||c|c|c|c|c}
+</#if>
 \hline \hline
-                 & Best                 & Q1                 & Q2                & Q3                & Worst \\ 
+                 & Best                 & Q1                 & Q2                & Q3                & Worst<#if profiled>               & Feasible after [s]</#if> \\ 
 <#list solutions as solution> 
 \hline
-${solution.name} & \$${solution.best}   & \$${solution.q1}   & \$${solution.q2}  & \$${solution.q3}  & \$${solution.worst} \\
+${solution.name} & \$${solution.best}   & \$${solution.q1}   & \$${solution.q2}  & \$${solution.q3}  & \$${solution.worst}<#if profiled> & ${solution.feasible!"--"}</#if> \\
 </#list> 
 \end{tabular} 
 \label{table:result} 
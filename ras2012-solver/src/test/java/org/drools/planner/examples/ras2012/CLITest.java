@@ -0,0 +1,41 @@
+package org.drools.planner.examples.ras2012;
+
+import org.drools.planner.examples.ras2012.CLI.ApplicationMode;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CLITest {
+
+    private final CLI cli = CLI.getInstance();
+
+    @Test
+    public void testHorizon() {
+        Assert.assertEquals(ApplicationMode.RESOLVER,
+                this.cli.process(new String[] { "-r", "-d", "TOY.txt", "-z", "200" }));
+        Assert.assertEquals(200, this.cli.getHorizon());
+        Assert.assertEquals(ApplicationMode.EVALUATION, this.cli.process(new String[] { "-e",
+                "-d", "TOY.txt", "-s", "TOY.xml", "--horizon", "90" }));
+        Assert.assertEquals(90, this.cli.getHorizon());
+    }
+
+    @Test
+    public void testHorizonNotPositive() {
+        Assert.assertEquals(ApplicationMode.ERROR,
+                this.cli.process(new String[] { "-r", "-d", "TOY.txt", "-z", "0" }));
+        Assert.assertEquals(ApplicationMode.ERROR,
+                this.cli.process(new String[] { "-r", "-d", "TOY.txt", "-z", "soon" }));
+        // an error doesn't stick to the next command line
+        Assert.assertEquals(ApplicationMode.RESOLVER,
+                this.cli.process(new String[] { "-r", "-d", "TOY.txt" }));
+    }
+
+    @Test
+    public void testNoHorizon() {
+        this.cli.process(new String[] { "-r", "-d", "TOY.txt", "-z", "200" });
+        // the data set decides again
+        Assert.assertEquals(ApplicationMode.RESOLVER,
+                this.cli.process(new String[] { "-r", "-d", "TOY.txt" }));
+        Assert.assertEquals(0, this.cli.getHorizon());
+    }
+
+}
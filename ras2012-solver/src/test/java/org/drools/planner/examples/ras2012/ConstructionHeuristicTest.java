@@ -0,0 +1,99 @@
+package org.drools.planner.examples.ras2012;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.examples.ras2012.model.Arc;
+import org.drools.planner.examples.ras2012.model.Itinerary;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.NodeTable;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.SpeedProfile;
+import org.drools.planner.examples.ras2012.model.Track;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.util.EntryRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConstructionHeuristicTest {
+
+    private static final boolean      EASTBOUND = true;
+    private static final long         HORIZON   = TimeUnit.MINUTES.toMillis(720);
+    private static final SpeedProfile SPEEDS    = new SpeedProfile(80, 70, 20, 15);
+    private static final NodeTable    NODES     = new NodeTable();
+    private static final Node         START     = ConstructionHeuristicTest.NODES.getNode(0);
+    private static final Node         MIDDLE    = ConstructionHeuristicTest.NODES.getNode(1);
+    private static final Node         END       = ConstructionHeuristicTest.NODES.getNode(2);
+
+    private static final Arc          MAIN      = new Arc(Track.MAIN_0, BigDecimal.ONE,
+                                                        ConstructionHeuristicTest.START,
+                                                        ConstructionHeuristicTest.MIDDLE);
+    private static final Arc          CROSSOVER = new Arc(Track.CROSSOVER, BigDecimal.ONE,
+                                                        ConstructionHeuristicTest.MIDDLE,
+                                                        ConstructionHeuristicTest.END);
+    private static final Route        ROUTE     = new Route.Builder(
+                                                        ConstructionHeuristicTest.SPEEDS,
+                                                        ConstructionHeuristicTest.EASTBOUND)
+                                                        .add(ConstructionHeuristicTest.MAIN)
+                                                        .add(ConstructionHeuristicTest.CROSSOVER)
+                                                        .build();
+
+    private static Train getTrain(final String name) {
+        return new Train(name, BigDecimal.ONE, BigDecimal.ONE, 80,
+                ConstructionHeuristicTest.START, ConstructionHeuristicTest.END, 0, 100, 0, null,
+                false, !ConstructionHeuristicTest.EASTBOUND, ConstructionHeuristicTest.SPEEDS);
+    }
+
+    private final Train         train   = ConstructionHeuristicTest.getTrain("A1");
+    private final Train         other   = ConstructionHeuristicTest.getTrain("A2");
+    private final EntryRegistry entries = new EntryRegistry(
+                                                ConstructionHeuristicTest.NODES.count());
+
+    private void assertConflictFree(final Itinerary i, final Arc a) {
+        // schedule times already include the wait at the node
+        final long entry = i.getArrivalTime(a.getOrigin(this.train));
+        final long leave = i.getArrivalTime(a.getDestination(this.train));
+        Assert.assertEquals(entry,
+                this.entries.getEarliestConflictFreeEntry(a, this.train, entry, leave));
+    }
+
+    @Test
+    public void testConflictOnFirstArcWaitsAtOrigin() {
+        // the other train occupies the very first arc, so the only place to wait is the origin
+        this.entries.setTimes(ConstructionHeuristicTest.MAIN, this.other, 0,
+                TimeUnit.MINUTES.toMillis(10));
+        final Itinerary i = new Itinerary(ConstructionHeuristicTest.ROUTE, this.train);
+        Assert.assertEquals(0, ConstructionHeuristic.resolveConflicts(i, this.entries,
+                ConstructionHeuristicTest.HORIZON));
+        // the train waits until the other train has left the arc, plus the headway
+        Assert.assertEquals(15,
+                i.getWaitTime(ConstructionHeuristicTest.START).getWaitFor(TimeUnit.MINUTES));
+        Assert.assertNull(i.getWaitTime(ConstructionHeuristicTest.MIDDLE));
+        this.assertConflictFree(i, ConstructionHeuristicTest.MAIN);
+    }
+
+    @Test
+    public void testConflictMidRouteWaitsAtClosestWaitPoint() {
+        // the other train occupies the crossover, so the train should wait right before joining it
+        this.entries.setTimes(ConstructionHeuristicTest.CROSSOVER, this.other, 0,
+                TimeUnit.MINUTES.toMillis(10));
+        final Itinerary i = new Itinerary(ConstructionHeuristicTest.ROUTE, this.train);
+        Assert.assertEquals(0, ConstructionHeuristic.resolveConflicts(i, this.entries,
+                ConstructionHeuristicTest.HORIZON));
+        Assert.assertNull(i.getWaitTime(ConstructionHeuristicTest.START));
+        Assert.assertNotNull(i.getWaitTime(ConstructionHeuristicTest.MIDDLE));
+        this.assertConflictFree(i, ConstructionHeuristicTest.CROSSOVER);
+    }
+
+    @Test
+    public void testNoConflict() {
+        this.entries.setTimes(ConstructionHeuristicTest.MAIN, this.other, 0,
+                TimeUnit.MINUTES.toMillis(10));
+        this.entries.resetTimes(this.other);
+        final Itinerary i = new Itinerary(ConstructionHeuristicTest.ROUTE, this.train);
+        Assert.assertEquals(0, ConstructionHeuristic.resolveConflicts(i, this.entries,
+                ConstructionHeuristicTest.HORIZON));
+        Assert.assertTrue(i.getWaitTimes().isEmpty());
+    }
+
+}
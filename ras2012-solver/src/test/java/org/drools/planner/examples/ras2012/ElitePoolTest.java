@@ -0,0 +1,115 @@
+package org.drools.planner.examples.ras2012;
+
+import java.util.Random;
+
+import org.drools.planner.core.score.buildin.hardandsoft.DefaultHardAndSoftScore;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ElitePoolTest {
+
+    private final SyntheticProblem problem  = new SyntheticProblem();
+    private final Train            train    = this.problem.createTrain("A1", false, 0);
+    private final ProblemSolution  solution = this.problem.createSolution(this.train);
+
+    private Route findRouteWithSiding() {
+        for (final Route r : this.problem.getTerritory().getRoutes(this.train)) {
+            if (r.getNumberOfSidings() > 0) {
+                return r;
+            }
+        }
+        throw new IllegalStateException("No route through the siding.");
+    }
+
+    @Test
+    public void testAdmission() {
+        final ElitePool pool = new ElitePool(2);
+        Assert.assertNull(pool.getBest());
+        Assert.assertNull(pool.pick(new Random(0)));
+        Assert.assertTrue(pool.offer(this.withScore(-100)));
+        // a worse solution gets in while there is room
+        Assert.assertTrue(pool.offer(this.withScore(-200)));
+        Assert.assertEquals(2, pool.size());
+        Assert.assertEquals(DefaultHardAndSoftScore.valueOf(0, -100), pool.getBest().getScore());
+        // but not once the pool is full
+        Assert.assertFalse(pool.offer(this.withScore(-300)));
+        Assert.assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testApplyTo() {
+        final ItineraryAssignment ia = this.solution.getAssignment(this.train);
+        final Route siding = this.findRouteWithSiding();
+        ia.setRoute(siding);
+        final Node origin = this.train.getOrigin();
+        ia.getItinerary().setWaitTime(origin, WaitTime.getWaitTime(5));
+        final ElitePool pool = new ElitePool(1);
+        Assert.assertTrue(pool.offer(this.withScore(-100)));
+        // a fresh copy of the same problem gets the route and the wait times of the elite
+        final ProblemSolution other = this.problem.createSolution(this.train);
+        other.setScore(DefaultHardAndSoftScore.valueOf(0, -500));
+        pool.getBest().applyTo(other);
+        final ItineraryAssignment otherIa = other.getAssignment(this.train);
+        Assert.assertSame(siding, otherIa.getRoute());
+        Assert.assertEquals(WaitTime.getWaitTime(5), otherIa.getItinerary().getWaitTime(origin));
+        Assert.assertEquals(1, otherIa.getItinerary().getWaitTimes().size());
+        Assert.assertNull("Score must be recalculated.", other.getScore());
+        // changing the original solution afterwards doesn't change the elite
+        ia.getItinerary().removeWaitTimes();
+        pool.getBest().applyTo(other);
+        Assert.assertEquals(WaitTime.getWaitTime(5), otherIa.getItinerary().getWaitTime(origin));
+    }
+
+    @Test
+    public void testDiversity() {
+        final ElitePool pool = new ElitePool(3);
+        Assert.assertTrue(pool.offer(this.withScore(-100)));
+        // the same score is most probably the same solution, so it is kept only once
+        Assert.assertFalse(pool.offer(this.withScore(-100)));
+        Assert.assertEquals(1, pool.size());
+        Assert.assertTrue(pool.offer(this.withScore(-101)));
+        Assert.assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testEviction() {
+        final ElitePool pool = new ElitePool(2);
+        pool.offer(this.withScore(-100));
+        pool.offer(this.withScore(-200));
+        // a better solution pushes the worst one out
+        Assert.assertTrue(pool.offer(this.withScore(-150)));
+        Assert.assertEquals(2, pool.size());
+        Assert.assertTrue(pool.offer(this.withScore(-50)));
+        Assert.assertEquals(2, pool.size());
+        Assert.assertEquals(DefaultHardAndSoftScore.valueOf(0, -50), pool.getBest().getScore());
+        // -150 and -200 are gone now, and they are worse than -100, the worst one left
+        Assert.assertFalse(pool.offer(this.withScore(-150)));
+        final Random random = new Random(0);
+        for (int i = 0; i < 20; i++) {
+            final int picked = pool.pick(random).getScore().getSoftScore();
+            Assert.assertTrue(picked == -50 || picked == -100);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoCapacity() {
+        new ElitePool(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoScore() {
+        this.solution.setScore(null);
+        new ElitePool(1).offer(this.solution);
+    }
+
+    private ProblemSolution withScore(final int softScore) {
+        this.solution.setScore(DefaultHardAndSoftScore.valueOf(0, softScore));
+        return this.solution;
+    }
+
+}
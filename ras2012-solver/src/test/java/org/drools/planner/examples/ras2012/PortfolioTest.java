@@ -0,0 +1,69 @@
+package org.drools.planner.examples.ras2012;
+
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.core.score.buildin.hardandsoft.DefaultHardAndSoftScore;
+import org.drools.planner.core.score.buildin.hardandsoft.HardAndSoftScore;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PortfolioTest {
+
+    private static final int  MARGIN  = 10;
+    private static final long WARM_UP = 1000;
+
+    private final Portfolio   portfolio = new Portfolio(PortfolioTest.WARM_UP,
+                                              TimeUnit.MILLISECONDS, PortfolioTest.MARGIN);
+
+    @Test
+    public void testCancellableOnlyAfterWarmUp() {
+        this.portfolio.offer(DefaultHardAndSoftScore.valueOf(0, -100));
+        final HardAndSoftScore dominated = DefaultHardAndSoftScore.valueOf(0, -1000);
+        Assert.assertTrue(this.portfolio.isDominated(dominated));
+        Assert.assertFalse(this.portfolio.isCancellable(dominated, 0));
+        Assert.assertFalse(this.portfolio.isCancellable(dominated, PortfolioTest.WARM_UP - 1));
+        Assert.assertTrue(this.portfolio.isCancellable(dominated, PortfolioTest.WARM_UP));
+        // the leader itself is never cancelled, warm-up or not
+        Assert.assertFalse(this.portfolio.isCancellable(this.portfolio.getLeader(),
+                PortfolioTest.WARM_UP));
+    }
+
+    @Test
+    public void testDominatedByHardScore() {
+        this.portfolio.offer(DefaultHardAndSoftScore.valueOf(0, -1000));
+        // worse hard score is dominated regardless of the soft score
+        Assert.assertTrue(this.portfolio.isDominated(DefaultHardAndSoftScore.valueOf(-1, 0)));
+        Assert.assertFalse(this.portfolio.isDominated(DefaultHardAndSoftScore.valueOf(0, -1000)));
+    }
+
+    @Test
+    public void testDominatedOutsideMargin() {
+        this.portfolio.offer(DefaultHardAndSoftScore.valueOf(0, -100));
+        final int atMargin = -100 - PortfolioTest.MARGIN;
+        Assert.assertFalse(this.portfolio.isDominated(DefaultHardAndSoftScore.valueOf(0, -100)));
+        Assert.assertFalse(this.portfolio.isDominated(DefaultHardAndSoftScore.valueOf(0,
+                atMargin)));
+        Assert.assertTrue(this.portfolio.isDominated(DefaultHardAndSoftScore.valueOf(0,
+                atMargin - 1)));
+    }
+
+    @Test
+    public void testLeaderOnlyImproves() {
+        Assert.assertNull(this.portfolio.getLeader());
+        final HardAndSoftScore best = DefaultHardAndSoftScore.valueOf(0, -100);
+        this.portfolio.offer(best);
+        this.portfolio.offer(DefaultHardAndSoftScore.valueOf(0, -200));
+        this.portfolio.offer(DefaultHardAndSoftScore.valueOf(-1, 0));
+        Assert.assertEquals(best, this.portfolio.getLeader());
+    }
+
+    @Test
+    public void testNothingDominatedWithoutLeader() {
+        Assert.assertFalse(this.portfolio.isDominated(null));
+        Assert.assertFalse(this.portfolio.isCancellable(null, PortfolioTest.WARM_UP));
+        this.portfolio.offer(DefaultHardAndSoftScore.valueOf(0, -100));
+        // a solver without any score yet is dominated as soon as there is a leader
+        Assert.assertTrue(this.portfolio.isDominated(null));
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.drools.planner.examples.ras2012;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProblemSolutionTest {
+
+    private final SyntheticProblem problem  = new SyntheticProblem();
+    private final Train            early    = this.problem.createTrain("A1", false, 0);
+    private final Train            late     = this.problem.createTrain("B1", false, 120);
+    private final ProblemSolution  solution = this.problem.createSolution(180, TimeUnit.MINUTES,
+                                                    this.early);
+
+    private long getArrivalOfEarlyTrain() {
+        return this.solution.getAssignment(this.early).getItinerary().getArrivalTime();
+    }
+
+    @Test
+    public void testRollAdmitsAnnouncedTrains() {
+        final ProblemSolution rolled = this.solution.roll(0, TimeUnit.MILLISECONDS,
+                Arrays.asList(this.late));
+        Assert.assertEquals(2, rolled.getTrains().size());
+        final ItineraryAssignment ia = rolled.getAssignment(this.late);
+        Assert.assertNotNull(ia.getRoute());
+        Assert.assertTrue(ia.getItinerary().getWaitTimes().isEmpty());
+        Assert.assertFalse(ia.isRouteFrozen());
+        // the previous solution stays as it was
+        Assert.assertNull(this.solution.getAssignment(this.late));
+        Assert.assertEquals(1, this.solution.getTrains().size());
+    }
+
+    @Test
+    public void testRollDropsTrainsThatHaveLeft() {
+        final long arrival = this.getArrivalOfEarlyTrain();
+        final ProblemSolution rolled = this.solution.roll(arrival + 1, TimeUnit.MILLISECONDS,
+                Collections.<Train> emptyList());
+        Assert.assertTrue(rolled.getTrains().isEmpty());
+        Assert.assertNull(rolled.getAssignment(this.early));
+        Assert.assertEquals(1, this.solution.getTrains().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRollRejectsAnnouncedTrainTwice() {
+        this.solution.roll(0, TimeUnit.MILLISECONDS, Arrays.asList(this.early));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRollRejectsMovingBackwards() {
+        this.solution.roll(10, TimeUnit.MINUTES, Collections.<Train> emptyList()).roll(9,
+                TimeUnit.MINUTES, Collections.<Train> emptyList());
+    }
+
+    @Test
+    public void testRollShiftsHorizon() {
+        Assert.assertEquals(0, this.solution.getFreezeTime(TimeUnit.MINUTES));
+        final ProblemSolution rolled = this.solution.roll(30, TimeUnit.MINUTES,
+                Collections.<Train> emptyList());
+        Assert.assertEquals(30, rolled.getFreezeTime(TimeUnit.MINUTES));
+        Assert.assertEquals(210, rolled.getPlanningHorizon(TimeUnit.MINUTES));
+        final ProblemSolution rolledAgain = rolled.roll(45, TimeUnit.MINUTES,
+                Collections.<Train> emptyList());
+        Assert.assertEquals(45, rolledAgain.getFreezeTime(TimeUnit.MINUTES));
+        Assert.assertEquals(225, rolledAgain.getPlanningHorizon(TimeUnit.MINUTES));
+        // the previous solution stays as it was
+        Assert.assertEquals(0, this.solution.getFreezeTime(TimeUnit.MINUTES));
+        Assert.assertEquals(180, this.solution.getPlanningHorizon(TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testRollKeepsTrainsOnTheirWay() {
+        final ItineraryAssignment original = this.solution.getAssignment(this.early);
+        original.getItinerary().setWaitTime(this.early.getOrigin(), WaitTime.getWaitTime(5));
+        final long arrival = this.getArrivalOfEarlyTrain();
+        final ProblemSolution rolled = this.solution.roll(arrival - 1, TimeUnit.MILLISECONDS,
+                Collections.<Train> emptyList());
+        final ItineraryAssignment ia = rolled.getAssignment(this.early);
+        Assert.assertNotSame(original, ia);
+        Assert.assertSame(original.getRoute(), ia.getRoute());
+        Assert.assertEquals(original.getItinerary().getWaitTimes(), ia.getItinerary()
+                .getWaitTimes());
+        Assert.assertEquals(arrival, ia.getItinerary().getArrivalTime());
+        // the train is in the territory already
+        Assert.assertTrue(ia.isRouteFrozen());
+        Assert.assertFalse(original.isRouteFrozen());
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.drools.planner.examples.ras2012;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.config.solver.SolverConfig;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RollingHorizonTest {
+
+    private final SyntheticProblem problem  = new SyntheticProblem();
+    private final Train            train    = this.problem.createTrain("A1", false, 0);
+    private final ProblemSolution  plan     = this.problem.createSolution(180, TimeUnit.MINUTES,
+                                                    this.train);
+    private final SolverTemplate   template = new SolverTemplate(new SolverConfig());
+
+    @Test
+    public void testAdvanceWithNothingToPlan() {
+        final RollingHorizon rolling = new RollingHorizon(this.template, this.plan, 1,
+                TimeUnit.SECONDS);
+        Assert.assertSame(this.plan, rolling.getPlan());
+        Assert.assertEquals(-1, rolling.getSeed());
+        // the only train has left the territory by then, so no solver is needed
+        final long now = this.plan.getAssignment(this.train).getItinerary().getArrivalTime() + 1;
+        final ProblemSolution next = rolling.advance(now, TimeUnit.MILLISECONDS,
+                Collections.<Train> emptyList());
+        Assert.assertSame(next, rolling.getPlan());
+        Assert.assertTrue(next.getTrains().isEmpty());
+        Assert.assertEquals(now, next.getFreezeTime(TimeUnit.MILLISECONDS));
+        Assert.assertNotNull("Plan must be scored.", next.getScore());
+        Assert.assertEquals(0, next.getScore().getHardScore());
+        Assert.assertEquals(-1, rolling.getSeed());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdvanceBackwards() {
+        final RollingHorizon rolling = new RollingHorizon(this.template, this.plan, 1,
+                TimeUnit.SECONDS);
+        rolling.advance(200, TimeUnit.MINUTES, Collections.<Train> emptyList());
+        rolling.advance(190, TimeUnit.MINUTES, Collections.<Train> emptyList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoCycleTime() {
+        new RollingHorizon(this.template, this.plan, 0, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoPlan() {
+        new RollingHorizon(this.template, null, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoTemplate() {
+        new RollingHorizon(null, this.plan, 1, TimeUnit.SECONDS);
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.drools.planner.examples.ras2012;
+
+import java.util.Collections;
+import java.util.Random;
+
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScoreCalculatorHotspotTest {
+
+    private final SyntheticProblem problem    = new SyntheticProblem();
+    // the first two trains enter at the same time, one right behind the other
+    private final Train            first      = this.problem.createTrain("A1", false, 0);
+    private final Train            second     = this.problem.createTrain("A2", false, 0);
+    private final Train            bystander  = this.problem.createTrain("A3", true, 300);
+    private final ProblemSolution  solution   = this.problem.createSolution(this.first,
+                                                      this.second, this.bystander);
+    private final ScoreCalculator  calculator = new ScoreCalculator();
+
+    /**
+     * The weights kept up to date incrementally must be the same as those of a calculator that starts from scratch.
+     */
+    private void assertWeightsMatchFreshCalculation() {
+        final ScoreCalculator fresh = new ScoreCalculator();
+        fresh.resetWorkingSolution(this.solution);
+        fresh.refreshHotspots();
+        for (final Train t : this.solution.getTrains()) {
+            Assert.assertEquals(t.getName(), fresh.getHotspotWeight(t),
+                    this.calculator.getHotspotWeight(t));
+        }
+    }
+
+    private void setWaitTime(final Train t, final WaitTime wt) {
+        final ItineraryAssignment ia = this.solution.getAssignment(t);
+        ia.getItinerary().setWaitTime(t.getOrigin(), wt);
+        this.calculator.afterVariableChanged(ia, "waitTime");
+        this.calculator.refreshHotspots();
+    }
+
+    @Before
+    public void setUp() {
+        this.calculator.resetWorkingSolution(this.solution);
+        this.calculator.refreshHotspots();
+    }
+
+    @Test
+    public void testConflictsWeighMore() {
+        this.assertWeightsMatchFreshCalculation();
+        Assert.assertTrue(this.calculator.getHotspotWeight(this.first) > this.calculator
+                .getHotspotWeight(this.bystander));
+        Assert.assertTrue(this.calculator.getHotspotWeight(this.second) > this.calculator
+                .getHotspotWeight(this.bystander));
+    }
+
+    @Test
+    public void testPartnerReweighed() {
+        final long conflicting = this.calculator.getHotspotWeight(this.first);
+        // only the second train moves, but the conflict is gone for the first one too
+        this.setWaitTime(this.second, WaitTime.getWaitTime(30));
+        this.assertWeightsMatchFreshCalculation();
+        final long resolved = this.calculator.getHotspotWeight(this.first);
+        Assert.assertTrue(resolved < conflicting);
+        // and back again
+        this.setWaitTime(this.second, null);
+        this.assertWeightsMatchFreshCalculation();
+        Assert.assertEquals(conflicting, this.calculator.getHotspotWeight(this.first));
+    }
+
+    @Test
+    public void testPickConflictingHotspot() {
+        Assert.assertEquals(Collections.singleton(this.second),
+                this.calculator.getConflictingTrains(this.first));
+        Assert.assertTrue(this.calculator.getConflictingTrains(this.bystander).isEmpty());
+        final Random random = new Random(0);
+        for (int i = 0; i < 20; i++) {
+            final Train picked = this.calculator.pickConflictingHotspot(random);
+            Assert.assertTrue(picked == this.first || picked == this.second);
+        }
+        // once the conflict is resolved, there is nothing to pick
+        this.setWaitTime(this.second, WaitTime.getWaitTime(30));
+        Assert.assertTrue(this.calculator.getTrainsInConflict().isEmpty());
+        Assert.assertNull(this.calculator.pickConflictingHotspot(random));
+    }
+
+    @Test
+    public void testUnchangedWithoutMoves() {
+        final long weight = this.calculator.getHotspotWeight(this.first);
+        this.calculator.refreshHotspots();
+        Assert.assertEquals(weight, this.calculator.getHotspotWeight(this.first));
+    }
+
+}
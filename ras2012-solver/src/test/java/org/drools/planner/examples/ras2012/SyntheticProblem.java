@@ -0,0 +1,145 @@
+package org.drools.planner.examples.ras2012;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.core.score.director.ScoreDirector;
+import org.drools.planner.examples.ras2012.model.Arc;
+import org.drools.planner.examples.ras2012.model.MaintenanceWindow;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.NodeTable;
+import org.drools.planner.examples.ras2012.model.SpeedProfile;
+import org.drools.planner.examples.ras2012.model.Track;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.util.model.Territory;
+
+/**
+ * A problem small enough to be built in code, for tests that need a whole {@link ProblemSolution} but no particular data set.
+ * The main track leads from node 0 to node 4. Between nodes 1 and 2, it is bypassed by a siding and a switch through node 3.
+ * Eastbound trains travel from node 0 to node 4, westbound trains the other way.
+ */
+public class SyntheticProblem {
+
+    private static final SpeedProfile SPEEDS = new SpeedProfile.Builder()
+                                                     .setSpeed(Track.MAIN_0, 100, 50)
+                                                     .setSpeed(Track.MAIN_1, 85, 75)
+                                                     .setSpeed(Track.MAIN_2, 110, 95)
+                                                     .setSpeed(Track.SIDING, 25)
+                                                     .setSpeed(Track.SWITCH, 35)
+                                                     .setSpeed(Track.CROSSOVER, 45).build();
+
+    /**
+     * Create a score director for moves to work on. It only knows the working solution and ignores all the notifications, so
+     * nothing is ever scored.
+     * 
+     * @param solution The working solution.
+     * @return The score director.
+     */
+    public static ScoreDirector createScoreDirector(final ProblemSolution solution) {
+        return (ScoreDirector) Proxy.newProxyInstance(ScoreDirector.class.getClassLoader(),
+                new Class<?>[] { ScoreDirector.class }, new InvocationHandler() {
+
+                    @Override
+                    public Object invoke(final Object proxy, final Method method,
+                            final Object[] args) {
+                        if (method.getName().equals("getWorkingSolution")) {
+                            return solution;
+                        }
+                        final Class<?> type = method.getReturnType();
+                        if (type == boolean.class) {
+                            return false;
+                        } else if (type == int.class) {
+                            return 0;
+                        } else if (type == long.class) {
+                            return 0L;
+                        }
+                        return null;
+                    }
+
+                });
+    }
+
+    private final NodeTable           nodes  = new NodeTable();
+    private final Territory           territory;
+
+    public SyntheticProblem() {
+        final Collection<Arc> arcs = Arrays.asList(new Arc[] {
+                new Arc(Track.MAIN_0, BigDecimal.ONE, this.getNode(0), this.getNode(1)),
+                new Arc(Track.MAIN_0, BigDecimal.valueOf(3), this.getNode(1), this.getNode(2)),
+                new Arc(Track.SIDING, BigDecimal.ONE, this.getNode(1), this.getNode(3)),
+                new Arc(Track.SWITCH, BigDecimal.ONE, this.getNode(3), this.getNode(2)),
+                new Arc(Track.MAIN_0, BigDecimal.ONE, this.getNode(2), this.getNode(4)) });
+        this.territory = new Territory(this.nodes, arcs, SyntheticProblem.SPEEDS);
+    }
+
+    /**
+     * Create a fresh solution, with the default planning horizon and no maintenance windows.
+     * 
+     * @param trains Trains of the problem.
+     * @return The solution.
+     */
+    public ProblemSolution createSolution(final Train... trains) {
+        return this.createSolution(ProblemSolution.DEFAULT_PLANNING_HORIZON,
+                TimeUnit.MILLISECONDS, trains);
+    }
+
+    /**
+     * Create a fresh solution with no maintenance windows.
+     * 
+     * @param horizon Planning horizon of the problem.
+     * @param unit Unit of the planning horizon.
+     * @param trains Trains of the problem.
+     * @return The solution.
+     */
+    public ProblemSolution createSolution(final long horizon, final TimeUnit unit,
+            final Train... trains) {
+        return new ProblemSolution("SYNTHETIC", Arrays.asList(trains), this.territory,
+                Collections.<MaintenanceWindow> emptyList(), horizon, unit);
+    }
+
+    /**
+     * Create a train that wants to be through the territory an hour after it enters.
+     * 
+     * @param name Name of the train, which also determines its type.
+     * @param isWestbound Whether the train travels from node 4 to node 0.
+     * @param entryTime When the train enters the territory, in minutes.
+     * @return The train.
+     */
+    public Train createTrain(final String name, final boolean isWestbound, final int entryTime) {
+        return this.createTrain(name, isWestbound, entryTime, isWestbound ? 4 : 0, isWestbound ? 0
+                : 4);
+    }
+
+    /**
+     * Create a train that enters or leaves the territory somewhere else than at either end, and wants to be through an hour
+     * after it enters.
+     * 
+     * @param name Name of the train, which also determines its type.
+     * @param isWestbound Whether the train travels towards node 0.
+     * @param entryTime When the train enters the territory, in minutes.
+     * @param origin ID of the node where the train enters.
+     * @param destination ID of the node where the train leaves.
+     * @return The train.
+     */
+    public Train createTrain(final String name, final boolean isWestbound, final int entryTime,
+            final int origin, final int destination) {
+        return new Train(name, BigDecimal.ONE, BigDecimal.ONE, 90, this.getNode(origin),
+                this.getNode(destination), entryTime, entryTime + 60, 0, null, false,
+                isWestbound, SyntheticProblem.SPEEDS);
+    }
+
+    public Node getNode(final int id) {
+        return this.nodes.getNode(id);
+    }
+
+    public Territory getTerritory() {
+        return this.territory;
+    }
+
+}
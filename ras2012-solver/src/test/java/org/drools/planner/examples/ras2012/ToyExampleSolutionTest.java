@@ -40,6 +40,10 @@ public class ToyExampleSolutionTest {
         return calc.calculateScore();
     }
 
+    private Node getNode(final int id) {
+        return this.SOLUTION.getTerritory().getNode(id);
+    }
+
     private Route locateRoute(final int id) {
         for (final Route r : this.SOLUTION.getTerritory().getAllRoutes()) {
             if (r.getId() == id) {
@@ -66,19 +70,19 @@ public class ToyExampleSolutionTest {
         final ItineraryAssignment b1Assignment = this.SOLUTION.getAssignment(b1);
         b1Assignment.setRoute(this.locateRoute(5));
         // we must be at node 6 precisely at 5021076
-        long delay = 5316076 - this.getArrivalAtNode(b1Assignment.getItinerary(), Node.getNode(6));
-        b1Assignment.getItinerary().setWaitTime(Node.getNode(9),
+        long delay = 5316076 - this.getArrivalAtNode(b1Assignment.getItinerary(), this.getNode(6));
+        b1Assignment.getItinerary().setWaitTime(this.getNode(9),
                 WaitTime.getWaitTime(delay, TimeUnit.MILLISECONDS));
         b1Assignment.getRoute().visualize(new File(ToyExampleSolutionTest.DIRECTORY, "B1.png"));
         // prepare C1 according to the example
         final Train c1 = this.locateTrain("C1");
         final ItineraryAssignment c1Assignment = this.SOLUTION.getAssignment(c1);
         c1Assignment.setRoute(this.locateRoute(0));
-        c1Assignment.getItinerary().setWaitTime(Node.getNode(0),
+        c1Assignment.getItinerary().setWaitTime(this.getNode(0),
                 WaitTime.getWaitTime(2310000, TimeUnit.MILLISECONDS));
         // we must be at node 6 precisely at 7568664
-        delay = 8158664 - this.getArrivalAtNode(c1Assignment.getItinerary(), Node.getNode(6));
-        c1Assignment.getItinerary().setWaitTime(Node.getNode(4),
+        delay = 8158664 - this.getArrivalAtNode(c1Assignment.getItinerary(), this.getNode(6));
+        c1Assignment.getItinerary().setWaitTime(this.getNode(4),
                 WaitTime.getWaitTime(delay, TimeUnit.MILLISECONDS));
         c1Assignment.getRoute().visualize(new File(ToyExampleSolutionTest.DIRECTORY, "C1.png"));
         // prepare A1 according to the example
@@ -101,73 +105,73 @@ public class ToyExampleSolutionTest {
     @Test
     public void testTrainA1Times() {
         final Itinerary i = this.SOLUTION.getAssignment(this.locateTrain("A1")).getItinerary();
-        Assert.assertEquals(1200000, i.getArrivalTime(Node.getNode(0)));
-        Assert.assertEquals(2010000, i.getArrivalTime(Node.getNode(1)));
-        Assert.assertEquals(2055000, i.getArrivalTime(Node.getNode(3)));
-        Assert.assertEquals(2100000, i.getArrivalTime(Node.getNode(5)));
-        Assert.assertEquals(3000000, i.getArrivalTime(Node.getNode(6)));
-        Assert.assertEquals(3810000, i.getArrivalTime(Node.getNode(7)));
-        Assert.assertEquals(3855000, i.getArrivalTime(Node.getNode(8)));
-        Assert.assertEquals(3900000, i.getArrivalTime(Node.getNode(11)));
-        Assert.assertEquals(4800000, i.getArrivalTime(Node.getNode(12)));
-        Assert.assertEquals(2010000, i.getLeaveTime(Node.getNode(0)));
-        Assert.assertEquals(2055000, i.getLeaveTime(Node.getNode(1)));
-        Assert.assertEquals(2100000, i.getLeaveTime(Node.getNode(3)));
-        Assert.assertEquals(3000000, i.getLeaveTime(Node.getNode(5)));
-        Assert.assertEquals(3810000, i.getLeaveTime(Node.getNode(6)));
-        Assert.assertEquals(3855000, i.getLeaveTime(Node.getNode(7)));
-        Assert.assertEquals(3900000, i.getLeaveTime(Node.getNode(8)));
-        Assert.assertEquals(4800000, i.getLeaveTime(Node.getNode(11)));
-        Assert.assertEquals(-1, i.getLeaveTime(Node.getNode(12)));
+        Assert.assertEquals(1200000, i.getArrivalTime(this.getNode(0)));
+        Assert.assertEquals(2010000, i.getArrivalTime(this.getNode(1)));
+        Assert.assertEquals(2055000, i.getArrivalTime(this.getNode(3)));
+        Assert.assertEquals(2100000, i.getArrivalTime(this.getNode(5)));
+        Assert.assertEquals(3000000, i.getArrivalTime(this.getNode(6)));
+        Assert.assertEquals(3810000, i.getArrivalTime(this.getNode(7)));
+        Assert.assertEquals(3855000, i.getArrivalTime(this.getNode(8)));
+        Assert.assertEquals(3900000, i.getArrivalTime(this.getNode(11)));
+        Assert.assertEquals(4800000, i.getArrivalTime(this.getNode(12)));
+        Assert.assertEquals(2010000, i.getLeaveTime(this.getNode(0)));
+        Assert.assertEquals(2055000, i.getLeaveTime(this.getNode(1)));
+        Assert.assertEquals(2100000, i.getLeaveTime(this.getNode(3)));
+        Assert.assertEquals(3000000, i.getLeaveTime(this.getNode(5)));
+        Assert.assertEquals(3810000, i.getLeaveTime(this.getNode(6)));
+        Assert.assertEquals(3855000, i.getLeaveTime(this.getNode(7)));
+        Assert.assertEquals(3900000, i.getLeaveTime(this.getNode(8)));
+        Assert.assertEquals(4800000, i.getLeaveTime(this.getNode(11)));
+        Assert.assertEquals(-1, i.getLeaveTime(this.getNode(12)));
     }
 
     @Test
     public void testTrainB1Times() {
         final Itinerary i = this.SOLUTION.getAssignment(this.locateTrain("B1")).getItinerary();
-        Assert.assertEquals(1200000, i.getArrivalTime(Node.getNode(12)));
-        Assert.assertEquals(2410084, i.getArrivalTime(Node.getNode(11)));
-        Assert.assertEquals(2482084, i.getArrivalTime(Node.getNode(10)));
-        Assert.assertEquals(4155000, i.getArrivalTime(Node.getNode(9)));
-        Assert.assertEquals(4227000, i.getArrivalTime(Node.getNode(7)));
-        Assert.assertEquals(5316076, i.getArrivalTime(Node.getNode(6)));
-        Assert.assertEquals(6526160, i.getArrivalTime(Node.getNode(5)));
-        Assert.assertEquals(6586664, i.getArrivalTime(Node.getNode(3)));
-        Assert.assertEquals(6647168, i.getArrivalTime(Node.getNode(1)));
-        Assert.assertEquals(7736244, i.getArrivalTime(Node.getNode(0)));
-        Assert.assertEquals(2410084, i.getLeaveTime(Node.getNode(12)));
-        Assert.assertEquals(2482084, i.getLeaveTime(Node.getNode(11)));
-        Assert.assertEquals(4155000, i.getLeaveTime(Node.getNode(10)));
-        Assert.assertEquals(4227000, i.getLeaveTime(Node.getNode(9)));
-        Assert.assertEquals(5316076, i.getLeaveTime(Node.getNode(7)));
-        Assert.assertEquals(6526160, i.getLeaveTime(Node.getNode(6)));
-        Assert.assertEquals(6586664, i.getLeaveTime(Node.getNode(5)));
-        Assert.assertEquals(6647168, i.getLeaveTime(Node.getNode(3)));
-        Assert.assertEquals(7736244, i.getLeaveTime(Node.getNode(1)));
-        Assert.assertEquals(-1, i.getLeaveTime(Node.getNode(0)));
+        Assert.assertEquals(1200000, i.getArrivalTime(this.getNode(12)));
+        Assert.assertEquals(2410084, i.getArrivalTime(this.getNode(11)));
+        Assert.assertEquals(2482084, i.getArrivalTime(this.getNode(10)));
+        Assert.assertEquals(4155000, i.getArrivalTime(this.getNode(9)));
+        Assert.assertEquals(4227000, i.getArrivalTime(this.getNode(7)));
+        Assert.assertEquals(5316076, i.getArrivalTime(this.getNode(6)));
+        Assert.assertEquals(6526160, i.getArrivalTime(this.getNode(5)));
+        Assert.assertEquals(6586664, i.getArrivalTime(this.getNode(3)));
+        Assert.assertEquals(6647168, i.getArrivalTime(this.getNode(1)));
+        Assert.assertEquals(7736244, i.getArrivalTime(this.getNode(0)));
+        Assert.assertEquals(2410084, i.getLeaveTime(this.getNode(12)));
+        Assert.assertEquals(2482084, i.getLeaveTime(this.getNode(11)));
+        Assert.assertEquals(4155000, i.getLeaveTime(this.getNode(10)));
+        Assert.assertEquals(4227000, i.getLeaveTime(this.getNode(9)));
+        Assert.assertEquals(5316076, i.getLeaveTime(this.getNode(7)));
+        Assert.assertEquals(6526160, i.getLeaveTime(this.getNode(6)));
+        Assert.assertEquals(6586664, i.getLeaveTime(this.getNode(5)));
+        Assert.assertEquals(6647168, i.getLeaveTime(this.getNode(3)));
+        Assert.assertEquals(7736244, i.getLeaveTime(this.getNode(1)));
+        Assert.assertEquals(-1, i.getLeaveTime(this.getNode(0)));
     }
 
     @Test
     public void testTrainC1Times() {
         final Itinerary i = this.SOLUTION.getAssignment(this.locateTrain("C1")).getItinerary();
-        Assert.assertEquals(2310000, i.getArrivalTime(Node.getNode(0)));
-        Assert.assertEquals(3390000, i.getArrivalTime(Node.getNode(1)));
-        Assert.assertEquals(3462000, i.getArrivalTime(Node.getNode(2)));
-        Assert.assertEquals(6886664, i.getArrivalTime(Node.getNode(4)));
-        Assert.assertEquals(6958664, i.getArrivalTime(Node.getNode(5)));
-        Assert.assertEquals(8158664, i.getArrivalTime(Node.getNode(6)));
-        Assert.assertEquals(9238664, i.getArrivalTime(Node.getNode(7)));
-        Assert.assertEquals(9298664, i.getArrivalTime(Node.getNode(8)));
-        Assert.assertEquals(9358664, i.getArrivalTime(Node.getNode(11)));
-        Assert.assertEquals(10558664, i.getArrivalTime(Node.getNode(12)));
-        Assert.assertEquals(3390000, i.getLeaveTime(Node.getNode(0)));
-        Assert.assertEquals(3462000, i.getLeaveTime(Node.getNode(1)));
-        Assert.assertEquals(6886664, i.getLeaveTime(Node.getNode(2)));
-        Assert.assertEquals(6958664, i.getLeaveTime(Node.getNode(4)));
-        Assert.assertEquals(8158664, i.getLeaveTime(Node.getNode(5)));
-        Assert.assertEquals(9238664, i.getLeaveTime(Node.getNode(6)));
-        Assert.assertEquals(9298664, i.getLeaveTime(Node.getNode(7)));
-        Assert.assertEquals(9358664, i.getLeaveTime(Node.getNode(8)));
-        Assert.assertEquals(10558664, i.getLeaveTime(Node.getNode(11)));
-        Assert.assertEquals(-1, i.getLeaveTime(Node.getNode(12)));
+        Assert.assertEquals(2310000, i.getArrivalTime(this.getNode(0)));
+        Assert.assertEquals(3390000, i.getArrivalTime(this.getNode(1)));
+        Assert.assertEquals(3462000, i.getArrivalTime(this.getNode(2)));
+        Assert.assertEquals(6886664, i.getArrivalTime(this.getNode(4)));
+        Assert.assertEquals(6958664, i.getArrivalTime(this.getNode(5)));
+        Assert.assertEquals(8158664, i.getArrivalTime(this.getNode(6)));
+        Assert.assertEquals(9238664, i.getArrivalTime(this.getNode(7)));
+        Assert.assertEquals(9298664, i.getArrivalTime(this.getNode(8)));
+        Assert.assertEquals(9358664, i.getArrivalTime(this.getNode(11)));
+        Assert.assertEquals(10558664, i.getArrivalTime(this.getNode(12)));
+        Assert.assertEquals(3390000, i.getLeaveTime(this.getNode(0)));
+        Assert.assertEquals(3462000, i.getLeaveTime(this.getNode(1)));
+        Assert.assertEquals(6886664, i.getLeaveTime(this.getNode(2)));
+        Assert.assertEquals(6958664, i.getLeaveTime(this.getNode(4)));
+        Assert.assertEquals(8158664, i.getLeaveTime(this.getNode(5)));
+        Assert.assertEquals(9238664, i.getLeaveTime(this.getNode(6)));
+        Assert.assertEquals(9298664, i.getLeaveTime(this.getNode(7)));
+        Assert.assertEquals(9358664, i.getLeaveTime(this.getNode(8)));
+        Assert.assertEquals(10558664, i.getLeaveTime(this.getNode(11)));
+        Assert.assertEquals(-1, i.getLeaveTime(this.getNode(12)));
     }
 }
@@ -9,6 +9,8 @@ import org.junit.Test;
 
 public abstract class AbstractSectionTest {
 
+    private static final SpeedProfile SPEEDS = new SpeedProfile(80, 70, 20, 15);
+
     protected void actuallyTestInitialAndTerminalNodesOnRoute(final Section s) {
         // prepare routes, one eastbound and one westbound
         final Route eastbound = new Builder(true).build();
@@ -25,10 +27,10 @@ public abstract class AbstractSectionTest {
         final BigDecimal length = new BigDecimal("1.5");
         final Train westbound = new Train("A1", BigDecimal.ONE, length, 90, s.getEastNode(),
                 s.getWestNode(), 0, 0, 0, Collections.<ScheduleAdherenceRequirement> emptyList(),
-                true, true);
+                true, true, AbstractSectionTest.SPEEDS);
         final Train eastbound = new Train("A2", BigDecimal.ONE, length, 90, s.getWestNode(),
                 s.getEastNode(), 0, 0, 0, Collections.<ScheduleAdherenceRequirement> emptyList(),
-                true, false);
+                true, false, AbstractSectionTest.SPEEDS);
         // and validate their starting and ending nodes
         Assert.assertSame(s.getWestNode(), s.getOrigin(eastbound));
         Assert.assertSame(s.getEastNode(), s.getDestination(eastbound));
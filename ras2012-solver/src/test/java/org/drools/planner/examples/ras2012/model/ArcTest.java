@@ -7,45 +7,47 @@ import org.junit.Test;
 
 public class ArcTest extends AbstractSectionTest {
 
+    private final NodeTable nodes = new NodeTable();
+
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNegativeLength() {
-        new Arc(Track.MAIN_0, new BigDecimal("-0.05"), Node.getNode(0), Node.getNode(1));
+        new Arc(Track.MAIN_0, new BigDecimal("-0.05"), this.nodes.getNode(0), this.nodes.getNode(1));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNull1() {
-        new Arc(null, new BigDecimal("10"), Node.getNode(0), Node.getNode(1));
+        new Arc(null, new BigDecimal("10"), this.nodes.getNode(0), this.nodes.getNode(1));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNull2() {
-        new Arc(Track.MAIN_0, null, Node.getNode(0), Node.getNode(1));
+        new Arc(Track.MAIN_0, null, this.nodes.getNode(0), this.nodes.getNode(1));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNull3() {
-        new Arc(Track.MAIN_0, new BigDecimal("10"), null, Node.getNode(1));
+        new Arc(Track.MAIN_0, new BigDecimal("10"), null, this.nodes.getNode(1));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNull4() {
-        new Arc(Track.MAIN_0, new BigDecimal("10"), Node.getNode(0), null);
+        new Arc(Track.MAIN_0, new BigDecimal("10"), this.nodes.getNode(0), null);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorSameNodes() {
-        new Arc(Track.MAIN_0, new BigDecimal("10"), Node.getNode(0), Node.getNode(0));
+        new Arc(Track.MAIN_0, new BigDecimal("10"), this.nodes.getNode(0), this.nodes.getNode(0));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorZeroLength() {
-        new Arc(Track.MAIN_0, new BigDecimal("0"), Node.getNode(0), Node.getNode(1));
+        new Arc(Track.MAIN_0, new BigDecimal("0"), this.nodes.getNode(0), this.nodes.getNode(1));
     }
 
     @Test
     public void testEastWestNodes() {
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final BigDecimal length = new BigDecimal("1.5");
         final Arc a1 = new Arc(Track.MAIN_0, length, n1, n2);
         Assert.assertSame(n1, a1.getWestNode());
@@ -57,8 +59,8 @@ public class ArcTest extends AbstractSectionTest {
 
     @Test
     public void testEqualsObject() {
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final BigDecimal length = new BigDecimal("1.5");
         final Arc a1 = new Arc(Track.MAIN_0, length, n1, n2);
         Assert.assertEquals("The object should equal itself.", a1, a1);
@@ -70,8 +72,8 @@ public class ArcTest extends AbstractSectionTest {
     @Override
     public void testInitialAndTerminalNodesOnRoute() {
         // prepare arc to be tested
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final BigDecimal length = new BigDecimal("1.5");
         final Arc a = new Arc(Track.MAIN_0, length, n1, n2);
         super.actuallyTestInitialAndTerminalNodesOnRoute(a);
@@ -80,8 +82,8 @@ public class ArcTest extends AbstractSectionTest {
     @Override
     public void testInitialAndTerminalNodesOnTrain() {
         // prepare arc to be tested
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final BigDecimal length = new BigDecimal("1.5");
         final Arc a = new Arc(Track.MAIN_0, length, n1, n2);
         super.actuallyTestInitialAndTerminalNodesOnTrain(a);
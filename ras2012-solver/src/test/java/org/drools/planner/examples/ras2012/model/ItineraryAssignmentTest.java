@@ -2,8 +2,11 @@ package org.drools.planner.examples.ras2012.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.drools.planner.examples.ras2012.ProblemSolution;
 import org.junit.Assert;
@@ -59,6 +62,23 @@ public class ItineraryAssignmentTest extends AbstractItineraryProviderBasedTest
         Assert.assertNotSame(ia.getItinerary(), ia2.getItinerary());
     }
 
+    @Test
+    public void testCloneHasIndependentWaitTimes() {
+        final ItineraryAssignment ia = new ItineraryAssignment(this.expectedTrain, this.solution);
+        ia.setRoute(this.expectedRoute);
+        final Itinerary original = ia.getItinerary();
+        final long arrival = original.getArrivalTime();
+        final ItineraryAssignment ia2 = ia.clone();
+        Assert.assertEquals(original, ia2.getItinerary());
+        Assert.assertEquals(arrival, ia2.getItinerary().getArrivalTime());
+        // delaying the clone must not delay the original
+        final Node origin = this.expectedTrain.getOrigin();
+        ia2.getItinerary().setWaitTime(origin, WaitTime.getWaitTime(10));
+        Assert.assertNull(original.getWaitTime(origin));
+        Assert.assertEquals(arrival, original.getArrivalTime());
+        Assert.assertEquals(WaitTime.getWaitTime(10), ia2.getItinerary().getWaitTime(origin));
+    }
+
     @Test
     public void testConstructorSimple() {
         final ItineraryAssignment ia = new ItineraryAssignment(this.expectedTrain, this.solution);
@@ -91,6 +111,30 @@ public class ItineraryAssignmentTest extends AbstractItineraryProviderBasedTest
                 itinerary.getMaintenances());
     }
 
+    @Test
+    public void testRouteFrozenAfterEntry() {
+        final long freezeTime = this.expectedTrain.getEntryTime(TimeUnit.MILLISECONDS) + 1;
+        final ProblemSolution rolled = this.solution.roll(freezeTime, TimeUnit.MILLISECONDS,
+                Collections.<Train> emptyList());
+        final ItineraryAssignment ia = new ItineraryAssignment(this.expectedTrain, rolled);
+        ia.setRoute(this.expectedRoute);
+        Assert.assertTrue(ia.isRouteFrozen());
+        Assert.assertEquals(Collections.singletonList(this.expectedRoute), ia.getRoutes());
+        for (final WaitTimeAssignment wta : ia.getWaitTimeAssignments()) {
+            // no wait time may move an arrival into the past
+            Assert.assertTrue(ia.getItinerary().getArrivalTime(wta.getNode()) >= freezeTime);
+        }
+    }
+
+    @Test
+    public void testRouteNotFrozenBeforeEntry() {
+        final ItineraryAssignment ia = new ItineraryAssignment(this.expectedTrain, this.solution);
+        ia.setRoute(this.expectedRoute);
+        Assert.assertFalse(ia.isRouteFrozen());
+        Assert.assertEquals(this.solution.getTerritory().getCandidateRoutes(this.expectedTrain),
+                ia.getRoutes());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testRouteSetterImpossible() {
         final ItineraryAssignment ia = new ItineraryAssignment(this.expectedTrain, this.solution);
@@ -103,6 +147,20 @@ public class ItineraryAssignmentTest extends AbstractItineraryProviderBasedTest
         ia.setRoute(null);
     }
 
+    @Test
+    public void testRouteSetterSharesTemplate() {
+        final ItineraryAssignment ia = new ItineraryAssignment(this.expectedTrain, this.solution);
+        ia.setRoute(this.expectedRoute);
+        final ItineraryAssignment ia2 = new ItineraryAssignment(this.expectedTrain, this.solution);
+        ia2.setRoute(this.expectedRoute);
+        Assert.assertNotSame(ia.getItinerary(), ia2.getItinerary());
+        Assert.assertSame(ia.getItinerary().getTemplate(), ia2.getItinerary().getTemplate());
+        // the baseline schedule of the template is the same as one calculated from scratch
+        final Itinerary fresh = new Itinerary(this.expectedRoute, this.expectedTrain,
+                this.solution.getMaintenances());
+        Assert.assertEquals(fresh.getScheduleWithArcs(), ia.getItinerary().getScheduleWithArcs());
+    }
+
     @Test
     public void testRouteSetterTwiceTheSame() {
         final ItineraryAssignment ia = new ItineraryAssignment(this.expectedTrain, this.solution);
@@ -114,4 +172,66 @@ public class ItineraryAssignmentTest extends AbstractItineraryProviderBasedTest
         Assert.assertSame(itinerary, ia.getItinerary());
     }
 
+    @Test
+    public void testWaitTimeAssignmentCount() {
+        final ItineraryAssignment ia = new ItineraryAssignment(this.expectedTrain, this.solution);
+        ia.setRoute(this.expectedRoute);
+        Assert.assertEquals(ia.getWaitTimeAssignments().size(), ia.getWaitTimeAssignmentCount());
+        for (final Node waitPoint : ia.getWaitPoints()) {
+            final List<WaitTime> waitTimes = ia.getAllowedWaitTimes(waitPoint);
+            // longest first, no wait time last
+            Assert.assertNull(waitTimes.get(waitTimes.size() - 1));
+            for (int i = 1; i < waitTimes.size() - 1; i++) {
+                Assert.assertTrue(waitTimes.get(i - 1).getWaitFor(TimeUnit.MINUTES) > waitTimes
+                        .get(i).getWaitFor(TimeUnit.MINUTES));
+            }
+        }
+    }
+
+    @Test
+    public void testWaitPointsInOrderOfTravel() {
+        final ItineraryAssignment ia = new ItineraryAssignment(this.expectedTrain, this.solution);
+        ia.setRoute(this.expectedRoute);
+        final ItineraryTemplate template = ia.getItinerary().getTemplate();
+        final List<Node> waitPoints = ia.getWaitPoints();
+        // every wait point of the route that the train passes through is there, and nothing else
+        final Collection<Node> routeWaitPoints = this.expectedRoute.getProgression()
+                .getWaitPoints();
+        int passed = 0;
+        for (final Node n : routeWaitPoints) {
+            if (ia.getItinerary().hasNode(n)) {
+                passed++;
+            }
+        }
+        Assert.assertEquals(passed, waitPoints.size());
+        Assert.assertTrue(routeWaitPoints.containsAll(waitPoints));
+        // in the order of travel
+        for (int i = 1; i < waitPoints.size(); i++) {
+            Assert.assertTrue(template.getPosition(waitPoints.get(i - 1)) < template
+                    .getPosition(waitPoints.get(i)));
+        }
+    }
+
+    @Test
+    public void testWaitTimesSetTogether() {
+        final List<Node> waitPoints = new ArrayList<>();
+        for (final Node n : this.expectedRoute.getProgression().getWaitPoints()) {
+            if (this.expectedItinerary.hasNode(n)) {
+                waitPoints.add(n);
+            }
+        }
+        final ItineraryAssignment ia = new ItineraryAssignment(this.expectedTrain, this.solution);
+        ia.setRoute(this.expectedRoute);
+        final Itinerary together = ia.getItinerary();
+        final Itinerary oneByOne = new Itinerary(this.expectedRoute, this.expectedTrain,
+                this.solution.getMaintenances());
+        // the schedule is recalculated after every wait time in one, and only at the end in the other
+        for (final Node n : waitPoints) {
+            together.setWaitTime(n, WaitTime.getWaitTime(5));
+            oneByOne.setWaitTime(n, WaitTime.getWaitTime(5));
+            oneByOne.getSchedule();
+        }
+        Assert.assertEquals(oneByOne.getScheduleWithArcs(), together.getScheduleWithArcs());
+    }
+
 }
@@ -0,0 +1,80 @@
+package org.drools.planner.examples.ras2012.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.drools.planner.examples.ras2012.SyntheticProblem;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ItineraryTemplatePoolTest {
+
+    private static final int       THREADS = 4;
+
+    private final SyntheticProblem problem = new SyntheticProblem();
+
+    private ItineraryTemplate.Pool createPool() {
+        return new ItineraryTemplate.Pool(Collections.<MaintenanceWindow> emptyList());
+    }
+
+    @Test
+    public void testBoundHoldsUnderContention() throws Exception {
+        final ItineraryTemplate.Pool pool = this.createPool();
+        // more train and route pairs than the pool can keep
+        final List<Train> trains = new ArrayList<>();
+        int pairs = 0;
+        for (int i = 0; pairs <= ItineraryTemplate.Pool.MAX_CACHED; i++) {
+            final Train t = this.problem.createTrain("A" + i, i % 2 == 0, 0);
+            trains.add(t);
+            pairs += this.problem.getTerritory().getRoutes(t).size();
+        }
+        final ExecutorService executor = Executors
+                .newFixedThreadPool(ItineraryTemplatePoolTest.THREADS);
+        final List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < ItineraryTemplatePoolTest.THREADS; i++) {
+            final int offset = i;
+            futures.add(executor.submit(new Callable<Void>() {
+
+                @Override
+                public Void call() {
+                    // every thread asks for every template, each starting somewhere else
+                    for (int j = 0; j < trains.size(); j++) {
+                        final Train t = trains.get((j + offset * trains.size()
+                                / ItineraryTemplatePoolTest.THREADS)
+                                % trains.size());
+                        for (final Route r : ItineraryTemplatePoolTest.this.problem
+                                .getTerritory().getRoutes(t)) {
+                            Assert.assertNotNull(pool.get(t, r));
+                            Assert.assertTrue(pool.size() <= ItineraryTemplate.Pool.MAX_CACHED);
+                        }
+                    }
+                    return null;
+                }
+
+            }));
+        }
+        for (final Future<Void> f : futures) {
+            f.get();
+        }
+        executor.shutdown();
+        // every slot was taken, and none of them twice
+        Assert.assertEquals(ItineraryTemplate.Pool.MAX_CACHED, pool.size());
+    }
+
+    @Test
+    public void testTemplateIsShared() {
+        final ItineraryTemplate.Pool pool = this.createPool();
+        final Train t = this.problem.createTrain("A1", false, 0);
+        for (final Route r : this.problem.getTerritory().getRoutes(t)) {
+            final ItineraryTemplate template = pool.get(t, r);
+            Assert.assertSame(template, pool.get(t, r));
+        }
+        Assert.assertEquals(this.problem.getTerritory().getRoutes(t).size(), pool.size());
+    }
+
+}
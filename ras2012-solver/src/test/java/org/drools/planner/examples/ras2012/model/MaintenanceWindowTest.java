@@ -7,10 +7,12 @@ import org.junit.Test;
 
 public class MaintenanceWindowTest extends AbstractSectionTest {
 
+    private final NodeTable nodes = new NodeTable();
+
     @Test()
     public void testConstructor() {
-        final Node EAST = Node.getNode(0);
-        final Node WEST = Node.getNode(1);
+        final Node EAST = this.nodes.getNode(0);
+        final Node WEST = this.nodes.getNode(1);
         final int START = 10;
         final int END = 20;
         final MaintenanceWindow mw = new MaintenanceWindow(WEST, EAST, START, END);
@@ -22,41 +24,41 @@ public class MaintenanceWindowTest extends AbstractSectionTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNegativeTime1() {
-        new MaintenanceWindow(Node.getNode(0), Node.getNode(1), -1, 1);
+        new MaintenanceWindow(this.nodes.getNode(0), this.nodes.getNode(1), -1, 1);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNegativeTime2() {
-        new MaintenanceWindow(Node.getNode(0), Node.getNode(1), 1, -1);
+        new MaintenanceWindow(this.nodes.getNode(0), this.nodes.getNode(1), 1, -1);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNull1() {
-        new MaintenanceWindow(null, Node.getNode(1), 0, 1);
+        new MaintenanceWindow(null, this.nodes.getNode(1), 0, 1);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNull2() {
-        new MaintenanceWindow(Node.getNode(0), null, 0, 1);
+        new MaintenanceWindow(this.nodes.getNode(0), null, 0, 1);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorSame() {
-        new MaintenanceWindow(Node.getNode(1), Node.getNode(1), 0, 1);
+        new MaintenanceWindow(this.nodes.getNode(1), this.nodes.getNode(1), 0, 1);
     }
 
     @Override
     public void testInitialAndTerminalNodesOnRoute() {
         // prepare arc to be tested
-        final MaintenanceWindow mow = new MaintenanceWindow(Node.getNode(0), Node.getNode(1), 0, 10);
+        final MaintenanceWindow mow = new MaintenanceWindow(this.nodes.getNode(0), this.nodes.getNode(1), 0, 10);
         super.actuallyTestInitialAndTerminalNodesOnRoute(mow);
     }
 
     @Override
     public void testInitialAndTerminalNodesOnTrain() {
         // prepare arc to be tested
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final MaintenanceWindow mow = new MaintenanceWindow(n1, n2, 0, 10);
         super.actuallyTestInitialAndTerminalNodesOnRoute(mow);
     }
@@ -65,7 +67,7 @@ public class MaintenanceWindowTest extends AbstractSectionTest {
     public void testIsInside() {
         final int MOW_START = 50;
         final int MOW_END = 51;
-        final MaintenanceWindow mow = new MaintenanceWindow(Node.getNode(0), Node.getNode(1),
+        final MaintenanceWindow mow = new MaintenanceWindow(this.nodes.getNode(0), this.nodes.getNode(1),
                 MOW_START, MOW_END);
         Assert.assertFalse(mow.isInside(MOW_START - 1, TimeUnit.MINUTES));
         Assert.assertTrue(mow.isInside(MOW_START, TimeUnit.MINUTES));
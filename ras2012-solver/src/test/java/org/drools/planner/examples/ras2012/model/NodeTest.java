@@ -5,11 +5,13 @@ import org.junit.Test;
 
 public class NodeTest {
 
+    private final NodeTable nodes = new NodeTable();
+
     @Test
     public void testCompareTo() {
-        final Node n0 = Node.getNode(0);
-        final Node n1 = Node.getNode(1);
-        final Node nMax = Node.getNode(Integer.MAX_VALUE);
+        final Node n0 = this.nodes.getNode(0);
+        final Node n1 = this.nodes.getNode(1);
+        final Node nMax = this.nodes.getNode(Integer.MAX_VALUE);
 
         // any node should equal to itself
         Assert.assertTrue("Node should equal itself.", n0.compareTo(n0) == 0);
@@ -31,19 +33,41 @@ public class NodeTest {
 
     @Test
     public void testEqualsObject() {
-        final Node n1 = Node.getNode(0);
+        final Node n1 = this.nodes.getNode(0);
         Assert.assertEquals("Node should equal itself.", n1, n1);
-        final Node n2 = Node.getNode(0);
+        final Node n2 = this.nodes.getNode(0);
         Assert.assertEquals("Node should equal other nodes with the same ID.", n1, n2);
-        final Node n3 = Node.getNode(1);
+        final Node n3 = this.nodes.getNode(1);
         Assert.assertFalse("Node shouldn't equal nodes with different IDs.", n1.equals(n3));
         Assert.assertFalse("Node shouldn't equal null.", n1.equals(null));
         Assert.assertFalse("Node shouldn't equal non-Node.", n1.equals(new String()));
     }
 
+    @Test
+    public void testIndex() {
+        final Node n5 = this.nodes.getNode(5);
+        final Node n2 = this.nodes.getNode(2);
+        Assert.assertEquals("Nodes should be indexed in the order of creation.", 0, n5.getIndex());
+        Assert.assertEquals("Nodes should be indexed in the order of creation.", 1, n2.getIndex());
+        Assert.assertSame("Repeated retrieval should not create a new node.", n5, this.nodes.getNode(5));
+        Assert.assertEquals(2, this.nodes.count());
+        Assert.assertSame(n2, this.nodes.getNodeByIndex(1));
+        Assert.assertTrue(this.nodes.hasNode(2));
+        Assert.assertFalse(this.nodes.hasNode(3));
+    }
+
+    @Test
+    public void testSeparateTables() {
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = new NodeTable().getNode(0);
+        Assert.assertFalse("Nodes from different tables shouldn't equal.", n1.equals(n2));
+        Assert.assertEquals("Nodes from different tables should still compare by ID.", 0,
+                n1.compareTo(n2));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testNode() {
-        Node.getNode(-1);
+        this.nodes.getNode(-1);
     }
 
 }
@@ -15,6 +15,10 @@ import org.junit.runners.Parameterized.Parameters;
 @RunWith(Parameterized.class)
 public class RouteTest {
 
+    private static final SpeedProfile SPEEDS = new SpeedProfile(80, 70, 20, 15);
+
+    private final NodeTable           nodes  = new NodeTable();
+
     /**
      * Run the test for both eastbound and westbound routes.
      * 
@@ -35,12 +39,12 @@ public class RouteTest {
     }
 
     private Builder getBuilder() {
-        return this.isEastbound ? new Builder(true) : new Builder(false);
+        return new Builder(RouteTest.SPEEDS, this.isEastbound);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testBuilderNotWithSameArc() {
-        final Arc a = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(0), Node.getNode(1));
+        final Arc a = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(0), this.nodes.getNode(1));
         this.getBuilder().add(a).add(a);
     }
 
@@ -52,8 +56,8 @@ public class RouteTest {
     @Test
     public void testBuilderResultsInNewRoute() {
         final Builder b = this.getBuilder();
-        final Builder b2 = b.add(new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(0), Node
-                .getNode(1)));
+        final Builder b2 = b.add(new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(0),
+                this.nodes.getNode(1)));
         Assert.assertNotSame("Extended route should be a clone of the original one.", b2, b);
         Assert.assertFalse("Old and extended routes shouldn't be equal.", b2.equals(b));
         Assert.assertFalse("Old and extended routes shouldn't be equal.", b.equals(b2));
@@ -94,8 +98,8 @@ public class RouteTest {
     @Test
     public void testIsPossibleForHazardousTrain() {
         // prepare route
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final Arc a = new Arc(Track.SIDING, BigDecimal.ONE, n1, n2);
         final Route r = this.getBuilder().add(a).build();
         final boolean isWestbound = !this.isEastbound;
@@ -103,27 +107,29 @@ public class RouteTest {
         final Node destinationNode = isWestbound ? n1 : n2;
         final Train normalTrain = new Train("A3", BigDecimal.ONE, BigDecimal.ONE, 90, originNode,
                 destinationNode, 0, 1, 0, Collections.<ScheduleAdherenceRequirement> emptyList(),
-                false, isWestbound);
+                false, isWestbound, RouteTest.SPEEDS);
         Assert.assertTrue("Train that's not hazardous won't be let through.",
                 r.isPossibleForTrain(normalTrain));
         final Train hazardous = new Train("A4", BigDecimal.ONE, BigDecimal.ONE, 90, originNode,
                 destinationNode, 0, 1, 0, Collections.<ScheduleAdherenceRequirement> emptyList(),
-                true, isWestbound);
+                true, isWestbound, RouteTest.SPEEDS);
         Assert.assertFalse("Hazardous train will be let through.", r.isPossibleForTrain(hazardous));
     }
 
     @Test
     public void testIsPossibleForTrainDirection() {
         // prepare route
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final Arc a = new Arc(Track.MAIN_0, BigDecimal.ONE, n1, n2);
         final Route r = this.getBuilder().add(a).build();
         // prepare trains
         final Train eastbound = new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 90, n1, n2, 0, 1,
-                0, Collections.<ScheduleAdherenceRequirement> emptyList(), true, false);
+                0, Collections.<ScheduleAdherenceRequirement> emptyList(), true, false,
+                RouteTest.SPEEDS);
         final Train westbound = new Train("A2", BigDecimal.ONE, BigDecimal.ONE, 90, n2, n1, 0, 1,
-                0, Collections.<ScheduleAdherenceRequirement> emptyList(), true, true);
+                0, Collections.<ScheduleAdherenceRequirement> emptyList(), true, true,
+                RouteTest.SPEEDS);
         if (r.isWestbound()) {
             Assert.assertTrue("Westbound train should be possible on westbound route.",
                     r.isPossibleForTrain(westbound));
@@ -140,8 +146,8 @@ public class RouteTest {
     @Test
     public void testIsPossibleForTrainHeaviness() {
         // prepare route
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final Arc a = new Arc(Track.SIDING, BigDecimal.ONE, n1, n2);
         final Route r = this.getBuilder().add(a).build();
         final boolean isWestbound = !this.isEastbound;
@@ -149,20 +155,20 @@ public class RouteTest {
         final Node destinationNode = isWestbound ? n1 : n2;
         final Train normalTrain = new Train("A3", BigDecimal.ONE, BigDecimal.ONE, 90, originNode,
                 destinationNode, 0, 1, 0, Collections.<ScheduleAdherenceRequirement> emptyList(),
-                false, isWestbound);
+                false, isWestbound, RouteTest.SPEEDS);
         Assert.assertTrue("Train that's not heavy won't be let through.",
                 r.isPossibleForTrain(normalTrain));
         final Train heavyTrain = new Train("A4", BigDecimal.ONE, BigDecimal.ONE, 110, originNode,
                 destinationNode, 0, 1, 0, Collections.<ScheduleAdherenceRequirement> emptyList(),
-                false, isWestbound);
+                false, isWestbound, RouteTest.SPEEDS);
         Assert.assertFalse("Heavy train will be let through.", r.isPossibleForTrain(heavyTrain));
     }
 
     @Test
     public void testIsPossibleForTrainLength() {
         // prepare route
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final Arc a = new Arc(Track.SIDING, BigDecimal.ONE, n1, n2);
         final Route r = this.getBuilder().add(a).build();
         final boolean isWestbound = !this.isEastbound;
@@ -170,12 +176,13 @@ public class RouteTest {
         final Node destinationNode = isWestbound ? n1 : n2;
         final Train shortTrain = new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 90, originNode,
                 destinationNode, 0, 1, 0, Collections.<ScheduleAdherenceRequirement> emptyList(),
-                false, isWestbound);
+                false, isWestbound, RouteTest.SPEEDS);
         Assert.assertTrue("Train shorter than the siding won't be let through.",
                 r.isPossibleForTrain(shortTrain));
         final Train longTrain = new Train("A2", BigDecimal.ONE.add(BigDecimal.ONE), BigDecimal.ONE,
                 90, originNode, destinationNode, 0, 1, 0,
-                Collections.<ScheduleAdherenceRequirement> emptyList(), false, isWestbound);
+                Collections.<ScheduleAdherenceRequirement> emptyList(), false, isWestbound,
+                RouteTest.SPEEDS);
         Assert.assertFalse("Train longer than the siding will be let through.",
                 r.isPossibleForTrain(longTrain));
     }
@@ -183,22 +190,23 @@ public class RouteTest {
     @Test
     public void testIsPossibleForUnrelatedTrain() {
         // prepare route
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
-        final Node n3 = Node.getNode(2);
-        final Node n4 = Node.getNode(3);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
+        final Node n3 = this.nodes.getNode(2);
+        final Node n4 = this.nodes.getNode(3);
         final Arc a = new Arc(Track.MAIN_0, BigDecimal.ONE, n1, n2);
         final Route r = this.getBuilder().add(a).build();
         final boolean isWestbound = !this.isEastbound;
         final Node originNode = isWestbound ? n2 : n1;
         final Node destinationNode = isWestbound ? n1 : n2;
         final Train train = new Train("A3", BigDecimal.ONE, BigDecimal.ONE, 90, originNode, n3, 0,
-                1, 0, Collections.<ScheduleAdherenceRequirement> emptyList(), false, isWestbound);
+                1, 0, Collections.<ScheduleAdherenceRequirement> emptyList(), false, isWestbound,
+                RouteTest.SPEEDS);
         Assert.assertFalse("Train ends in a node not on the route and is let through.",
                 r.isPossibleForTrain(train));
         final Train train2 = new Train("A4", BigDecimal.ONE, BigDecimal.ONE, 90, n4,
                 destinationNode, 0, 1, 0, Collections.<ScheduleAdherenceRequirement> emptyList(),
-                false, isWestbound);
+                false, isWestbound, RouteTest.SPEEDS);
         Assert.assertFalse("Train ends in a node not on the route and is let through.",
                 r.isPossibleForTrain(train2));
     }
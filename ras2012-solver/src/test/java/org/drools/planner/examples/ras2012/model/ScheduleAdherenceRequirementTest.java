@@ -5,22 +5,24 @@ import org.junit.Test;
 
 public class ScheduleAdherenceRequirementTest {
 
+    private final NodeTable nodes = new NodeTable();
+
     @Test
     public void testEqualsObject() {
-        final ScheduleAdherenceRequirement s1 = new ScheduleAdherenceRequirement(Node.getNode(0), 1);
+        final ScheduleAdherenceRequirement s1 = new ScheduleAdherenceRequirement(this.nodes.getNode(0), 1);
         Assert.assertFalse(
                 "ScheduleAdherenceRequirement shouldn't equal non-ScheduleAdherenceRequirement.",
                 s1.equals(new String()));
         Assert.assertFalse("ScheduleAdherenceRequirement shouldn't equal null.", s1.equals(null));
         Assert.assertEquals("ScheduleAdherenceRequirement should equal itself.", s1, s1);
-        final ScheduleAdherenceRequirement s2 = new ScheduleAdherenceRequirement(Node.getNode(0), 1);
+        final ScheduleAdherenceRequirement s2 = new ScheduleAdherenceRequirement(this.nodes.getNode(0), 1);
         Assert.assertEquals("ScheduleAdherenceRequirement should equal others with the same data.",
                 s1, s2);
-        final ScheduleAdherenceRequirement s3 = new ScheduleAdherenceRequirement(Node.getNode(1), 1);
+        final ScheduleAdherenceRequirement s3 = new ScheduleAdherenceRequirement(this.nodes.getNode(1), 1);
         Assert.assertFalse(
                 "ScheduleAdherenceRequirement shouldn't equal others with different data.",
                 s1.equals(s3));
-        final ScheduleAdherenceRequirement s4 = new ScheduleAdherenceRequirement(Node.getNode(0), 2);
+        final ScheduleAdherenceRequirement s4 = new ScheduleAdherenceRequirement(this.nodes.getNode(0), 2);
         Assert.assertFalse(
                 "ScheduleAdherenceRequirement shouldn't equal others with different data.",
                 s1.equals(s4));
@@ -0,0 +1,115 @@
+package org.drools.planner.examples.ras2012.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SpeedProfileTest {
+
+    /**
+     * Get a builder that has every track but the one under test assigned.
+     * 
+     * @param underTest The track under test.
+     * @return The builder.
+     */
+    private static SpeedProfile.Builder getBuilder(final Track underTest) {
+        final SpeedProfile.Builder b = new SpeedProfile.Builder();
+        for (final Track t : Track.values()) {
+            if (t != underTest) {
+                b.setSpeed(t, 10);
+            }
+        }
+        return b;
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIncompleteProfile() {
+        SpeedProfileTest.getBuilder(Track.MAIN_0).build();
+    }
+
+    @Test
+    public void testProfilesAreIndependent() {
+        final SpeedProfile p1 = new SpeedProfile(80, 70, 20, 15);
+        final SpeedProfile p2 = new SpeedProfile(60, 50, 10, 5);
+        Assert.assertEquals(80, p1.getSpeedEastbound(Track.MAIN_1));
+        Assert.assertEquals(70, p1.getSpeedWestbound(Track.MAIN_2));
+        Assert.assertEquals(20, p1.getSpeed(Track.SIDING, true));
+        Assert.assertEquals(15, p1.getSpeed(Track.SWITCH, false));
+        Assert.assertEquals(15, p1.getSpeed(Track.CROSSOVER, true));
+        Assert.assertEquals(60, p2.getSpeedEastbound(Track.MAIN_0));
+        Assert.assertEquals(50, p2.getSpeedWestbound(Track.MAIN_0));
+        Assert.assertEquals(10, p2.getSpeed(Track.SIDING, false));
+        Assert.assertEquals(5, p2.getSpeed(Track.CROSSOVER, false));
+    }
+
+    @Test
+    public void testSetSpeedOnMainTracks() {
+        final int SPEED1 = 90;
+        final int SPEED2 = 80;
+        for (final Track t : Track.values()) {
+            if (!t.isMainTrack()) {
+                continue;
+            }
+            final SpeedProfile.Builder b = SpeedProfileTest.getBuilder(t);
+            b.setSpeed(t, SPEED1, SPEED2);
+            Assert.assertEquals(SPEED1, b.build().getSpeedEastbound(t));
+            Assert.assertEquals(SPEED2, b.build().getSpeedWestbound(t));
+            try {
+                b.setSpeed(t, SPEED1, SPEED2);
+                Assert.assertEquals(SPEED1, b.build().getSpeedEastbound(t));
+                Assert.assertEquals(SPEED2, b.build().getSpeedWestbound(t));
+            } catch (final IllegalStateException ex) {
+                Assert.fail("Re-setting speeds to the values they already have shouldn't fail!");
+            }
+            try {
+                b.setSpeed(t, SPEED2);
+                Assert.fail("Setting already assigned speeds should fail!");
+            } catch (final IllegalStateException ex) {
+                Assert.assertEquals(SPEED1, b.build().getSpeedEastbound(t));
+                Assert.assertEquals(SPEED2, b.build().getSpeedWestbound(t));
+            }
+            try {
+                b.setSpeed(t, SPEED1);
+                Assert.fail("Setting already assigned speeds should fail!");
+            } catch (final IllegalStateException ex) {
+                Assert.assertEquals(SPEED1, b.build().getSpeedEastbound(t));
+                Assert.assertEquals(SPEED2, b.build().getSpeedWestbound(t));
+            }
+        }
+    }
+
+    @Test
+    public void testSetSpeedOutsideMainTracks() {
+        final int SPEED1 = 90;
+        final int SPEED2 = 80;
+        for (final Track t : Track.values()) {
+            if (t.isMainTrack()) {
+                continue;
+            }
+            final SpeedProfile.Builder b = SpeedProfileTest.getBuilder(t);
+            try { // test differing speeds, which shouldn't be allowed
+                b.setSpeed(t, SPEED1, SPEED2);
+                Assert.fail("Outside main tracks, eastbound and westbound speeds mustn't differ!");
+            } catch (final IllegalArgumentException ex) {
+                // this is Ok
+            }
+            b.setSpeed(t, SPEED1); // valid setSpeed()
+            Assert.assertEquals(b.build().getSpeedEastbound(t), b.build().getSpeedWestbound(t));
+            Assert.assertEquals(SPEED1, b.build().getSpeedEastbound(t));
+            try {
+                b.setSpeed(t, SPEED1, SPEED1);
+                b.setSpeed(t, SPEED1);
+                Assert.assertEquals(b.build().getSpeedEastbound(t), b.build().getSpeedWestbound(t));
+                Assert.assertEquals(SPEED1, b.build().getSpeedEastbound(t));
+            } catch (final IllegalStateException ex) {
+                Assert.fail("Re-setting speeds to the values they already have shouldn't fail!");
+            }
+            try {
+                b.setSpeed(t, SPEED2);
+                Assert.fail("Setting already assigned speeds should fail!");
+            } catch (final IllegalStateException ex) {
+                Assert.assertEquals(b.build().getSpeedEastbound(t), b.build().getSpeedWestbound(t));
+                Assert.assertEquals(SPEED1, b.build().getSpeedEastbound(t));
+            }
+        }
+    }
+}
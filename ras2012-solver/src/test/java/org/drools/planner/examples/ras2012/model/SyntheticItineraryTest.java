@@ -2,40 +2,55 @@ package org.drools.planner.examples.ras2012.model;
 
 import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.SortedMap;
 
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.SyntheticProblem;
 import org.junit.Assert;
 import org.junit.Test;
 
 public class SyntheticItineraryTest {
 
-    private static final boolean EASTBOUND        = true;
-    private static final Node    START            = Node.getNode(0);
-    private static final Node    END              = Node.getNode(1);
-    private static final Node    NOT_ON_ROUTE     = Node.getNode(2);
+    private static final boolean      EASTBOUND        = true;
+    private static final SpeedProfile SPEEDS           = new SpeedProfile(80, 70, 20, 15);
+    private static final NodeTable    NODES            = new NodeTable();
+    private static final Node         START            = SyntheticItineraryTest.NODES.getNode(0);
+    private static final Node         END              = SyntheticItineraryTest.NODES.getNode(1);
+    private static final Node         NOT_ON_ROUTE     = SyntheticItineraryTest.NODES.getNode(2);
 
-    private static final Train   TRAIN1           = new Train("A1", BigDecimal.ONE, BigDecimal.ONE,
-                                                          80, SyntheticItineraryTest.START,
-                                                          SyntheticItineraryTest.END, 0, 100, 0,
-                                                          null, false,
-                                                          !SyntheticItineraryTest.EASTBOUND);
-    private static final Train   TRAIN2           = new Train("A2", BigDecimal.ONE, BigDecimal.ONE,
-                                                          80, SyntheticItineraryTest.START,
-                                                          SyntheticItineraryTest.END, 0, 100, 0,
-                                                          null, false,
-                                                          !SyntheticItineraryTest.EASTBOUND);
-    private static final Arc     ARC1             = new Arc(Track.MAIN_0, BigDecimal.ONE,
-                                                          SyntheticItineraryTest.START,
-                                                          SyntheticItineraryTest.END);
-    private static final Arc     ARC2             = new Arc(Track.MAIN_0, BigDecimal.ONE,
-                                                          SyntheticItineraryTest.END,
-                                                          SyntheticItineraryTest.NOT_ON_ROUTE);
-    private static final Route   ROUTE_IMPOSSIBLE = new Route.Builder(
-                                                          !SyntheticItineraryTest.EASTBOUND).add(
-                                                          SyntheticItineraryTest.ARC1).build();
-    private static final Route   ROUTE_POSSIBLE   = new Route.Builder(
-                                                          SyntheticItineraryTest.EASTBOUND).add(
-                                                          SyntheticItineraryTest.ARC1).build();
+    private static final Train        TRAIN1           = new Train("A1", BigDecimal.ONE,
+                                                               BigDecimal.ONE, 80,
+                                                               SyntheticItineraryTest.START,
+                                                               SyntheticItineraryTest.END, 0, 100,
+                                                               0, null, false,
+                                                               !SyntheticItineraryTest.EASTBOUND,
+                                                               SyntheticItineraryTest.SPEEDS);
+    private static final Train        TRAIN2           = new Train("A2", BigDecimal.ONE,
+                                                               BigDecimal.ONE, 80,
+                                                               SyntheticItineraryTest.START,
+                                                               SyntheticItineraryTest.END, 0, 100,
+                                                               0, null, false,
+                                                               !SyntheticItineraryTest.EASTBOUND,
+                                                               SyntheticItineraryTest.SPEEDS);
+    private static final Arc          ARC1             = new Arc(Track.MAIN_0, BigDecimal.ONE,
+                                                               SyntheticItineraryTest.START,
+                                                               SyntheticItineraryTest.END);
+    private static final Arc          ARC2             = new Arc(Track.MAIN_0, BigDecimal.ONE,
+                                                               SyntheticItineraryTest.END,
+                                                               SyntheticItineraryTest.NOT_ON_ROUTE);
+    private static final Route        ROUTE_IMPOSSIBLE = new Route.Builder(
+                                                               SyntheticItineraryTest.SPEEDS,
+                                                               !SyntheticItineraryTest.EASTBOUND)
+                                                               .add(SyntheticItineraryTest.ARC1)
+                                                               .build();
+    private static final Route        ROUTE_POSSIBLE   = new Route.Builder(
+                                                               SyntheticItineraryTest.SPEEDS,
+                                                               SyntheticItineraryTest.EASTBOUND)
+                                                               .add(SyntheticItineraryTest.ARC1)
+                                                               .build();
 
     @Test
     public void testConstructor() {
@@ -78,9 +93,9 @@ public class SyntheticItineraryTest {
                 SyntheticItineraryTest.TRAIN1);
         Assert.assertEquals(i, i3);
         final WaitTime wt = WaitTime.getWaitTime(10);
-        i.setWaitTime(Node.getNode(0), wt);
+        i.setWaitTime(SyntheticItineraryTest.START, wt);
         Assert.assertFalse(i.equals(i3));
-        i3.setWaitTime(Node.getNode(0), wt);
+        i3.setWaitTime(SyntheticItineraryTest.START, wt);
         Assert.assertEquals(i, i3);
         Assert.assertFalse(i.equals("nonsense"));
     }
@@ -139,4 +154,46 @@ public class SyntheticItineraryTest {
         Assert.assertNull(i.getWaitTime(SyntheticItineraryTest.START));
         Assert.assertEquals(0, i.getWaitTimes().size());
     }
+
+    @Test
+    public void testScheduleStartsFromBaseline() {
+        final MaintenanceWindow mow = new MaintenanceWindow(
+                SyntheticItineraryTest.ARC1.getOrigin(SyntheticItineraryTest.TRAIN1),
+                SyntheticItineraryTest.ARC1.getDestination(SyntheticItineraryTest.TRAIN1), 0, 10);
+        final ItineraryTemplate template = new ItineraryTemplate(
+                SyntheticItineraryTest.ROUTE_POSSIBLE, SyntheticItineraryTest.TRAIN1,
+                Collections.singletonList(mow));
+        final Itinerary i = new Itinerary(template);
+        final SortedMap<Long, Node> baseline = i.getSchedule();
+        final SortedMap<Long, Arc> baselineWithArcs = i.getScheduleWithArcs();
+        Assert.assertSame(template.getBaselineSchedule(), baseline);
+        // setting and removing a wait time at the origin recalculates the whole schedule
+        i.setWaitTime(SyntheticItineraryTest.START, WaitTime.getWaitTime(5));
+        i.getSchedule();
+        i.removeWaitTime(SyntheticItineraryTest.START);
+        Assert.assertNotSame(baseline, i.getSchedule());
+        Assert.assertEquals(baseline, i.getSchedule());
+        Assert.assertEquals(baselineWithArcs, i.getScheduleWithArcs());
+    }
+
+    @Test
+    public void testWaitTimeAssignmentCountFollowsChanges() {
+        final SyntheticProblem problem = new SyntheticProblem();
+        final Train t = problem.createTrain("A1", false, 0);
+        final ProblemSolution solution = problem.createSolution(t);
+        final ItineraryAssignment ia = solution.getAssignment(t);
+        final List<Node> waitPoints = ia.getWaitPoints();
+        Assert.assertFalse(waitPoints.isEmpty());
+        final int before = ia.getWaitTimeAssignmentCount();
+        Assert.assertEquals(ia.getWaitTimeAssignments().size(), before);
+        // the existing wait time doesn't count, so the cached count must change
+        ia.getItinerary().setWaitTime(waitPoints.get(0), WaitTime.getWaitTime(5));
+        final int after = ia.getWaitTimeAssignmentCount();
+        Assert.assertEquals(ia.getWaitTimeAssignments().size(), after);
+        Assert.assertEquals(before - 1, after);
+        // and change back once the wait time is gone again
+        ia.getItinerary().removeWaitTime(waitPoints.get(0));
+        Assert.assertEquals(before, ia.getWaitTimeAssignmentCount());
+    }
+
 }
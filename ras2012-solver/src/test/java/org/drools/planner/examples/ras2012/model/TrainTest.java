@@ -9,11 +9,20 @@ import java.util.concurrent.TimeUnit;
 
 import org.drools.planner.examples.ras2012.model.Train.Type;
 import org.junit.Assert;
-import org.junit.BeforeClass;
 import org.junit.Test;
 
 public class TrainTest {
 
+    private static final SpeedProfile SPEEDS = new SpeedProfile.Builder()
+                                                     .setSpeed(Track.MAIN_0, 100, 50)
+                                                     .setSpeed(Track.MAIN_1, 85, 75)
+                                                     .setSpeed(Track.MAIN_2, 110, 95)
+                                                     .setSpeed(Track.SIDING, 25)
+                                                     .setSpeed(Track.SWITCH, 35)
+                                                     .setSpeed(Track.CROSSOVER, 45).build();
+
+    private final NodeTable nodes = new NodeTable();
+
     private static Arc[] getArcs(final Node n1, final Node n2, final BigDecimal length) {
         // prepare arcs, all of the same length
         final Arc mainArc0 = new Arc(Track.MAIN_0, length, n1, n2);
@@ -29,53 +38,43 @@ public class TrainTest {
         // now prepare various trains
         final Random rand = new Random(0); // speed multipliers will be random, but with a fixed seed, so repeatable
         final Train aTrainWest = new Train("A1", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true);
+                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true, TrainTest.SPEEDS);
         final Train bTrainWest = new Train("B1", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true);
+                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true, TrainTest.SPEEDS);
         final Train cTrainWest = new Train("C1", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true);
+                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true, TrainTest.SPEEDS);
         final Train dTrainWest = new Train("D1", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true);
+                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true, TrainTest.SPEEDS);
         final Train eTrainWest = new Train("E1", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true);
+                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true, TrainTest.SPEEDS);
         final Train fTrainWest = new Train("F1", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true);
+                .nextDouble()), 90, n2, n1, 0, 0, 0, null, true, true, TrainTest.SPEEDS);
         final Train aTrainEast = new Train("A2", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n1, n2, 0, 0, 0, null, true, false);
+                .nextDouble()), 90, n1, n2, 0, 0, 0, null, true, false, TrainTest.SPEEDS);
         final Train bTrainEast = new Train("B2", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n1, n2, 0, 0, 0, null, true, false);
+                .nextDouble()), 90, n1, n2, 0, 0, 0, null, true, false, TrainTest.SPEEDS);
         final Train cTrainEast = new Train("C2", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n1, n2, 0, 0, 0, null, true, false);
+                .nextDouble()), 90, n1, n2, 0, 0, 0, null, true, false, TrainTest.SPEEDS);
         final Train dTrainEast = new Train("D2", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n1, n2, 0, 0, 0, null, true, false);
+                .nextDouble()), 90, n1, n2, 0, 0, 0, null, true, false, TrainTest.SPEEDS);
         final Train eTrainEast = new Train("E2", BigDecimal.ONE, BigDecimal.valueOf(rand
-                .nextDouble()), 90, n1, n2, 0, 0, 0, null, true, false);
+                .nextDouble()), 90, n1, n2, 0, 0, 0, null, true, false, TrainTest.SPEEDS);
         final Train fTrainEast = new Train("F2", BigDecimal.ONE, BigDecimal.ONE, 90, n1, n2, 0, 0,
-                0, null, true, false);
+                0, null, true, false, TrainTest.SPEEDS);
         return new Train[] { aTrainWest, bTrainWest, cTrainWest, dTrainWest, eTrainWest,
                 fTrainWest, aTrainEast, bTrainEast, cTrainEast, dTrainEast, eTrainEast, fTrainEast };
     }
 
-    @BeforeClass
-    public static void setSpeeds() {
-        Track.setSpeed(Track.MAIN_0, 100, 50);
-        Track.setSpeed(Track.MAIN_1, 85, 75);
-        Track.setSpeed(Track.MAIN_2, 110, 95);
-        Track.setSpeed(Track.SIDING, 25);
-        Track.setSpeed(Track.SWITCH, 35);
-        Track.setSpeed(Track.CROSSOVER, 45);
-    }
-
     @Test
     public void testCompareTo() {
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final Train aTrain2 = new Train("A2", BigDecimal.ONE, BigDecimal.ONE, 90, n2, n1, 0, 0, 0,
-                null, true, true);
+                null, true, true, TrainTest.SPEEDS);
         final Train aTrain110 = new Train("A110", BigDecimal.TEN, BigDecimal.TEN, 100, n1, n2, 0,
-                0, 0, null, false, false);
+                0, 0, null, false, false, TrainTest.SPEEDS);
         final Train bTrain1 = new Train("B1", BigDecimal.TEN, BigDecimal.TEN, 100, n1, n2, 0, 0, 0,
-                null, false, false);
+                null, false, false, TrainTest.SPEEDS);
         // test ordering by the first letter
         Assert.assertEquals("Trains should be ordered alphabetically.", 0,
                 aTrain2.compareTo(aTrain2));
@@ -94,115 +93,115 @@ public class TrainTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorEntryTime() {
-        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 90, Node.getNode(0), Node.getNode(1), -1,
-                1, 0, null, true, false);
+        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 90, this.nodes.getNode(0), this.nodes.getNode(1), -1,
+                1, 0, null, true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorLengthNull() {
-        new Train("A1", null, BigDecimal.ONE, 90, Node.getNode(0), Node.getNode(1), 0, 1, 0, null,
-                true, false);
+        new Train("A1", null, BigDecimal.ONE, 90, this.nodes.getNode(0), this.nodes.getNode(1), 0, 1, 0, null,
+                true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorLengthZero() {
-        new Train("A1", BigDecimal.ZERO, BigDecimal.ONE, 90, Node.getNode(0), Node.getNode(1), 0,
-                1, 0, null, true, false);
+        new Train("A1", BigDecimal.ZERO, BigDecimal.ONE, 90, this.nodes.getNode(0), this.nodes.getNode(1), 0,
+                1, 0, null, true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorMultiplierNull() {
-        new Train("A1", BigDecimal.ONE, null, 90, Node.getNode(0), Node.getNode(1), 0, 1, 0, null,
-                true, false);
+        new Train("A1", BigDecimal.ONE, null, 90, this.nodes.getNode(0), this.nodes.getNode(1), 0, 1, 0, null,
+                true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorMultiplierZero() {
-        new Train("A1", BigDecimal.ONE, BigDecimal.ZERO, 90, Node.getNode(0), Node.getNode(1), 0,
-                1, 0, null, true, false);
+        new Train("A1", BigDecimal.ONE, BigDecimal.ZERO, 90, this.nodes.getNode(0), this.nodes.getNode(1), 0,
+                1, 0, null, true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNullNode1() {
-        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 0, null, Node.getNode(0), 0, 1, 0, null,
-                true, false);
+        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 0, null, this.nodes.getNode(0), 0, 1, 0, null,
+                true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorNullNode2() {
-        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 0, Node.getNode(0), null, 0, 1, 0, null,
-                true, false);
+        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 0, this.nodes.getNode(0), null, 0, 1, 0, null,
+                true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorSameNodes() {
-        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 0, Node.getNode(0), Node.getNode(0), 0, 1,
-                0, null, true, false);
+        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 0, this.nodes.getNode(0), this.nodes.getNode(0), 0, 1,
+                0, null, true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorTOB() {
-        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 0, Node.getNode(0), Node.getNode(1), 0, 1,
-                0, null, true, false);
+        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 0, this.nodes.getNode(0), this.nodes.getNode(1), 0, 1,
+                0, null, true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorTrainNameNegativeNumber() {
-        new Train("C-1", BigDecimal.ONE, BigDecimal.ONE, 90, Node.getNode(0), Node.getNode(1), 0,
-                1, 0, null, true, false);
+        new Train("C-1", BigDecimal.ONE, BigDecimal.ONE, 90, this.nodes.getNode(0), this.nodes.getNode(1), 0,
+                1, 0, null, true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorTrainNameNotNumber() {
-        new Train("BX", BigDecimal.ONE, BigDecimal.ONE, 90, Node.getNode(0), Node.getNode(1), 0, 1,
-                0, null, true, false);
+        new Train("BX", BigDecimal.ONE, BigDecimal.ONE, 90, this.nodes.getNode(0), this.nodes.getNode(1), 0, 1,
+                0, null, true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorTrainNameNull() {
-        new Train(null, BigDecimal.ONE, BigDecimal.ONE, 90, Node.getNode(0), Node.getNode(1), 0, 1,
-                0, null, true, false);
+        new Train(null, BigDecimal.ONE, BigDecimal.ONE, 90, this.nodes.getNode(0), this.nodes.getNode(1), 0, 1,
+                0, null, true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorTrainNameWrongLetter() {
-        new Train("X1", BigDecimal.ONE, BigDecimal.ONE, 90, Node.getNode(0), Node.getNode(1), 0, 1,
-                0, null, true, false);
+        new Train("X1", BigDecimal.ONE, BigDecimal.ONE, 90, this.nodes.getNode(0), this.nodes.getNode(1), 0, 1,
+                0, null, true, false, TrainTest.SPEEDS);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorWantTime() {
-        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 90, Node.getNode(0), Node.getNode(1), 0,
-                -1, 0, null, true, false);
+        new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 90, this.nodes.getNode(0), this.nodes.getNode(1), 0,
+                -1, 0, null, true, false, TrainTest.SPEEDS);
     }
 
     @Test
     public void testDirection() {
-        final Train east = new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 90, Node.getNode(0),
-                Node.getNode(1), 0, 1, 0, null, true, false);
+        final Train east = new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 90, this.nodes.getNode(0),
+                this.nodes.getNode(1), 0, 1, 0, null, true, false, TrainTest.SPEEDS);
         Assert.assertTrue(east.isEastbound());
         Assert.assertFalse(east.isWestbound());
-        final Train west = new Train("A2", BigDecimal.ONE, BigDecimal.ONE, 90, Node.getNode(0),
-                Node.getNode(1), 0, 1, 0, null, true, true);
+        final Train west = new Train("A2", BigDecimal.ONE, BigDecimal.ONE, 90, this.nodes.getNode(0),
+                this.nodes.getNode(1), 0, 1, 0, null, true, true, TrainTest.SPEEDS);
         Assert.assertTrue(west.isWestbound());
         Assert.assertFalse(west.isEastbound());
     }
 
     @Test
     public void testEqualsObject() {
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final Train aTrain = new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 90, n2, n1, 0, 0, 0,
-                null, true, true);
+                null, true, true, TrainTest.SPEEDS);
         final Train aTrain2 = new Train("A1", BigDecimal.TEN, BigDecimal.TEN, 100, n1, n2, 0, 0, 0,
-                null, false, false);
+                null, false, false, TrainTest.SPEEDS);
         Assert.assertFalse("Train shouldn't equal non-train.", aTrain.equals(new String()));
         Assert.assertFalse("Train shouldn't equal null.", aTrain.equals(null));
         Assert.assertEquals("Train should equal itself.", aTrain, aTrain);
         Assert.assertEquals("Trains with same name should equal.", aTrain, aTrain2);
         Assert.assertEquals("Trains with same name should equal reflexively.", aTrain2, aTrain);
         final Train bTrain = new Train("B1", BigDecimal.ONE, BigDecimal.ONE, 90, n2, n1, 0, 0, 0,
-                null, true, true);
+                null, true, true, TrainTest.SPEEDS);
         Assert.assertFalse("Trains with different names shouldn't equal.", aTrain.equals(bTrain));
         Assert.assertFalse("Trains with different names shouldn't equal reflexively.",
                 bTrain.equals(aTrain));
@@ -210,8 +209,8 @@ public class TrainTest {
 
     @Test
     public void testGetArcTravellingTimeInMilliseconds() {
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final BigDecimal length = new BigDecimal("1.5");
         for (final Arc a : TrainTest.getArcs(n1, n2, length)) {
             for (final Train t : TrainTest.getTrains(n1, n2)) {
@@ -231,19 +230,18 @@ public class TrainTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testGetArcTravellingTimeInMillisecondsWithNullArc() {
-        final Train t = TrainTest.getTrains(Node.getNode(0), Node.getNode(1))[0];
+        final Train t = TrainTest.getTrains(this.nodes.getNode(0), this.nodes.getNode(1))[0];
         t.getArcTravellingTime(null, TimeUnit.MILLISECONDS);
     }
 
     @Test
     public void testGetMaximumSpeed() {
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
         final BigDecimal length = new BigDecimal("1.5");
         for (final Arc a : TrainTest.getArcs(n1, n2, length)) {
             for (final Train t : TrainTest.getTrains(n1, n2)) {
-                final Integer arcSpeed = t.isEastbound() ? a.getTrack().getSpeedEastbound() : a
-                        .getTrack().getSpeedWestbound();
+                final Integer arcSpeed = TrainTest.SPEEDS.getSpeed(a.getTrack(), t.isEastbound());
                 if (a.getTrack().isMainTrack()) {
                     final BigDecimal multiplier = t.getSpeedMultiplier();
                     final BigDecimal expectedSpeed = multiplier.multiply(
@@ -275,9 +273,10 @@ public class TrainTest {
         final Random rand = new Random();
         for (final Map.Entry<String, Type> e : types.entrySet()) {
             final String name = e.getKey() + Math.max(1, rand.nextInt());
-            final Train t = new Train(name, BigDecimal.ONE, BigDecimal.ONE, 90, Node.getNode(0),
-                    Node.getNode(1), 0, 1, 0,
-                    Collections.<ScheduleAdherenceRequirement> emptyList(), true, false);
+            final Train t = new Train(name, BigDecimal.ONE, BigDecimal.ONE, 90, this.nodes.getNode(0),
+                    this.nodes.getNode(1), 0, 1, 0,
+                    Collections.<ScheduleAdherenceRequirement> emptyList(), true, false,
+                    TrainTest.SPEEDS);
             Assert.assertEquals("Train doesn't have the proper type.", e.getValue(), t.getType());
             // schedule adherence by train type is specified by the problem definition
             final boolean adheresToSchedule = !(e.getKey().equals("E") || e.getKey().equals("F"));
@@ -288,11 +287,11 @@ public class TrainTest {
 
     @Test
     public void testIsHeavy() {
-        final Train heavy = new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 110, Node.getNode(0),
-                Node.getNode(1), 0, 1, 0, null, true, false);
+        final Train heavy = new Train("A1", BigDecimal.ONE, BigDecimal.ONE, 110, this.nodes.getNode(0),
+                this.nodes.getNode(1), 0, 1, 0, null, true, false, TrainTest.SPEEDS);
         Assert.assertTrue(heavy.isHeavy());
-        final Train light = new Train("A2", BigDecimal.ONE, BigDecimal.ONE, 90, Node.getNode(0),
-                Node.getNode(1), 0, 1, 0, null, true, true);
+        final Train light = new Train("A2", BigDecimal.ONE, BigDecimal.ONE, 90, this.nodes.getNode(0),
+                this.nodes.getNode(1), 0, 1, 0, null, true, true, TrainTest.SPEEDS);
         Assert.assertFalse(light.isHeavy());
     }
 
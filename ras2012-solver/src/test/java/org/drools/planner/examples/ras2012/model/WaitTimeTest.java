@@ -24,6 +24,19 @@ public class WaitTimeTest {
         Assert.assertFalse("WaitTime shouldn't equal others with different IDs.", wt1.equals(wt3));
     }
 
+    @Test
+    public void testEqualsOutsideMinuteGrid() {
+        final WaitTime wt1 = WaitTime.getWaitTime(90, TimeUnit.SECONDS);
+        final WaitTime wt2 = WaitTime.getWaitTime(90000, TimeUnit.MILLISECONDS);
+        Assert.assertEquals("WaitTimes of the same length should be equal.", wt1, wt2);
+        Assert.assertEquals(wt1.hashCode(), wt2.hashCode());
+        Assert.assertFalse(wt1.equals(WaitTime.getWaitTime(1)));
+        final WaitTime wt3 = WaitTime.getWaitTime(WaitTime.PREALLOCATED_MINUTES + 1);
+        Assert.assertEquals(wt3, WaitTime.getWaitTime(WaitTime.PREALLOCATED_MINUTES + 1));
+        Assert.assertSame("Whole minutes should come from the table.",
+                WaitTime.getWaitTime(1, TimeUnit.MINUTES), WaitTime.getWaitTime(60, TimeUnit.SECONDS));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testWaitTimeNegative() {
         WaitTime.getWaitTime(-1);
@@ -0,0 +1,158 @@
+package org.drools.planner.examples.ras2012.move;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.core.move.Move;
+import org.drools.planner.core.score.director.ScoreDirector;
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.SyntheticProblem;
+import org.drools.planner.examples.ras2012.model.Arc;
+import org.drools.planner.examples.ras2012.model.Itinerary;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Track;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MeetPassMoveTest {
+
+    private final SyntheticProblem problem  = new SyntheticProblem();
+    // the trains meet between nodes 1 and 2, where the eastbound one can wait on the siding
+    private final Train            waiting  = this.problem.createTrain("A1", false, 0);
+    private final Train            passing  = this.problem.createTrain("A2", true, 10);
+    private final ProblemSolution  solution = this.problem.createSolution(this.waiting,
+                                                    this.passing);
+    private final ScoreDirector    director = SyntheticProblem.createScoreDirector(this.solution);
+    private final Node             exit     = this.problem.getNode(3);
+    private final WaitTime         atOrigin = WaitTime.getWaitTime(5);
+    private Route                  mainRoute;
+    private Route                  sidingRoute;
+    private Arc                    meetingArc;
+
+    private Route findRoute(final Train t, final boolean hasSiding) {
+        for (final Route r : this.problem.getTerritory().getRoutes(t)) {
+            if (r.getNumberOfSidings() > 0 == hasSiding) {
+                return r;
+            }
+        }
+        throw new IllegalStateException("No such route.");
+    }
+
+    /**
+     * Calculate the wait time at the exit independently of the move, on a fresh copy of the problem.
+     */
+    private WaitTime getExpectedWaitTime() {
+        final ProblemSolution copy = this.problem.createSolution(this.waiting, this.passing);
+        final ItineraryAssignment ia = copy.getAssignment(this.waiting);
+        ia.setRoute(this.sidingRoute);
+        ia.getItinerary().setWaitTime(this.waiting.getOrigin(), this.atOrigin);
+        final ItineraryAssignment other = copy.getAssignment(this.passing);
+        other.setRoute(this.findRoute(this.passing, false));
+        final long wait = other.getItinerary().getLeaveTime(this.meetingArc)
+                + TimeUnit.MINUTES.toMillis(5) - ia.getItinerary().getArrivalTime(this.exit);
+        Assert.assertTrue("The trains must meet.", wait > 0);
+        final long minute = TimeUnit.MINUTES.toMillis(1);
+        return WaitTime.getWaitTime((int) ((wait + minute - 1) / minute));
+    }
+
+    @Before
+    public void setUp() {
+        this.mainRoute = this.findRoute(this.waiting, false);
+        this.sidingRoute = this.findRoute(this.waiting, true);
+        for (final Arc a : this.mainRoute.getProgression().getArcs()) {
+            if (a.getTrack() == Track.MAIN_0 && a.getLength().intValue() == 3) {
+                this.meetingArc = a;
+            }
+        }
+        final ItineraryAssignment ia = this.solution.getAssignment(this.waiting);
+        ia.setRoute(this.mainRoute);
+        ia.getItinerary().setWaitTime(this.waiting.getOrigin(), this.atOrigin);
+        this.solution.getAssignment(this.passing).setRoute(
+                this.findRoute(this.passing, false));
+    }
+
+    @Test
+    public void testDoMove() {
+        final MeetPassMove move = new MeetPassMove(this.waiting, this.sidingRoute, this.exit,
+                this.passing, this.meetingArc);
+        Assert.assertTrue(move.isMoveDoable(this.director));
+        move.doMove(this.director);
+        // the route changes, the wait time at the origin stays and a wait time at the exit is added
+        final ItineraryAssignment ia = this.solution.getAssignment(this.waiting);
+        Assert.assertSame(this.sidingRoute, ia.getRoute());
+        final Map<Node, WaitTime> expected = new HashMap<>();
+        expected.put(this.waiting.getOrigin(), this.atOrigin);
+        expected.put(this.exit, this.getExpectedWaitTime());
+        Assert.assertEquals(expected, ia.getItinerary().getWaitTimes());
+        // doing the same again would change nothing
+        Assert.assertFalse(move.isMoveDoable(this.director));
+    }
+
+    @Test
+    public void testPassingTrainEndsAtExit() {
+        // the other train leaves the territory through the switch, right at the end of the siding
+        final Train ending = this.problem.createTrain("A3", true, 10, 4, 3);
+        final ProblemSolution s = this.problem.createSolution(this.waiting, ending);
+        final ItineraryAssignment ia = s.getAssignment(this.waiting);
+        ia.setRoute(this.mainRoute);
+        final ItineraryAssignment other = s.getAssignment(ending);
+        other.setRoute(this.findRoute(ending, true));
+        Arc sharedArc = null;
+        for (final Arc a : other.getRoute().getProgression().getArcs()) {
+            if (a.getTrack() == Track.MAIN_0 && other.getItinerary().hasNode(a.getOrigin(ending))) {
+                sharedArc = a;
+            }
+        }
+        final long arrival = new Itinerary(this.sidingRoute, this.waiting, s.getMaintenances())
+                .getArrivalTime(this.exit);
+        final long clearance = other.getItinerary().getArrivalTime(this.exit);
+        final MeetPassMove move = new MeetPassMove(this.waiting, this.sidingRoute, this.exit,
+                ending, sharedArc);
+        final ScoreDirector d = SyntheticProblem.createScoreDirector(s);
+        Assert.assertTrue(move.isMoveDoable(d));
+        move.doMove(d);
+        final long minute = TimeUnit.MINUTES.toMillis(1);
+        final long wait = clearance + TimeUnit.MINUTES.toMillis(5) - arrival;
+        Assert.assertEquals(WaitTime.getWaitTime((int) ((wait + minute - 1) / minute)), ia
+                .getItinerary().getWaitTime(this.exit));
+    }
+
+    @Test
+    public void testUndoMove() {
+        final MeetPassMove move = new MeetPassMove(this.waiting, this.sidingRoute, this.exit,
+                this.passing, this.meetingArc);
+        final Move undo = move.createUndoMove(this.director);
+        move.doMove(this.director);
+        undo.doMove(this.director);
+        final ItineraryAssignment ia = this.solution.getAssignment(this.waiting);
+        Assert.assertSame(this.mainRoute, ia.getRoute());
+        final Itinerary i = ia.getItinerary();
+        Assert.assertEquals(1, i.getWaitTimes().size());
+        Assert.assertEquals(this.atOrigin, i.getWaitTime(this.waiting.getOrigin()));
+    }
+
+    @Test
+    public void testUndoMoveOnTheSameRoute() {
+        final ItineraryAssignment ia = this.solution.getAssignment(this.waiting);
+        ia.setRoute(this.sidingRoute);
+        final Itinerary i = ia.getItinerary();
+        i.setWaitTime(this.waiting.getOrigin(), this.atOrigin);
+        final MeetPassMove move = new MeetPassMove(this.waiting, this.sidingRoute, this.exit,
+                this.passing, this.meetingArc);
+        final Move undo = move.createUndoMove(this.director);
+        move.doMove(this.director);
+        Assert.assertEquals(this.getExpectedWaitTime(), i.getWaitTime(this.exit));
+        // the itinerary is kept, so the wait time at the exit must be removed again
+        undo.doMove(this.director);
+        Assert.assertSame(this.sidingRoute, ia.getRoute());
+        Assert.assertNull(i.getWaitTime(this.exit));
+        Assert.assertEquals(this.atOrigin, i.getWaitTime(this.waiting.getOrigin()));
+    }
+
+}
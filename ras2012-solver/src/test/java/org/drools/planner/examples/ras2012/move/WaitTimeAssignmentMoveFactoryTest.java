@@ -0,0 +1,109 @@
+package org.drools.planner.examples.ras2012.move;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.drools.planner.core.move.Move;
+import org.drools.planner.core.score.director.ScoreDirector;
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.SyntheticProblem;
+import org.drools.planner.examples.ras2012.model.Itinerary;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WaitTimeAssignmentMoveFactoryTest {
+
+    private static final int                    MOVES    = 50;
+    private static final long                   SEED     = 0;
+
+    private final SyntheticProblem              problem  = new SyntheticProblem();
+    private final Train                         train    = this.problem.createTrain("A1", false, 0);
+    private final ProblemSolution               solution = this.problem.createSolution(this.train);
+    private final WaitTimeAssignmentMoveFactory factory  = new WaitTimeAssignmentMoveFactory();
+    private ScoreDirector                       director;
+
+    private Move findDoableMove(final Iterator<Move> moves, final Move other) {
+        for (int i = 0; i < WaitTimeAssignmentMoveFactoryTest.MOVES; i++) {
+            final Move move = moves.next();
+            if (move != other && move.isMoveDoable(this.director)) {
+                return move;
+            }
+        }
+        throw new IllegalStateException("No doable move found.");
+    }
+
+    private List<Move> getMoves() {
+        final Iterator<Move> moves = this.factory.createRandomMoveIterator(this.director,
+                new Random(WaitTimeAssignmentMoveFactoryTest.SEED));
+        final List<Move> result = new ArrayList<>();
+        for (int i = 0; i < WaitTimeAssignmentMoveFactoryTest.MOVES; i++) {
+            result.add(moves.next());
+        }
+        return result;
+    }
+
+    @Before
+    public void setUp() {
+        // the main track has no other wait point than the origin, so all the moves are there
+        final ItineraryAssignment ia = this.solution.getAssignment(this.train);
+        for (final Route r : this.problem.getTerritory().getRoutes(this.train)) {
+            if (r.getNumberOfSidings() == 0) {
+                ia.setRoute(r);
+                break;
+            }
+        }
+        Assert.assertEquals(1, ia.getWaitPoints().size());
+        this.director = SyntheticProblem.createScoreDirector(this.solution);
+    }
+
+    @Test
+    public void testMovesForgottenAfterChange() {
+        final List<Move> before = this.getMoves();
+        final Move move = this.findDoableMove(before.iterator(), null);
+        move.doMove(this.director);
+        final List<Move> after = this.getMoves();
+        for (int i = 0; i < before.size(); i++) {
+            Assert.assertNotSame(before.get(i), after.get(i));
+        }
+    }
+
+    @Test
+    public void testMovesKeptAcrossSteps() {
+        final List<Move> before = this.getMoves();
+        // evaluating a move does and undoes it, which leaves the wait times as they were
+        final Move move = this.findDoableMove(before.iterator(), null);
+        final Move undo = move.createUndoMove(this.director);
+        move.doMove(this.director);
+        undo.doMove(this.director);
+        final List<Move> after = this.getMoves();
+        for (int i = 0; i < before.size(); i++) {
+            Assert.assertSame(before.get(i), after.get(i));
+        }
+    }
+
+    @Test
+    public void testUndoMove() {
+        final Iterator<Move> moves = this.getMoves().iterator();
+        final Move move = this.findDoableMove(moves, null);
+        final Move other = this.findDoableMove(moves, move);
+        final Itinerary i = this.solution.getAssignment(this.train).getItinerary();
+        final Node origin = this.train.getOrigin();
+        final WaitTime previous = i.getWaitTime(origin);
+        final Move undo = move.createUndoMove(this.director);
+        // both moves go back to the same wait time, so they share the undo move
+        Assert.assertSame(undo, other.createUndoMove(this.director));
+        move.doMove(this.director);
+        Assert.assertNotSame(previous, i.getWaitTime(origin));
+        undo.doMove(this.director);
+        Assert.assertEquals(previous, i.getWaitTime(origin));
+    }
+
+}
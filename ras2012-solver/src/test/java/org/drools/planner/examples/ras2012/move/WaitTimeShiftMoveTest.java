@@ -0,0 +1,142 @@
+package org.drools.planner.examples.ras2012.move;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.core.move.Move;
+import org.drools.planner.core.score.director.ScoreDirector;
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.SyntheticProblem;
+import org.drools.planner.examples.ras2012.model.Itinerary;
+import org.drools.planner.examples.ras2012.model.ItineraryAssignment;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.drools.planner.examples.ras2012.model.WaitTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WaitTimeShiftMoveTest {
+
+    private final SyntheticProblem problem = new SyntheticProblem();
+    private final Train            train   = this.problem.createTrain("A1", false, 0);
+    private ProblemSolution        solution;
+    private ItineraryAssignment    assignment;
+    private Node                   first;
+    private Node                   second;
+
+    private ScoreDirector createDirector() {
+        return SyntheticProblem.createScoreDirector(this.solution);
+    }
+
+    private long getTotalWait(final Itinerary i) {
+        long total = 0;
+        for (final WaitTime wt : i.getWaitTimes().values()) {
+            total += wt.getWaitFor(TimeUnit.MINUTES);
+        }
+        return total;
+    }
+
+    private void setUp(final ProblemSolution s) {
+        this.solution = s;
+        this.assignment = s.getAssignment(this.train);
+        if (this.assignment.getRoute().getNumberOfSidings() == 0) {
+            // the main track has no other wait point than the origin
+            for (final Route r : this.problem.getTerritory().getRoutes(this.train)) {
+                if (r.getNumberOfSidings() > 0) {
+                    this.assignment.setRoute(r);
+                    break;
+                }
+            }
+        }
+        final List<Node> waitPoints = this.assignment.getWaitPoints();
+        Assert.assertTrue("There is nowhere to shift to.", waitPoints.size() > 1);
+        this.first = waitPoints.get(0);
+        this.second = waitPoints.get(1);
+    }
+
+    @Before
+    public void setUp() {
+        this.setUp(this.problem.createSolution(this.train));
+    }
+
+    @Test
+    public void testDoMove() {
+        final Itinerary i = this.assignment.getItinerary();
+        i.setWaitTime(this.first, WaitTime.getWaitTime(10));
+        final long arrival = i.getArrivalTime();
+        final Move move = new WaitTimeShiftMove(this.train, this.assignment.getRoute(),
+                this.first, this.second, 4);
+        Assert.assertTrue(move.isMoveDoable(this.createDirector()));
+        move.doMove(this.createDirector());
+        Assert.assertEquals(WaitTime.getWaitTime(6), i.getWaitTime(this.first));
+        Assert.assertEquals(WaitTime.getWaitTime(4), i.getWaitTime(this.second));
+        // the train waits just as long, only somewhere else
+        Assert.assertEquals(10, this.getTotalWait(i));
+        Assert.assertEquals(arrival, i.getArrivalTime());
+    }
+
+    @Test
+    public void testFrozenWaitPoint() {
+        final Itinerary i = this.assignment.getItinerary();
+        i.setWaitTime(this.first, WaitTime.getWaitTime(10));
+        i.setWaitTime(this.second, WaitTime.getWaitTime(10));
+        // the train has left the first wait point by now
+        this.setUp(this.solution.roll(15, TimeUnit.MINUTES, Collections.<Train> emptyList()));
+        final ScoreDirector director = this.createDirector();
+        Assert.assertFalse(new WaitTimeShiftMove(this.train, this.assignment.getRoute(),
+                this.first, this.second, 5).isMoveDoable(director));
+        Assert.assertFalse(new WaitTimeShiftMove(this.train, this.assignment.getRoute(),
+                this.second, this.first, 5).isMoveDoable(director));
+    }
+
+    @Test
+    public void testShiftLimit() {
+        // with a short planning horizon, the second wait point can't take all of the wait time
+        this.setUp(this.problem.createSolution(100, TimeUnit.MINUTES, this.train));
+        this.assignment.getItinerary().setWaitTime(this.first, WaitTime.getWaitTime(90));
+        final long limit = WaitTimeShiftMove.getShiftLimit(this.assignment, this.second);
+        Assert.assertTrue(limit > 0);
+        Assert.assertTrue(limit < 90);
+        Assert.assertEquals(this.assignment.getAllowedWaitTimes(this.second).get(0),
+                WaitTime.getWaitTime((int) limit));
+        final ScoreDirector director = this.createDirector();
+        Assert.assertTrue(new WaitTimeShiftMove(this.train, this.assignment.getRoute(),
+                this.first, this.second, limit).isMoveDoable(director));
+        Assert.assertFalse(new WaitTimeShiftMove(this.train, this.assignment.getRoute(),
+                this.first, this.second, limit + 1).isMoveDoable(director));
+    }
+
+    @Test
+    public void testUndoMove() {
+        final Itinerary i = this.assignment.getItinerary();
+        i.setWaitTime(this.first, WaitTime.getWaitTime(10));
+        i.setWaitTime(this.second, WaitTime.getWaitTime(3));
+        final Move move = new WaitTimeShiftMove(this.train, this.assignment.getRoute(),
+                this.first, this.second, 4);
+        final Move undo = move.createUndoMove(this.createDirector());
+        move.doMove(this.createDirector());
+        undo.doMove(this.createDirector());
+        Assert.assertEquals(WaitTime.getWaitTime(10), i.getWaitTime(this.first));
+        Assert.assertEquals(WaitTime.getWaitTime(3), i.getWaitTime(this.second));
+    }
+
+    @Test
+    public void testUndoMoveOfTheWholeWaitTime() {
+        final Itinerary i = this.assignment.getItinerary();
+        i.setWaitTime(this.first, WaitTime.getWaitTime(10));
+        final Move move = new WaitTimeShiftMove(this.train, this.assignment.getRoute(),
+                this.first, this.second, 10);
+        final Move undo = move.createUndoMove(this.createDirector());
+        move.doMove(this.createDirector());
+        // nothing is left to wait, so the wait time is gone rather than zero
+        Assert.assertNull(i.getWaitTime(this.first));
+        Assert.assertEquals(Collections.singleton(this.second), i.getWaitTimes().keySet());
+        undo.doMove(this.createDirector());
+        Assert.assertEquals(WaitTime.getWaitTime(10), i.getWaitTime(this.first));
+        Assert.assertNull(i.getWaitTime(this.second));
+    }
+
+}
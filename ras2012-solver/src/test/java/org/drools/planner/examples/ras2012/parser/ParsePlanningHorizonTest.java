@@ -0,0 +1,33 @@
+package org.drools.planner.examples.ras2012.parser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParsePlanningHorizonTest {
+
+    private static DataSetParser parse(final String name) throws ParseException {
+        final DataSetParser p = new DataSetParser(
+                ParsePlanningHorizonTest.class.getResourceAsStream(name));
+        p.parse();
+        return p;
+    }
+
+    @Test
+    public void testWithHorizon() throws ParseException {
+        final DataSetParser p = ParsePlanningHorizonTest.parse("validParserInput5.txt");
+        Assert.assertNotNull(p.getHorizon());
+        Assert.assertEquals("150", p.getHorizon().image);
+        // the rest of the data set is read as usual
+        Assert.assertEquals(3, Integer.parseInt(p.getNumTrains().image));
+        Assert.assertEquals(1, p.getMows().size());
+    }
+
+    @Test
+    public void testWithoutHorizon() throws ParseException {
+        final DataSetParser p = ParsePlanningHorizonTest.parse("validParserInput4.txt");
+        Assert.assertNull(p.getHorizon());
+        Assert.assertEquals(3, Integer.parseInt(p.getNumTrains().image));
+        Assert.assertEquals(1, p.getMows().size());
+    }
+
+}
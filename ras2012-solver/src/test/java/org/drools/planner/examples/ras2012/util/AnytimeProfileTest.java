@@ -0,0 +1,68 @@
+package org.drools.planner.examples.ras2012.util;
+
+import org.drools.planner.core.score.buildin.hardandsoft.DefaultHardAndSoftScore;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AnytimeProfileTest {
+
+    private final AnytimeProfile profile = new AnytimeProfile();
+
+    @Test
+    public void testBestScoreAt() {
+        Assert.assertNull(this.profile.getBestScoreAt(1000));
+        this.profile.record(100, 10, DefaultHardAndSoftScore.valueOf(-2, -50), false);
+        this.profile.record(300, 30, DefaultHardAndSoftScore.valueOf(0, -80), false);
+        Assert.assertNull(this.profile.getBestScoreAt(99));
+        Assert.assertEquals(DefaultHardAndSoftScore.valueOf(-2, -50),
+                this.profile.getBestScoreAt(100));
+        Assert.assertEquals(DefaultHardAndSoftScore.valueOf(-2, -50),
+                this.profile.getBestScoreAt(299));
+        Assert.assertEquals(DefaultHardAndSoftScore.valueOf(0, -80),
+                this.profile.getBestScoreAt(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testGrowsBeyondInitialCapacity() {
+        for (int i = 0; i < 1000; i++) {
+            this.profile.record(i, i * 10, DefaultHardAndSoftScore.valueOf(0, -i), false);
+        }
+        Assert.assertEquals(1000, this.profile.size());
+        Assert.assertEquals(0, this.profile.getElapsedMillis(0));
+        Assert.assertEquals(999, this.profile.getElapsedMillis(999));
+        Assert.assertEquals(9990, this.profile.getEvaluatedMoves(999));
+        Assert.assertEquals(-999, this.profile.getSoftScore(999));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoSuchSample() {
+        this.profile.record(100, 10, DefaultHardAndSoftScore.valueOf(0, -50), false);
+        this.profile.getHardScore(1);
+    }
+
+    @Test
+    public void testSampledOnlyOnChange() {
+        this.profile.record(100, 10, null, false);
+        Assert.assertEquals("No best score, no sample.", 0, this.profile.size());
+        this.profile.record(100, 10, DefaultHardAndSoftScore.valueOf(0, -50), false);
+        this.profile.record(200, 20, DefaultHardAndSoftScore.valueOf(0, -50), false);
+        Assert.assertEquals(1, this.profile.size());
+        // the final sample is taken regardless
+        this.profile.record(300, 30, DefaultHardAndSoftScore.valueOf(0, -50), true);
+        Assert.assertEquals(2, this.profile.size());
+        Assert.assertEquals(300, this.profile.getElapsedMillis(1));
+        Assert.assertEquals(30, this.profile.getEvaluatedMoves(1));
+        Assert.assertEquals(0, this.profile.getHardScore(1));
+        Assert.assertEquals(-50, this.profile.getSoftScore(1));
+    }
+
+    @Test
+    public void testTimeToFeasibility() {
+        this.profile.record(100, 10, DefaultHardAndSoftScore.valueOf(-2, -50), false);
+        Assert.assertEquals(-1, this.profile.getTimeToFeasibility());
+        this.profile.record(200, 20, DefaultHardAndSoftScore.valueOf(0, -90), false);
+        this.profile.record(300, 30, DefaultHardAndSoftScore.valueOf(0, -80), false);
+        Assert.assertEquals(200, this.profile.getTimeToFeasibility());
+    }
+
+}
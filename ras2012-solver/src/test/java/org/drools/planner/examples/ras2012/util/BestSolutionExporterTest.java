@@ -0,0 +1,138 @@
+package org.drools.planner.examples.ras2012.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Collections;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.drools.planner.examples.ras2012.SyntheticProblem;
+import org.drools.planner.examples.ras2012.model.MaintenanceWindow;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BestSolutionExporterTest {
+
+    /**
+     * Stream that holds the first write until it is released, so that solutions can pile up in the meantime.
+     */
+    private static final class BlockingStream extends ByteArrayOutputStream {
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        public void awaitWriting() throws InterruptedException {
+            Assert.assertTrue("Nothing is being written.", this.writing.await(10, TimeUnit.SECONDS));
+        }
+
+        public void release() {
+            this.release.countDown();
+        }
+
+        @Override
+        public synchronized void write(final byte[] b, final int off, final int len) {
+            this.writing.countDown();
+            try {
+                this.release.await();
+            } catch (final InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            super.write(b, off, len);
+        }
+
+    }
+
+    private static final File      DIRECTORY = new File("data/tests/"
+                                                     + BestSolutionExporterTest.class.getName());
+
+    private static String read(final File f) throws FileNotFoundException {
+        try (Scanner s = new Scanner(f)) {
+            return s.useDelimiter("\\A").next();
+        }
+    }
+
+    private final SyntheticProblem problem   = new SyntheticProblem();
+
+    private ProblemSolution createSolution(final String name) {
+        return new ProblemSolution(name, Collections.<Train> emptyList(),
+                this.problem.getTerritory(), Collections.<MaintenanceWindow> emptyList());
+    }
+
+    @Before
+    public void deleteFiles() {
+        if (!BestSolutionExporterTest.DIRECTORY.exists()) {
+            return;
+        }
+        for (final File f : BestSolutionExporterTest.DIRECTORY.listFiles()) {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void testCoalescing() throws InterruptedException {
+        final BlockingStream stream = new BlockingStream();
+        final BestSolutionExporter exporter = new BestSolutionExporter(stream);
+        exporter.export(this.createSolution("FIRST"));
+        stream.awaitWriting();
+        // while the first solution is being written, the second is replaced by the third
+        exporter.export(this.createSolution("SECOND"));
+        exporter.export(this.createSolution("THIRD"));
+        stream.release();
+        exporter.close();
+        final String written = stream.toString();
+        Assert.assertTrue(written.contains("'FIRST'"));
+        Assert.assertFalse(written.contains("'SECOND'"));
+        Assert.assertTrue(written.contains("'THIRD'"));
+        Assert.assertTrue(written.indexOf("'FIRST'") < written.indexOf("'THIRD'"));
+    }
+
+    @Test
+    public void testFileReplacedAtomically() throws FileNotFoundException {
+        final File target = new File(BestSolutionExporterTest.DIRECTORY, "TEST-best-0.xml");
+        BestSolutionExporter exporter = new BestSolutionExporter(
+                BestSolutionExporterTest.DIRECTORY, "TEST", 1);
+        exporter.export(this.createSolution("FIRST"));
+        exporter.close();
+        Assert.assertTrue(BestSolutionExporterTest.read(target).contains("'FIRST'"));
+        // the only file in the rotation is replaced, and no temporary file is left behind
+        exporter = new BestSolutionExporter(BestSolutionExporterTest.DIRECTORY, "TEST", 1);
+        exporter.export(this.createSolution("SECOND"));
+        exporter.close();
+        Assert.assertTrue(BestSolutionExporterTest.read(target).contains("'SECOND'"));
+        Assert.assertArrayEquals(new File[] { target },
+                BestSolutionExporterTest.DIRECTORY.listFiles());
+    }
+
+    @Test
+    public void testRotation() throws FileNotFoundException, InterruptedException {
+        final BestSolutionExporter exporter = new BestSolutionExporter(
+                BestSolutionExporterTest.DIRECTORY, "TEST", 2);
+        final String[] names = new String[] { "FIRST", "SECOND", "THIRD" };
+        for (int i = 0; i < names.length; i++) {
+            exporter.export(this.createSolution(names[i]));
+            // wait for the write, so that no solution is skipped
+            final File f = new File(BestSolutionExporterTest.DIRECTORY, "TEST-best-" + i % 2
+                    + ".xml");
+            for (int attempt = 0; attempt < 100; attempt++) {
+                if (f.exists() && BestSolutionExporterTest.read(f).contains(names[i])) {
+                    break;
+                }
+                Thread.sleep(100);
+            }
+        }
+        exporter.close();
+        Assert.assertEquals(2, BestSolutionExporterTest.DIRECTORY.listFiles().length);
+        Assert.assertTrue(BestSolutionExporterTest.read(
+                new File(BestSolutionExporterTest.DIRECTORY, "TEST-best-0.xml")).contains(
+                "'THIRD'"));
+        Assert.assertTrue(BestSolutionExporterTest.read(
+                new File(BestSolutionExporterTest.DIRECTORY, "TEST-best-1.xml")).contains(
+                "'SECOND'"));
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.drools.planner.examples.ras2012.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.drools.planner.core.score.buildin.hardandsoft.DefaultHardAndSoftScore;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChartTest {
+
+    /**
+     * Create profiles of runs that became feasible at the given times, with the cost equal to the time.
+     * 
+     * @param times When each of the runs became feasible. Negative if never.
+     * @return The profiles.
+     */
+    private static List<AnytimeProfile> getProfiles(final int... times) {
+        final List<AnytimeProfile> profiles = new ArrayList<>();
+        for (final int time : times) {
+            final AnytimeProfile profile = new AnytimeProfile();
+            profile.record(0, 0, DefaultHardAndSoftScore.valueOf(-1, 0), false);
+            if (time >= 0) {
+                profile.record(time, 0, DefaultHardAndSoftScore.valueOf(0, -time), false);
+            }
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    @Test
+    public void testMedianCostCountsInfeasibleRuns() {
+        // the feasible runs alone would have a median of 20
+        Assert.assertEquals(30, Chart.getMedianCost(ChartTest.getProfiles(10, 20, 30, -1, -1),
+                1000));
+        // the median index lands on an infeasible run
+        Assert.assertEquals(-1, Chart.getMedianCost(ChartTest.getProfiles(10, 20, -1, -1), 1000));
+        Assert.assertEquals(-1, Chart.getMedianCost(ChartTest.getProfiles(-1, -1), 1000));
+    }
+
+    @Test
+    public void testMedianCostInTime() {
+        final List<AnytimeProfile> profiles = ChartTest.getProfiles(10, 20, 30);
+        // at that time, only one run is feasible
+        Assert.assertEquals(-1, Chart.getMedianCost(profiles, 15));
+        Assert.assertEquals(20, Chart.getMedianCost(profiles, 25));
+        Assert.assertEquals(20, Chart.getMedianCost(profiles, 1000));
+        Assert.assertEquals(-1,
+                Chart.getMedianCost(Collections.<AnytimeProfile> emptyList(), 1000));
+    }
+
+    @Test
+    public void testMedianTimeToFeasibility() {
+        Assert.assertEquals(20, Chart.getMedianTimeToFeasibility(ChartTest.getProfiles(30, 10,
+                20)));
+        // the feasible runs alone would have a median of 20
+        Assert.assertEquals(30,
+                Chart.getMedianTimeToFeasibility(ChartTest.getProfiles(10, 20, 30, -1, -1)));
+        Assert.assertEquals(-1,
+                Chart.getMedianTimeToFeasibility(ChartTest.getProfiles(10, 20, -1, -1)));
+        Assert.assertEquals(-1,
+                Chart.getMedianTimeToFeasibility(Collections.<AnytimeProfile> emptyList()));
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.drools.planner.examples.ras2012.util;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FenwickTreeTest {
+
+    @Test
+    public void testFind() {
+        final FenwickTree tree = new FenwickTree(5);
+        tree.setWeight(0, 2);
+        tree.setWeight(2, 3);
+        tree.setWeight(4, 1);
+        Assert.assertEquals(6, tree.getTotal());
+        // items with the weight of 0 are never found
+        Assert.assertEquals(0, tree.find(0));
+        Assert.assertEquals(0, tree.find(1));
+        Assert.assertEquals(2, tree.find(2));
+        Assert.assertEquals(2, tree.find(4));
+        Assert.assertEquals(4, tree.find(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindOutOfRange() {
+        final FenwickTree tree = new FenwickTree(3);
+        tree.setWeight(1, 4);
+        tree.find(4);
+    }
+
+    @Test
+    public void testPick() {
+        final FenwickTree tree = new FenwickTree(3);
+        Assert.assertEquals(-1, tree.pick(new Random(0)));
+        tree.setWeight(1, 10);
+        final Random random = new Random(0);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(1, tree.pick(random));
+        }
+    }
+
+    @Test
+    public void testSetWeight() {
+        final FenwickTree tree = new FenwickTree(7);
+        for (int i = 0; i < tree.size(); i++) {
+            tree.setWeight(i, i + 1);
+        }
+        Assert.assertEquals(28, tree.getTotal());
+        tree.setWeight(3, 0);
+        tree.setWeight(6, 10);
+        Assert.assertEquals(0, tree.getWeight(3));
+        Assert.assertEquals(27, tree.getTotal());
+        // cumulative weights are now 1, 3, 6, 6, 11, 17, 27
+        Assert.assertEquals(2, tree.find(5));
+        Assert.assertEquals(4, tree.find(6));
+        Assert.assertEquals(6, tree.find(17));
+        Assert.assertEquals(6, tree.find(26));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetWeightNegative() {
+        new FenwickTree(1).setWeight(0, -1);
+    }
+
+}
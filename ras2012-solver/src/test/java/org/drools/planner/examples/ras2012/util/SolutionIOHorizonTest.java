@@ -0,0 +1,54 @@
+package org.drools.planner.examples.ras2012.util;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.drools.planner.examples.ras2012.ProblemSolution;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SolutionIOHorizonTest {
+
+    private static final File TOY  = new File(
+                                           "src/main/resources/org/drools/planner/examples/ras2012/TOY.txt");
+    private static final File RDS1 = new File(
+                                           "src/main/resources/org/drools/planner/examples/ras2012/RDS1.txt");
+
+    @Test
+    public void testDefaultHorizon() {
+        final ProblemSolution rds1 = new SolutionIO().read(SolutionIOHorizonTest.RDS1);
+        Assert.assertEquals(ProblemSolution.DEFAULT_PLANNING_HORIZON,
+                rds1.getPlanningHorizon(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testHorizonFromDataSet() {
+        final ProblemSolution toy = new SolutionIO().read(SolutionIOHorizonTest.TOY);
+        Assert.assertEquals(150, toy.getPlanningHorizon(TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testHorizonNotOverridden() {
+        final SolutionIO io = new SolutionIO(0, 0, TimeUnit.MINUTES);
+        Assert.assertEquals(150,
+                io.read(SolutionIOHorizonTest.TOY).getPlanningHorizon(TimeUnit.MINUTES));
+        Assert.assertEquals(ProblemSolution.DEFAULT_PLANNING_HORIZON,
+                io.read(SolutionIOHorizonTest.RDS1).getPlanningHorizon(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testHorizonOverride() {
+        final SolutionIO io = new SolutionIO(0, 200, TimeUnit.MINUTES);
+        // overrides both the horizon from the data set and the default
+        Assert.assertEquals(200,
+                io.read(SolutionIOHorizonTest.TOY).getPlanningHorizon(TimeUnit.MINUTES));
+        Assert.assertEquals(200,
+                io.read(SolutionIOHorizonTest.RDS1).getPlanningHorizon(TimeUnit.MINUTES));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeHorizon() {
+        new SolutionIO(0, -1, TimeUnit.MINUTES);
+    }
+
+}
@@ -10,6 +10,7 @@ import java.util.List;
 
 import org.drools.planner.examples.ras2012.model.Arc;
 import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.NodeTable;
 import org.drools.planner.examples.ras2012.model.Route;
 import org.drools.planner.examples.ras2012.model.Route.Builder;
 import org.drools.planner.examples.ras2012.model.Track;
@@ -22,6 +23,8 @@ import org.junit.runners.Parameterized.Parameters;
 @RunWith(Parameterized.class)
 public class ArcProgressionTest {
 
+    private final NodeTable nodes = new NodeTable();
+
     private static int factorial(final int i) {
         if (i == 0) {
             return 1;
@@ -53,10 +56,10 @@ public class ArcProgressionTest {
 
     @Test
     public void testConstructor() {
-        final Arc a = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(0), Node.getNode(1));
-        final Arc b = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(1), Node.getNode(2));
-        final Arc c = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(2), Node.getNode(3));
-        final Arc d = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(3), Node.getNode(4));
+        final Arc a = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(0), this.nodes.getNode(1));
+        final Arc b = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(1), this.nodes.getNode(2));
+        final Arc c = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(2), this.nodes.getNode(3));
+        final Arc d = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(3), this.nodes.getNode(4));
         final List<Arc> arcs = Arrays.asList(new Arc[] { a, b, c, d });
         final List<Arc> eastboundOrdering = Arrays.asList(new Arc[] { a, b, c, d });
         final List<Arc> westboundOrdering = Arrays.asList(new Arc[] { d, c, b, a });
@@ -72,8 +75,8 @@ public class ArcProgressionTest {
             Assert.assertEquals(this.route.isEastbound() ? eastboundOrdering : westboundOrdering,
                     progression.getArcs());
             // validate nodes
-            final List<Node> nodes = Arrays.asList(new Node[] { Node.getNode(0), Node.getNode(1),
-                    Node.getNode(2), Node.getNode(3), Node.getNode(4) });
+            final List<Node> nodes = Arrays.asList(new Node[] { this.nodes.getNode(0), this.nodes.getNode(1),
+                    this.nodes.getNode(2), this.nodes.getNode(3), this.nodes.getNode(4) });
             if (this.route.isWestbound()) {
                 Collections.reverse(nodes);
             }
@@ -83,8 +86,8 @@ public class ArcProgressionTest {
 
     @Test
     public void testContains() {
-        final Arc arc = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(0), Node.getNode(1));
-        final Arc arc2 = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(1), Node.getNode(2));
+        final Arc arc = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(0), this.nodes.getNode(1));
+        final Arc arc2 = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(1), this.nodes.getNode(2));
         Route r = this.route;
         Assert.assertFalse("Empty collection shouldn't contain the arc.", r.getProgression()
                 .contains(arc));
@@ -98,9 +101,9 @@ public class ArcProgressionTest {
     @Test
     public void testGetNextAndPrevious() {
         // prepare data
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
-        final Node n3 = Node.getNode(2);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
+        final Node n3 = this.nodes.getNode(2);
         final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, n1, n2);
         final Arc a2 = new Arc(Track.MAIN_0, BigDecimal.ONE, n2, n3);
         // validate
@@ -125,15 +128,15 @@ public class ArcProgressionTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testGetNextEmptyRoute() {
-        final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(0), Node.getNode(1));
+        final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(0), this.nodes.getNode(1));
         final Route r = this.route;
         r.getProgression().getNextArc(a1);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testGetNextInvalid() {
-        final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(0), Node.getNode(1));
-        final Arc a2 = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(1), Node.getNode(2));
+        final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(0), this.nodes.getNode(1));
+        final Arc a2 = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(1), this.nodes.getNode(2));
         final Route r = this.builder.add(a1).build();
         r.getProgression().getNextArc(a2);
     }
@@ -141,9 +144,9 @@ public class ArcProgressionTest {
     @Test
     public void testGetNextNull() {
         // prepare data
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
-        final Node n3 = Node.getNode(2);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
+        final Node n3 = this.nodes.getNode(2);
         final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, n1, n2);
         final Arc a2 = new Arc(Track.MAIN_0, BigDecimal.ONE, n2, n3);
         // validate
@@ -164,10 +167,10 @@ public class ArcProgressionTest {
 
     @Test
     public void testGetOriginAndDestination() {
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
-        final Node n3 = Node.getNode(2);
-        final Node n4 = Node.getNode(3);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
+        final Node n3 = this.nodes.getNode(2);
+        final Node n4 = this.nodes.getNode(3);
         final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, n1, n2);
         final Arc a2 = new Arc(Track.MAIN_0, BigDecimal.ONE, n2, n3);
         final Arc a3 = new Arc(Track.MAIN_0, BigDecimal.ONE, n3, n4);
@@ -198,15 +201,15 @@ public class ArcProgressionTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testGetPreviousEmptyRoute() {
-        final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(0), Node.getNode(1));
+        final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(0), this.nodes.getNode(1));
         final Route r = this.route;
         r.getProgression().getPreviousArc(a1);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testGetPreviousInvalid() {
-        final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(0), Node.getNode(1));
-        final Arc a2 = new Arc(Track.MAIN_0, BigDecimal.ONE, Node.getNode(1), Node.getNode(2));
+        final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(0), this.nodes.getNode(1));
+        final Arc a2 = new Arc(Track.MAIN_0, BigDecimal.ONE, this.nodes.getNode(1), this.nodes.getNode(2));
         final Route r = this.builder.add(a1).build();
         r.getProgression().getPreviousArc(a2);
     }
@@ -214,9 +217,9 @@ public class ArcProgressionTest {
     @Test
     public void testGetPreviousNull() {
         // prepare data
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
-        final Node n3 = Node.getNode(2);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
+        final Node n3 = this.nodes.getNode(2);
         final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, n1, n2);
         final Arc a2 = new Arc(Track.MAIN_0, BigDecimal.ONE, n2, n3);
         // validate
@@ -237,10 +240,10 @@ public class ArcProgressionTest {
 
     @Test
     public void testGetWaitPointsOnCrossovers() {
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
-        final Node n3 = Node.getNode(2);
-        final Node n4 = Node.getNode(3);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
+        final Node n3 = this.nodes.getNode(2);
+        final Node n4 = this.nodes.getNode(3);
         final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, n1, n2);
         final Arc a2 = new Arc(Track.CROSSOVER, BigDecimal.ONE, n2, n3);
         final Arc a3 = new Arc(Track.MAIN_0, BigDecimal.ONE, n3, n4);
@@ -254,10 +257,10 @@ public class ArcProgressionTest {
 
     @Test
     public void testGetWaitPointsOnMainTracks() {
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
-        final Node n3 = Node.getNode(2);
-        final Node n4 = Node.getNode(3);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
+        final Node n3 = this.nodes.getNode(2);
+        final Node n4 = this.nodes.getNode(3);
         final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, n1, n2);
         final Arc a2 = new Arc(Track.MAIN_1, BigDecimal.ONE, n2, n3);
         final Arc a3 = new Arc(Track.MAIN_2, BigDecimal.ONE, n3, n4);
@@ -271,10 +274,10 @@ public class ArcProgressionTest {
 
     @Test
     public void testGetWaitPointsOnSiding() {
-        final Node n1 = Node.getNode(0);
-        final Node n2 = Node.getNode(1);
-        final Node n3 = Node.getNode(2);
-        final Node n4 = Node.getNode(3);
+        final Node n1 = this.nodes.getNode(0);
+        final Node n2 = this.nodes.getNode(1);
+        final Node n3 = this.nodes.getNode(2);
+        final Node n4 = this.nodes.getNode(3);
         final Arc a1 = new Arc(Track.MAIN_0, BigDecimal.ONE, n1, n2);
         final Arc a2 = new Arc(Track.SIDING, BigDecimal.ONE, n2, n3);
         final Arc a3 = new Arc(Track.MAIN_0, BigDecimal.ONE, n3, n4);
@@ -0,0 +1,157 @@
+package org.drools.planner.examples.ras2012.util.model;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.drools.planner.examples.ras2012.model.Arc;
+import org.drools.planner.examples.ras2012.model.Node;
+import org.drools.planner.examples.ras2012.model.NodeTable;
+import org.drools.planner.examples.ras2012.model.Route;
+import org.drools.planner.examples.ras2012.model.SpeedProfile;
+import org.drools.planner.examples.ras2012.model.Track;
+import org.drools.planner.examples.ras2012.model.Train;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TerritoryTest {
+
+    private static final SpeedProfile SPEEDS = new SpeedProfile.Builder()
+                                                     .setSpeed(Track.MAIN_0, 100, 50)
+                                                     .setSpeed(Track.MAIN_1, 85, 75)
+                                                     .setSpeed(Track.MAIN_2, 110, 95)
+                                                     .setSpeed(Track.SIDING, 25)
+                                                     .setSpeed(Track.SWITCH, 35)
+                                                     .setSpeed(Track.CROSSOVER, 45).build();
+
+    private final NodeTable           nodes  = new NodeTable();
+
+    private final Node                n0     = this.nodes.getNode(0);
+    private final Node                n1     = this.nodes.getNode(1);
+    private final Node                n2     = this.nodes.getNode(2);
+    private final Node                n3     = this.nodes.getNode(3);
+    private final Node                n4     = this.nodes.getNode(4);
+    private final Node                n5     = this.nodes.getNode(5);
+    private final Node                n6     = this.nodes.getNode(6);
+
+    private final Train               train  = new Train("A1", BigDecimal.ONE, BigDecimal.ONE,
+                                                     90, this.n0, this.n4, 0, 0, 0, null,
+                                                     false, false, TerritoryTest.SPEEDS);
+
+    private Territory getTerritory(final int routeBudget) {
+        return this.getTerritory(routeBudget, 3);
+    }
+
+    /**
+     * Two eastbound routes; one on the main track, the other one through a siding and a switch.
+     * 
+     * @param routeBudget Route budget for the territory.
+     * @param mainTrackLength Length of the main track that the siding bypasses.
+     * @return The territory.
+     */
+    private Territory getTerritory(final int routeBudget, final int mainTrackLength) {
+        final Collection<Arc> arcs = Arrays.asList(new Arc[] {
+                new Arc(Track.MAIN_0, BigDecimal.ONE, this.n0, this.n1),
+                new Arc(Track.MAIN_0, BigDecimal.valueOf(mainTrackLength), this.n1, this.n2),
+                new Arc(Track.SIDING, BigDecimal.ONE, this.n1, this.n3),
+                new Arc(Track.SWITCH, BigDecimal.ONE, this.n3, this.n2),
+                new Arc(Track.MAIN_0, BigDecimal.ONE, this.n2, this.n4) });
+        return new Territory(this.nodes, arcs, TerritoryTest.SPEEDS, routeBudget);
+    }
+
+    @Test
+    public void testCandidateRoutesWithBudget() {
+        final Territory t = this.getTerritory(1);
+        Assert.assertEquals(1, t.getRouteBudget());
+        Assert.assertEquals("Budget must not affect the possible routes.", 2,
+                t.getRoutes(this.train).size());
+        final Collection<Route> candidates = t.getCandidateRoutes(this.train);
+        Assert.assertEquals(1, candidates.size());
+        final Route best = candidates.iterator().next();
+        Assert.assertSame(best, t.getBestRoute(this.train));
+        Assert.assertEquals(0, best.getNumberOfSidings());
+    }
+
+    @Test
+    public void testCandidateRoutesWithinTrainSegment() {
+        /*
+         * the main track from node 0 to node 5 is bypassed twice; between nodes 1 and 2 by a long and slow siding, between
+         * nodes 4 and 5 by a short one
+         */
+        final Collection<Arc> arcs = Arrays.asList(new Arc[] {
+                new Arc(Track.MAIN_0, BigDecimal.ONE, this.n0, this.n1),
+                new Arc(Track.MAIN_0, BigDecimal.ONE, this.n1, this.n2),
+                new Arc(Track.SIDING, BigDecimal.valueOf(3), this.n1, this.n3),
+                new Arc(Track.SWITCH, BigDecimal.ONE, this.n3, this.n2),
+                new Arc(Track.MAIN_0, BigDecimal.ONE, this.n2, this.n4),
+                new Arc(Track.MAIN_0, BigDecimal.valueOf(3), this.n4, this.n5),
+                new Arc(Track.SIDING, BigDecimal.ONE, this.n4, this.n6),
+                new Arc(Track.SWITCH, BigDecimal.ONE, this.n6, this.n5) });
+        final Territory t = new Territory(this.nodes, arcs, TerritoryTest.SPEEDS, 2);
+        // the train only travels from node 1 to node 4, so the second siding makes no difference
+        final Train interiorTrain = new Train("A2", BigDecimal.ONE, BigDecimal.ONE, 90, this.n1,
+                this.n4, 0, 0, 0, null, false, false, TerritoryTest.SPEEDS);
+        Assert.assertEquals(4, t.getRoutes(interiorTrain).size());
+        final Collection<Route> candidates = t.getCandidateRoutes(interiorTrain);
+        Assert.assertEquals(2, candidates.size());
+        final Iterator<Route> it = candidates.iterator();
+        Assert.assertFalse(it.next().getProgression().getNodes().contains(this.n3));
+        Assert.assertTrue(it.next().getProgression().getNodes().contains(this.n3));
+    }
+
+    @Test
+    public void testCandidateRoutesWithoutBudget() {
+        final Territory t = this.getTerritory(0);
+        final Collection<Route> candidates = t.getCandidateRoutes(this.train);
+        Assert.assertEquals(t.getRoutes(this.train).size(), candidates.size());
+        final Iterator<Route> it = candidates.iterator();
+        final Route best = it.next();
+        final Route worst = it.next();
+        Assert.assertSame(best, t.getBestRoute(this.train));
+        Assert.assertEquals(0, best.getNumberOfSidings());
+        Assert.assertEquals(1, worst.getNumberOfSidings());
+        Assert.assertSame("Candidate routes should be cached.", candidates,
+                t.getCandidateRoutes(this.train));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeBudget() {
+        this.getTerritory(-1);
+    }
+
+    @Test
+    public void testShortestRoute() {
+        final Territory t = this.getTerritory(0);
+        final Route r = t.getShortestRoute(this.train);
+        Assert.assertSame(t.getBestRoute(this.train), r);
+        Assert.assertTrue(t.isCandidateRoute(this.train, r));
+        // when the main track is long enough, the siding becomes cheaper even though it is penalized
+        final Territory t2 = this.getTerritory(0, 20);
+        Assert.assertEquals(1, t2.getShortestRoute(this.train).getNumberOfSidings());
+        // but heavy trains must never take it
+        final Train heavyTrain = new Train("A2", BigDecimal.ONE, BigDecimal.ONE, 120, this.n0,
+                this.n4, 0, 0, 0, null, false, false, TerritoryTest.SPEEDS);
+        Assert.assertEquals(0, t2.getShortestRoute(heavyTrain).getNumberOfSidings());
+        // and trains from the other direction get a route in their direction
+        final Train westboundTrain = new Train("A3", BigDecimal.ONE, BigDecimal.ONE, 90, this.n4,
+                this.n0, 0, 0, 0, null, false, true, TerritoryTest.SPEEDS);
+        final Route westboundRoute = t2.getShortestRoute(westboundTrain);
+        Assert.assertTrue(westboundRoute.isWestbound());
+        Assert.assertTrue(t2.getRoutes(westboundTrain).contains(westboundRoute));
+    }
+
+    @Test
+    public void testRouteRankingConsistentWithEquals() {
+        final Territory t = this.getTerritory(0);
+        final RouteRanking ranking = new RouteRanking(this.train);
+        final Iterator<Route> it = t.getRoutes(this.train).iterator();
+        final Route r1 = it.next();
+        final Route r2 = it.next();
+        Assert.assertEquals(0, ranking.compare(r1, r1));
+        Assert.assertTrue(ranking.compare(r1, r2) != 0);
+        Assert.assertEquals(Integer.signum(ranking.compare(r1, r2)),
+                -Integer.signum(ranking.compare(r2, r1)));
+    }
+
+}